@@ -0,0 +1,66 @@
+package org.sagebionetworks.client;
+
+import java.io.InterruptedIOException;
+
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.DefaultClock;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * Limits the combined rate of all of the threads that send bytes through a
+ * single throttle. Each caller reserves the next time slot for its bytes and
+ * then waits until the slot starts.
+ *
+ */
+class BandwidthThrottle {
+
+	private final long maxBytesPerSecond;
+	private final Clock clock;
+	/**
+	 * The time (MS) when the next bytes may be sent. Fractional so small
+	 * reservations at a high rate are not rounded away.
+	 */
+	private double nextAvailableMS;
+
+	/**
+	 *
+	 * @param maxBytesPerSecond Zero or less disables the limit.
+	 */
+	BandwidthThrottle(long maxBytesPerSecond) {
+		this(maxBytesPerSecond, new DefaultClock());
+	}
+
+	BandwidthThrottle(long maxBytesPerSecond, Clock clock) {
+		ValidateArgument.required(clock, "clock");
+		this.maxBytesPerSecond = maxBytesPerSecond;
+		this.clock = clock;
+		this.nextAvailableMS = 0;
+	}
+
+	/**
+	 * Block until the given number of bytes may be sent.
+	 *
+	 * @param byteCount
+	 * @throws InterruptedIOException
+	 */
+	void acquire(int byteCount) throws InterruptedIOException {
+		if (maxBytesPerSecond <= 0) {
+			return;
+		}
+		long waitMS;
+		synchronized (this) {
+			long now = clock.currentTimeMillis();
+			double start = Math.max(now, nextAvailableMS);
+			nextAvailableMS = start + (byteCount * 1000.0) / maxBytesPerSecond;
+			waitMS = (long) (start - now);
+		}
+		if (waitMS > 0) {
+			try {
+				clock.sleep(waitMS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for upload bandwidth");
+			}
+		}
+	}
+}
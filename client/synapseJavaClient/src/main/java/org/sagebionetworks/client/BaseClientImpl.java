@@ -379,9 +379,43 @@ public class BaseClientImpl implements BaseClient {
 		}
 	}
 
+	/**
+	 * Put the given stream to the given URL.
+	 *
+	 * @param url
+	 * @param input
+	 * @param contentLength The number of bytes that will be read from the stream.
+	 * @param contentType
+	 * @return
+	 * @throws SynapseException
+	 */
+	protected String putStreamToURL(URL url, InputStream input, long contentLength, String contentType) throws SynapseException {
+		ValidateArgument.required(url, "url");
+		ValidateArgument.required(input, "input");
+		ValidateArgument.required(contentType, "contentType");
+		SimpleHttpRequest request = new SimpleHttpRequest();
+		request.setUri(url.toString());
+		Map<String, String> headers = new HashMap<String, String>();
+		headers.put(HTTP.CONTENT_TYPE, contentType);
+		request.setHeaders(headers);
+		try {
+			SimpleHttpResponse response = simpleHttpClient.putToURL(request, input, contentLength);
+			if (!ClientUtils.is200sStatusCode(response.getStatusCode())) {
+				throw new UnknownSynapseServerException(response.getStatusCode(),
+						response.getStatusReason()
+						+ " for " + url);
+			}
+			return response.getContent();
+		} catch (ClientProtocolException e) {
+			throw new SynapseClientException(e);
+		} catch (IOException e) {
+			throw new SynapseClientException(e);
+		}
+	}
+
 	/**
 	 * Download the file at the given URL.
-	 * 
+	 *
 	 * @deprecated - should only being used for downloading wiki markdown,
 	 *  and should be removed when a new way of getting markdown is implemented.
 	 * @category Upload & Download
@@ -0,0 +1,86 @@
+package org.sagebionetworks.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * An InputStream over a single region of a file. Bytes are read with
+ * positional reads on a FileChannel that is shared by all of the regions of the
+ * file, so the regions can be read at the same time without copying them to
+ * temporary files. Closing this stream does not close the channel.
+ *
+ */
+class FileRegionInputStream extends InputStream {
+
+	private final FileChannel channel;
+	private final long end;
+	private final BandwidthThrottle throttle;
+	private long position;
+
+	/**
+	 *
+	 * @param channel
+	 * @param offset   The position of the first byte of the region in the file.
+	 * @param length   The number of bytes in the region.
+	 * @param throttle Every read waits for this throttle.
+	 */
+	FileRegionInputStream(FileChannel channel, long offset, long length, BandwidthThrottle throttle) {
+		ValidateArgument.required(channel, "channel");
+		ValidateArgument.required(throttle, "throttle");
+		ValidateArgument.requirement(offset >= 0, "offset cannot be negative");
+		ValidateArgument.requirement(length >= 0, "length cannot be negative");
+		this.channel = channel;
+		this.position = offset;
+		this.end = offset + length;
+		this.throttle = throttle;
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] single = new byte[1];
+		int count = read(single, 0, 1);
+		if (count < 0) {
+			return -1;
+		}
+		return single[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) throws IOException {
+		if (length == 0) {
+			return 0;
+		}
+		long remaining = end - position;
+		if (remaining <= 0) {
+			return -1;
+		}
+		int toRead = (int) Math.min(length, remaining);
+		throttle.acquire(toRead);
+		int count = channel.read(ByteBuffer.wrap(bytes, offset, toRead), position);
+		if (count < 0) {
+			throw new EOFException("The file ended before the end of the region at: " + end);
+		}
+		position += count;
+		return count;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n <= 0) {
+			return 0;
+		}
+		long skipped = Math.min(n, end - position);
+		position += skipped;
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int) Math.min(Integer.MAX_VALUE, end - position);
+	}
+}
@@ -0,0 +1,371 @@
+package org.sagebionetworks.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.http.HttpStatus;
+import org.sagebionetworks.client.exceptions.SynapseClientException;
+import org.sagebionetworks.client.exceptions.SynapseException;
+import org.sagebionetworks.client.exceptions.UnknownSynapseServerException;
+import org.sagebionetworks.repo.model.file.AddPartResponse;
+import org.sagebionetworks.repo.model.file.AddPartState;
+import org.sagebionetworks.repo.model.file.BatchPresignedUploadUrlRequest;
+import org.sagebionetworks.repo.model.file.BatchPresignedUploadUrlResponse;
+import org.sagebionetworks.repo.model.file.CloudProviderFileHandleInterface;
+import org.sagebionetworks.repo.model.file.MultipartUploadRequest;
+import org.sagebionetworks.repo.model.file.MultipartUploadStatus;
+import org.sagebionetworks.repo.model.file.PartPresignedUrl;
+import org.sagebionetworks.repo.model.file.PartUtils;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * Multi-part upload of a local file. Unlike {@link MultipartUpload}, each part
+ * is read directly from its region of the file so no temporary copy of the
+ * parts is created. Pre-signed URLs are requested in batches and the parts are
+ * uploaded concurrently. An upload that was already started for the same file
+ * is resumed by only uploading the parts that are missing from the part state
+ * of the upload.
+ *
+ */
+public class ParallelMultipartUpload {
+
+	/**
+	 * The default number of parts uploaded at the same time.
+	 */
+	public static final int DEFAULT_PARALLELISM = 4;
+	/**
+	 * The maximum number of pre-signed URLs requested at a time. Each URL expires
+	 * after 15 minutes, so a batch is only requested shortly before its parts
+	 * are uploaded. A part whose URL expired before it was uploaded is retried
+	 * once with a new URL.
+	 */
+	public static final int MAX_URLS_PER_BATCH = 50;
+
+	static final int READ_BUFFER_SIZE_BYTES = 64 * 1024;
+
+	// input parameters
+	final SynapseClient client;
+	final File file;
+	final Boolean forceRestart;
+	final MultipartUploadRequest request;
+	final int parallelism;
+	final BandwidthThrottle throttle;
+
+	/**
+	 *
+	 * @param client
+	 * @param file
+	 * @param contentType
+	 * @param storageLocationId
+	 * @param generatePreview
+	 * @param forceRestart
+	 * @param parallelism       The number of parts uploaded at the same time.
+	 * @param maxBytesPerSecond The maximum combined upload rate of all of the
+	 *                          parts. Zero or less for no limit.
+	 */
+	public ParallelMultipartUpload(SynapseClient client, File file, String contentType, Long storageLocationId,
+			Boolean generatePreview, Boolean forceRestart, int parallelism, long maxBytesPerSecond) {
+		ValidateArgument.required(client, "SynapseClient");
+		ValidateArgument.required(file, "file");
+		ValidateArgument.required(contentType, "contentType");
+		ValidateArgument.requirement(parallelism > 0, "parallelism must be greater than zero");
+		this.request = new MultipartUploadRequest();
+		this.request.setFileName(file.getName());
+		this.request.setContentType(contentType);
+		this.request.setFileSizeBytes(file.length());
+		this.request.setGeneratePreview(generatePreview);
+		this.request.setStorageLocationId(storageLocationId);
+		this.client = client;
+		this.file = file;
+		this.forceRestart = forceRestart;
+		this.parallelism = parallelism;
+		this.throttle = new BandwidthThrottle(maxBytesPerSecond);
+	}
+
+	/**
+	 * Upload the file.
+	 *
+	 * @return
+	 * @throws SynapseException
+	 */
+	public CloudProviderFileHandleInterface uploadFile() throws SynapseException {
+		final long fileSizeBytes = request.getFileSizeBytes();
+		long partSizeBytes = PartUtils.choosePartSize(fileSizeBytes);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			List<FilePart> parts = new ArrayList<FilePart>();
+			String fileMD5Hex = calculateParts(channel, fileSizeBytes, partSizeBytes, parts);
+
+			this.request.setPartSizeBytes(partSizeBytes);
+			this.request.setContentMD5Hex(fileMD5Hex);
+			// Ready to start or resume the upload
+			MultipartUploadStatus status = client.startMultipartUpload(request, forceRestart);
+			// If the file upload is done then just return the FileHandle
+			if (status.getResultFileHandleId() != null) {
+				return (CloudProviderFileHandleInterface) client.getRawFileHandle(status.getResultFileHandleId());
+			}
+			// Add only the parts that are needed
+			uploadMissingParts(channel, status, parts);
+			// Complete the file upload
+			status = client.completeMultipartUpload(status.getUploadId());
+			return (CloudProviderFileHandleInterface) client.getRawFileHandle(status.getResultFileHandleId());
+		} catch (IOException e) {
+			throw new SynapseClientException(e);
+		}
+	}
+
+	/**
+	 * Calculate the region and MD5 of each part and the MD5 of the entire file
+	 * with a single pass over the file.
+	 *
+	 * @param channel
+	 * @param fileSizeBytes
+	 * @param partSizeBytes
+	 * @param parts         Each part is added to this list.
+	 * @return The hex MD5 of the entire file.
+	 * @throws IOException
+	 */
+	static String calculateParts(FileChannel channel, long fileSizeBytes, long partSizeBytes, List<FilePart> parts)
+			throws IOException {
+		long numberOfParts = PartUtils.calculateNumberOfParts(fileSizeBytes, partSizeBytes);
+		MessageDigest fileMD5Digest = MultipartUpload.createMD5Digest();
+		byte[] buffer = new byte[READ_BUFFER_SIZE_BYTES];
+		for (long i = 0; i < numberOfParts; i++) {
+			long offset = i * partSizeBytes;
+			long length = Math.min(partSizeBytes, fileSizeBytes - offset);
+			MessageDigest partMD5Digest = MultipartUpload.createMD5Digest();
+			long position = offset;
+			long partEnd = offset + length;
+			while (position < partEnd) {
+				int toRead = (int) Math.min(buffer.length, partEnd - position);
+				int count = channel.read(ByteBuffer.wrap(buffer, 0, toRead), position);
+				if (count < 0) {
+					throw new IOException("The file is smaller than the expected size: " + fileSizeBytes);
+				}
+				fileMD5Digest.update(buffer, 0, count);
+				partMD5Digest.update(buffer, 0, count);
+				position += count;
+			}
+			parts.add(new FilePart((int) (i + 1), offset, length, new String(Hex.encodeHex(partMD5Digest.digest()))));
+		}
+		return new String(Hex.encodeHex(fileMD5Digest.digest()));
+	}
+
+	/**
+	 * Upload each part that is missing from the part state of the given status.
+	 * The URLs of the next batch are requested while the previous batch is still
+	 * uploading so the upload threads are not idle between batches.
+	 *
+	 * @param channel
+	 * @param status
+	 * @param parts
+	 * @throws SynapseException
+	 */
+	void uploadMissingParts(FileChannel channel, MultipartUploadStatus status, List<FilePart> parts)
+			throws SynapseException {
+		List<FilePart> missingParts = getMissingParts(status.getPartsState(), parts);
+		if (missingParts.isEmpty()) {
+			return;
+		}
+		int batchSize = Math.min(MAX_URLS_PER_BATCH, parallelism * 2);
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, missingParts.size()));
+		try {
+			List<Future<Void>> previousBatch = new LinkedList<Future<Void>>();
+			for (int start = 0; start < missingParts.size(); start += batchSize) {
+				List<FilePart> batch = missingParts.subList(start, Math.min(missingParts.size(), start + batchSize));
+				Map<Integer, URL> urls = getPresignedUrls(status.getUploadId(), batch);
+				List<Future<Void>> currentBatch = new LinkedList<Future<Void>>();
+				for (FilePart part : batch) {
+					URL url = urls.get(part.getPartNumber());
+					currentBatch.add(executor.submit(() -> {
+						uploadPart(channel, status.getUploadId(), part, url);
+						return null;
+					}));
+				}
+				waitForParts(previousBatch);
+				previousBatch = currentBatch;
+			}
+			waitForParts(previousBatch);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Get the parts with a state of '0' in the given part state string.
+	 *
+	 * @param partsState
+	 * @param parts
+	 * @return
+	 */
+	static List<FilePart> getMissingParts(String partsState, List<FilePart> parts) {
+		ValidateArgument.required(partsState, "partsState");
+		ValidateArgument.requirement(partsState.length() == parts.size(),
+				"The upload has " + partsState.length() + " parts but the file has " + parts.size() + " parts");
+		List<FilePart> missingParts = new ArrayList<FilePart>();
+		for (int i = 0; i < partsState.length(); i++) {
+			if ('0' == partsState.charAt(i)) {
+				missingParts.add(parts.get(i));
+			}
+		}
+		return missingParts;
+	}
+
+	/**
+	 * Request the pre-signed URLs for a batch of parts.
+	 *
+	 * @param uploadId
+	 * @param batch
+	 * @return Map of each part number to its URL.
+	 * @throws SynapseException
+	 */
+	Map<Integer, URL> getPresignedUrls(String uploadId, List<FilePart> batch) throws SynapseException {
+		BatchPresignedUploadUrlRequest batchRequest = new BatchPresignedUploadUrlRequest();
+		batchRequest.setUploadId(uploadId);
+		batchRequest.setPartNumbers(new LinkedList<Long>());
+		for (FilePart part : batch) {
+			batchRequest.getPartNumbers().add((long) part.getPartNumber());
+		}
+		BatchPresignedUploadUrlResponse batchResponse = client.getMultipartPresignedUrlBatch(batchRequest);
+		Map<Integer, URL> urls = new HashMap<Integer, URL>(batch.size());
+		for (PartPresignedUrl partUrl : batchResponse.getPartPresignedUrls()) {
+			try {
+				urls.put(partUrl.getPartNumber().intValue(), new URL(partUrl.getUploadPresignedUrl()));
+			} catch (MalformedURLException e) {
+				throw new SynapseClientException(e);
+			}
+		}
+		for (FilePart part : batch) {
+			if (!urls.containsKey(part.getPartNumber())) {
+				throw new SynapseClientException("No pre-signed URL was returned for part: " + part.getPartNumber());
+			}
+		}
+		return urls;
+	}
+
+	/**
+	 * Upload a single part directly from its region of the file and then add it
+	 * to the upload. The URL can expire while the part waits for an upload
+	 * thread, so the part is uploaded again with a new URL if the URL is
+	 * rejected.
+	 *
+	 * @param channel
+	 * @param uploadId
+	 * @param part
+	 * @param url
+	 * @throws SynapseException
+	 * @throws IOException
+	 */
+	void uploadPart(FileChannel channel, String uploadId, FilePart part, URL url)
+			throws SynapseException, IOException {
+		try {
+			putPartToURL(channel, part, url);
+		} catch (UnknownSynapseServerException e) {
+			if (e.getStatusCode() != HttpStatus.SC_FORBIDDEN) {
+				throw e;
+			}
+			URL newUrl = getPresignedUrls(uploadId, Collections.singletonList(part)).get(part.getPartNumber());
+			putPartToURL(channel, part, newUrl);
+		}
+		AddPartResponse response = client.addPartToMultipartUpload(uploadId, part.getPartNumber(),
+				part.getPartMD5Hex());
+		if (!AddPartState.ADD_SUCCESS.equals(response.getAddPartState())) {
+			throw new SynapseClientException(
+					"Failed to add part: " + part.getPartNumber() + " " + response.getErrorMessage());
+		}
+	}
+
+	/**
+	 * Send the bytes of a single part to the given URL.
+	 *
+	 * @param channel
+	 * @param part
+	 * @param url
+	 * @throws SynapseException
+	 * @throws IOException
+	 */
+	void putPartToURL(FileChannel channel, FilePart part, URL url) throws SynapseException, IOException {
+		try (InputStream partInput = new FileRegionInputStream(channel, part.getOffset(), part.getLength(),
+				throttle)) {
+			client.putStreamToURL(url, partInput, part.getLength(), request.getContentType());
+		}
+	}
+
+	/**
+	 * Wait for each of the given parts to finish uploading.
+	 *
+	 * @param partFutures
+	 * @throws SynapseException The first failure of any part.
+	 */
+	static void waitForParts(List<Future<Void>> partFutures) throws SynapseException {
+		for (Future<Void> future : partFutures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SynapseClientException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof SynapseException) {
+					throw (SynapseException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new SynapseClientException(cause);
+			}
+		}
+	}
+
+	/**
+	 * The region and MD5 of a single part of the file.
+	 *
+	 */
+	static class FilePart {
+
+		private final int partNumber;
+		private final long offset;
+		private final long length;
+		private final String partMD5Hex;
+
+		FilePart(int partNumber, long offset, long length, String partMD5Hex) {
+			this.partNumber = partNumber;
+			this.offset = offset;
+			this.length = length;
+			this.partMD5Hex = partMD5Hex;
+		}
+
+		int getPartNumber() {
+			return partNumber;
+		}
+
+		long getOffset() {
+			return offset;
+		}
+
+		long getLength() {
+			return length;
+		}
+
+		String getPartMD5Hex() {
+			return partMD5Hex;
+		}
+	}
+}
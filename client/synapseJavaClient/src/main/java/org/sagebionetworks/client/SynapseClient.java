@@ -630,6 +630,19 @@ public interface SynapseClient extends BaseClient {
 	public String putFileToURL(URL url, File file, String contentType)
 			throws SynapseException;
 
+	/**
+	 * Put the bytes of the given stream to the given URL.
+	 * 
+	 * @param url
+	 * @param input
+	 * @param contentLength The number of bytes that will be read from the stream.
+	 * @param contentType
+	 * @return
+	 * @throws SynapseException
+	 */
+	public String putStreamToURL(URL url, InputStream input, long contentLength, String contentType)
+			throws SynapseException;
+
 	public ExternalFileHandle createExternalFileHandle(ExternalFileHandle efh)
 			throws SynapseException;
 	
@@ -2882,6 +2895,22 @@ public interface SynapseClient extends BaseClient {
 	 */
 	CloudProviderFileHandleInterface multipartUpload(File file, Long storageLocationId, Boolean generatePreview, Boolean forceRestart) throws SynapseException, FileNotFoundException, IOException;
 
+	/**
+	 * Set the number of parts of a file that are uploaded at the same time by
+	 * {@link #multipartUpload(File, Long, Boolean, Boolean)}.
+	 * 
+	 * @param parallelism
+	 */
+	void setMultipartUploadParallelism(int parallelism);
+
+	/**
+	 * Limit the combined upload rate of
+	 * {@link #multipartUpload(File, Long, Boolean, Boolean)}.
+	 * 
+	 * @param maxBytesPerSecond Zero or less for no limit.
+	 */
+	void setMultipartUploadMaxBytesPerSecond(long maxBytesPerSecond);
+
 	/**
 	 * Subscribe to a topic
 	 * 
@@ -21,7 +21,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.utils.URIBuilder;
@@ -654,6 +653,9 @@ public class SynapseClientImpl extends BaseClientImpl implements SynapseClient {
 	public static final String SCHEMA_TYPE_VALIDATION = "/schema/type/validation/";
 	public static final String VIEW_COLUMNS = "/column/view/scope/";
 
+	private int multipartUploadParallelism = ParallelMultipartUpload.DEFAULT_PARALLELISM;
+	private long multipartUploadMaxBytesPerSecond = 0L;
+
 	/**
 	 * Default constructor uses the default repository and file services endpoints.
 	 */
@@ -1590,6 +1592,11 @@ public class SynapseClientImpl extends BaseClientImpl implements SynapseClient {
 		return super.putFileToURL(url, file, contentType);
 	}
 
+	@Override
+	public String putStreamToURL(URL url, InputStream input, long contentLength, String contentType) throws SynapseException {
+		return super.putStreamToURL(url, input, contentLength, contentType);
+	}
+
 	/**
 	 * Create an External File Handle. This is used to references a file that is
 	 * not stored in Synapse.
@@ -5086,16 +5093,20 @@ public class SynapseClientImpl extends BaseClientImpl implements SynapseClient {
 	public CloudProviderFileHandleInterface multipartUpload(File file,
 			Long storageLocationId, Boolean generatePreview,
 			Boolean forceRestart) throws SynapseException, IOException {
-		InputStream fileInputStream = null;
-		try{
-			fileInputStream = new FileInputStream(file);
-			String fileName = file.getName();
-			long fileSize = file.length();
-			String contentType = guessContentTypeFromStream(file);
-			return multipartUpload(fileInputStream, fileSize, fileName, contentType, storageLocationId, generatePreview, forceRestart);
-		}finally{
-			IOUtils.closeQuietly(fileInputStream);
-		}
+		String contentType = guessContentTypeFromStream(file);
+		return new ParallelMultipartUpload(this, file, contentType, storageLocationId, generatePreview, forceRestart,
+				multipartUploadParallelism, multipartUploadMaxBytesPerSecond).uploadFile();
+	}
+
+	@Override
+	public void setMultipartUploadParallelism(int parallelism) {
+		ValidateArgument.requirement(parallelism > 0, "parallelism must be greater than zero");
+		this.multipartUploadParallelism = parallelism;
+	}
+
+	@Override
+	public void setMultipartUploadMaxBytesPerSecond(long maxBytesPerSecond) {
+		this.multipartUploadMaxBytesPerSecond = maxBytesPerSecond;
 	}
 
 	@Override
@@ -0,0 +1,60 @@
+package org.sagebionetworks.client;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.sagebionetworks.util.Clock;
+
+public class BandwidthThrottleTest {
+
+	@Mock
+	Clock mockClock;
+
+	@Before
+	public void before() {
+		MockitoAnnotations.initMocks(this);
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+	}
+
+	@Test
+	public void testAcquireUnlimited() throws Exception {
+		BandwidthThrottle throttle = new BandwidthThrottle(0L, mockClock);
+		// call under test
+		throttle.acquire(1000);
+		throttle.acquire(1000);
+		verify(mockClock, never()).currentTimeMillis();
+		verify(mockClock, never()).sleep(anyLong());
+	}
+
+	@Test
+	public void testAcquireLimited() throws Exception {
+		BandwidthThrottle throttle = new BandwidthThrottle(1000L, mockClock);
+		// call under test
+		throttle.acquire(500);
+		// the first bytes are sent right away.
+		verify(mockClock, never()).sleep(anyLong());
+		// the next bytes must wait for the first 500 bytes at 1000 bytes/second.
+		throttle.acquire(2000);
+		verify(mockClock).sleep(500L);
+		// the next bytes must wait for all of the reserved bytes.
+		throttle.acquire(1);
+		verify(mockClock).sleep(2500L);
+	}
+
+	@Test
+	public void testAcquireAfterIdle() throws Exception {
+		BandwidthThrottle throttle = new BandwidthThrottle(1000L, mockClock);
+		throttle.acquire(500);
+		// time passes beyond the reservation.
+		when(mockClock.currentTimeMillis()).thenReturn(2000L);
+		// call under test
+		throttle.acquire(500);
+		verify(mockClock, never()).sleep(anyLong());
+	}
+}
@@ -0,0 +1,313 @@
+package org.sagebionetworks.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sagebionetworks.client.MultipartUpload.calculateMD5Hex;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.sagebionetworks.client.ParallelMultipartUpload.FilePart;
+import org.sagebionetworks.client.exceptions.SynapseClientException;
+import org.sagebionetworks.client.exceptions.UnknownSynapseServerException;
+import org.sagebionetworks.repo.model.file.AddPartResponse;
+import org.sagebionetworks.repo.model.file.AddPartState;
+import org.sagebionetworks.repo.model.file.BatchPresignedUploadUrlRequest;
+import org.sagebionetworks.repo.model.file.BatchPresignedUploadUrlResponse;
+import org.sagebionetworks.repo.model.file.CloudProviderFileHandleInterface;
+import org.sagebionetworks.repo.model.file.MultipartUploadRequest;
+import org.sagebionetworks.repo.model.file.MultipartUploadState;
+import org.sagebionetworks.repo.model.file.MultipartUploadStatus;
+import org.sagebionetworks.repo.model.file.PartPresignedUrl;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
+
+public class ParallelMultipartUploadTest {
+
+	@Mock
+	SynapseClient mockClient;
+
+	File file;
+	byte[] fileBytes;
+	String contentType;
+	MultipartUploadStatus startStatus;
+	MultipartUploadStatus completeStatus;
+	S3FileHandle fileHandle;
+	// The bytes sent to each URL.
+	Map<String, byte[]> uploaded;
+
+	@Before
+	public void before() throws Exception {
+		MockitoAnnotations.initMocks(this);
+		// The file's data is the following byte [0, 1, 2, 3, 4, 5, 6, 7, 8, 9]
+		fileBytes = new byte[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 };
+		file = File.createTempFile("ParallelMultipartUploadTest", ".txt");
+		FileUtils.writeByteArrayToFile(file, fileBytes);
+		contentType = "plain/text";
+
+		startStatus = new MultipartUploadStatus();
+		startStatus.setPartsState("0");
+		startStatus.setUploadId("uploadId");
+		when(mockClient.startMultipartUpload(any(), any())).thenReturn(startStatus);
+
+		completeStatus = new MultipartUploadStatus();
+		completeStatus.setPartsState("1");
+		completeStatus.setResultFileHandleId("1235");
+		completeStatus.setState(MultipartUploadState.COMPLETED);
+		completeStatus.setUploadId(startStatus.getUploadId());
+		when(mockClient.completeMultipartUpload(anyString())).thenReturn(completeStatus);
+
+		fileHandle = new S3FileHandle();
+		fileHandle.setId(completeStatus.getResultFileHandleId());
+		when(mockClient.getRawFileHandle(anyString())).thenReturn(fileHandle);
+
+		// Return a URL for each requested part.
+		doAnswer(invocation -> {
+			BatchPresignedUploadUrlRequest request = invocation.getArgument(0);
+			BatchPresignedUploadUrlResponse response = new BatchPresignedUploadUrlResponse();
+			response.setPartPresignedUrls(new LinkedList<PartPresignedUrl>());
+			for (Long partNumber : request.getPartNumbers()) {
+				PartPresignedUrl partUrl = new PartPresignedUrl();
+				partUrl.setPartNumber(partNumber);
+				partUrl.setUploadPresignedUrl("http://amazon.com/" + partNumber);
+				response.getPartPresignedUrls().add(partUrl);
+			}
+			return response;
+		}).when(mockClient).getMultipartPresignedUrlBatch(any(BatchPresignedUploadUrlRequest.class));
+
+		// Capture the bytes of each part.
+		uploaded = new ConcurrentHashMap<String, byte[]>();
+		doAnswer(invocation -> {
+			URL url = invocation.getArgument(0);
+			InputStream input = invocation.getArgument(1);
+			uploaded.put(url.toString(), IOUtils.toByteArray(input));
+			return null;
+		}).when(mockClient).putStreamToURL(any(URL.class), any(InputStream.class), anyLong(), anyString());
+
+		AddPartResponse success = new AddPartResponse();
+		success.setAddPartState(AddPartState.ADD_SUCCESS);
+		when(mockClient.addPartToMultipartUpload(anyString(), anyInt(), anyString())).thenReturn(success);
+	}
+
+	@After
+	public void after() {
+		file.delete();
+	}
+
+	ParallelMultipartUpload createUpload(int parallelism) {
+		return new ParallelMultipartUpload(mockClient, file, contentType, null, true, false, parallelism, 0L);
+	}
+
+	/**
+	 * Split the test file into parts of the given size.
+	 */
+	List<FilePart> createParts(long partSizeBytes) throws Exception {
+		List<FilePart> parts = new ArrayList<FilePart>();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ParallelMultipartUpload.calculateParts(channel, fileBytes.length, partSizeBytes, parts);
+		}
+		return parts;
+	}
+
+	@Test
+	public void testCalculateParts() throws Exception {
+		List<FilePart> parts = new ArrayList<FilePart>();
+		String fileMD5Hex;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// call under test
+			fileMD5Hex = ParallelMultipartUpload.calculateParts(channel, fileBytes.length, 4L, parts);
+		}
+		assertEquals(calculateMD5Hex(fileBytes, 0, fileBytes.length), fileMD5Hex);
+		assertEquals(3, parts.size());
+		assertPart(parts.get(0), 1, 0, 4);
+		assertPart(parts.get(1), 2, 4, 4);
+		assertPart(parts.get(2), 3, 8, 2);
+	}
+
+	void assertPart(FilePart part, int partNumber, int offset, int length) {
+		assertEquals(partNumber, part.getPartNumber());
+		assertEquals(offset, part.getOffset());
+		assertEquals(length, part.getLength());
+		assertEquals(calculateMD5Hex(fileBytes, offset, length), part.getPartMD5Hex());
+	}
+
+	@Test
+	public void testUploadFile() throws Exception {
+		ParallelMultipartUpload upload = createUpload(2);
+		// call under test
+		CloudProviderFileHandleInterface result = upload.uploadFile();
+		assertEquals(fileHandle, result);
+
+		ArgumentCaptor<MultipartUploadRequest> requestCaptor = ArgumentCaptor.forClass(MultipartUploadRequest.class);
+		verify(mockClient).startMultipartUpload(requestCaptor.capture(), eq(false));
+		MultipartUploadRequest request = requestCaptor.getValue();
+		assertEquals(file.getName(), request.getFileName());
+		assertEquals(contentType, request.getContentType());
+		assertEquals(new Long(fileBytes.length), request.getFileSizeBytes());
+		assertEquals(calculateMD5Hex(fileBytes, 0, fileBytes.length), request.getContentMD5Hex());
+		assertEquals(true, request.getGeneratePreview());
+
+		assertArrayEquals(fileBytes, uploaded.get("http://amazon.com/1"));
+		verify(mockClient).addPartToMultipartUpload("uploadId", 1, calculateMD5Hex(fileBytes, 0, fileBytes.length));
+		verify(mockClient).completeMultipartUpload("uploadId");
+		verify(mockClient).getRawFileHandle("1235");
+	}
+
+	@Test
+	public void testUploadFileAlreadyComplete() throws Exception {
+		startStatus.setResultFileHandleId("1235");
+		ParallelMultipartUpload upload = createUpload(2);
+		// call under test
+		CloudProviderFileHandleInterface result = upload.uploadFile();
+		assertEquals(fileHandle, result);
+		verify(mockClient, never()).getMultipartPresignedUrlBatch(any(BatchPresignedUploadUrlRequest.class));
+		verify(mockClient, never()).putStreamToURL(any(URL.class), any(InputStream.class), anyLong(), anyString());
+		verify(mockClient, never()).completeMultipartUpload(anyString());
+	}
+
+	@Test
+	public void testUploadMissingPartsResume() throws Exception {
+		List<FilePart> parts = createParts(4L);
+		// the second part was already uploaded.
+		startStatus.setPartsState("010");
+		ParallelMultipartUpload upload = createUpload(2);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// call under test
+			upload.uploadMissingParts(channel, startStatus, parts);
+		}
+		assertEquals(2, uploaded.size());
+		assertArrayEquals(new byte[] { 0, 1, 2, 3 }, uploaded.get("http://amazon.com/1"));
+		assertArrayEquals(new byte[] { 8, 9 }, uploaded.get("http://amazon.com/3"));
+		verify(mockClient).addPartToMultipartUpload("uploadId", 1, calculateMD5Hex(fileBytes, 0, 4));
+		verify(mockClient).addPartToMultipartUpload("uploadId", 3, calculateMD5Hex(fileBytes, 8, 2));
+		verify(mockClient, never()).addPartToMultipartUpload(anyString(), eq(2), anyString());
+	}
+
+	@Test
+	public void testUploadMissingPartsBatches() throws Exception {
+		// ten parts of one byte.
+		List<FilePart> parts = createParts(1L);
+		startStatus.setPartsState(String.join("", Collections.nCopies(10, "0")));
+		// two URLs are requested for each thread.
+		ParallelMultipartUpload upload = createUpload(1);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// call under test
+			upload.uploadMissingParts(channel, startStatus, parts);
+		}
+		ArgumentCaptor<BatchPresignedUploadUrlRequest> captor = ArgumentCaptor
+				.forClass(BatchPresignedUploadUrlRequest.class);
+		verify(mockClient, times(5)).getMultipartPresignedUrlBatch(captor.capture());
+		for (BatchPresignedUploadUrlRequest request : captor.getAllValues()) {
+			assertEquals(2, request.getPartNumbers().size());
+		}
+		assertEquals(10, uploaded.size());
+		for (int i = 0; i < fileBytes.length; i++) {
+			assertArrayEquals(new byte[] { fileBytes[i] }, uploaded.get("http://amazon.com/" + (i + 1)));
+		}
+	}
+
+	@Test
+	public void testUploadMissingPartsAddFailed() throws Exception {
+		AddPartResponse failed = new AddPartResponse();
+		failed.setAddPartState(AddPartState.ADD_FAILED);
+		failed.setErrorMessage("MD5 did not match");
+		when(mockClient.addPartToMultipartUpload(anyString(), anyInt(), anyString())).thenReturn(failed);
+		List<FilePart> parts = createParts(10L);
+		ParallelMultipartUpload upload = createUpload(2);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// call under test
+			upload.uploadMissingParts(channel, startStatus, parts);
+			fail();
+		} catch (SynapseClientException e) {
+			assertEquals("Failed to add part: 1 MD5 did not match", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testUploadPartExpiredUrl() throws Exception {
+		URL expiredUrl = new URL("http://amazon.com/expired");
+		doThrow(new UnknownSynapseServerException(403, "Forbidden")).when(mockClient).putStreamToURL(eq(expiredUrl),
+				any(InputStream.class), anyLong(), anyString());
+		List<FilePart> parts = createParts(10L);
+		ParallelMultipartUpload upload = createUpload(2);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// call under test
+			upload.uploadPart(channel, "uploadId", parts.get(0), expiredUrl);
+		}
+		// the part is uploaded again with a new URL.
+		verify(mockClient).getMultipartPresignedUrlBatch(any(BatchPresignedUploadUrlRequest.class));
+		assertArrayEquals(fileBytes, uploaded.get("http://amazon.com/1"));
+		verify(mockClient).addPartToMultipartUpload("uploadId", 1, calculateMD5Hex(fileBytes, 0, fileBytes.length));
+	}
+
+	@Test
+	public void testUploadPartServerError() throws Exception {
+		URL url = new URL("http://amazon.com/1");
+		UnknownSynapseServerException exception = new UnknownSynapseServerException(500, "Internal Server Error");
+		doThrow(exception).when(mockClient).putStreamToURL(eq(url), any(InputStream.class), anyLong(), anyString());
+		List<FilePart> parts = createParts(10L);
+		ParallelMultipartUpload upload = createUpload(2);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// call under test
+			upload.uploadPart(channel, "uploadId", parts.get(0), url);
+			fail();
+		} catch (UnknownSynapseServerException e) {
+			assertEquals(exception, e);
+		}
+		verify(mockClient, never()).getMultipartPresignedUrlBatch(any(BatchPresignedUploadUrlRequest.class));
+		verify(mockClient, never()).addPartToMultipartUpload(anyString(), anyInt(), anyString());
+	}
+
+	@Test
+	public void testGetPresignedUrlsMissingPart() throws Exception {
+		doAnswer(invocation -> {
+			BatchPresignedUploadUrlResponse response = new BatchPresignedUploadUrlResponse();
+			response.setPartPresignedUrls(new LinkedList<PartPresignedUrl>());
+			return response;
+		}).when(mockClient).getMultipartPresignedUrlBatch(any(BatchPresignedUploadUrlRequest.class));
+		List<FilePart> parts = createParts(10L);
+		ParallelMultipartUpload upload = createUpload(2);
+		try {
+			// call under test
+			upload.getPresignedUrls("uploadId", parts);
+			fail();
+		} catch (SynapseClientException e) {
+			assertEquals("No pre-signed URL was returned for part: 1", e.getMessage());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetMissingPartsWrongPartCount() throws Exception {
+		List<FilePart> parts = createParts(4L);
+		// call under test
+		ParallelMultipartUpload.getMissingParts("01", parts);
+	}
+}
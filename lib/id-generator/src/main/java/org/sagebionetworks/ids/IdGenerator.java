@@ -9,14 +9,30 @@ public interface IdGenerator {
 	
 	/**
 	 * Generate a new Id.
+	 * <p>
+	 * For a type with a configured block size greater than one, the ID is taken
+	 * from a block of IDs leased by this process. IDs from the same process are
+	 * still increasing but the IDs issued by different processes interleave by
+	 * block, and any unused IDs of a block are lost when the process stops.
 	 * @return
 	 */
 	public Long generateNewId(IdType type);
+
+	/**
+	 * Generate a contiguous block of new IDs with a single call to the database.
+	 * 
+	 * @param type
+	 * @param blockSize The number of IDs in the block.
+	 * @return The first ID of the block. The block includes all IDs from the first
+	 *         ID to the first ID + blockSize - 1.
+	 */
+	public Long generateNewIdBlock(IdType type, int blockSize);
 	
 	/**
 	 * Ensure that the given ID is reserved.  If the ID is not already reserved then, 
 	 * this method will reserve it and all values below it.
 	 * @param idToLock
+	 * @throws IllegalArgumentException If the IDs of the type are leased in blocks.
 	 */
 	public void reserveId(Long idToLock, IdType type);
 	
@@ -3,10 +3,16 @@ package org.sagebionetworks.ids;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.sql.DataSource;
 
 import org.apache.commons.io.IOUtils;
+import org.sagebionetworks.StackConfiguration;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
@@ -15,6 +21,16 @@ import org.springframework.jdbc.core.JdbcTemplate;
 /**
  * This class creates domain unique ids using a MySql sequence via AUTO_INCREMENT of a primary key.
  * For a full explanation of how this works @See http://dev.mysql.com/doc/refman/5.1/en/information-functions.html#function_last-insert-id.
+ * <p>
+ * Types with a configured block size greater than one lease a contiguous block of
+ * IDs from the database with a single call and hand them out from an in-memory
+ * counter until the block is used up. Any IDs of a block that are not used when
+ * the process stops are never issued, so leasing should only be configured for
+ * types where gaps in the sequence are acceptable.
+ * <p>
+ * A reserved ID could fall in a block leased by any process of the cluster, so
+ * IDs of leased types cannot be reserved, and types with a starting ID cannot
+ * be leased.
  * @author jmhill
  *
  */
@@ -40,6 +56,21 @@ public class IdGeneratorImpl implements IdGenerator, InitializingBean{
 	
 	@Autowired
 	JdbcTemplate idGeneratorJdbcTemplate;
+	@Autowired
+	StackConfiguration stackConfiguration;
+
+	// The block of IDs currently leased by this process for each type.
+	private final Map<IdType, AtomicReference<IdBlock>> leasedBlocks;
+	// The block size of each type is looked up once.
+	private final Map<IdType, Integer> blockSizes;
+
+	public IdGeneratorImpl() {
+		leasedBlocks = new EnumMap<>(IdType.class);
+		for (IdType type : IdType.values()) {
+			leasedBlocks.put(type, new AtomicReference<>());
+		}
+		blockSizes = new ConcurrentHashMap<>();
+	}
 
 	/**
 	 * Note: This is a call to a separate database and does not participate in the
@@ -50,8 +81,84 @@ public class IdGeneratorImpl implements IdGenerator, InitializingBean{
 		if (type == null) {
 			throw new IllegalArgumentException("Type cannot be null");
 		}
+		int blockSize = getBlockSize(type);
+		if (blockSize > 1) {
+			return nextLeasedId(type, blockSize);
+		}
 		return idGeneratorJdbcTemplate.queryForObject("CALL generateNewId(?)", Long.class, type.name());
 	}
+
+	/**
+	 * Note: This is a call to a separate database and does not participate in the
+	 * caller's transaction. Do not add transaction annotations to this method.
+	 */
+	@Override
+	public Long generateNewIdBlock(IdType type, int blockSize) {
+		if (type == null) {
+			throw new IllegalArgumentException("Type cannot be null");
+		}
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("Block size must be at least one");
+		}
+		return idGeneratorJdbcTemplate.queryForObject("CALL generateNewIdBlock(?,?)", Long.class, type.name(),
+				blockSize);
+	}
+
+	/**
+	 * Get the next ID from the block leased for the given type. Only the thread
+	 * that finds the block used up leases a new block, all other threads take IDs
+	 * from the current block without locking.
+	 * 
+	 * @param type
+	 * @param blockSize
+	 * @return
+	 */
+	Long nextLeasedId(IdType type, int blockSize) {
+		AtomicReference<IdBlock> current = leasedBlocks.get(type);
+		while (true) {
+			IdBlock block = current.get();
+			if (block != null) {
+				Long id = block.nextId();
+				if (id != null) {
+					return id;
+				}
+			}
+			synchronized (current) {
+				// Another thread might have already replaced the block.
+				if (current.get() == block) {
+					current.set(new IdBlock(generateNewIdBlock(type, blockSize), blockSize));
+				}
+			}
+		}
+	}
+
+	int getBlockSize(IdType type) {
+		return blockSizes.computeIfAbsent(type, (IdType t) -> stackConfiguration.getIdGeneratorBlockSize(t.name()));
+	}
+
+	/**
+	 * A contiguous block of IDs leased from the database.
+	 *
+	 */
+	static class IdBlock {
+
+		private final AtomicLong next;
+		private final long last;
+
+		IdBlock(long first, int size) {
+			this.next = new AtomicLong(first);
+			this.last = first + size - 1;
+		}
+
+		/**
+		 * @return The next ID of this block or null if all of the IDs of this block
+		 *         have been issued.
+		 */
+		Long nextId() {
+			long id = next.getAndIncrement();
+			return id <= last ? id : null;
+		}
+	}
 	
 	/**
 	 * Note: This is a call to a separate database and does not participate in the
@@ -65,6 +172,9 @@ public class IdGeneratorImpl implements IdGenerator, InitializingBean{
 		if (type == null) {
 			throw new IllegalArgumentException("Type cannot be null");
 		}
+		if (getBlockSize(type) > 1) {
+			throw new IllegalArgumentException("IDs of type " + type.name() + " are leased in blocks and cannot be reserved");
+		}
 		idGeneratorJdbcTemplate.queryForObject("CALL reserveId(?,?)", Long.class, idToLock, type.name());
 	}
 
@@ -94,6 +204,7 @@ public class IdGeneratorImpl implements IdGenerator, InitializingBean{
 		
 		createStoredProcedure("generateNewId.ddl.sql");
 		createStoredProcedure("reserveId.ddl.sql");
+		createStoredProcedure("generateNewIdBlock.ddl.sql");
 		
 		// Make sure we have a table for each type
 		for(IdType type: IdType.values()){
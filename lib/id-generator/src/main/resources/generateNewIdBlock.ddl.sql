@@ -0,0 +1,26 @@
+CREATE PROCEDURE generateNewIdBlock(IN typeName VARCHAR(256), IN blockSize INT)
+    MODIFIES SQL DATA
+    SQL SECURITY INVOKER
+BEGIN
+	DECLARE i INT DEFAULT 1;
+	
+	SET SESSION TRANSACTION ISOLATION LEVEL READ COMMITTED;
+ 
+ 	/*
+ 	All of the rows are added with a single multi-row INSERT. InnoDB allocates the
+ 	AUTO_INCREMENT values of such a 'simple insert' all at once, so the IDs of the
+ 	block are contiguous and LAST_INSERT_ID() is the first ID of the block. See
+ 	generateNewId for why this must be a stored procedure.
+ 	*/
+	SET @sql_text:=CONCAT('INSERT INTO ',typeName,' (CREATED_ON) VALUES (NOW())');
+	WHILE i < blockSize DO
+		SET @sql_text:=CONCAT(@sql_text, ',(NOW())');
+		SET i = i + 1;
+	END WHILE;
+	PREPARE stmt from @sql_text;
+	EXECUTE stmt; 
+    DEALLOCATE PREPARE stmt;
+	
+	SELECT LAST_INSERT_ID() as NEW_ID;
+	
+END
\ No newline at end of file
@@ -35,6 +35,16 @@ public class IdGeneratorConcurrencyTest {
 	
 	@Test
 	public void testConcurrentThreads() throws InterruptedException{
+		runConcurrentThreads(IdType.ENTITY_ID);
+	}
+	
+	@Test
+	public void testConcurrentThreadsLeased() throws InterruptedException{
+		// file IDs are leased in blocks so the threads share a block.
+		runConcurrentThreads(IdType.FILE_IDS);
+	}
+	
+	private void runConcurrentThreads(final IdType type) throws InterruptedException{
 		// All threads will store the returned ids here.
 		final Set<Long> sharedIdSet = Collections.synchronizedSet(new HashSet<Long>());
 		final int numberIds = 100;
@@ -48,7 +58,7 @@ public class IdGeneratorConcurrencyTest {
 					try {
 						// Generate 100 ids, yielding between each
 						for(int j=0; j<numberIds; j++){
-							Long id = idGenerator.generateNewId(IdType.ENTITY_ID);
+							Long id = idGenerator.generateNewId(type);
 							if(j % 25 == 0){
 								System.out.println("Thread.id="+Thread.currentThread().getId()+" generated id: "+id);							
 							}
@@ -2,6 +2,7 @@ package org.sagebionetworks.ids;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.HashSet;
@@ -130,4 +131,46 @@ public class IdGeneratorImplTest {
 		// cleanup should not break the sequence
 		assertEquals(new Long(lastId+1L), idGenerator.generateNewId(type));
 	}
+
+	@Test
+	public void testGenerateNewIdBlock() {
+		IdType type = IdType.ACCESS_APPROVAL_ID;
+		long startCount = idGenerator.getRowCount(type);
+		// Call under test
+		Long first = idGenerator.generateNewIdBlock(type, 10);
+		assertEquals(startCount+10, idGenerator.getRowCount(type));
+		assertEquals(first+9, idGenerator.getMaxValueForType(type));
+		// the next ID follows the block
+		assertEquals(new Long(first+10L), idGenerator.generateNewId(type));
+	}
+	
+	@Test
+	public void testGenerateNewIdBlockSizeZero() {
+		assertThrows(IllegalArgumentException.class, ()->{
+			idGenerator.generateNewIdBlock(IdType.ACCESS_APPROVAL_ID, 0);
+		});
+	}
+	
+	@Test
+	public void testGenerateNewIdLeased() {
+		// file IDs are leased in blocks
+		IdType type = IdType.FILE_IDS;
+		// Call under test
+		Long one = idGenerator.generateNewId(type);
+		Long two = idGenerator.generateNewId(type);
+		assertEquals(new Long(one+1L), two);
+		// the leased IDs are already in the database.
+		assertTrue(idGenerator.getMaxValueForType(type) >= two);
+	}
+	
+	@Test
+	public void testReserveIdLeased() {
+		// file IDs are leased in blocks
+		IdType type = IdType.FILE_IDS;
+		Long reserved = idGenerator.getMaxValueForType(type)+10;
+		assertThrows(IllegalArgumentException.class, ()->{
+			// Call under test
+			idGenerator.reserveId(reserved, type);
+		});
+	}
 }
@@ -57,6 +57,9 @@ public class PersonalAccessTokenDaoImpl implements PersonalAccessTokenDao {
 			COL_PERSONAL_ACCESS_TOKEN_LAST_USED+" = :" + PARAM_LAST_USED +
 			" WHERE "+ COL_PERSONAL_ACCESS_TOKEN_ID+" = :" + PARAM_TOKEN_ID;
 
+	private static final String UPDATE_LAST_USED_IF_NEWER = UPDATE_LAST_USED +
+			" AND " + COL_PERSONAL_ACCESS_TOKEN_LAST_USED + " < :" + PARAM_LAST_USED;
+
 
 	/*
 	 * We use a JOIN because
@@ -186,6 +189,22 @@ public class PersonalAccessTokenDaoImpl implements PersonalAccessTokenDao {
 		namedParameterJdbcTemplate.update(UPDATE_LAST_USED, params);
 	}
 
+	@WriteTransaction
+	@Override
+	public void updateLastUsed(Map<String, Date> lastUsedByTokenId) {
+		ValidateArgument.required(lastUsedByTokenId, "lastUsedByTokenId");
+		if (lastUsedByTokenId.isEmpty()) {
+			return;
+		}
+		MapSqlParameterSource[] batch = lastUsedByTokenId.entrySet().stream().map(entry -> {
+			MapSqlParameterSource params = new MapSqlParameterSource();
+			params.addValue(PARAM_TOKEN_ID, entry.getKey());
+			params.addValue(PARAM_LAST_USED, entry.getValue());
+			return params;
+		}).toArray(MapSqlParameterSource[]::new);
+		namedParameterJdbcTemplate.batchUpdate(UPDATE_LAST_USED_IF_NEWER, batch);
+	}
+
 	@WriteTransaction
 	@Override
 	public void deleteToken(String tokenId) {
@@ -94,6 +94,21 @@ public class DBOAccessControlListDaoImpl implements AccessControlListDAO {
 			+ RESOURCE_ID_BIND_VAR
 			+ ") AND acl." + COL_ACL_OWNER_TYPE + "=:" + RESOURCE_TYPE_BIND_VAR;
 	
+	private static final String SELECT_ACCESS_TYPES_FOR_PRINCIPALS = "SELECT DISTINCT at."
+			+ COL_RESOURCE_ACCESS_TYPE_ELEMENT + " FROM "
+			+ AUTHORIZATION_SQL_TABLES
+			+ " WHERE "
+			+ AUTHORIZATION_SQL_JOIN
+			+ " AND ra."
+			+ COL_RESOURCE_ACCESS_GROUP_ID
+			+ " IN (:"
+			+ PRINCIPAL_IDS_BIND_VAR
+			+ ") AND acl."
+			+ COL_ACL_OWNER_ID
+			+ " = :"
+			+ RESOURCE_ID_BIND_VAR
+			+ " AND acl." + COL_ACL_OWNER_TYPE + "=:" + RESOURCE_TYPE_BIND_VAR;
+	
 
 	
 	private static final String SELECT_NON_VISIBLE_CHILDREN =
@@ -181,6 +196,17 @@ public class DBOAccessControlListDaoImpl implements AccessControlListDAO {
 	private static final String SQL_SELECT_ALL_ACL_WITH_ACL_ID = "SELECT * FROM "
 			+ TABLE_ACCESS_CONTROL_LIST + " WHERE " + COL_ACL_ID + " = ?";
 
+	private static final String SQL_SELECT_ACLS_FOR_OWNERS = "SELECT * FROM "
+			+ TABLE_ACCESS_CONTROL_LIST + " WHERE " + COL_ACL_OWNER_ID + " IN (:"
+			+ IDS_PARAM_NAME + ") AND " + COL_ACL_OWNER_TYPE + " = :" + COL_ACL_OWNER_TYPE;
+
+	private static final String SQL_SELECT_RESOURCE_ACCESS_FOR_ACLS = "SELECT RA."
+			+ COL_RESOURCE_ACCESS_OWNER + ", RA." + COL_RESOURCE_ACCESS_GROUP_ID + ", AT."
+			+ COL_RESOURCE_ACCESS_TYPE_ELEMENT + " FROM " + TABLE_RESOURCE_ACCESS + " RA LEFT JOIN "
+			+ TABLE_RESOURCE_ACCESS_TYPE + " AT ON (RA." + COL_RESOURCE_ACCESS_ID + " = AT."
+			+ COL_RESOURCE_ACCESS_TYPE_ID + ") WHERE RA." + COL_RESOURCE_ACCESS_OWNER + " IN (:"
+			+ IDS_PARAM_NAME + ")";
+
 	private static final String SQL_SELECT_OWNER_TYPE_FOR_RESOURCE = "SELECT "
 			+ COL_ACL_OWNER_TYPE + " FROM " + TABLE_ACCESS_CONTROL_LIST
 			+ " WHERE " + COL_ACL_ID + " = ?";
@@ -319,6 +345,50 @@ public class DBOAccessControlListDaoImpl implements AccessControlListDAO {
 		return acl;
 	}
 
+	@Override
+	public Map<Long, AccessControlList> getAcls(List<Long> ownerIds, ObjectType ownerType) {
+		ValidateArgument.required(ownerIds, "ownerIds");
+		ValidateArgument.required(ownerType, "ownerType");
+		Map<Long, AccessControlList> results = new HashMap<>(ownerIds.size());
+		if (ownerIds.isEmpty()) {
+			return results;
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue(IDS_PARAM_NAME, ownerIds);
+		params.addValue(COL_ACL_OWNER_TYPE, ownerType.name());
+		List<DBOAccessControlList> dboAcls = namedParameterJdbcTemplate.query(SQL_SELECT_ACLS_FOR_OWNERS, params, aclRowMapper);
+		if (dboAcls.isEmpty()) {
+			return results;
+		}
+		// ACL id -> principal id -> resource access
+		Map<Long, Map<Long, ResourceAccess>> accessByAcl = new HashMap<>(dboAcls.size());
+		for (DBOAccessControlList dboAcl : dboAcls) {
+			accessByAcl.put(dboAcl.getId(), new HashMap<>());
+		}
+		// All of the resource access of all of the ACLs are read with a single query
+		namedParameterJdbcTemplate.query(SQL_SELECT_RESOURCE_ACCESS_FOR_ACLS,
+				new MapSqlParameterSource(IDS_PARAM_NAME, accessByAcl.keySet()), (ResultSet rs) -> {
+					Long principalId = rs.getLong(COL_RESOURCE_ACCESS_GROUP_ID);
+					ResourceAccess ra = accessByAcl.get(rs.getLong(COL_RESOURCE_ACCESS_OWNER))
+							.computeIfAbsent(principalId, (Long key) -> {
+								ResourceAccess access = new ResourceAccess();
+								access.setPrincipalId(key);
+								access.setAccessType(new HashSet<ACCESS_TYPE>());
+								return access;
+							});
+					String accessType = rs.getString(COL_RESOURCE_ACCESS_TYPE_ELEMENT);
+					if (accessType != null) {
+						ra.getAccessType().add(ACCESS_TYPE.valueOf(accessType));
+					}
+				});
+		for (DBOAccessControlList dboAcl : dboAcls) {
+			AccessControlList acl = AccessControlListUtils.createAcl(dboAcl, ownerType);
+			acl.setResourceAccess(new HashSet<ResourceAccess>(accessByAcl.get(dboAcl.getId()).values()));
+			results.put(dboAcl.getOwnerId(), acl);
+		}
+		return results;
+	}
+
 	@Override
 	public Long getAclId(String id, ObjectType objectType)
 			throws DatastoreException, NotFoundException {
@@ -497,6 +567,27 @@ public class DBOAccessControlListDaoImpl implements AccessControlListDAO {
 		return results.contains(idLong);
 	}
 
+	@Override
+	public Set<ACCESS_TYPE> getAccessTypes(Set<Long> groups, String resourceId, ObjectType resourceType) {
+		ValidateArgument.required(groups, "groups");
+		ValidateArgument.required(resourceId, "resourceId");
+		ValidateArgument.required(resourceType, "resourceType");
+		Set<ACCESS_TYPE> results = new HashSet<ACCESS_TYPE>();
+		if (groups.isEmpty()) {
+			return results;
+		}
+		Map<String, Object> namedParameters = new HashMap<String, Object>(3);
+		namedParameters.put(PRINCIPAL_IDS_BIND_VAR, groups);
+		namedParameters.put(RESOURCE_ID_BIND_VAR, KeyFactory.stringToKey(resourceId));
+		namedParameters.put(RESOURCE_TYPE_BIND_VAR, resourceType.name());
+		List<String> accessTypes = namedParameterJdbcTemplate.queryForList(SELECT_ACCESS_TYPES_FOR_PRINCIPALS,
+				namedParameters, String.class);
+		for (String accessType : accessTypes) {
+			results.add(ACCESS_TYPE.valueOf(accessType));
+		}
+		return results;
+	}
+
 	// To avoid potential race conditions, we do "SELECT ... FOR UPDATE" on
 	// etags.
 	private DBOAccessControlList selectForUpdate(final Long ownerId,
@@ -188,6 +188,8 @@ public class DBOGroupMembersDAOImpl implements GroupMembersDAO {
 		
 		// Use the affected UserGroup row as a lock 
 		userGroupDAO.getEtagForUpdate(groupId);
+		// Lets cached UserInfo of the removed members drop the group once committed
+		transactionalMessenger.sendMessageAfterCommit(groupId, ObjectType.PRINCIPAL, ChangeType.UPDATE);
 
 		// Delete some members
 		List<Long> sortedMemberIds = sortIds(memberIds);
@@ -0,0 +1,147 @@
+package org.sagebionetworks.repo.model.dbo.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.sagebionetworks.repo.model.dbo.persistence.DBONodeAncestorSynchStatus;
+import org.sagebionetworks.repo.model.entity.NameIdType;
+
+/**
+ * Abstraction for the node closure table. The table contains one row for each
+ * node and each of its ancestors (including the node itself at a distance of
+ * zero) so hierarchy lookups can be answered with a single indexed query
+ * rather than walking the parent IDs of the node table one level at a time.
+ *
+ */
+public interface NodeAncestorDao {
+
+	/**
+	 * Add the rows for a newly created node.
+	 *
+	 * @param nodeId
+	 * @param parentId The parent of the new node. Null for a root node.
+	 */
+	void addNode(Long nodeId, Long parentId);
+
+	/**
+	 * Update the rows of the given node and all of its descendants after the node
+	 * was moved to a new parent.
+	 *
+	 * @param nodeId
+	 * @param newParentId The new parent of the node. Null for a root node.
+	 */
+	void moveNode(Long nodeId, Long newParentId);
+
+	/**
+	 * Get the ID of the closest node in the hierarchy of the given node (including
+	 * the node itself) that has an ACL.
+	 *
+	 * @param nodeId
+	 * @return Null if the node does not exist or has no benefactor.
+	 */
+	Long getBenefactorId(Long nodeId);
+
+	/**
+	 * Get the ID of the closest project in the hierarchy of the given node
+	 * (including the node itself).
+	 *
+	 * @param nodeId
+	 * @return Null if the node does not exist or is not within a project.
+	 */
+	Long getProjectId(Long nodeId);
+
+	/**
+	 * Get the ID of the closest project in the hierarchy of each of the given
+	 * nodes with a single query.
+	 *
+	 * @param nodeIds
+	 * @return Map from each node ID to the ID of its project. Nodes that do not
+	 *         exist or are not within a project are not included.
+	 */
+	Map<Long, Long> getProjectIds(Collection<Long> nodeIds);
+
+	/**
+	 * Get the IDs of the path of the given node ordered from the root to the node
+	 * itself.
+	 *
+	 * @param nodeId
+	 * @return
+	 */
+	List<Long> getPathIds(Long nodeId);
+
+	/**
+	 * Get the path of the given node ordered from the root to the node itself.
+	 *
+	 * @param nodeId
+	 * @return
+	 */
+	List<NameIdType> getPath(Long nodeId);
+
+	/**
+	 * Get the IDs of the given containers and all of the projects and folders
+	 * within them.
+	 *
+	 * @param parentIds
+	 * @param limit     The maximum number of IDs to return.
+	 * @return
+	 */
+	List<Long> getContainerIds(Collection<Long> parentIds, long limit);
+
+	/**
+	 * Compare the rows of each node with an ID in the given range against the
+	 * parent IDs of the node table and rebuild the rows of any node that is out
+	 * of synch. This is used both to back-fill the table and to repair any drift.
+	 *
+	 * @param minNodeId Inclusive
+	 * @param maxNodeId Inclusive
+	 * @return The number of nodes that were repaired.
+	 */
+	long synchronizeRange(long minNodeId, long maxNodeId);
+
+	/**
+	 * The largest node ID currently in the node table.
+	 *
+	 * @return
+	 */
+	long getMaxNodeId();
+
+	/**
+	 * Get the state of the synchronization shared by all of the workers of the
+	 * stack.
+	 *
+	 * @return A status that starts a new pass from the first node ID if no
+	 *         synchronization has run yet.
+	 */
+	DBONodeAncestorSynchStatus getSynchStatus();
+
+	/**
+	 * Save the state of the synchronization.
+	 *
+	 * @param status
+	 */
+	void setSynchStatus(DBONodeAncestorSynchStatus status);
+
+	/**
+	 * Has the synchronization completed a full pass over all of the node IDs
+	 * without repairing any node since the table was last found out of synch? The
+	 * table is only safe to read from while this is true. The marker is read from
+	 * the database again once it is older than
+	 * {@link NodeAncestorDaoImpl#FULL_PASS_STATUS_TTL_MS}.
+	 *
+	 * @return
+	 */
+	boolean isFullPassComplete();
+
+	/**
+	 * Clear the full pass marker so reads fall back to the node table until the
+	 * next full pass that finds nothing to repair. Called whenever nodes are
+	 * repaired or restored by migration.
+	 */
+	void clearFullPassComplete();
+
+	/**
+	 * Remove all rows and the state of the synchronization.
+	 */
+	void truncateAll();
+}
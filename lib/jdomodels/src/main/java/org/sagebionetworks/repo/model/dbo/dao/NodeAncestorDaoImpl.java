@@ -0,0 +1,348 @@
+package org.sagebionetworks.repo.model.dbo.dao;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ACL_OWNER_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ACL_OWNER_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_ANCESTOR_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_DESCENDANT_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_DISTANCE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_SYNCH_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_SYNCH_PASS_COMPLETED_ON;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_NAME;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_PARENT_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_ACCESS_CONTROL_LIST;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE_ANCESTOR;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE_ANCESTOR_SYNCH_STATUS;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sagebionetworks.repo.model.EntityType;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.dbo.DBOBasicDao;
+import org.sagebionetworks.repo.model.dbo.SinglePrimaryKeySqlParameterSource;
+import org.sagebionetworks.repo.model.dbo.persistence.DBONodeAncestor;
+import org.sagebionetworks.repo.model.dbo.persistence.DBONodeAncestorSynchStatus;
+import org.sagebionetworks.repo.model.entity.NameIdType;
+import org.sagebionetworks.repo.transactions.WriteTransaction;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class NodeAncestorDaoImpl implements NodeAncestorDao {
+
+	/**
+	 * The maximum time the full pass marker read from the database is used before
+	 * it is read again. This bounds how long a machine keeps reading from the
+	 * table after the marker was cleared on another machine.
+	 */
+	public static final long FULL_PASS_STATUS_TTL_MS = 60 * 1000L;
+
+	private static final String BIND_NODE_IDS = "nodeIds";
+	private static final String BIND_LIMIT = "limit";
+
+	private static final String SQL_INSERT_SELF = "INSERT INTO " + TABLE_NODE_ANCESTOR + " ("
+			+ COL_NODE_ANCESTOR_DESCENDANT_ID + ", " + COL_NODE_ANCESTOR_ANCESTOR_ID + ", " + COL_NODE_ANCESTOR_DISTANCE
+			+ ") VALUES (?, ?, 0)";
+
+	private static final String SQL_INSERT_PARENT_ANCESTORS = "INSERT INTO " + TABLE_NODE_ANCESTOR + " ("
+			+ COL_NODE_ANCESTOR_DESCENDANT_ID + ", " + COL_NODE_ANCESTOR_ANCESTOR_ID + ", " + COL_NODE_ANCESTOR_DISTANCE
+			+ ") SELECT ?, " + COL_NODE_ANCESTOR_ANCESTOR_ID + ", " + COL_NODE_ANCESTOR_DISTANCE + " + 1 FROM "
+			+ TABLE_NODE_ANCESTOR + " WHERE " + COL_NODE_ANCESTOR_DESCENDANT_ID + " = ?";
+
+	/**
+	 * Remove the links between each node of the sub-tree rooted at the bind node
+	 * and the ancestors above the root of the sub-tree.
+	 */
+	private static final String SQL_DETACH_SUBTREE = "DELETE D FROM " + TABLE_NODE_ANCESTOR + " D JOIN "
+			+ TABLE_NODE_ANCESTOR + " S ON (S." + COL_NODE_ANCESTOR_DESCENDANT_ID + " = D."
+			+ COL_NODE_ANCESTOR_DESCENDANT_ID + ") WHERE S." + COL_NODE_ANCESTOR_ANCESTOR_ID + " = ? AND D."
+			+ COL_NODE_ANCESTOR_DISTANCE + " > S." + COL_NODE_ANCESTOR_DISTANCE;
+
+	/**
+	 * Link each node of the sub-tree rooted at the first bind node to each
+	 * ancestor of the new parent (second bind node).
+	 */
+	private static final String SQL_ATTACH_SUBTREE = "INSERT INTO " + TABLE_NODE_ANCESTOR + " ("
+			+ COL_NODE_ANCESTOR_DESCENDANT_ID + ", " + COL_NODE_ANCESTOR_ANCESTOR_ID + ", " + COL_NODE_ANCESTOR_DISTANCE
+			+ ") SELECT S." + COL_NODE_ANCESTOR_DESCENDANT_ID + ", P." + COL_NODE_ANCESTOR_ANCESTOR_ID + ", S."
+			+ COL_NODE_ANCESTOR_DISTANCE + " + P." + COL_NODE_ANCESTOR_DISTANCE + " + 1 FROM " + TABLE_NODE_ANCESTOR
+			+ " S JOIN " + TABLE_NODE_ANCESTOR + " P WHERE S." + COL_NODE_ANCESTOR_ANCESTOR_ID + " = ? AND P."
+			+ COL_NODE_ANCESTOR_DESCENDANT_ID + " = ?";
+
+	private static final String SQL_SELECT_BENEFACTOR_ID = "SELECT A." + COL_NODE_ANCESTOR_ANCESTOR_ID + " FROM "
+			+ TABLE_NODE_ANCESTOR + " A JOIN " + TABLE_ACCESS_CONTROL_LIST + " ACL ON (ACL." + COL_ACL_OWNER_ID
+			+ " = A." + COL_NODE_ANCESTOR_ANCESTOR_ID + " AND ACL." + COL_ACL_OWNER_TYPE + " = '"
+			+ ObjectType.ENTITY.name() + "') WHERE A." + COL_NODE_ANCESTOR_DESCENDANT_ID + " = ? ORDER BY A."
+			+ COL_NODE_ANCESTOR_DISTANCE + " LIMIT 1";
+
+	private static final String SQL_SELECT_PROJECT_ID = "SELECT A." + COL_NODE_ANCESTOR_ANCESTOR_ID + " FROM "
+			+ TABLE_NODE_ANCESTOR + " A JOIN " + TABLE_NODE + " N ON (N." + COL_NODE_ID + " = A."
+			+ COL_NODE_ANCESTOR_ANCESTOR_ID + ") WHERE A." + COL_NODE_ANCESTOR_DESCENDANT_ID + " = ? AND N."
+			+ COL_NODE_TYPE + " = '" + EntityType.project.name() + "' ORDER BY A." + COL_NODE_ANCESTOR_DISTANCE
+			+ " LIMIT 1";
+
+	/**
+	 * The projects of each bind node ordered from the closest to the furthest.
+	 */
+	private static final String SQL_SELECT_PROJECT_IDS = "SELECT A." + COL_NODE_ANCESTOR_DESCENDANT_ID + ", A."
+			+ COL_NODE_ANCESTOR_ANCESTOR_ID + " FROM " + TABLE_NODE_ANCESTOR + " A JOIN " + TABLE_NODE + " N ON (N."
+			+ COL_NODE_ID + " = A." + COL_NODE_ANCESTOR_ANCESTOR_ID + ") WHERE A." + COL_NODE_ANCESTOR_DESCENDANT_ID
+			+ " IN (:" + BIND_NODE_IDS + ") AND N." + COL_NODE_TYPE + " = '" + EntityType.project.name()
+			+ "' ORDER BY A." + COL_NODE_ANCESTOR_DISTANCE;
+
+	private static final String SQL_SELECT_PATH_TEMPLATE = "SELECT %1s FROM " + TABLE_NODE_ANCESTOR + " A JOIN "
+			+ TABLE_NODE + " N ON (N." + COL_NODE_ID + " = A." + COL_NODE_ANCESTOR_ANCESTOR_ID + ") WHERE A."
+			+ COL_NODE_ANCESTOR_DESCENDANT_ID + " = ? ORDER BY A." + COL_NODE_ANCESTOR_DISTANCE + " DESC";
+
+	private static final String SQL_SELECT_CONTAINER_IDS = "SELECT DISTINCT A." + COL_NODE_ANCESTOR_DESCENDANT_ID
+			+ " FROM " + TABLE_NODE_ANCESTOR + " A JOIN " + TABLE_NODE + " N ON (N." + COL_NODE_ID + " = A."
+			+ COL_NODE_ANCESTOR_DESCENDANT_ID + ") WHERE A." + COL_NODE_ANCESTOR_ANCESTOR_ID + " IN (:"
+			+ BIND_NODE_IDS + ") AND N." + COL_NODE_TYPE + " IN ('" + EntityType.project.name() + "','"
+			+ EntityType.folder.name() + "') LIMIT :" + BIND_LIMIT;
+
+	/**
+	 * Computes the expected rows for each node in the bind range by walking the
+	 * parent IDs of the node table. The limit on the distance prevents an infinite
+	 * loop for a circular path.
+	 */
+	private static final String SQL_SELECT_EXPECTED_RANGE = "WITH RECURSIVE EXPECTED ("
+			+ COL_NODE_ANCESTOR_DESCENDANT_ID + ", " + COL_NODE_ANCESTOR_ANCESTOR_ID + ", " + COL_NODE_PARENT_ID + ", "
+			+ COL_NODE_ANCESTOR_DISTANCE + ") AS (SELECT " + COL_NODE_ID + ", " + COL_NODE_ID + ", "
+			+ COL_NODE_PARENT_ID + ", 0 FROM " + TABLE_NODE + " WHERE " + COL_NODE_ID + " BETWEEN ? AND ?"
+			+ " UNION ALL SELECT E." + COL_NODE_ANCESTOR_DESCENDANT_ID + ", N." + COL_NODE_ID + ", N."
+			+ COL_NODE_PARENT_ID + ", E." + COL_NODE_ANCESTOR_DISTANCE + " + 1 FROM EXPECTED E JOIN " + TABLE_NODE
+			+ " N ON (N." + COL_NODE_ID + " = E." + COL_NODE_PARENT_ID + ") WHERE E." + COL_NODE_ANCESTOR_DISTANCE
+			+ " < " + NodeDAOImpl.MAX_PATH_DEPTH + ") SELECT " + COL_NODE_ANCESTOR_DESCENDANT_ID + ", "
+			+ COL_NODE_ANCESTOR_ANCESTOR_ID + ", " + COL_NODE_ANCESTOR_DISTANCE + " FROM EXPECTED";
+
+	private static final String SQL_SELECT_ACTUAL_RANGE = "SELECT " + COL_NODE_ANCESTOR_DESCENDANT_ID + ", "
+			+ COL_NODE_ANCESTOR_ANCESTOR_ID + ", " + COL_NODE_ANCESTOR_DISTANCE + " FROM " + TABLE_NODE_ANCESTOR
+			+ " WHERE " + COL_NODE_ANCESTOR_DESCENDANT_ID + " BETWEEN ? AND ?";
+
+	private static final String SQL_DELETE_DESCENDANTS = "DELETE FROM " + TABLE_NODE_ANCESTOR + " WHERE "
+			+ COL_NODE_ANCESTOR_DESCENDANT_ID + " IN (:" + BIND_NODE_IDS + ")";
+
+	private static final String SQL_SELECT_MAX_NODE_ID = "SELECT COALESCE(MAX(" + COL_NODE_ID + "), 0) FROM "
+			+ TABLE_NODE;
+
+	private static final String SQL_TRUNCATE = "DELETE FROM " + TABLE_NODE_ANCESTOR + " WHERE "
+			+ COL_NODE_ANCESTOR_DESCENDANT_ID + " IS NOT NULL";
+
+	private static final String SQL_TRUNCATE_SYNCH_STATUS = "DELETE FROM " + TABLE_NODE_ANCESTOR_SYNCH_STATUS
+			+ " WHERE " + COL_NODE_ANCESTOR_SYNCH_ID + " IS NOT NULL";
+
+	private static final String SQL_CLEAR_FULL_PASS = "UPDATE " + TABLE_NODE_ANCESTOR_SYNCH_STATUS + " SET "
+			+ COL_NODE_ANCESTOR_SYNCH_PASS_COMPLETED_ON + " = NULL WHERE " + COL_NODE_ANCESTOR_SYNCH_ID + " = ?";
+
+	private static final RowMapper<DBONodeAncestor> ROW_MAPPER = new DBONodeAncestor().getTableMapping();
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+	@Autowired
+	private DBOBasicDao basicDao;
+	@Autowired
+	private Clock clock;
+
+	/*
+	 * The full pass marker as last read from the database and when it was read.
+	 * Restores and concurrent moves can put the table out of synch at any time,
+	 * so the marker is never assumed to hold for longer than the TTL.
+	 */
+	private volatile boolean fullPassComplete = false;
+	private volatile Long fullPassCheckedOn = null;
+
+	@WriteTransaction
+	@Override
+	public void addNode(Long nodeId, Long parentId) {
+		ValidateArgument.required(nodeId, "nodeId");
+		jdbcTemplate.update(SQL_INSERT_SELF, nodeId, nodeId);
+		if (parentId != null) {
+			jdbcTemplate.update(SQL_INSERT_PARENT_ANCESTORS, nodeId, parentId);
+		}
+	}
+
+	@WriteTransaction
+	@Override
+	public void moveNode(Long nodeId, Long newParentId) {
+		ValidateArgument.required(nodeId, "nodeId");
+		jdbcTemplate.update(SQL_DETACH_SUBTREE, nodeId);
+		if (newParentId != null) {
+			jdbcTemplate.update(SQL_ATTACH_SUBTREE, nodeId, newParentId);
+		}
+	}
+
+	@Override
+	public Long getBenefactorId(Long nodeId) {
+		ValidateArgument.required(nodeId, "nodeId");
+		return queryForFirst(SQL_SELECT_BENEFACTOR_ID, nodeId);
+	}
+
+	@Override
+	public Long getProjectId(Long nodeId) {
+		ValidateArgument.required(nodeId, "nodeId");
+		return queryForFirst(SQL_SELECT_PROJECT_ID, nodeId);
+	}
+
+	@Override
+	public Map<Long, Long> getProjectIds(Collection<Long> nodeIds) {
+		ValidateArgument.required(nodeIds, "nodeIds");
+		if (nodeIds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		Map<Long, Long> results = new HashMap<>(nodeIds.size());
+		namedParameterJdbcTemplate.query(SQL_SELECT_PROJECT_IDS, new MapSqlParameterSource(BIND_NODE_IDS, nodeIds),
+				(ResultSet rs) -> {
+					// only the closest project of each node is kept
+					results.putIfAbsent(rs.getLong(COL_NODE_ANCESTOR_DESCENDANT_ID),
+							rs.getLong(COL_NODE_ANCESTOR_ANCESTOR_ID));
+				});
+		return results;
+	}
+
+	private Long queryForFirst(String sql, Long nodeId) {
+		List<Long> results = jdbcTemplate.queryForList(sql, Long.class, nodeId);
+		return results.isEmpty() ? null : results.get(0);
+	}
+
+	@Override
+	public List<Long> getPathIds(Long nodeId) {
+		ValidateArgument.required(nodeId, "nodeId");
+		String sql = String.format(SQL_SELECT_PATH_TEMPLATE, "N." + COL_NODE_ID);
+		return jdbcTemplate.queryForList(sql, Long.class, nodeId);
+	}
+
+	@Override
+	public List<NameIdType> getPath(Long nodeId) {
+		ValidateArgument.required(nodeId, "nodeId");
+		String sql = String.format(SQL_SELECT_PATH_TEMPLATE,
+				"N." + COL_NODE_ID + ", N." + COL_NODE_NAME + ", N." + COL_NODE_TYPE);
+		return jdbcTemplate.query(sql, NodeDAOImpl.NAME_ID_TYPE_ROWMAPPER, nodeId);
+	}
+
+	@Override
+	public List<Long> getContainerIds(Collection<Long> parentIds, long limit) {
+		ValidateArgument.required(parentIds, "parentIds");
+		if (parentIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue(BIND_NODE_IDS, parentIds);
+		params.addValue(BIND_LIMIT, limit);
+		return namedParameterJdbcTemplate.queryForList(SQL_SELECT_CONTAINER_IDS, params, Long.class);
+	}
+
+	@WriteTransaction
+	@Override
+	public long synchronizeRange(long minNodeId, long maxNodeId) {
+		ValidateArgument.requirement(minNodeId <= maxNodeId, "minNodeId must be less than or equal to maxNodeId");
+		Map<Long, Set<DBONodeAncestor>> expected = groupByDescendant(
+				jdbcTemplate.query(SQL_SELECT_EXPECTED_RANGE, ROW_MAPPER, minNodeId, maxNodeId));
+		Map<Long, Set<DBONodeAncestor>> actual = groupByDescendant(
+				jdbcTemplate.query(SQL_SELECT_ACTUAL_RANGE, ROW_MAPPER, minNodeId, maxNodeId));
+		Set<Long> allDescendants = new HashSet<>(expected.keySet());
+		allDescendants.addAll(actual.keySet());
+		List<Long> outOfSynch = new ArrayList<>();
+		List<DBONodeAncestor> toCreate = new ArrayList<>();
+		for (Long descendantId : allDescendants) {
+			Set<DBONodeAncestor> expectedRows = expected.getOrDefault(descendantId, Collections.emptySet());
+			if (!expectedRows.equals(actual.getOrDefault(descendantId, Collections.emptySet()))) {
+				outOfSynch.add(descendantId);
+				toCreate.addAll(expectedRows);
+			}
+		}
+		if (outOfSynch.isEmpty()) {
+			return 0L;
+		}
+		namedParameterJdbcTemplate.update(SQL_DELETE_DESCENDANTS,
+				new MapSqlParameterSource(BIND_NODE_IDS, outOfSynch));
+		if (!toCreate.isEmpty()) {
+			basicDao.createBatch(toCreate);
+		}
+		// The table was out of synch so it is not safe to read from until a clean pass.
+		clearFullPassComplete();
+		return outOfSynch.size();
+	}
+
+	private static Map<Long, Set<DBONodeAncestor>> groupByDescendant(List<DBONodeAncestor> rows) {
+		Map<Long, Set<DBONodeAncestor>> results = new HashMap<>();
+		for (DBONodeAncestor row : rows) {
+			results.computeIfAbsent(row.getDescendantId(), (Long key) -> new HashSet<>()).add(row);
+		}
+		return results;
+	}
+
+	@Override
+	public long getMaxNodeId() {
+		return jdbcTemplate.queryForObject(SQL_SELECT_MAX_NODE_ID, Long.class);
+	}
+
+	@Override
+	public DBONodeAncestorSynchStatus getSynchStatus() {
+		return basicDao
+				.getObjectByPrimaryKeyIfExists(DBONodeAncestorSynchStatus.class,
+						new SinglePrimaryKeySqlParameterSource(DBONodeAncestorSynchStatus.STATUS_ID))
+				.orElseGet(() -> {
+					DBONodeAncestorSynchStatus status = new DBONodeAncestorSynchStatus();
+					status.setId(DBONodeAncestorSynchStatus.STATUS_ID);
+					status.setNextNodeId(0L);
+					status.setPassRepairedCount(0L);
+					return status;
+				});
+	}
+
+	@WriteTransaction
+	@Override
+	public void setSynchStatus(DBONodeAncestorSynchStatus status) {
+		ValidateArgument.required(status, "status");
+		ValidateArgument.requirement(DBONodeAncestorSynchStatus.STATUS_ID.equals(status.getId()),
+				"The status must have the ID: " + DBONodeAncestorSynchStatus.STATUS_ID);
+		basicDao.createOrUpdate(status);
+		fullPassComplete = status.getFullPassCompletedOn() != null;
+		fullPassCheckedOn = clock.currentTimeMillis();
+	}
+
+	@Override
+	public boolean isFullPassComplete() {
+		long now = clock.currentTimeMillis();
+		Long checkedOn = fullPassCheckedOn;
+		if (checkedOn == null || now - checkedOn >= FULL_PASS_STATUS_TTL_MS) {
+			fullPassComplete = getSynchStatus().getFullPassCompletedOn() != null;
+			fullPassCheckedOn = now;
+		}
+		return fullPassComplete;
+	}
+
+	@WriteTransaction
+	@Override
+	public void clearFullPassComplete() {
+		jdbcTemplate.update(SQL_CLEAR_FULL_PASS, DBONodeAncestorSynchStatus.STATUS_ID);
+		fullPassComplete = false;
+		fullPassCheckedOn = clock.currentTimeMillis();
+	}
+
+	@WriteTransaction
+	@Override
+	public void truncateAll() {
+		jdbcTemplate.update(SQL_TRUNCATE);
+		jdbcTemplate.update(SQL_TRUNCATE_SYNCH_STATUS);
+		fullPassComplete = false;
+		fullPassCheckedOn = null;
+	}
+
+}
@@ -14,6 +14,7 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -106,7 +107,7 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	/**
 	 * Max path depth for a node hierarchy.
 	 */
-	private static final int MAX_PATH_DEPTH = 100;
+	static final int MAX_PATH_DEPTH = 100;
 
 	private static final String SQL_CREATE_SNAPSHOT_VERSION = "UPDATE " + TABLE_REVISION + " SET "
 			+ COL_REVISION_COMMENT + " = ?, " + COL_REVISION_LABEL + " = ?, " + COL_REVISION_ACTIVITY_ID + " = ?, "
@@ -268,9 +269,13 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	
 	private static final String SQL_SELECT_WITHOUT_ANNOTATIONS = "SELECT N.*, R."+COL_REVISION_OWNER_NODE+", R."+COL_REVISION_NUMBER+", R."+COL_REVISION_ACTIVITY_ID+", R."+COL_REVISION_LABEL+", R."+COL_REVISION_COMMENT+", R."+COL_REVISION_MODIFIED_BY+", R."+COL_REVISION_MODIFIED_ON+", R."+COL_REVISION_FILE_HANDLE_ID+", R."+COL_REVISION_COLUMN_MODEL_IDS+", R."+COL_REVISION_SCOPE_IDS+", R."+COL_REVISION_REF_BLOB;
 	private static final String SQL_SELECT_CURRENT_NODE = SQL_SELECT_WITHOUT_ANNOTATIONS+" FROM "+TABLE_NODE+" N, "+TABLE_REVISION+" R WHERE N."+COL_NODE_ID+"= R."+COL_REVISION_OWNER_NODE+" AND N."+COL_NODE_CURRENT_REV+" = R."+COL_REVISION_NUMBER+" AND N."+COL_NODE_ID+"= ?";
+	private static final String SQL_SELECT_CURRENT_NODES = SQL_SELECT_WITHOUT_ANNOTATIONS+" FROM "+TABLE_NODE+" N, "+TABLE_REVISION+" R WHERE N."+COL_NODE_ID+"= R."+COL_REVISION_OWNER_NODE+" AND N."+COL_NODE_CURRENT_REV+" = R."+COL_REVISION_NUMBER+" AND N."+COL_NODE_ID+" IN (:"+BIND_NODE_IDS+")";
 	private static final String SQL_SELECT_NODE_VERSION = SQL_SELECT_WITHOUT_ANNOTATIONS+" FROM "+TABLE_NODE+" N, "+TABLE_REVISION+" R WHERE N."+COL_NODE_ID+"= R."+COL_REVISION_OWNER_NODE+" AND R."+COL_REVISION_NUMBER+" = ? AND N."+COL_NODE_ID+"= ?";
 
 	private static final String SELECT_FUNCTION_PROJECT_ID = "SELECT "+FUNCTION_GET_ENTITY_PROJECT_ID+"(?)";
+	private static final String PROJECT_ID_ALIAS = "PROJECT_ID";
+	private static final String SQL_SELECT_PROJECT_IDS = "SELECT "+COL_NODE_ID+", "+FUNCTION_GET_ENTITY_PROJECT_ID+"("+COL_NODE_ID+") AS "+PROJECT_ID_ALIAS
+			+" FROM "+TABLE_NODE+" WHERE "+COL_NODE_ID+" IN (:"+BIND_NODE_IDS+")";
 	private static final String SQL_SELECT_NODE_ID_BY_ALIAS = "SELECT "+COL_NODE_ID+" FROM "+TABLE_NODE+" WHERE "+COL_NODE_ALIAS+" = ?";
 	
 	private static final String SQL_SELECT_ALIAS_BY_NODE_ID = "SELECT "+COL_NODE_ID+", "+COL_NODE_ALIAS+
@@ -290,6 +295,7 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 
 	private static final String SELECT_ANNOTATIONS_ONLY_FROM_AND_WHERE_CLAUSE_PREFIX = " FROM  "+TABLE_NODE+" N, "+TABLE_REVISION+" R WHERE N."+COL_NODE_ID+" = :"+COL_NODE_ID +" AND R."+COL_REVISION_OWNER_NODE+" = N."+COL_NODE_ID+" AND R."+COL_REVISION_NUMBER + "=";
 	private static final String SELECT_USER_ANNOTATIONS_ONLY_PREFIX = "SELECT N."+COL_NODE_ID+", N."+COL_NODE_ETAG+", R."+COL_REVISION_USER_ANNOS_JSON+" FROM  "+TABLE_NODE+" N, "+TABLE_REVISION+" R WHERE N."+COL_NODE_ID+" = ? AND R."+COL_REVISION_OWNER_NODE+" = N."+COL_NODE_ID+" AND R."+COL_REVISION_NUMBER + " = ";
+	private static final String SQL_SELECT_CURRENT_USER_ANNOTATIONS = "SELECT N."+COL_NODE_ID+", N."+COL_NODE_ETAG+", R."+COL_REVISION_USER_ANNOS_JSON+" FROM  "+TABLE_NODE+" N, "+TABLE_REVISION+" R WHERE N."+COL_NODE_ID+" IN (:"+BIND_NODE_IDS+") AND R."+COL_REVISION_OWNER_NODE+" = N."+COL_NODE_ID+" AND R."+COL_REVISION_NUMBER + " = N."+COL_NODE_CURRENT_REV;
 	private static final String CANNOT_FIND_A_NODE_WITH_ID = "Cannot find a node with id: ";
 	private static final String ERROR_RESOURCE_NOT_FOUND = "The resource you are attempting to access cannot be found";
 	private static final String GET_CURRENT_REV_NUMBER_SQL = "SELECT "+COL_NODE_CURRENT_REV+" FROM "+TABLE_NODE+" WHERE "+COL_NODE_ID+" = ?";
@@ -406,7 +412,7 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		}
 	};
 	
-	private static final RowMapper<NameIdType> NAME_ID_TYPE_ROWMAPPER = (ResultSet rs, int rowNum) -> {
+	static final RowMapper<NameIdType> NAME_ID_TYPE_ROWMAPPER = (ResultSet rs, int rowNum) -> {
 		NameIdType header = new NameIdType();
 		Long entityId = rs.getLong(COL_NODE_ID);
 		header.withId(KeyFactory.keyToString(entityId));
@@ -434,6 +440,25 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 
 	@Autowired
 	private DBOBasicDao dboBasicDao;
+
+	@Autowired
+	private NodeAncestorDao nodeAncestorDao;
+
+	/**
+	 * When true, hierarchy lookups other than the benefactor are answered from
+	 * the node ancestor table rather than by walking the parent IDs of the node
+	 * table, while the table is marked as complete by a full synchronization
+	 * pass.
+	 */
+	private boolean readFromAncestorTable = false;
+
+	public void setReadFromAncestorTable(boolean readFromAncestorTable) {
+		this.readFromAncestorTable = readFromAncestorTable;
+	}
+
+	boolean isReadFromAncestorTable() {
+		return readFromAncestorTable && nodeAncestorDao.isFullPassComplete();
+	}
 	
 	private final Long ROOT_NODE_ID = Long.parseLong(StackConfigurationSingleton.singleton().getRootFolderEntityId());
 	
@@ -530,7 +555,8 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		} catch(IllegalArgumentException e){
 			checkExceptionDetails(dboNode.getName(), dboNode.getAlias(), KeyFactory.keyToString(dboNode.getParentId()), e);
 		}
-		dboBasicDao.createNew(dboRevision);		
+		dboBasicDao.createNew(dboRevision);
+		nodeAncestorDao.addNode(dboNode.getId(), dboNode.getParentId());
 		return getNode("" + dboNode.getId());
 	}
 
@@ -574,6 +600,7 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		}
 		
 		boolean deleteActivityId = shouldDeleteActivityId(newVersion);
+		Long oldParentId = jdo.getParentId();
 		
 		// Now update the new revision and node
 		NodeUtils.updateFromDto(newVersion, jdo, newRev, deleteActivityId);
@@ -585,6 +612,9 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		// Save the change to the node
 		dboBasicDao.update(jdo);
 		dboBasicDao.createNew(newRev);
+		if (!Objects.equals(oldParentId, jdo.getParentId())) {
+			nodeAncestorDao.moveNode(jdo.getId(), jdo.getParentId());
+		}
 		return newRev.getRevisionNumber();
 	}
 
@@ -600,6 +630,15 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		}
 	}
 	
+	@Override
+	public List<Node> getNodes(List<Long> nodeIds) {
+		ValidateArgument.required(nodeIds, "nodeIds");
+		if (nodeIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return namedParameterJdbcTemplate.query(SQL_SELECT_CURRENT_NODES, new MapSqlParameterSource(BIND_NODE_IDS, nodeIds), NODE_MAPPER);
+	}
+	
 	@Override
 	public Node getNodeForVersion(String id, Long versionNumber){
 		if(id == null) throw new IllegalArgumentException("Id cannot be null");
@@ -885,6 +924,7 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		String newName = updatedNode.getName();
 		Long newParentId = NodeUtils.translateNodeId(updatedNode.getParentId());
 		String newAlias = NodeUtils.translateAlias(updatedNode.getAlias());
+		Long oldParentId = getParentTypeName(nodeId).getParentId();
 
 		// Update the node.
 		try {
@@ -894,6 +934,9 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 			checkExceptionDetails(updatedNode.getName(), updatedNode.getAlias(), updatedNode.getParentId(),
 					new IllegalArgumentException(e));
 		}
+		if (!Objects.equals(oldParentId, newParentId)) {
+			nodeAncestorDao.moveNode(nodeId, newParentId);
+		}
 		// update the revision
 		long currentRevision = getCurrentRevisionNumber(updatedNode.getId());
 		Long newActivity = NodeUtils.translateActivityId(updatedNode.getActivityId());
@@ -953,6 +996,22 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		}
 	}
 
+	@Override
+	public Map<Long, Annotations> getUserAnnotationsForCurrentVersions(List<Long> nodeIds) {
+		ValidateArgument.required(nodeIds, "nodeIds");
+		Map<Long, Annotations> results = new HashMap<>(nodeIds.size());
+		if (nodeIds.isEmpty()) {
+			return results;
+		}
+		namedParameterJdbcTemplate.query(SQL_SELECT_CURRENT_USER_ANNOTATIONS, new MapSqlParameterSource(BIND_NODE_IDS, nodeIds), (ResultSet rs) -> {
+			Annotations userAnnotations = ANNOTATIONS_V2_ROW_MAPPER.mapRow(rs, rs.getRow());
+			// Remove the eTags (See PLFM-1420)
+			userAnnotations.setEtag(NodeConstants.ZERO_E_TAG);
+			results.put(rs.getLong(COL_NODE_ID), userAnnotations);
+		});
+		return results;
+	}
+
 	@WriteTransaction
 	@Override
 	public void updateEntityPropertyAnnotations(String nodeId, org.sagebionetworks.repo.model.Annotations updatedAnnos) throws NotFoundException, DatastoreException {
@@ -1053,6 +1112,8 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 
 	/**
 	 * Call the getEntityBenefactorId() function to get the node's benefactor.
+	 * Authorization depends on the benefactor, so unlike the other hierarchy
+	 * lookups it is never read from the node ancestor table.
 	 * 
 	 * @param nodeId
 	 * @return
@@ -1181,6 +1242,11 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	
 	@Override
 	public List<Long> getEntityPathIds(String nodeId) {
+		if (isReadFromAncestorTable()) {
+			List<Long> path = nodeAncestorDao.getPathIds(KeyFactory.stringToKey(nodeId));
+			validatePath(nodeId, path);
+			return path;
+		}
 		String selectColumns = COL_NODE_ID;
 		String sql = String.format(PATH_QUERY_TEMPLATE, selectColumns);
 		List<Long> path = jdbcTemplate.queryForList(sql, Long.class, KeyFactory.stringToKey(nodeId));
@@ -1190,6 +1256,11 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	
 	@Override
 	public List<NameIdType> getEntityPath(String nodeId) throws DatastoreException, NotFoundException {
+		if (isReadFromAncestorTable()) {
+			List<NameIdType> path = nodeAncestorDao.getPath(KeyFactory.stringToKey(nodeId));
+			validatePath(nodeId, path);
+			return path;
+		}
 		String selectColumns = COL_NODE_ID+","+COL_NODE_NAME+","+COL_NODE_TYPE;
 		String sql = String.format(PATH_QUERY_TEMPLATE, selectColumns);
 		List<NameIdType> path = jdbcTemplate.query(sql, NAME_ID_TYPE_ROWMAPPER, KeyFactory.stringToKey(nodeId));
@@ -1567,6 +1638,13 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 			return Collections.emptySet();
 		}
 		Set<Long> results = new LinkedHashSet<Long>(parentIds);
+		if (isReadFromAncestorTable()) {
+			List<Long> containers = nodeAncestorDao.getContainerIds(parentIds, maxNumberIds + 1);
+			if (containers.size() > maxNumberIds || containers.size() + results.size() > maxNumberIds) {
+				throw new LimitExceededException(MAXIMUM_NUMBER_OF_IDS_EXCEEDED);
+			}
+			return new HashSet<>(containers);
+		}
 		Map<String, Object> parameters = new HashMap<String, Object>(2);
 		parameters.put(PARAM_NAME_IDS, parentIds);
 		parameters.put(BIND_LIMIT, maxNumberIds+1);
@@ -1637,7 +1715,8 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	public String getProjectId(String nodeId) {
 		ValidateArgument.required(nodeId, "nodeId");
 		long nodeIdLong = KeyFactory.stringToKey(nodeId);
-		Long projectId = this.jdbcTemplate.queryForObject(SELECT_FUNCTION_PROJECT_ID, Long.class, nodeIdLong);
+		Long projectId = isReadFromAncestorTable() ? nodeAncestorDao.getProjectId(nodeIdLong)
+				: this.jdbcTemplate.queryForObject(SELECT_FUNCTION_PROJECT_ID, Long.class, nodeIdLong);
 		if(projectId == null){
 			/*
 			 * ProjectId will be null if the node does not exist or if the node
@@ -1651,6 +1730,27 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		return KeyFactory.keyToString(projectId);
 	}
 	
+	@Override
+	public Map<Long, Long> getProjectIds(Collection<Long> nodeIds) {
+		ValidateArgument.required(nodeIds, "nodeIds");
+		if (nodeIds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		if (isReadFromAncestorTable()) {
+			return nodeAncestorDao.getProjectIds(nodeIds);
+		}
+		Map<Long, Long> results = new HashMap<>(nodeIds.size());
+		namedParameterJdbcTemplate.query(SQL_SELECT_PROJECT_IDS, new MapSqlParameterSource(BIND_NODE_IDS, nodeIds),
+				(ResultSet rs) -> {
+					long projectId = rs.getLong(PROJECT_ID_ALIAS);
+					// Null for nodes in the trash and negative for loops.
+					if (!rs.wasNull() && projectId >= 0) {
+						results.put(rs.getLong(COL_NODE_ID), projectId);
+					}
+				});
+		return results;
+	}
+	
 	@Override
 	public String getBenefactor(String nodeId) {
 		ValidateArgument.required(nodeId, "nodeId");
@@ -1947,6 +2047,24 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		return results;
 	}
 
+	@Override
+	public Map<Long, Long> getBenefactors(List<Long> nodeIds) {
+		ValidateArgument.required(nodeIds, "nodeIds");
+		Map<Long, Long> results = new HashMap<>(nodeIds.size());
+		if (nodeIds.isEmpty()) {
+			return results;
+		}
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put(BIND_NODE_IDS, nodeIds);
+		namedParameterJdbcTemplate.query(SQL_SELECT_BENEFACTORS, parameters, (ResultSet rs) -> {
+			long benefactorId = rs.getLong(BENEFACTOR_ALIAS);
+			if (!rs.wasNull()) {
+				results.put(rs.getLong(COL_NODE_ID), benefactorId);
+			}
+		});
+		return results;
+	}
+
 	@WriteTransaction
 	@Override
 	public String touch(Long userId, String nodeIdString) {
@@ -2,6 +2,11 @@ package org.sagebionetworks.repo.model.dbo.dao.table;
 
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ID_SEQUENCE;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ID_SEQUENCE_TABLE_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ROW_LAST_CHANGE_CHANGE_NUMBER;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ROW_LAST_CHANGE_ROW_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ROW_LAST_CHANGE_START_CHANGE_NUMBER;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ROW_LAST_CHANGE_START_TABLE_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ROW_LAST_CHANGE_TABLE_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_KEY_NEW;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_TABLE_ETAG;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_TABLE_ID;
@@ -10,7 +15,10 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_RO
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_ROW_VERSION;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_TRX_TO_VER_TRX_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_TABLE_TRX_TO_VER_VER_NUM;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.MAX_LONGS_PER_IN_CLAUSE;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_ROW_CHANGE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_ROW_LAST_CHANGE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_ROW_LAST_CHANGE_START;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_TABLE_ID_SEQUENCE;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_TABLE_TRX_TO_VERSION;
 
@@ -19,9 +27,13 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.sagebionetworks.aws.SynapseS3Client;
 import org.sagebionetworks.repo.model.dao.table.TableRowTruthDAO;
@@ -47,8 +59,11 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 import com.amazonaws.services.s3.model.S3Object;
+import com.google.common.collect.Iterables;
 
 /**
  * Basic S3 & RDS implementation of the TableRowTruthDAO.
@@ -116,11 +131,37 @@ public class TableRowTruthDAOImpl implements TableRowTruthDAO {
 			+ COL_ID_SEQUENCE_TABLE_ID + " > 0";
 	private static final String SQL_SELECT_SEQUENCE_FOR_UPDATE = "SELECT * FROM " + TABLE_TABLE_ID_SEQUENCE + " WHERE "
 			+ COL_ID_SEQUENCE_TABLE_ID + " = ? FOR UPDATE";
+
+	// The row last changes are written with multi-row inserts of up to this many rows.
+	static final int ROW_LAST_CHANGE_BATCH_SIZE = 1000;
+	private static final String SQL_UPSERT_ROW_LAST_CHANGE_PREFIX = "INSERT INTO " + TABLE_ROW_LAST_CHANGE + " ("
+			+ COL_ROW_LAST_CHANGE_TABLE_ID + ", " + COL_ROW_LAST_CHANGE_ROW_ID + ", " + COL_ROW_LAST_CHANGE_CHANGE_NUMBER
+			+ ") VALUES ";
+	private static final String SQL_UPSERT_ROW_LAST_CHANGE_VALUES = "(?, ?, ?)";
+	// A row can only move forward to a later change.
+	private static final String SQL_UPSERT_ROW_LAST_CHANGE_SUFFIX = " ON DUPLICATE KEY UPDATE "
+			+ COL_ROW_LAST_CHANGE_CHANGE_NUMBER + " = GREATEST(" + COL_ROW_LAST_CHANGE_CHANGE_NUMBER + ", VALUES("
+			+ COL_ROW_LAST_CHANGE_CHANGE_NUMBER + "))";
+	// Only the first tracked change of a table is kept.
+	private static final String SQL_INSERT_ROW_LAST_CHANGE_START = "INSERT IGNORE INTO " + TABLE_ROW_LAST_CHANGE_START
+			+ " (" + COL_ROW_LAST_CHANGE_START_TABLE_ID + ", " + COL_ROW_LAST_CHANGE_START_CHANGE_NUMBER
+			+ ") VALUES (?, ?)";
+	private static final String SQL_SELECT_ROW_LAST_CHANGE_START = "SELECT " + COL_ROW_LAST_CHANGE_START_CHANGE_NUMBER
+			+ " FROM " + TABLE_ROW_LAST_CHANGE_START + " WHERE " + COL_ROW_LAST_CHANGE_START_TABLE_ID + " = ?";
+	private static final String SQL_SELECT_ROW_IDS_CHANGED_AFTER = "SELECT " + COL_ROW_LAST_CHANGE_ROW_ID + " FROM "
+			+ TABLE_ROW_LAST_CHANGE + " WHERE " + COL_ROW_LAST_CHANGE_TABLE_ID + " = :tableId AND "
+			+ COL_ROW_LAST_CHANGE_ROW_ID + " IN (:rowIds) AND " + COL_ROW_LAST_CHANGE_CHANGE_NUMBER + " > :changeNumber";
+	private static final String SQL_DELETE_ROW_LAST_CHANGE_FOR_TABLE = "DELETE FROM " + TABLE_ROW_LAST_CHANGE
+			+ " WHERE " + COL_ROW_LAST_CHANGE_TABLE_ID + " = ?";
+	private static final String SQL_DELETE_ROW_LAST_CHANGE_START_FOR_TABLE = "DELETE FROM "
+			+ TABLE_ROW_LAST_CHANGE_START + " WHERE " + COL_ROW_LAST_CHANGE_START_TABLE_ID + " = ?";
 	@Autowired
 	private DBOBasicDao basicDao;
 	@Autowired
 	private JdbcTemplate jdbcTemplate;
 	@Autowired
+	private NamedParameterJdbcTemplate namedJdbcTemplate;
+	@Autowired
 	private SynapseS3Client s3Client;
 	@Autowired
 	private FileProvider fileProvider;
@@ -200,9 +241,48 @@ public class TableRowTruthDAOImpl implements TableRowTruthDAO {
 		changeDBO.setChangeType(TableChangeType.ROW.name());
 		changeDBO.setTransactionId(transactionId);
 		basicDao.createNew(changeDBO);
+		trackRowChanges(changeDBO.getTableId(), versionNumber, delta);
 		return key;
 	}
 
+	/**
+	 * Record the given change as the last change of each row in the delta, so
+	 * conflicts can be detected without reading the changes from S3.
+	 * 
+	 * @param tableId
+	 * @param changeNumber
+	 * @param delta
+	 */
+	void trackRowChanges(long tableId, long changeNumber, SparseChangeSetDto delta) {
+		List<Long> rowIds = delta.getRows().stream().map(row -> row.getRowId()).filter(rowId -> rowId != null)
+				.collect(Collectors.toList());
+		// A single statement per batch since the driver sends each statement of a JDBC batch separately.
+		for (List<Long> batch : Iterables.partition(rowIds, ROW_LAST_CHANGE_BATCH_SIZE)) {
+			Object[] args = new Object[batch.size() * 3];
+			int index = 0;
+			for (Long rowId : batch) {
+				args[index++] = tableId;
+				args[index++] = rowId;
+				args[index++] = changeNumber;
+			}
+			jdbcTemplate.update(createUpsertRowLastChangeSql(batch.size()), args);
+		}
+		jdbcTemplate.update(SQL_INSERT_ROW_LAST_CHANGE_START, tableId, changeNumber);
+	}
+
+	/**
+	 * Create the SQL to insert or update the last change of the given number of
+	 * rows with a single statement.
+	 * 
+	 * @param rowCount
+	 * @return
+	 */
+	static String createUpsertRowLastChangeSql(int rowCount) {
+		return SQL_UPSERT_ROW_LAST_CHANGE_PREFIX
+				+ String.join(", ", Collections.nCopies(rowCount, SQL_UPSERT_ROW_LAST_CHANGE_VALUES))
+				+ SQL_UPSERT_ROW_LAST_CHANGE_SUFFIX;
+	}
+
 	@Override
 	public long appendSchemaChangeToTable(String userId, String tableId, List<String> current,
 			final List<ColumnChange> changes, long transactionId) {
@@ -505,6 +585,9 @@ public class TableRowTruthDAOImpl implements TableRowTruthDAO {
 		long tableId = KeyFactory.stringToKey(tableIdString);
 		jdbcTemplate.update("DELETE FROM " + TABLE_ROW_CHANGE + " WHERE " + COL_TABLE_ROW_TABLE_ID + " = ? AND "
 				+ COL_TABLE_ROW_VERSION + " = ?", tableId, changeNumber);
+		// The previous change of each row in the deleted change is unknown so tracking starts over.
+		jdbcTemplate.update(SQL_DELETE_ROW_LAST_CHANGE_FOR_TABLE, tableId);
+		jdbcTemplate.update(SQL_DELETE_ROW_LAST_CHANGE_START_FOR_TABLE, tableId);
 	}
 
 	@Override
@@ -523,4 +606,31 @@ public class TableRowTruthDAOImpl implements TableRowTruthDAO {
 		}
 	}
 
+	@Override
+	public Optional<Long> getFirstTrackedRowChangeNumber(String tableIdString) {
+		ValidateArgument.required(tableIdString, "tableId");
+		long tableId = KeyFactory.stringToKey(tableIdString);
+		try {
+			return Optional.of(jdbcTemplate.queryForObject(SQL_SELECT_ROW_LAST_CHANGE_START, Long.class, tableId));
+		} catch (EmptyResultDataAccessException e) {
+			return Optional.empty();
+		}
+	}
+
+	@Override
+	public Set<Long> getRowIdsChangedAfter(String tableIdString, Set<Long> rowIds, long changeNumber) {
+		ValidateArgument.required(tableIdString, "tableId");
+		ValidateArgument.required(rowIds, "rowIds");
+		long tableId = KeyFactory.stringToKey(tableIdString);
+		Set<Long> results = new HashSet<>();
+		for (List<Long> batch : Iterables.partition(rowIds, MAX_LONGS_PER_IN_CLAUSE / 2)) {
+			MapSqlParameterSource params = new MapSqlParameterSource();
+			params.addValue("tableId", tableId);
+			params.addValue("rowIds", batch);
+			params.addValue("changeNumber", changeNumber);
+			results.addAll(namedJdbcTemplate.queryForList(SQL_SELECT_ROW_IDS_CHANGED_AFTER, params, Long.class));
+		}
+		return results;
+	}
+
 }
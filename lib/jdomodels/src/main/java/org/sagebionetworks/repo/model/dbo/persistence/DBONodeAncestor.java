@@ -0,0 +1,136 @@
+package org.sagebionetworks.repo.model.dbo.persistence;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_ANCESTOR_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_DESCENDANT_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_DISTANCE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_FILE_NODE_ANCESTOR;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE_ANCESTOR;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * A single row of the node closure table: a link between a node and one of
+ * its ancestors. Each node is also linked to itself with a distance of zero.
+ * This table is derived from the parent IDs of the node table so it is not
+ * migrated.
+ *
+ */
+public class DBONodeAncestor implements DatabaseObject<DBONodeAncestor> {
+
+	private static FieldColumn[] FIELDS = new FieldColumn[] {
+			new FieldColumn("descendantId", COL_NODE_ANCESTOR_DESCENDANT_ID, true),
+			new FieldColumn("ancestorId", COL_NODE_ANCESTOR_ANCESTOR_ID, true),
+			new FieldColumn("distance", COL_NODE_ANCESTOR_DISTANCE) };
+
+	private Long descendantId;
+	private Long ancestorId;
+	private Integer distance;
+
+	@Override
+	public TableMapping<DBONodeAncestor> getTableMapping() {
+		return new TableMapping<DBONodeAncestor>() {
+
+			@Override
+			public DBONodeAncestor mapRow(ResultSet rs, int rowNum) throws SQLException {
+				DBONodeAncestor dbo = new DBONodeAncestor();
+				dbo.setDescendantId(rs.getLong(COL_NODE_ANCESTOR_DESCENDANT_ID));
+				dbo.setAncestorId(rs.getLong(COL_NODE_ANCESTOR_ANCESTOR_ID));
+				dbo.setDistance(rs.getInt(COL_NODE_ANCESTOR_DISTANCE));
+				return dbo;
+			}
+
+			@Override
+			public String getTableName() {
+				return TABLE_NODE_ANCESTOR;
+			}
+
+			@Override
+			public String getDDLFileName() {
+				return DDL_FILE_NODE_ANCESTOR;
+			}
+
+			@Override
+			public FieldColumn[] getFieldColumns() {
+				return FIELDS;
+			}
+
+			@Override
+			public Class<? extends DBONodeAncestor> getDBOClass() {
+				return DBONodeAncestor.class;
+			}
+		};
+	}
+
+	public Long getDescendantId() {
+		return descendantId;
+	}
+
+	public void setDescendantId(Long descendantId) {
+		this.descendantId = descendantId;
+	}
+
+	public Long getAncestorId() {
+		return ancestorId;
+	}
+
+	public void setAncestorId(Long ancestorId) {
+		this.ancestorId = ancestorId;
+	}
+
+	public Integer getDistance() {
+		return distance;
+	}
+
+	public void setDistance(Integer distance) {
+		this.distance = distance;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((ancestorId == null) ? 0 : ancestorId.hashCode());
+		result = prime * result + ((descendantId == null) ? 0 : descendantId.hashCode());
+		result = prime * result + ((distance == null) ? 0 : distance.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		DBONodeAncestor other = (DBONodeAncestor) obj;
+		if (ancestorId == null) {
+			if (other.ancestorId != null)
+				return false;
+		} else if (!ancestorId.equals(other.ancestorId))
+			return false;
+		if (descendantId == null) {
+			if (other.descendantId != null)
+				return false;
+		} else if (!descendantId.equals(other.descendantId))
+			return false;
+		if (distance == null) {
+			if (other.distance != null)
+				return false;
+		} else if (!distance.equals(other.distance))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "DBONodeAncestor [descendantId=" + descendantId + ", ancestorId=" + ancestorId + ", distance="
+				+ distance + "]";
+	}
+
+}
@@ -0,0 +1,203 @@
+package org.sagebionetworks.repo.model.dbo.persistence;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_SYNCH_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_SYNCH_NEXT_NODE_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_SYNCH_PASS_COMPLETED_ON;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_SYNCH_PASS_REPAIRED;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_SYNCH_PASS_STARTED_ON;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_FILE_NODE_ANCESTOR_SYNCH_STATUS;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE_ANCESTOR_SYNCH_STATUS;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * The state of the node ancestor synchronization shared by all of the workers
+ * of a stack. The table has a single row. Like the node ancestor table this is
+ * derived data so it is not migrated.
+ *
+ */
+public class DBONodeAncestorSynchStatus implements DatabaseObject<DBONodeAncestorSynchStatus> {
+
+	/**
+	 * The ID of the single row.
+	 */
+	public static final Long STATUS_ID = 1L;
+
+	private static FieldColumn[] FIELDS = new FieldColumn[] {
+			new FieldColumn("id", COL_NODE_ANCESTOR_SYNCH_ID, true),
+			new FieldColumn("nextNodeId", COL_NODE_ANCESTOR_SYNCH_NEXT_NODE_ID),
+			new FieldColumn("passStartedOn", COL_NODE_ANCESTOR_SYNCH_PASS_STARTED_ON),
+			new FieldColumn("passRepairedCount", COL_NODE_ANCESTOR_SYNCH_PASS_REPAIRED),
+			new FieldColumn("fullPassCompletedOn", COL_NODE_ANCESTOR_SYNCH_PASS_COMPLETED_ON) };
+
+	private Long id;
+	private Long nextNodeId;
+	private Long passStartedOn;
+	private Long passRepairedCount;
+	private Long fullPassCompletedOn;
+
+	@Override
+	public TableMapping<DBONodeAncestorSynchStatus> getTableMapping() {
+		return new TableMapping<DBONodeAncestorSynchStatus>() {
+
+			@Override
+			public DBONodeAncestorSynchStatus mapRow(ResultSet rs, int rowNum) throws SQLException {
+				DBONodeAncestorSynchStatus dbo = new DBONodeAncestorSynchStatus();
+				dbo.setId(rs.getLong(COL_NODE_ANCESTOR_SYNCH_ID));
+				dbo.setNextNodeId(rs.getLong(COL_NODE_ANCESTOR_SYNCH_NEXT_NODE_ID));
+				dbo.setPassStartedOn(getNullableLong(rs, COL_NODE_ANCESTOR_SYNCH_PASS_STARTED_ON));
+				dbo.setPassRepairedCount(rs.getLong(COL_NODE_ANCESTOR_SYNCH_PASS_REPAIRED));
+				dbo.setFullPassCompletedOn(getNullableLong(rs, COL_NODE_ANCESTOR_SYNCH_PASS_COMPLETED_ON));
+				return dbo;
+			}
+
+			@Override
+			public String getTableName() {
+				return TABLE_NODE_ANCESTOR_SYNCH_STATUS;
+			}
+
+			@Override
+			public String getDDLFileName() {
+				return DDL_FILE_NODE_ANCESTOR_SYNCH_STATUS;
+			}
+
+			@Override
+			public FieldColumn[] getFieldColumns() {
+				return FIELDS;
+			}
+
+			@Override
+			public Class<? extends DBONodeAncestorSynchStatus> getDBOClass() {
+				return DBONodeAncestorSynchStatus.class;
+			}
+		};
+	}
+
+	private static Long getNullableLong(ResultSet rs, String columnName) throws SQLException {
+		long value = rs.getLong(columnName);
+		return rs.wasNull() ? null : value;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	/**
+	 * The first node ID of the next range to check.
+	 *
+	 * @return
+	 */
+	public Long getNextNodeId() {
+		return nextNodeId;
+	}
+
+	public void setNextNodeId(Long nextNodeId) {
+		this.nextNodeId = nextNodeId;
+	}
+
+	/**
+	 * When the current pass started. Null if the next run starts a new pass.
+	 *
+	 * @return
+	 */
+	public Long getPassStartedOn() {
+		return passStartedOn;
+	}
+
+	public void setPassStartedOn(Long passStartedOn) {
+		this.passStartedOn = passStartedOn;
+	}
+
+	/**
+	 * The number of nodes repaired so far by the current pass.
+	 *
+	 * @return
+	 */
+	public Long getPassRepairedCount() {
+		return passRepairedCount;
+	}
+
+	public void setPassRepairedCount(Long passRepairedCount) {
+		this.passRepairedCount = passRepairedCount;
+	}
+
+	/**
+	 * When the last full pass over all of the node IDs completed. Null until the
+	 * first full pass completes.
+	 *
+	 * @return
+	 */
+	public Long getFullPassCompletedOn() {
+		return fullPassCompletedOn;
+	}
+
+	public void setFullPassCompletedOn(Long fullPassCompletedOn) {
+		this.fullPassCompletedOn = fullPassCompletedOn;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((fullPassCompletedOn == null) ? 0 : fullPassCompletedOn.hashCode());
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		result = prime * result + ((nextNodeId == null) ? 0 : nextNodeId.hashCode());
+		result = prime * result + ((passRepairedCount == null) ? 0 : passRepairedCount.hashCode());
+		result = prime * result + ((passStartedOn == null) ? 0 : passStartedOn.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		DBONodeAncestorSynchStatus other = (DBONodeAncestorSynchStatus) obj;
+		if (fullPassCompletedOn == null) {
+			if (other.fullPassCompletedOn != null)
+				return false;
+		} else if (!fullPassCompletedOn.equals(other.fullPassCompletedOn))
+			return false;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		} else if (!id.equals(other.id))
+			return false;
+		if (nextNodeId == null) {
+			if (other.nextNodeId != null)
+				return false;
+		} else if (!nextNodeId.equals(other.nextNodeId))
+			return false;
+		if (passRepairedCount == null) {
+			if (other.passRepairedCount != null)
+				return false;
+		} else if (!passRepairedCount.equals(other.passRepairedCount))
+			return false;
+		if (passStartedOn == null) {
+			if (other.passStartedOn != null)
+				return false;
+		} else if (!passStartedOn.equals(other.passStartedOn))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "DBONodeAncestorSynchStatus [id=" + id + ", nextNodeId=" + nextNodeId + ", passStartedOn="
+				+ passStartedOn + ", passRepairedCount=" + passRepairedCount + ", fullPassCompletedOn="
+				+ fullPassCompletedOn + "]";
+	}
+
+}
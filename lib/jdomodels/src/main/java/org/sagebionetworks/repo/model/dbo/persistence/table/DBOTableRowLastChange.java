@@ -0,0 +1,135 @@
+package org.sagebionetworks.repo.model.dbo.persistence.table;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ROW_LAST_CHANGE_CHANGE_NUMBER;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ROW_LAST_CHANGE_ROW_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ROW_LAST_CHANGE_TABLE_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_TABLE_ROW_LAST_CHANGE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_ROW_LAST_CHANGE;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * The number of the last change that modified a single row of a table. This
+ * table is derived from the row changes as they are appended so it is not
+ * migrated.
+ *
+ */
+public class DBOTableRowLastChange implements DatabaseObject<DBOTableRowLastChange> {
+
+	private static FieldColumn[] FIELDS = new FieldColumn[] {
+			new FieldColumn("tableId", COL_ROW_LAST_CHANGE_TABLE_ID, true),
+			new FieldColumn("rowId", COL_ROW_LAST_CHANGE_ROW_ID, true),
+			new FieldColumn("changeNumber", COL_ROW_LAST_CHANGE_CHANGE_NUMBER) };
+
+	private Long tableId;
+	private Long rowId;
+	private Long changeNumber;
+
+	@Override
+	public TableMapping<DBOTableRowLastChange> getTableMapping() {
+		return new TableMapping<DBOTableRowLastChange>() {
+
+			@Override
+			public DBOTableRowLastChange mapRow(ResultSet rs, int rowNum) throws SQLException {
+				DBOTableRowLastChange dbo = new DBOTableRowLastChange();
+				dbo.setTableId(rs.getLong(COL_ROW_LAST_CHANGE_TABLE_ID));
+				dbo.setRowId(rs.getLong(COL_ROW_LAST_CHANGE_ROW_ID));
+				dbo.setChangeNumber(rs.getLong(COL_ROW_LAST_CHANGE_CHANGE_NUMBER));
+				return dbo;
+			}
+
+			@Override
+			public String getTableName() {
+				return TABLE_ROW_LAST_CHANGE;
+			}
+
+			@Override
+			public String getDDLFileName() {
+				return DDL_TABLE_ROW_LAST_CHANGE;
+			}
+
+			@Override
+			public FieldColumn[] getFieldColumns() {
+				return FIELDS;
+			}
+
+			@Override
+			public Class<? extends DBOTableRowLastChange> getDBOClass() {
+				return DBOTableRowLastChange.class;
+			}
+		};
+	}
+
+	public Long getTableId() {
+		return tableId;
+	}
+
+	public void setTableId(Long tableId) {
+		this.tableId = tableId;
+	}
+
+	public Long getRowId() {
+		return rowId;
+	}
+
+	public void setRowId(Long rowId) {
+		this.rowId = rowId;
+	}
+
+	public Long getChangeNumber() {
+		return changeNumber;
+	}
+
+	public void setChangeNumber(Long changeNumber) {
+		this.changeNumber = changeNumber;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((changeNumber == null) ? 0 : changeNumber.hashCode());
+		result = prime * result + ((rowId == null) ? 0 : rowId.hashCode());
+		result = prime * result + ((tableId == null) ? 0 : tableId.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		DBOTableRowLastChange other = (DBOTableRowLastChange) obj;
+		if (changeNumber == null) {
+			if (other.changeNumber != null)
+				return false;
+		} else if (!changeNumber.equals(other.changeNumber))
+			return false;
+		if (rowId == null) {
+			if (other.rowId != null)
+				return false;
+		} else if (!rowId.equals(other.rowId))
+			return false;
+		if (tableId == null) {
+			if (other.tableId != null)
+				return false;
+		} else if (!tableId.equals(other.tableId))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "DBOTableRowLastChange [tableId=" + tableId + ", rowId=" + rowId + ", changeNumber=" + changeNumber
+				+ "]";
+	}
+
+}
@@ -0,0 +1,117 @@
+package org.sagebionetworks.repo.model.dbo.persistence.table;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ROW_LAST_CHANGE_START_CHANGE_NUMBER;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_ROW_LAST_CHANGE_START_TABLE_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_TABLE_ROW_LAST_CHANGE_START;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_ROW_LAST_CHANGE_START;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * The first change number of a table that is recorded in
+ * {@link DBOTableRowLastChange}. Row changes before this number were appended
+ * before the rows of the table were tracked. This table is derived so it is
+ * not migrated.
+ *
+ */
+public class DBOTableRowLastChangeStart implements DatabaseObject<DBOTableRowLastChangeStart> {
+
+	private static FieldColumn[] FIELDS = new FieldColumn[] {
+			new FieldColumn("tableId", COL_ROW_LAST_CHANGE_START_TABLE_ID, true),
+			new FieldColumn("changeNumber", COL_ROW_LAST_CHANGE_START_CHANGE_NUMBER) };
+
+	private Long tableId;
+	private Long changeNumber;
+
+	@Override
+	public TableMapping<DBOTableRowLastChangeStart> getTableMapping() {
+		return new TableMapping<DBOTableRowLastChangeStart>() {
+
+			@Override
+			public DBOTableRowLastChangeStart mapRow(ResultSet rs, int rowNum) throws SQLException {
+				DBOTableRowLastChangeStart dbo = new DBOTableRowLastChangeStart();
+				dbo.setTableId(rs.getLong(COL_ROW_LAST_CHANGE_START_TABLE_ID));
+				dbo.setChangeNumber(rs.getLong(COL_ROW_LAST_CHANGE_START_CHANGE_NUMBER));
+				return dbo;
+			}
+
+			@Override
+			public String getTableName() {
+				return TABLE_ROW_LAST_CHANGE_START;
+			}
+
+			@Override
+			public String getDDLFileName() {
+				return DDL_TABLE_ROW_LAST_CHANGE_START;
+			}
+
+			@Override
+			public FieldColumn[] getFieldColumns() {
+				return FIELDS;
+			}
+
+			@Override
+			public Class<? extends DBOTableRowLastChangeStart> getDBOClass() {
+				return DBOTableRowLastChangeStart.class;
+			}
+		};
+	}
+
+	public Long getTableId() {
+		return tableId;
+	}
+
+	public void setTableId(Long tableId) {
+		this.tableId = tableId;
+	}
+
+	public Long getChangeNumber() {
+		return changeNumber;
+	}
+
+	public void setChangeNumber(Long changeNumber) {
+		this.changeNumber = changeNumber;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((changeNumber == null) ? 0 : changeNumber.hashCode());
+		result = prime * result + ((tableId == null) ? 0 : tableId.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		DBOTableRowLastChangeStart other = (DBOTableRowLastChangeStart) obj;
+		if (changeNumber == null) {
+			if (other.changeNumber != null)
+				return false;
+		} else if (!changeNumber.equals(other.changeNumber))
+			return false;
+		if (tableId == null) {
+			if (other.tableId != null)
+				return false;
+		} else if (!tableId.equals(other.tableId))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "DBOTableRowLastChangeStart [tableId=" + tableId + ", changeNumber=" + changeNumber + "]";
+	}
+
+}
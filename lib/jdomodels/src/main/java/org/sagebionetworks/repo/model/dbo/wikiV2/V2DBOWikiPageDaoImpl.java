@@ -31,9 +31,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -63,6 +65,7 @@ import org.sagebionetworks.repo.model.v2.wiki.V2WikiOrderHint;
 import org.sagebionetworks.repo.model.v2.wiki.V2WikiPage;
 import org.sagebionetworks.repo.transactions.WriteTransaction;
 import org.sagebionetworks.repo.web.NotFoundException;
+import org.sagebionetworks.util.ContentCache;
 import org.sagebionetworks.util.ValidateArgument;
 import org.sagebionetworks.utils.ContentTypeUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -108,6 +111,18 @@ public class V2DBOWikiPageDaoImpl implements V2WikiPageDao {
 
 	@Autowired
 	private FileHandleDao fileMetadataDao;	
+	
+	private ContentCache markdownCache;
+	
+	/**
+	 * Injected. Markdown file handles are never modified so their content is
+	 * cached by file handle ID.
+	 * 
+	 * @param markdownCache
+	 */
+	public void setMarkdownCache(ContentCache markdownCache) {
+		this.markdownCache = markdownCache;
+	}
 
 	/**
 	 * Used to detect if a wiki object already exists.
@@ -122,6 +137,13 @@ public class V2DBOWikiPageDaoImpl implements V2WikiPageDao {
 	private static final String SQL_DELETE_USING_ID_AND_ROOT = "DELETE FROM "+V2_TABLE_WIKI_PAGE+" WHERE "+V2_COL_WIKI_ID+" = ? AND "+V2_COL_WIKI_ROOT_ID+" = ?";
 	private static final String WIKI_HEADER_SELECT = V2_COL_WIKI_ID+", "+V2_COL_WIKI_TITLE+", "+V2_COL_WIKI_PARENT_ID;
 	private static final String SQL_SELECT_CHILDREN_HEADERS = "SELECT "+WIKI_HEADER_SELECT+" FROM "+V2_TABLE_WIKI_PAGE+" WHERE "+V2_COL_WIKI_ROOT_ID+" = ? ORDER BY "+V2_COL_WIKI_PARENT_ID+", "+V2_COL_WIKI_TITLE+" LIMIT ? OFFSET ?";
+	private static final String BIND_OWNER_IDS = "ownerIds";
+	private static final String BIND_OWNER_TYPE = "ownerType";
+	private static final String SQL_SELECT_PAGES_FOR_OWNERS = "SELECT O."+V2_COL_WIKI_ONWERS_OWNER_ID+", P."+V2_COL_WIKI_ID+", P."+V2_COL_WIKI_TITLE+", P."+V2_COL_WIKI_PARENT_ID+", M."+V2_COL_WIKI_MARKDOWN_FILE_HANDLE_ID
+			+" FROM "+V2_TABLE_WIKI_OWNERS+" O JOIN "+V2_TABLE_WIKI_PAGE+" P ON (P."+V2_COL_WIKI_ROOT_ID+" = O."+V2_COL_WIKI_ONWERS_ROOT_WIKI_ID+")"
+			+" JOIN "+V2_TABLE_WIKI_MARKDOWN+" M ON (M."+V2_COL_WIKI_MARKDOWN_ID+" = P."+V2_COL_WIKI_ID+" AND M."+V2_COL_WIKI_MARKDOWN_VERSION_NUM+" = P."+V2_COL_WIKI_MARKDOWN_VERSION+")"
+			+" WHERE O."+V2_COL_WIKI_ONWERS_OWNER_ID+" IN (:"+BIND_OWNER_IDS+") AND O."+V2_COL_WIKI_ONWERS_OBJECT_TYPE+" = :"+BIND_OWNER_TYPE
+			+" ORDER BY O."+V2_COL_WIKI_ONWERS_OWNER_ID+", P."+V2_COL_WIKI_PARENT_ID+", P."+V2_COL_WIKI_TITLE;
 	private static final String SQL_LOCK_FOR_UPDATE = "SELECT "+V2_COL_WIKI_ETAG+" FROM "+V2_TABLE_WIKI_PAGE+" WHERE "+V2_COL_WIKI_ID+" = ? FOR UPDATE";
 	private static final String SQL_LOCK_OWNERS_FOR_UPDATE = "SELECT "+V2_COL_WIKI_OWNERS_ETAG+" FROM "+V2_TABLE_WIKI_OWNERS+" WHERE "+V2_COL_WIKI_ONWERS_ROOT_WIKI_ID+" = ? FOR UPDATE";
 	private static final String SQL_COUNT_ALL_WIKIPAGES = "SELECT COUNT(*) FROM "+V2_TABLE_WIKI_PAGE;
@@ -518,13 +540,26 @@ public class V2DBOWikiPageDaoImpl implements V2WikiPageDao {
 	@Override
 	public String getMarkdown(WikiPageKey key, Long version) throws IOException, NotFoundException {
 		V2WikiPage wiki = get(key, version);
-		S3FileHandle markdownHandle = (S3FileHandle) fileMetadataDao.get(wiki.getMarkdownFileHandleId());
+		return getMarkdownForFileHandle(wiki.getMarkdownFileHandleId());
+	}
+	
+	@Override
+	public String getMarkdownForFileHandle(String markdownFileHandleId) throws IOException, NotFoundException {
+		ValidateArgument.required(markdownFileHandleId, "markdownFileHandleId");
+		Optional<String> cached = markdownCache.get(markdownFileHandleId);
+		if (cached.isPresent()) {
+			return cached.get();
+		}
+		S3FileHandle markdownHandle = (S3FileHandle) fileMetadataDao.get(markdownFileHandleId);
 		S3Object s3Object = s3Client.getObject(markdownHandle.getBucketName(), markdownHandle.getKey());
 		String contentType = s3Object.getObjectMetadata().getContentType();
 		Charset charset = ContentTypeUtil.getCharsetFromContentTypeString(contentType);
+		String markdown;
 		try (InputStream in = s3Object.getObjectContent()) {
-			return FileUtils.readStreamAsString(in, charset, /*gunzip*/true);
+			markdown = FileUtils.readStreamAsString(in, charset, /*gunzip*/true);
 		}
+		markdownCache.put(markdownFileHandleId, markdown);
+		return markdown;
 	}
 	
 	@Override
@@ -667,6 +702,28 @@ public class V2DBOWikiPageDaoImpl implements V2WikiPageDao {
 		return jdbcTemplate.query(SQL_SELECT_CHILDREN_HEADERS, WIKI_HEADER_ROW_MAPPER, root, limit, offset);
 	}
 	
+	@Override
+	public Map<Long, List<V2WikiPage>> getPagesForOwners(List<Long> ownerIds, ObjectType ownerType) {
+		ValidateArgument.required(ownerIds, "ownerIds");
+		ValidateArgument.required(ownerType, "ownerType");
+		Map<Long, List<V2WikiPage>> results = new HashMap<>(ownerIds.size());
+		if (ownerIds.isEmpty()) {
+			return results;
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue(BIND_OWNER_IDS, ownerIds);
+		params.addValue(BIND_OWNER_TYPE, ownerType.name());
+		namedTemplate.query(SQL_SELECT_PAGES_FOR_OWNERS, params, (ResultSet rs) -> {
+			V2WikiPage page = new V2WikiPage();
+			page.setId(String.valueOf(rs.getLong(V2_COL_WIKI_ID)));
+			page.setTitle(rs.getString(V2_COL_WIKI_TITLE));
+			page.setParentWikiId(rs.getString(V2_COL_WIKI_PARENT_ID));
+			page.setMarkdownFileHandleId(String.valueOf(rs.getLong(V2_COL_WIKI_MARKDOWN_FILE_HANDLE_ID)));
+			results.computeIfAbsent(rs.getLong(V2_COL_WIKI_ONWERS_OWNER_ID), (Long ownerId) -> new ArrayList<>()).add(page);
+		});
+		return results;
+	}
+	
 	/**
 	 * Propagation should be mandatory because this method should be called from within a transaction,
 	 * otherwise the lock won't be held. Not mandatory for testing.
@@ -29,6 +29,21 @@ public class SqlConstants {
 	public static final String COL_NODE_ALIAS 			= "ALIAS";
 	public static final String DDL_FILE_NODE			="schema/Node-ddl.sql";
 	
+	// The node ancestor (closure) table
+	public static final String TABLE_NODE_ANCESTOR				= "NODE_ANCESTOR";
+	public static final String COL_NODE_ANCESTOR_DESCENDANT_ID	= "DESCENDANT_ID";
+	public static final String COL_NODE_ANCESTOR_ANCESTOR_ID	= "ANCESTOR_ID";
+	public static final String COL_NODE_ANCESTOR_DISTANCE		= "DISTANCE";
+	public static final String DDL_FILE_NODE_ANCESTOR			="schema/NodeAncestor-ddl.sql";
+	// The state of the node ancestor synchronization
+	public static final String TABLE_NODE_ANCESTOR_SYNCH_STATUS			= "NODE_ANCESTOR_SYNCH_STATUS";
+	public static final String COL_NODE_ANCESTOR_SYNCH_ID					= "ID";
+	public static final String COL_NODE_ANCESTOR_SYNCH_NEXT_NODE_ID		= "NEXT_NODE_ID";
+	public static final String COL_NODE_ANCESTOR_SYNCH_PASS_STARTED_ON	= "PASS_STARTED_ON";
+	public static final String COL_NODE_ANCESTOR_SYNCH_PASS_REPAIRED		= "PASS_REPAIRED_COUNT";
+	public static final String COL_NODE_ANCESTOR_SYNCH_PASS_COMPLETED_ON	= "FULL_PASS_COMPLETED_ON";
+	public static final String DDL_FILE_NODE_ANCESTOR_SYNCH_STATUS		="schema/NodeAncestorSynchStatus-ddl.sql";
+	
 	// The Revision table
 	public static final String TABLE_REVISION 				= "JDOREVISION";
 	public static final String COL_REVISION_OWNER_NODE		= "OWNER_NODE_ID";
@@ -536,6 +551,19 @@ public class SqlConstants {
 	public static final String COL_TABLE_ROW_TRX_ID			= "TRX_ID";
 	public static final String DDL_TABLE_ROW_CHANGE = "schema/TableRowChange-ddl.sql";
 	
+	// The last change number that modified each row of a table.
+	public static final String TABLE_ROW_LAST_CHANGE				= "TABLE_ROW_LAST_CHANGE";
+	public static final String COL_ROW_LAST_CHANGE_TABLE_ID		= "TABLE_ID";
+	public static final String COL_ROW_LAST_CHANGE_ROW_ID		= "ROW_ID";
+	public static final String COL_ROW_LAST_CHANGE_CHANGE_NUMBER	= "CHANGE_NUMBER";
+	public static final String DDL_TABLE_ROW_LAST_CHANGE = "schema/TableRowLastChange-ddl.sql";
+	
+	// The first change number of each table recorded in TABLE_ROW_LAST_CHANGE.
+	public static final String TABLE_ROW_LAST_CHANGE_START				= "TABLE_ROW_LAST_CHANGE_START";
+	public static final String COL_ROW_LAST_CHANGE_START_TABLE_ID		= "TABLE_ID";
+	public static final String COL_ROW_LAST_CHANGE_START_CHANGE_NUMBER	= "CHANGE_NUMBER";
+	public static final String DDL_TABLE_ROW_LAST_CHANGE_START = "schema/TableRowLastChangeStart-ddl.sql";
+	
 	// Tracks view scope.
 	public static final String TABLE_VIEW_TYPE					= "VIEW_TYPE";
 	public static final String COL_VIEW_TYPE_VIEW_ID			= "VIEW_ID";
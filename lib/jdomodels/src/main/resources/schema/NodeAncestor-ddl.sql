@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS `NODE_ANCESTOR` (
+  `DESCENDANT_ID` BIGINT NOT NULL,
+  `ANCESTOR_ID` BIGINT NOT NULL,
+  `DISTANCE` INT NOT NULL,
+  PRIMARY KEY (`DESCENDANT_ID`, `ANCESTOR_ID`),
+  INDEX `NODE_ANCESTOR_ANCESTOR_DISTANCE` (`ANCESTOR_ID`, `DISTANCE`),
+  CONSTRAINT `NODE_ANCESTOR_DESCENDANT_FK` FOREIGN KEY (`DESCENDANT_ID`) REFERENCES `JDONODE` (`ID`) ON DELETE CASCADE,
+  CONSTRAINT `NODE_ANCESTOR_ANCESTOR_FK` FOREIGN KEY (`ANCESTOR_ID`) REFERENCES `JDONODE` (`ID`) ON DELETE CASCADE
+)
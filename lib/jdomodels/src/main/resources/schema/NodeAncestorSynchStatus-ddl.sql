@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS `NODE_ANCESTOR_SYNCH_STATUS` (
+  `ID` BIGINT NOT NULL,
+  `NEXT_NODE_ID` BIGINT NOT NULL,
+  `PASS_STARTED_ON` BIGINT DEFAULT NULL,
+  `PASS_REPAIRED_COUNT` BIGINT NOT NULL,
+  `FULL_PASS_COMPLETED_ON` BIGINT DEFAULT NULL,
+  PRIMARY KEY (`ID`)
+)
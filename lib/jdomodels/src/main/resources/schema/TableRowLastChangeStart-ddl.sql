@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS `TABLE_ROW_LAST_CHANGE_START` (
+  `TABLE_ID` BIGINT NOT NULL,
+  `CHANGE_NUMBER` BIGINT NOT NULL,
+  PRIMARY KEY (`TABLE_ID`),
+  CONSTRAINT `TABLE_ROW_LAST_CHANGE_START_TABLE_ID_FK` FOREIGN KEY (`TABLE_ID`) REFERENCES `TABLE_ID_SEQUENCE` (`TABLE_ID`) ON DELETE CASCADE
+)
@@ -158,6 +158,27 @@ public class PersonalAccessTokenDaoAutowiredTest {
 		assertTrue(updated.getLastUsed().after(tokenRecord.getLastUsed()));
 	}
 
+	@Test
+	void testUpdateLastUsedBatch() throws Exception {
+		AccessTokenRecord one = createTokenRecord(userId, new Date(System.currentTimeMillis() - ONE_DAY_MILLIS));
+		AccessTokenRecord two = createTokenRecord(userId, new Date(System.currentTimeMillis() - ONE_HOUR_MILLIS));
+
+		Date oneLastUsed = new Date(System.currentTimeMillis() - ONE_HOUR_MILLIS);
+		// older than the current value of two, so two must not change
+		Date twoLastUsed = new Date(System.currentTimeMillis() - ONE_DAY_MILLIS);
+		Map<String, Date> batch = new HashMap<>();
+		batch.put(one.getId(), oneLastUsed);
+		batch.put(two.getId(), twoLastUsed);
+
+		// method under test
+		personalAccessTokenDao.updateLastUsed(batch);
+
+		AccessTokenRecord updatedOne = personalAccessTokenDao.getTokenRecord(one.getId());
+		assertTrue(updatedOne.getLastUsed().after(one.getLastUsed()));
+		AccessTokenRecord updatedTwo = personalAccessTokenDao.getTokenRecord(two.getId());
+		assertEquals(two.getLastUsed(), updatedTwo.getLastUsed());
+	}
+
 	@Test
 	void testGetTokensPaginated() {
 		// Create two token records
@@ -10,10 +10,12 @@ import static org.junit.Assert.fail;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.After;
@@ -190,6 +192,18 @@ public class DBOAccessControlListDAOImplTest {
 		assertNull(acl);
 	}
 	
+	@Test
+	public void testGetAcls() throws Exception {
+		AccessControlList acl = aclList.iterator().next();
+		Long ownerId = KeyFactory.stringToKey(acl.getId());
+		// call under test
+		Map<Long, AccessControlList> results = aclDAO.getAcls(Arrays.asList(ownerId, -598787L), ObjectType.ENTITY);
+		assertEquals(Collections.singletonMap(ownerId, acl), results);
+		// the type must match
+		assertTrue(aclDAO.getAcls(Arrays.asList(ownerId), ObjectType.EVALUATION).isEmpty());
+		assertTrue(aclDAO.getAcls(Collections.emptyList(), ObjectType.ENTITY).isEmpty());
+	}
+	
 	@Test
 	public void testNOOP() {
 	
@@ -218,6 +232,19 @@ public class DBOAccessControlListDAOImplTest {
 		assertFalse(aclDAO.canAccess(gs, node.getId(), ObjectType.ENTITY, ACCESS_TYPE.READ));
 	}
 	
+	@Test
+	public void testGetAccessTypes() throws Exception {
+		Set<Long> gs = new HashSet<Long>();
+		gs.add(Long.parseLong(group.getId()));
+		// as expressed in 'setUp', 'group' only has 'READ' access to 'node'
+		assertEquals(Collections.singleton(ACCESS_TYPE.READ), aclDAO.getAccessTypes(gs, node.getId(), ObjectType.ENTITY));
+		// no other group has been given access
+		gs.clear();
+		gs.add(-34876387468764L);
+		assertTrue(aclDAO.getAccessTypes(gs, node.getId(), ObjectType.ENTITY).isEmpty());
+		assertTrue(aclDAO.getAccessTypes(Collections.emptySet(), node.getId(), ObjectType.ENTITY).isEmpty());
+	}
+	
 	@Test
 	public void testCanAccessStatus() throws Exception {
 		// call under test
@@ -186,6 +186,28 @@ public class DBOGroupMembersDAOImplTest {
 		assertTrue("Etag must have changed", !testGroup.getEtag().equals(updatedTestGroup.getEtag()));
 	}
 	
+	@Test
+	public void testRemoveMembersSendsMessage() throws Exception {
+		List<String> members = Arrays.asList(testUserOne.getId(), testUserTwo.getId());
+		groupMembersDAO.addMembers(testGroup.getId(), members);
+		changeDAO.deleteAllChanges();
+		long startChangeNumber = changeDAO.getCurrentChangeNumber();
+
+		groupMembersDAO.removeMembers(testGroup.getId(), Collections.singletonList(testUserOne.getId()));
+
+		// The group message is what invalidates the cached UserInfo of the removed member
+		List<ChangeMessage> changes = changeDAO.listChanges(startChangeNumber, ObjectType.PRINCIPAL, Long.MAX_VALUE);
+		assertNotNull(changes);
+		assertEquals(1, changes.size());
+		ChangeMessage message = changes.get(0);
+		assertEquals(ChangeType.UPDATE, message.getChangeType());
+		assertEquals(ObjectType.PRINCIPAL, message.getObjectType());
+		assertEquals(testGroup.getId(), message.getObjectId());
+		assertEquals(Collections.singletonList(testGroup.getId()),
+				groupMembersDAO.filterUserGroups(testUserTwo.getId(), Collections.singletonList(testGroup.getId())));
+		assertTrue(groupMembersDAO.filterUserGroups(testUserOne.getId(), Collections.singletonList(testGroup.getId())).isEmpty());
+	}
+
 	@Test(expected=IllegalArgumentException.class)
 	public void testAddGroupToGroup() throws Exception {
 		List<String> adder = new ArrayList<String>();
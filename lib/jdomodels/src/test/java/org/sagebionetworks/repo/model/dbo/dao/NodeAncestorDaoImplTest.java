@@ -0,0 +1,228 @@
+package org.sagebionetworks.repo.model.dbo.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.sagebionetworks.repo.model.AccessControlList;
+import org.sagebionetworks.repo.model.AccessControlListDAO;
+import org.sagebionetworks.repo.model.AuthorizationConstants.BOOTSTRAP_PRINCIPAL;
+import org.sagebionetworks.repo.model.Node;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.UserInfo;
+import org.sagebionetworks.repo.model.dbo.persistence.DBONodeAncestorSynchStatus;
+import org.sagebionetworks.repo.model.jdo.KeyFactory;
+import org.sagebionetworks.repo.model.jdo.NodeTestUtils;
+import org.sagebionetworks.repo.model.util.AccessControlListUtil;
+import org.sagebionetworks.repo.web.NotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(locations = { "classpath:jdomodels-test-context.xml" })
+public class NodeAncestorDaoImplTest {
+
+	@Autowired
+	private NodeAncestorDao nodeAncestorDao;
+	@Autowired
+	private NodeDAO nodeDao;
+	@Autowired
+	private AccessControlListDAO accessControlListDAO;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long creatorUserGroupId;
+	private String projectId;
+	private String folderOneId;
+	private String folderTwoId;
+	private String folderThreeId;
+
+	@BeforeEach
+	public void before() {
+		creatorUserGroupId = BOOTSTRAP_PRINCIPAL.THE_ADMIN_USER.getPrincipalId();
+		Node project = NodeTestUtils.createNew("ancestorProject", creatorUserGroupId);
+		project.setParentId(KeyFactory.keyToString(KeyFactory.ROOT_ID));
+		projectId = nodeDao.createNewNode(project).getId();
+		AccessControlList acl = AccessControlListUtil.createACLToGrantEntityAdminAccess(projectId,
+				new UserInfo(true, creatorUserGroupId), new Date());
+		accessControlListDAO.create(acl, ObjectType.ENTITY);
+		// project -> one -> two and project -> three
+		folderOneId = nodeDao.createNewNode(NodeTestUtils.createNew("one", creatorUserGroupId, projectId)).getId();
+		folderTwoId = nodeDao.createNewNode(NodeTestUtils.createNew("two", creatorUserGroupId, folderOneId)).getId();
+		folderThreeId = nodeDao.createNewNode(NodeTestUtils.createNew("three", creatorUserGroupId, projectId))
+				.getId();
+	}
+
+	@AfterEach
+	public void after() {
+		if (projectId != null) {
+			try {
+				nodeDao.deleteTree(projectId, 100);
+			} catch (NotFoundException e) {
+				// happens if the object no longer exists.
+			}
+		}
+	}
+
+	@Test
+	public void testAddNode() {
+		Long twoId = KeyFactory.stringToKey(folderTwoId);
+		List<Long> expectedPath = Arrays.asList(KeyFactory.ROOT_ID, KeyFactory.stringToKey(projectId),
+				KeyFactory.stringToKey(folderOneId), twoId);
+		// call under test
+		assertEquals(expectedPath, nodeAncestorDao.getPathIds(twoId));
+		// the ancestor table must match the answers of the parent walk.
+		assertEquals(nodeDao.getEntityPathIds(folderTwoId), nodeAncestorDao.getPathIds(twoId));
+		assertEquals(nodeDao.getEntityPath(folderTwoId), nodeAncestorDao.getPath(twoId));
+		assertEquals(KeyFactory.stringToKey(projectId), nodeAncestorDao.getProjectId(twoId));
+		assertEquals(KeyFactory.stringToKey(nodeDao.getBenefactor(folderTwoId)),
+				nodeAncestorDao.getBenefactorId(twoId));
+	}
+
+	@Test
+	public void testMoveNode() {
+		Node one = nodeDao.getNode(folderOneId);
+		one.setParentId(folderThreeId);
+		nodeDao.updateNode(one);
+		Long twoId = KeyFactory.stringToKey(folderTwoId);
+		List<Long> expectedPath = Arrays.asList(KeyFactory.ROOT_ID, KeyFactory.stringToKey(projectId),
+				KeyFactory.stringToKey(folderThreeId), KeyFactory.stringToKey(folderOneId), twoId);
+		// call under test
+		assertEquals(expectedPath, nodeAncestorDao.getPathIds(twoId));
+		assertEquals(nodeDao.getEntityPathIds(folderTwoId), nodeAncestorDao.getPathIds(twoId));
+		// nothing should be out of synch after the move
+		assertEquals(0L, nodeAncestorDao.synchronizeRange(KeyFactory.stringToKey(projectId), twoId));
+	}
+
+	@Test
+	public void testDeleteNode() {
+		nodeDao.deleteTree(folderOneId, 100);
+		// call under test
+		assertEquals(Collections.emptyList(), nodeAncestorDao.getPathIds(KeyFactory.stringToKey(folderTwoId)));
+		assertNull(nodeAncestorDao.getProjectId(KeyFactory.stringToKey(folderTwoId)));
+	}
+
+	@Test
+	public void testGetProjectIds() {
+		Long oneId = KeyFactory.stringToKey(folderOneId);
+		Long twoId = KeyFactory.stringToKey(folderTwoId);
+		Long doesNotExist = twoId + 1000;
+		Map<Long, Long> expected = new HashMap<>();
+		expected.put(oneId, KeyFactory.stringToKey(projectId));
+		expected.put(twoId, KeyFactory.stringToKey(projectId));
+		// call under test
+		assertEquals(expected, nodeAncestorDao.getProjectIds(Arrays.asList(oneId, twoId, doesNotExist)));
+		assertTrue(nodeAncestorDao.getProjectIds(Collections.emptyList()).isEmpty());
+	}
+
+	@Test
+	public void testGetContainerIds() throws Exception {
+		List<Long> parentIds = Collections.singletonList(KeyFactory.stringToKey(projectId));
+		// call under test
+		List<Long> containers = nodeAncestorDao.getContainerIds(parentIds, 100);
+		assertEquals(nodeDao.getAllContainerIds(parentIds, 100), new HashSet<>(containers));
+		assertEquals(4, containers.size());
+		assertTrue(nodeAncestorDao.getContainerIds(Collections.emptyList(), 100).isEmpty());
+	}
+
+	@Test
+	public void testSynchronizeRange() {
+		Long twoId = KeyFactory.stringToKey(folderTwoId);
+		List<Long> expectedPath = nodeAncestorDao.getPathIds(twoId);
+		jdbcTemplate.update("DELETE FROM NODE_ANCESTOR WHERE DESCENDANT_ID = ? AND DISTANCE > 0", twoId);
+		assertEquals(Collections.singletonList(twoId), nodeAncestorDao.getPathIds(twoId));
+		// call under test
+		assertEquals(1L, nodeAncestorDao.synchronizeRange(twoId, twoId));
+		assertEquals(expectedPath, nodeAncestorDao.getPathIds(twoId));
+		// a second pass finds nothing to repair.
+		assertEquals(0L, nodeAncestorDao.synchronizeRange(twoId, twoId));
+	}
+
+	@Test
+	public void testSynchronizeRangeClearsFullPass() {
+		Long twoId = KeyFactory.stringToKey(folderTwoId);
+		DBONodeAncestorSynchStatus status = nodeAncestorDao.getSynchStatus();
+		try {
+			status.setFullPassCompletedOn(456L);
+			nodeAncestorDao.setSynchStatus(status);
+			assertTrue(nodeAncestorDao.isFullPassComplete());
+			jdbcTemplate.update("DELETE FROM NODE_ANCESTOR WHERE DESCENDANT_ID = ? AND DISTANCE > 0", twoId);
+			// call under test
+			assertEquals(1L, nodeAncestorDao.synchronizeRange(twoId, twoId));
+			// the table was out of synch so it cannot be read from until the next clean pass.
+			assertFalse(nodeAncestorDao.isFullPassComplete());
+			assertNull(nodeAncestorDao.getSynchStatus().getFullPassCompletedOn());
+		} finally {
+			jdbcTemplate.update("DELETE FROM NODE_ANCESTOR_SYNCH_STATUS");
+		}
+	}
+
+	@Test
+	public void testClearFullPassComplete() {
+		DBONodeAncestorSynchStatus status = nodeAncestorDao.getSynchStatus();
+		try {
+			status.setFullPassCompletedOn(456L);
+			nodeAncestorDao.setSynchStatus(status);
+			assertTrue(nodeAncestorDao.isFullPassComplete());
+			// call under test
+			nodeAncestorDao.clearFullPassComplete();
+			assertFalse(nodeAncestorDao.isFullPassComplete());
+			DBONodeAncestorSynchStatus cleared = nodeAncestorDao.getSynchStatus();
+			assertNull(cleared.getFullPassCompletedOn());
+			// the position of the pass is kept.
+			assertEquals(status.getNextNodeId(), cleared.getNextNodeId());
+		} finally {
+			jdbcTemplate.update("DELETE FROM NODE_ANCESTOR_SYNCH_STATUS");
+		}
+	}
+
+	@Test
+	public void testGetMaxNodeId() {
+		assertTrue(nodeAncestorDao.getMaxNodeId() >= KeyFactory.stringToKey(folderThreeId));
+	}
+
+	@Test
+	public void testSynchStatus() {
+		jdbcTemplate.update("DELETE FROM NODE_ANCESTOR_SYNCH_STATUS");
+		try {
+			// call under test
+			DBONodeAncestorSynchStatus status = nodeAncestorDao.getSynchStatus();
+			assertEquals(DBONodeAncestorSynchStatus.STATUS_ID, status.getId());
+			assertEquals(0L, status.getNextNodeId());
+			assertEquals(0L, status.getPassRepairedCount());
+			assertNull(status.getPassStartedOn());
+			assertNull(status.getFullPassCompletedOn());
+
+			status.setNextNodeId(1000L);
+			status.setPassStartedOn(123L);
+			status.setPassRepairedCount(4L);
+			// call under test
+			nodeAncestorDao.setSynchStatus(status);
+			assertEquals(status, nodeAncestorDao.getSynchStatus());
+
+			status.setFullPassCompletedOn(456L);
+			status.setPassStartedOn(null);
+			nodeAncestorDao.setSynchStatus(status);
+			assertEquals(status, nodeAncestorDao.getSynchStatus());
+			assertTrue(nodeAncestorDao.isFullPassComplete());
+		} finally {
+			jdbcTemplate.update("DELETE FROM NODE_ANCESTOR_SYNCH_STATUS");
+		}
+	}
+}
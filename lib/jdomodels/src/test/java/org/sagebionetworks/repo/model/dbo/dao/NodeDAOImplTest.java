@@ -2762,6 +2762,29 @@ public class NodeDAOImplTest {
 		assertEquals(project.getId(), nodeDao.getProjectId(child.getId()));
 	}
 	
+	@Test
+	public void testGetProjectIds(){
+		Node project = NodeTestUtils.createNew("Project", creatorUserGroupId);
+		project.setNodeType(EntityType.project);
+		project = nodeDao.createNewNode(project);
+		toDelete.add(project.getId());
+		Node child = NodeTestUtils.createNew("child", creatorUserGroupId);
+		child.setParentId(project.getId());
+		child.setNodeType(EntityType.folder);
+		child = nodeDao.createNewNode(child);
+		toDelete.add(child.getId());
+		Long projectId = KeyFactory.stringToKey(project.getId());
+		Long childId = KeyFactory.stringToKey(child.getId());
+		Long doesNotExist = childId + 1000;
+		Map<Long, Long> expected = new HashMap<>();
+		expected.put(projectId, projectId);
+		expected.put(childId, projectId);
+		
+		// call under test
+		assertEquals(expected, nodeDao.getProjectIds(Arrays.asList(projectId, childId, doesNotExist)));
+		assertTrue(nodeDao.getProjectIds(Collections.emptyList()).isEmpty());
+	}
+	
 	/**
 	 * Test for PLFM-4369.
 	 * A timeout for this test means the function entered
@@ -4002,7 +4025,35 @@ public class NodeDAOImplTest {
 		assertFalse(availableIds.contains(twoId));
 		assertFalse(availableIds.contains(doesNotExist));
 	}
-	
+
+	@Test
+	public void testGetBenefactors(){
+		Node parent = NodeTestUtils.createNew("parent", creatorUserGroupId);
+		parent = nodeDao.createNewNode(parent);
+		Long parentId = KeyFactory.stringToKey(parent.getId());
+		toDelete.add(parent.getId());
+		AccessControlList acl = AccessControlListUtil.createACLToGrantEntityAdminAccess(parent.getId(), adminUser, new Date());
+		accessControlListDAO.create(acl, ObjectType.ENTITY);
+		Node child = NodeTestUtils.createNew("child", creatorUserGroupId);
+		child.setParentId(parent.getId());
+		child = nodeDao.createNewNode(child);
+		Long childId = KeyFactory.stringToKey(child.getId());
+		toDelete.add(child.getId());
+		Long doesNotExist = -1L;
+		// call under test
+		Map<Long, Long> benefactors = nodeDao.getBenefactors(Lists.newArrayList(parentId, childId, doesNotExist));
+		assertEquals(2, benefactors.size());
+		assertEquals(parentId, benefactors.get(parentId));
+		assertEquals(parentId, benefactors.get(childId));
+		assertFalse(benefactors.containsKey(doesNotExist));
+	}
+
+	@Test
+	public void testGetBenefactorsEmpty(){
+		// call under test
+		assertTrue(nodeDao.getBenefactors(Collections.emptyList()).isEmpty());
+	}
+
 	@Test
 	public void testTouch() throws InterruptedException {
 		Long user1Id = Long.parseLong(user1);
@@ -4267,6 +4318,58 @@ public class NodeDAOImplTest {
 		assertEquals(newNodeVersionAnnotations.getAnnotations(), retrievedNewVersion.getAnnotations());
 	}
 
+	@Test
+	public void testGetNodes(){
+		Node one = nodeDao.createNewNode(privateCreateNew("testGetNodesOne"));
+		toDelete.add(one.getId());
+		Node two = nodeDao.createNewNode(privateCreateNew("testGetNodesTwo"));
+		toDelete.add(two.getId());
+		List<Long> nodeIds = Arrays.asList(KeyFactory.stringToKey(one.getId()), KeyFactory.stringToKey(two.getId()), -1L);
+		// call under test
+		List<Node> results = nodeDao.getNodes(nodeIds);
+		assertEquals(2, results.size());
+		Map<String, Node> byId = new HashMap<>();
+		for (Node node : results) {
+			byId.put(node.getId(), node);
+		}
+		assertEquals(nodeDao.getNode(one.getId()), byId.get(one.getId()));
+		assertEquals(nodeDao.getNode(two.getId()), byId.get(two.getId()));
+		assertTrue(nodeDao.getNodes(Collections.emptyList()).isEmpty());
+	}
+
+	@Test
+	public void testGetUserAnnotationsForCurrentVersions(){
+		Node node = nodeDao.createNewNode(privateCreateNew("testGetUserAnnotationsForCurrentVersions"));
+		String nodeId = node.getId();
+		toDelete.add(nodeId);
+		Node noAnnotations = nodeDao.createNewNode(privateCreateNew("testGetUserAnnotationsForCurrentVersionsEmpty"));
+		toDelete.add(noAnnotations.getId());
+
+		Annotations oldNodeVersionAnnotations = new Annotations();
+		oldNodeVersionAnnotations.setAnnotations(Collections.singletonMap(
+				"myKey",
+				AnnotationsV2TestUtils.createNewValue(AnnotationsValueType.STRING, "version1Value")));
+		nodeDao.updateUserAnnotations(nodeId, oldNodeVersionAnnotations);
+		node.setVersionComment("Comment "+2);
+		node.setVersionLabel("2");
+		nodeDao.createNewVersion(node);
+		Annotations newNodeVersionAnnotations = new Annotations();
+		newNodeVersionAnnotations.setAnnotations(Collections.singletonMap(
+				"myKey",
+				AnnotationsV2TestUtils.createNewValue(AnnotationsValueType.STRING, "version2Value")));
+		nodeDao.updateUserAnnotations(nodeId, newNodeVersionAnnotations);
+
+		Long id = KeyFactory.stringToKey(nodeId);
+		Long noAnnotationsId = KeyFactory.stringToKey(noAnnotations.getId());
+		// call under test
+		Map<Long, Annotations> results = nodeDao.getUserAnnotationsForCurrentVersions(Arrays.asList(id, noAnnotationsId));
+		assertEquals(2, results.size());
+		// only the current version is included.
+		assertEquals(nodeDao.getUserAnnotationsForVersion(nodeId, nodeDao.getCurrentRevisionNumber(nodeId)), results.get(id));
+		assertEquals(newNodeVersionAnnotations.getAnnotations(), results.get(id).getAnnotations());
+		assertTrue(results.get(noAnnotationsId).getAnnotations().isEmpty());
+	}
+
 	@Test
 	public void testEntityPropertiesRoundTrip(){
 
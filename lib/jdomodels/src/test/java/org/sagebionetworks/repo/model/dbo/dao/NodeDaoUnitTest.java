@@ -55,6 +55,9 @@ public class NodeDaoUnitTest {
 
 	@Mock
 	private DBOBasicDao mockDboBasicDao;
+
+	@Mock
+	private NodeAncestorDao mockNodeAncestorDao;
 	
 	@InjectMocks
 	private NodeDAOImpl nodeDao;
@@ -155,6 +158,7 @@ public class NodeDaoUnitTest {
 		assertEquals(ObjectType.ENTITY, sent.getObjectType());
 		assertEquals(node.getCreatedByPrincipalId(), sent.getUserId());
 		assertEquals(ChangeType.CREATE, sent.getChangeType());
+		verify(mockNodeAncestorDao).addNode(0L, null);
 	}
 	
 	@Test
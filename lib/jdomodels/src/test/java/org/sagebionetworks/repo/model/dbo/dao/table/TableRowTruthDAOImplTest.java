@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.After;
 import org.junit.Before;
@@ -40,6 +41,7 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(locations = { "classpath:jdomodels-test-context.xml" })
@@ -593,4 +595,73 @@ public class TableRowTruthDAOImplTest {
 			tableRowTruthDao.isEtagInTablesChangeHistory(tableId, etag);
 		});
 	}
+	
+	@Test
+	public void testGetFirstTrackedRowChangeNumberNoChanges() {
+		// call under test
+		assertEquals(Optional.empty(), tableRowTruthDao.getFirstTrackedRowChangeNumber(tableId));
+	}
+	
+	@Test
+	public void testGetRowIdsChangedAfter() throws IOException {
+		List<ColumnModel> columns = TableModelTestUtils.createOneOfEachType();
+		List<Row> rows = TableModelTestUtils.createRows(columns, 5);
+		RawRowSet set = new RawRowSet(TableModelUtils.getIds(columns), null, tableId, rows);
+		// rows 0-4 are added by the first change.
+		long firstChange = appendRowSetToTable(creatorUserGroupId, tableId, columns, set);
+		// update rows one and three
+		List<Row> updates = TableModelTestUtils.createRows(columns, 2);
+		updates.get(0).setRowId(1L);
+		updates.get(0).setVersionNumber(firstChange);
+		updates.get(1).setRowId(3L);
+		updates.get(1).setVersionNumber(firstChange);
+		set = new RawRowSet(TableModelUtils.getIds(columns), null, tableId, updates);
+		long secondChange = appendRowSetToTable(creatorUserGroupId, tableId, columns, set);
+		
+		assertEquals(Optional.of(firstChange), tableRowTruthDao.getFirstTrackedRowChangeNumber(tableId));
+		Set<Long> rowIds = Sets.newHashSet(0L, 1L, 2L, 3L);
+		// call under test
+		assertEquals(Sets.newHashSet(0L, 1L, 2L, 3L), tableRowTruthDao.getRowIdsChangedAfter(tableId, rowIds, firstChange - 1));
+		assertEquals(Sets.newHashSet(1L, 3L), tableRowTruthDao.getRowIdsChangedAfter(tableId, rowIds, firstChange));
+		assertEquals(Sets.newHashSet(), tableRowTruthDao.getRowIdsChangedAfter(tableId, rowIds, secondChange));
+		assertEquals(Sets.newHashSet(), tableRowTruthDao.getRowIdsChangedAfter(tableId, Sets.newHashSet(), firstChange));
+	}
+	
+	@Test
+	public void testGetRowIdsChangedAfterMultipleBatches() throws IOException {
+		List<ColumnModel> columns = TableModelTestUtils.createOneOfEachType();
+		int rowCount = TableRowTruthDAOImpl.ROW_LAST_CHANGE_BATCH_SIZE + 1;
+		List<Row> rows = TableModelTestUtils.createRows(columns, rowCount);
+		RawRowSet set = new RawRowSet(TableModelUtils.getIds(columns), null, tableId, rows);
+		// call under test
+		long change = appendRowSetToTable(creatorUserGroupId, tableId, columns, set);
+		// the last row is written by the second batch.
+		Set<Long> rowIds = Sets.newHashSet(0L, rowCount - 1L);
+		assertEquals(rowIds, tableRowTruthDao.getRowIdsChangedAfter(tableId, rowIds, change - 1));
+		assertEquals(Sets.newHashSet(), tableRowTruthDao.getRowIdsChangedAfter(tableId, rowIds, change));
+	}
+	
+	@Test
+	public void testGetRowIdsChangedAfterNullRowIds() {
+		assertThrows(IllegalArgumentException.class, ()->{
+			// call under test
+			tableRowTruthDao.getRowIdsChangedAfter(tableId, null, 0L);
+		});
+	}
+	
+	@Test
+	public void testDeleteChangeNumberRestartsTracking() throws IOException {
+		List<ColumnModel> columns = TableModelTestUtils.createOneOfEachType();
+		List<Row> rows = TableModelTestUtils.createRows(columns, 2);
+		RawRowSet set = new RawRowSet(TableModelUtils.getIds(columns), null, tableId, rows);
+		long firstChange = appendRowSetToTable(creatorUserGroupId, tableId, columns, set);
+		// call under test
+		tableRowTruthDao.deleteChangeNumber(tableId, firstChange);
+		assertEquals(Optional.empty(), tableRowTruthDao.getFirstTrackedRowChangeNumber(tableId));
+		assertEquals(Sets.newHashSet(), tableRowTruthDao.getRowIdsChangedAfter(tableId, Sets.newHashSet(0L, 1L), -1L));
+		rows = TableModelTestUtils.createRows(columns, 2);
+		set = new RawRowSet(TableModelUtils.getIds(columns), null, tableId, rows);
+		long secondChange = appendRowSetToTable(creatorUserGroupId, tableId, columns, set);
+		assertEquals(Optional.of(secondChange), tableRowTruthDao.getFirstTrackedRowChangeNumber(tableId));
+	}
 }
@@ -521,6 +521,49 @@ public class V2DBOWikiPageDaoImplAutowiredTest {
 		assertTrue(retrievedWiki.equals(clone));
 	}
 	
+	@Test
+	public void testGetPagesForOwners() throws NotFoundException {
+		ObjectType ownerType = ObjectType.ENTITY;
+		V2WikiPage root = createPageWithMarkdown("root", null, markdownOne.getId());
+		root = wikiPageDao.create(root, new HashMap<String, FileHandle>(), "syn182", ownerType, new ArrayList<String>());
+		toDelete.add(WikiPageKeyHelper.createWikiPageKey("syn182", ownerType, root.getId()));
+		V2WikiPage child = createPageWithMarkdown("child", root.getId(), markdownTwo.getId());
+		child = wikiPageDao.create(child, new HashMap<String, FileHandle>(), "syn182", ownerType, new ArrayList<String>());
+		toDelete.add(WikiPageKeyHelper.createWikiPageKey("syn182", ownerType, child.getId()));
+		V2WikiPage otherRoot = createPageWithMarkdown("other", null, markdownTwo.getId());
+		otherRoot = wikiPageDao.create(otherRoot, new HashMap<String, FileHandle>(), "syn183", ownerType, new ArrayList<String>());
+		toDelete.add(WikiPageKeyHelper.createWikiPageKey("syn183", ownerType, otherRoot.getId()));
+
+		// call under test
+		Map<Long, List<V2WikiPage>> results = wikiPageDao.getPagesForOwners(Arrays.asList(182L, 183L, 184L), ownerType);
+		// syn184 has no wiki.
+		assertEquals(2, results.size());
+		List<V2WikiPage> pages = results.get(182L);
+		assertEquals(2, pages.size());
+		assertEquals(root.getId(), pages.get(0).getId());
+		assertEquals("root", pages.get(0).getTitle());
+		assertEquals(markdownOne.getId(), pages.get(0).getMarkdownFileHandleId());
+		assertEquals(child.getId(), pages.get(1).getId());
+		assertEquals(root.getId(), pages.get(1).getParentWikiId());
+		assertEquals(markdownTwo.getId(), pages.get(1).getMarkdownFileHandleId());
+		pages = results.get(183L);
+		assertEquals(1, pages.size());
+		assertEquals(otherRoot.getId(), pages.get(0).getId());
+		// other owner types are not included.
+		assertTrue(wikiPageDao.getPagesForOwners(Arrays.asList(182L), ObjectType.EVALUATION).isEmpty());
+	}
+	
+	private V2WikiPage createPageWithMarkdown(String title, String parentId, String markdownFileHandleId) {
+		V2WikiPage page = new V2WikiPage();
+		page.setTitle(title);
+		page.setParentWikiId(parentId);
+		page.setCreatedBy(creatorUserGroupId);
+		page.setModifiedBy(creatorUserGroupId);
+		page.setMarkdownFileHandleId(markdownFileHandleId);
+		page.setAttachmentFileHandleIds(new LinkedList<String>());
+		return page;
+	}
+	
 	/**
 	 * Create hierarchy of wiki pages
 	 * @throws NotFoundException 
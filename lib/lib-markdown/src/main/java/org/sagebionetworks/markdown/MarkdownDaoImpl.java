@@ -1,10 +1,13 @@
 package org.sagebionetworks.markdown;
 
 import java.io.IOException;
+import java.util.Optional;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.http.client.ClientProtocolException;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.sagebionetworks.util.ContentCache;
 import org.springframework.beans.factory.annotation.Autowired;
 
 public class MarkdownDaoImpl implements MarkdownDao{
@@ -17,6 +20,7 @@ public class MarkdownDaoImpl implements MarkdownDao{
 	@Autowired
 	MarkdownClient markdownClient;
 	String synapseBaseUrl;
+	ContentCache renderedMarkdownCache;
 
 	public String getSynapseBaseUrl() {
 		return synapseBaseUrl;
@@ -26,6 +30,17 @@ public class MarkdownDaoImpl implements MarkdownDao{
 		this.synapseBaseUrl = synapseBaseUrl;
 	}
 
+	/**
+	 * Injected. The same markdown is often rendered many times (for example
+	 * once per recipient of a broadcast message) so the results are cached by a
+	 * hash of the request.
+	 * 
+	 * @param renderedMarkdownCache
+	 */
+	public void setRenderedMarkdownCache(ContentCache renderedMarkdownCache) {
+		this.renderedMarkdownCache = renderedMarkdownCache;
+	}
+
 	@Override
 	public String convertMarkdown(String rawMarkdown, String outputType) throws ClientProtocolException, IOException, JSONException, MarkdownClientException {
 		if (rawMarkdown == null) {
@@ -37,8 +52,17 @@ public class MarkdownDaoImpl implements MarkdownDao{
 		if (outputType != null) {
 			request.put(OUTPUT, outputType);
 		}
-		JSONObject response = new JSONObject(markdownClient.requestMarkdownConversion(request.toString()));
-		return response.getString(RESULT);
+		String requestJson = request.toString();
+		// The request includes everything that determines the result.
+		String key = DigestUtils.sha256Hex(requestJson);
+		Optional<String> cached = renderedMarkdownCache.get(key);
+		if (cached.isPresent()) {
+			return cached.get();
+		}
+		JSONObject response = new JSONObject(markdownClient.requestMarkdownConversion(requestJson));
+		String result = response.getString(RESULT);
+		renderedMarkdownCache.put(key, result);
+		return result;
 	}
 
 }
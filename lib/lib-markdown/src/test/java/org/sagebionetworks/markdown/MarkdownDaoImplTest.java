@@ -1,20 +1,29 @@
 package org.sagebionetworks.markdown;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.sagebionetworks.markdown.MarkdownDaoImpl.MARKDOWN;
 import static org.sagebionetworks.markdown.MarkdownDaoImpl.OUTPUT;
 
+import java.util.Optional;
+
+import org.apache.commons.codec.digest.DigestUtils;
 import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.sagebionetworks.util.ContentCache;
 import org.springframework.test.util.ReflectionTestUtils;
 
 public class MarkdownDaoImplTest {
 	@Mock
 	MarkdownClient mockMarkdownClient;
+	@Mock
+	ContentCache mockCache;
 
 	private MarkdownDaoImpl dao;
 
@@ -23,6 +32,8 @@ public class MarkdownDaoImplTest {
 		MockitoAnnotations.initMocks(this);
 		dao = new MarkdownDaoImpl();
 		ReflectionTestUtils.setField(dao, "markdownClient", mockMarkdownClient);
+		dao.setRenderedMarkdownCache(mockCache);
+		when(mockCache.get(anyString())).thenReturn(Optional.empty());
 	}
 
 	@Test (expected = IllegalArgumentException.class)
@@ -50,5 +61,19 @@ public class MarkdownDaoImplTest {
 		String response = "{\"result\":\"<h2 toc=\\\"true\\\">a heading</h2>\\n\"}";
 		when(mockMarkdownClient.requestMarkdownConversion(request.toString())).thenReturn(response);
 		assertEquals(result, dao.convertMarkdown(rawMarkdown, outputType));
+		verify(mockCache).put(DigestUtils.sha256Hex(request.toString()), result);
+	}
+
+	@Test
+	public void testConvertMarkdownCached() throws Exception {
+		String rawMarkdown = "## a heading";
+		String outputType = "html";
+		JSONObject request = new JSONObject();
+		request.put(MARKDOWN, rawMarkdown);
+		request.put(OUTPUT, outputType);
+		String result = "<h2 toc=\"true\">a heading</h2>\n";
+		when(mockCache.get(DigestUtils.sha256Hex(request.toString()))).thenReturn(Optional.of(result));
+		assertEquals(result, dao.convertMarkdown(rawMarkdown, outputType));
+		verify(mockMarkdownClient, never()).requestMarkdownConversion(anyString());
 	}
 }
@@ -0,0 +1,280 @@
+package org.sagebionetworks.table.cluster;
+
+import static org.sagebionetworks.repo.model.table.TableConstants.ROW_ETAG;
+import static org.sagebionetworks.repo.model.table.TableConstants.ROW_ID;
+import static org.sagebionetworks.repo.model.table.TableConstants.ROW_VERSION;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.sagebionetworks.repo.model.dao.table.RowHandler;
+import org.sagebionetworks.repo.model.table.Row;
+import org.sagebionetworks.repo.model.table.RowSet;
+import org.sagebionetworks.repo.model.table.SelectColumn;
+import org.sagebionetworks.table.cluster.utils.TableModelUtils;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * Holds the results of a query column by column. Each select column is stored
+ * in a single array that is filled directly from the JDBC ResultSet, so reading
+ * a result does not create a Row and a value list for each row. Callers that
+ * need the results in the RowSet form can convert them with
+ * {@link #toRowSet()}.
+ * <p>
+ * {@link TableIndexDAO#queryColumnar(org.sagebionetworks.common.util.progress.ProgressCallback, SqlQuery)}
+ * reads each result directly into the column arrays. The container is also a
+ * {@link RowHandler}, so rows that have already been read can be appended to
+ * it.
+ *
+ */
+public class ColumnarRowSet implements RowHandler {
+
+	/**
+	 * The initial capacity used when the expected number of rows is unknown.
+	 */
+	public static final int DEFAULT_INITIAL_CAPACITY = 16;
+	/**
+	 * Upper bound on the initial capacity so a large page size does not
+	 * allocate memory for rows that never arrive.
+	 */
+	public static final int MAX_INITIAL_CAPACITY = 1024;
+
+	private final String tableId;
+	private final List<SelectColumn> headers;
+	private final boolean includesRowIdAndVersion;
+	private final boolean includeEtag;
+
+	private String[][] columns;
+	private Long[] rowIds;
+	private Long[] versionNumbers;
+	private String[] etags;
+	private int rowCount;
+
+	/**
+	 *
+	 * @param tableId
+	 * @param headers                 The select columns of the query.
+	 * @param includesRowIdAndVersion Does each row include a row ID and version?
+	 * @param includeEtag             Does each row include an etag?
+	 * @param expectedRowCount        Used to size the column arrays. Pass null if
+	 *                                unknown.
+	 */
+	public ColumnarRowSet(String tableId, List<SelectColumn> headers, boolean includesRowIdAndVersion,
+			boolean includeEtag, Long expectedRowCount) {
+		ValidateArgument.required(headers, "headers");
+		this.tableId = tableId;
+		this.headers = headers;
+		this.includesRowIdAndVersion = includesRowIdAndVersion;
+		this.includeEtag = includesRowIdAndVersion && includeEtag;
+		int capacity = DEFAULT_INITIAL_CAPACITY;
+		if (expectedRowCount != null) {
+			capacity = (int) Math.max(1L, Math.min(expectedRowCount, MAX_INITIAL_CAPACITY));
+		}
+		this.columns = new String[headers.size()][capacity];
+		this.rowIds = new Long[capacity];
+		this.versionNumbers = new Long[capacity];
+		this.etags = new String[capacity];
+		this.rowCount = 0;
+	}
+
+	/**
+	 * Create a container sized for the results of the given query.
+	 *
+	 * @param query
+	 */
+	public ColumnarRowSet(SqlQuery query) {
+		this(query.getTableId(), query.getSelectColumns(), query.includesRowIdAndVersion(), query.includeEntityEtag(),
+				query.getMaxRowsPerPage());
+	}
+
+	/**
+	 * Read the current row of the given ResultSet into this container.
+	 *
+	 * @param rs
+	 * @param columnTypes The type of each select column in the same order as the
+	 *                    headers.
+	 * @throws SQLException
+	 */
+	public void readRow(ResultSet rs, ColumnTypeInfo[] columnTypes) throws SQLException {
+		ValidateArgument.requirement(columnTypes.length == columns.length,
+				"Expected one column type for each select column");
+		int index = nextRowIndex();
+		if (includesRowIdAndVersion) {
+			rowIds[index] = rs.getLong(ROW_ID);
+			versionNumbers[index] = rs.getLong(ROW_VERSION);
+			if (includeEtag) {
+				etags[index] = rs.getString(ROW_ETAG);
+			}
+		}
+		for (int i = 0; i < columnTypes.length; i++) {
+			String value = rs.getString(i + 1);
+			columns[i][index] = TableModelUtils.translateRowValueFromQuery(value, columnTypes[i]);
+		}
+		rowCount++;
+	}
+
+	/**
+	 * Append a row that has already been read. The row ID, version and etag of
+	 * the row are kept as is.
+	 *
+	 * @param row
+	 */
+	public void appendRow(Row row) {
+		ValidateArgument.required(row, "row");
+		ValidateArgument.required(row.getValues(), "row.values");
+		ValidateArgument.requirement(row.getValues().size() == columns.length,
+				"Expected one value for each select column");
+		int index = nextRowIndex();
+		rowIds[index] = row.getRowId();
+		versionNumbers[index] = row.getVersionNumber();
+		etags[index] = row.getEtag();
+		int column = 0;
+		for (String value : row.getValues()) {
+			columns[column++][index] = value;
+		}
+		rowCount++;
+	}
+
+	@Override
+	public void nextRow(Row row) {
+		appendRow(row);
+	}
+
+	/**
+	 * The index of the next row, growing the arrays as needed.
+	 *
+	 * @return
+	 */
+	private int nextRowIndex() {
+		int capacity = rowIds.length;
+		if (rowCount >= capacity) {
+			int newCapacity = Math.max(DEFAULT_INITIAL_CAPACITY, capacity * 2);
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = Arrays.copyOf(columns[i], newCapacity);
+			}
+			rowIds = Arrays.copyOf(rowIds, newCapacity);
+			versionNumbers = Arrays.copyOf(versionNumbers, newCapacity);
+			etags = Arrays.copyOf(etags, newCapacity);
+		}
+		return rowCount;
+	}
+
+	/**
+	 * The number of rows read.
+	 *
+	 * @return
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * The number of select columns.
+	 *
+	 * @return
+	 */
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	/**
+	 * Get the value of a single cell.
+	 *
+	 * @param rowIndex
+	 * @param columnIndex
+	 * @return
+	 */
+	public String getValue(int rowIndex, int columnIndex) {
+		checkRowIndex(rowIndex);
+		return columns[columnIndex][rowIndex];
+	}
+
+	/**
+	 * The row ID of the given row or null if the row does not have a row ID.
+	 *
+	 * @param rowIndex
+	 * @return
+	 */
+	public Long getRowId(int rowIndex) {
+		checkRowIndex(rowIndex);
+		return rowIds[rowIndex];
+	}
+
+	/**
+	 * The version number of the given row or null if the row does not have a
+	 * version.
+	 *
+	 * @param rowIndex
+	 * @return
+	 */
+	public Long getVersionNumber(int rowIndex) {
+		checkRowIndex(rowIndex);
+		return versionNumbers[rowIndex];
+	}
+
+	/**
+	 * The etag of the given row or null if the row does not have an etag.
+	 *
+	 * @param rowIndex
+	 * @return
+	 */
+	public String getEtag(int rowIndex) {
+		checkRowIndex(rowIndex);
+		return etags[rowIndex];
+	}
+
+	private void checkRowIndex(int rowIndex) {
+		if (rowIndex < 0 || rowIndex >= rowCount) {
+			throw new IndexOutOfBoundsException("Row index: " + rowIndex + ", row count: " + rowCount);
+		}
+	}
+
+	public String getTableId() {
+		return tableId;
+	}
+
+	public List<SelectColumn> getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * Create a Row for the given row index.
+	 *
+	 * @param rowIndex
+	 * @return
+	 */
+	public Row getRow(int rowIndex) {
+		checkRowIndex(rowIndex);
+		Row row = new Row();
+		row.setRowId(rowIds[rowIndex]);
+		row.setVersionNumber(versionNumbers[rowIndex]);
+		row.setEtag(etags[rowIndex]);
+		List<String> values = new ArrayList<>(columns.length);
+		for (int i = 0; i < columns.length; i++) {
+			values.add(columns[i][rowIndex]);
+		}
+		row.setValues(values);
+		return row;
+	}
+
+	/**
+	 * Convert this container to a RowSet.
+	 *
+	 * @return
+	 */
+	public RowSet toRowSet() {
+		List<Row> rows = new ArrayList<>(rowCount);
+		for (int i = 0; i < rowCount; i++) {
+			rows.add(getRow(i));
+		}
+		RowSet rowSet = new RowSet();
+		rowSet.setTableId(tableId);
+		rowSet.setHeaders(headers);
+		rowSet.setRows(rows);
+		return rowSet;
+	}
+
+}
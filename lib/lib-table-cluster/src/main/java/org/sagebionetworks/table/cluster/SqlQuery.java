@@ -1,11 +1,13 @@
 package org.sagebionetworks.table.cluster;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.sagebionetworks.repo.model.EntityType;
 import org.sagebionetworks.repo.model.EntityTypeUtils;
 import org.sagebionetworks.repo.model.table.ColumnModel;
@@ -17,6 +19,7 @@ import org.sagebionetworks.table.cluster.columntranslation.ColumnTranslationRefe
 import org.sagebionetworks.table.cluster.utils.TableModelUtils;
 import org.sagebionetworks.table.query.ParseException;
 import org.sagebionetworks.table.query.TableQueryParser;
+import org.sagebionetworks.table.query.model.Pagination;
 import org.sagebionetworks.table.query.model.QuerySpecification;
 import org.sagebionetworks.table.query.model.SelectList;
 import org.sagebionetworks.table.query.util.SqlElementUntils;
@@ -107,6 +110,11 @@ public class SqlQuery {
 	
 	EntityType tableType;
 
+	/**
+	 * Optional cache of translated queries.
+	 */
+	SqlQueryCache queryCache;
+
 	/**
 	 * @param tableId
 	 * @param sql
@@ -123,7 +131,8 @@ public class SqlQuery {
 			Boolean includeEntityEtag,
 			EntityType tableType,
 			List<FacetColumnRequest> selectedFacets,
-			List<QueryFilter> additionalFilters
+			List<QueryFilter> additionalFilters,
+			SqlQueryCache queryCache
 			) {
 		ValidateArgument.required(tableSchema, "TableSchema");
 		if(tableSchema.isEmpty()){
@@ -136,6 +145,7 @@ public class SqlQuery {
 		this.selectedFacets = selectedFacets;
 		this.overrideLimit = overrideLimit;
 		this.overrideOffset = overrideOffset;
+		this.queryCache = queryCache;
 		
 		if(tableType == null){
 			// default to table
@@ -184,34 +194,102 @@ public class SqlQuery {
 			}
 		}
 
+		boolean paginated = overrideOffset != null || overrideLimit != null || maxBytesPerPage != null;
+		String cacheKey = null;
+		SqlQueryTemplate template = null;
+		if (queryCache != null) {
+			cacheKey = SqlQueryCache.createKey(model, tableSchema, this.includeEntityEtag, this.tableType, paginated);
+			if (cacheKey != null) {
+				template = queryCache.get(cacheKey);
+			}
+		}
+		if (template != null) {
+			// Same query and schema as an earlier query so only the pagination needs to be bound.
+			this.isAggregatedResult = template.isAggregatedResult();
+			this.selectColumns = new ArrayList<SelectColumn>(template.getSelectColumns());
+			this.maxRowSizeBytes = template.getMaxRowSizeBytes();
+			this.maxRowsPerPage = calculateMaxRowsPerPage(maxBytesPerPage, maxRowSizeBytes);
+			this.includesRowIdAndVersion = !this.isAggregatedResult;
+			this.parameters.putAll(template.getParameters());
+			if (template.getLimitKey() != null) {
+				Pagination pagination = model.getTableExpression().getPagination();
+				Long limitFromQuery = pagination != null ? pagination.getLimitLong() : null;
+				Long offsetFromQuery = pagination != null ? pagination.getOffsetLong() : null;
+				this.parameters.put(template.getLimitKey(), SqlElementUntils.calculatePaginatedLimit(limitFromQuery, overrideOffset, overrideLimit, maxRowsPerPage));
+				this.parameters.put(template.getOffsetKey(), SqlElementUntils.calculatePaginatedOffset(offsetFromQuery, overrideOffset));
+			}
+			this.outputSQL = template.getOutputSQL();
+			// The transformed model is only built if it is requested.
+			return;
+		}
+
 		// Track if this is an aggregate query.
 		this.isAggregatedResult = model.hasAnyAggregateElements();
 		// Build headers that describe how the client should read the results of this query.
 		this.selectColumns = SQLTranslatorUtils.getSelectColumns(this.model.getSelectList(), columnTranslationReferenceLookup, this.isAggregatedResult);
 		// Maximum row size is a function of both the select clause and schema.
 		this.maxRowSizeBytes = TableModelUtils.calculateMaxRowSize(selectColumns, columnNameToModelMap);
-		if(maxBytesPerPage != null){
-			this.maxRowsPerPage =  Math.max(1, maxBytesPerPage / this.maxRowSizeBytes);
+		this.maxRowsPerPage = calculateMaxRowsPerPage(maxBytesPerPage, maxRowSizeBytes);
+		this.includesRowIdAndVersion = !this.isAggregatedResult;
+		this.transformedModel = createTransformedModel(columnTranslationReferenceLookup, parameters);
+		this.outputSQL = transformedModel.toSql();
+
+		if (cacheKey != null) {
+			String limitKey = null;
+			String offsetKey = null;
+			if (paginated) {
+				// the paginated model always has both a limit and an offset.
+				Pagination pagination = transformedModel.getTableExpression().getPagination();
+				limitKey = StringUtils.removeStart(pagination.getLimit(), ":");
+				offsetKey = StringUtils.removeStart(pagination.getOffset(), ":");
+			}
+			queryCache.put(cacheKey, new SqlQueryTemplate(selectColumns, isAggregatedResult, maxRowSizeBytes,
+					outputSQL, parameters, limitKey, offsetKey));
+		}
+	}
+
+	/**
+	 * The maximum number of rows that will fit in a page of the given size.
+	 *
+	 * @param maxBytesPerPage
+	 * @param maxRowSizeBytes
+	 * @return Null if there is no page size.
+	 */
+	static Long calculateMaxRowsPerPage(Long maxBytesPerPage, int maxRowSizeBytes) {
+		if (maxBytesPerPage == null) {
+			return null;
 		}
+		return Math.max(1, maxBytesPerPage / maxRowSizeBytes);
+	}
+
+	/**
+	 * Create the model that will execute against the actual table, including the
+	 * pagination overrides and the metadata columns.
+	 *
+	 * @param columnTranslationReferenceLookup
+	 * @param parameters The bind variables of the translated model are added to
+	 *                   this map.
+	 * @return
+	 */
+	QuerySpecification createTransformedModel(ColumnTranslationReferenceLookup columnTranslationReferenceLookup,
+			Map<String, Object> parameters) {
 		// paginated model includes all overrides and max rows per page.
 		QuerySpecification paginatedModel = SqlElementUntils.overridePagination(model, overrideOffset, overrideLimit, maxRowsPerPage);
 
 		// Create a copy of the paginated model.
+		QuerySpecification transformed;
 		try {
-			transformedModel = new TableQueryParser(paginatedModel.toSql()).querySpecification();
+			transformed = new TableQueryParser(paginatedModel.toSql()).querySpecification();
 		} catch (ParseException e) {
 			throw new IllegalArgumentException(e);
 		}
 		if (!this.isAggregatedResult) {
 			// we need to add the row count and row version columns
-			SelectList expandedSelectList = SQLTranslatorUtils.addMetadataColumnsToSelect(this.transformedModel.getSelectList(), this.includeEntityEtag);
-			transformedModel.replaceSelectList(expandedSelectList);
-			this.includesRowIdAndVersion = true;
-		}else{
-			this.includesRowIdAndVersion = false;
+			SelectList expandedSelectList = SQLTranslatorUtils.addMetadataColumnsToSelect(transformed.getSelectList(), this.includeEntityEtag);
+			transformed.replaceSelectList(expandedSelectList);
 		}
-		SQLTranslatorUtils.translateModel(transformedModel, parameters, columnTranslationReferenceLookup);
-		this.outputSQL = transformedModel.toSql();
+		SQLTranslatorUtils.translateModel(transformed, parameters, columnTranslationReferenceLookup);
+		return transformed;
 	}
 	
 	/**
@@ -311,9 +389,14 @@ public class SqlQuery {
 
 	/**
 	 * The query model that has been transformed to execute against the actual table index.
+	 * When the query was created from a cached template the model is built on the first call.
 	 * @return
 	 */
-	public QuerySpecification getTransformedModel() {
+	public synchronized QuerySpecification getTransformedModel() {
+		if (transformedModel == null) {
+			// The parameters already contain the values for this model's bind variables.
+			transformedModel = createTransformedModel(new ColumnTranslationReferenceLookup(tableSchema), new HashMap<String, Object>());
+		}
 		return transformedModel;
 	}
 
@@ -360,4 +443,8 @@ public class SqlQuery {
 	public Long getMaxBytesPerPage() {
 		return maxBytesPerPage;
 	}
+
+	public SqlQueryCache getQueryCache() {
+		return queryCache;
+	}
 }
@@ -24,6 +24,7 @@ public class SqlQueryBuilder {
 	EntityType tableType;
 	List<FacetColumnRequest> selectedFacets;
 	List<QueryFilter> additionalFilters;
+	SqlQueryCache queryCache;
 	
 	/**
 	 * Start with the SQL.
@@ -103,9 +104,14 @@ public class SqlQueryBuilder {
 		return this;
 	}
 
+	public SqlQueryBuilder queryCache(SqlQueryCache queryCache){
+		this.queryCache = queryCache;
+		return this;
+	}
+
 	public SqlQuery build(){
 		return new SqlQuery(model, tableSchema, overrideOffset, overrideLimit, maxBytesPerPage, sortList,
-				includeEntityEtag, tableType, selectedFacets, additionalFilters);
+				includeEntityEtag, tableType, selectedFacets, additionalFilters, queryCache);
 	}
 
 
@@ -0,0 +1,174 @@
+package org.sagebionetworks.table.cluster;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.codec.binary.Hex;
+import org.sagebionetworks.repo.model.EntityType;
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.table.cluster.utils.TableModelUtils;
+import org.sagebionetworks.table.query.model.QuerySpecification;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * A bounded, least recently used cache of translated query templates shared by
+ * all table queries. The translation of a query only depends on its SQL (after
+ * the sort, additional filters and select expansion are applied), the schema of
+ * the table and the etag/pagination options, so all pages of the same query can
+ * share a single translation and only bind their own limit and offset.
+ *
+ */
+public class SqlQueryCache {
+
+	private final int maxSize;
+	private final Map<String, SqlQueryTemplate> cache;
+	private final AtomicLong hitCount;
+	private final AtomicLong missCount;
+	private final AtomicLong evictionCount;
+
+	/**
+	 *
+	 * @param maxSize The maximum number of templates to keep.
+	 */
+	public SqlQueryCache(int maxSize) {
+		ValidateArgument.requirement(maxSize > 0, "maxSize must be greater than zero");
+		this.maxSize = maxSize;
+		this.hitCount = new AtomicLong(0);
+		this.missCount = new AtomicLong(0);
+		this.evictionCount = new AtomicLong(0);
+		this.cache = new LinkedHashMap<String, SqlQueryTemplate>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SqlQueryTemplate> eldest) {
+				if (size() > SqlQueryCache.this.maxSize) {
+					evictionCount.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Create the key of a query. The SQL of the model includes the table ID and
+	 * version, while the schema MD5 changes whenever the columns of the table
+	 * change. The key is the SHA-256 of these inputs so the cache does not hold
+	 * a copy of the SQL of every query.
+	 *
+	 * @param model              The model after the sort, additional filters and
+	 *                           select expansion have been applied.
+	 * @param tableSchema
+	 * @param includeEntityEtag
+	 * @param tableType
+	 * @param paginated          Will the limit and offset of the query be
+	 *                           overridden?
+	 * @return The key or null if the query cannot be cached.
+	 */
+	public static String createKey(QuerySpecification model, List<ColumnModel> tableSchema, boolean includeEntityEtag,
+			EntityType tableType, boolean paginated) {
+		ValidateArgument.required(model, "model");
+		ValidateArgument.required(tableSchema, "tableSchema");
+		List<String> columnIds = new ArrayList<>(tableSchema.size());
+		for (ColumnModel column : tableSchema) {
+			if (column.getId() == null) {
+				// columns without an ID cannot be distinguished from each other.
+				return null;
+			}
+			columnIds.add(column.getId());
+		}
+		StringBuilder builder = new StringBuilder();
+		builder.append(TableModelUtils.createSchemaMD5Hex(columnIds));
+		builder.append('|').append(tableType);
+		builder.append('|').append(includeEntityEtag);
+		builder.append('|').append(paginated);
+		builder.append('|').append(model.toSql());
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return new String(Hex.encodeHex(digest.digest(builder.toString().getBytes(UTF_8))));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Get the template for the given key.
+	 *
+	 * @param key
+	 * @return The template or null if the key is not in the cache.
+	 */
+	public SqlQueryTemplate get(String key) {
+		ValidateArgument.required(key, "key");
+		SqlQueryTemplate template;
+		synchronized (cache) {
+			template = cache.get(key);
+		}
+		if (template != null) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+		}
+		return template;
+	}
+
+	/**
+	 * Add a template to the cache, evicting the least recently used template if
+	 * the cache is full.
+	 *
+	 * @param key
+	 * @param template
+	 */
+	public void put(String key, SqlQueryTemplate template) {
+		ValidateArgument.required(key, "key");
+		ValidateArgument.required(template, "template");
+		synchronized (cache) {
+			cache.put(key, template);
+		}
+	}
+
+	/**
+	 * The number of templates currently in the cache.
+	 *
+	 * @return
+	 */
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * The total number of lookups that found a template.
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * The total number of lookups that did not find a template.
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * The total number of templates removed to make room for new templates.
+	 *
+	 * @return
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+}
@@ -0,0 +1,86 @@
+package org.sagebionetworks.table.cluster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sagebionetworks.repo.model.table.SelectColumn;
+
+/**
+ * The parts of a translated {@link SqlQuery} that do not change from one page
+ * of a query to the next. The limit and offset of a page are bound to the
+ * parameter slots identified by {@link #getLimitKey()} and
+ * {@link #getOffsetKey()}. Templates are shared between requests so they are
+ * immutable.
+ *
+ */
+public class SqlQueryTemplate {
+
+	private final List<SelectColumn> selectColumns;
+	private final boolean isAggregatedResult;
+	private final int maxRowSizeBytes;
+	private final String outputSQL;
+	private final Map<String, Object> parameters;
+	private final String limitKey;
+	private final String offsetKey;
+
+	/**
+	 *
+	 * @param selectColumns      The select columns of the query.
+	 * @param isAggregatedResult Is the query an aggregate query?
+	 * @param maxRowSizeBytes    The maximum size of a row of the query.
+	 * @param outputSQL          The translated SQL.
+	 * @param parameters         The bind variables of the translated SQL.
+	 * @param limitKey           The parameter key of the page limit or null if
+	 *                           the query is not paginated.
+	 * @param offsetKey          The parameter key of the page offset or null if
+	 *                           the query is not paginated.
+	 */
+	public SqlQueryTemplate(List<SelectColumn> selectColumns,
+			boolean isAggregatedResult, int maxRowSizeBytes, String outputSQL, Map<String, Object> parameters,
+			String limitKey, String offsetKey) {
+		this.selectColumns = Collections.unmodifiableList(new ArrayList<>(selectColumns));
+		this.isAggregatedResult = isAggregatedResult;
+		this.maxRowSizeBytes = maxRowSizeBytes;
+		this.outputSQL = outputSQL;
+		this.parameters = Collections.unmodifiableMap(new HashMap<>(parameters));
+		this.limitKey = limitKey;
+		this.offsetKey = offsetKey;
+	}
+
+	public List<SelectColumn> getSelectColumns() {
+		return selectColumns;
+	}
+
+	public boolean isAggregatedResult() {
+		return isAggregatedResult;
+	}
+
+	public int getMaxRowSizeBytes() {
+		return maxRowSizeBytes;
+	}
+
+	public String getOutputSQL() {
+		return outputSQL;
+	}
+
+	/**
+	 * The bind variables of the translated SQL, including the limit and offset of
+	 * the page that created this template.
+	 *
+	 * @return
+	 */
+	public Map<String, Object> getParameters() {
+		return parameters;
+	}
+
+	public String getLimitKey() {
+		return limitKey;
+	}
+
+	public String getOffsetKey() {
+		return offsetKey;
+	}
+}
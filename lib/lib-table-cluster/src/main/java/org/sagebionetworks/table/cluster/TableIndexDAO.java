@@ -73,6 +73,17 @@ public interface TableIndexDAO {
 	 */
 	RowSet query(ProgressCallback callback, SqlQuery query);
 	
+	/**
+	 * Query the table and capture the results column by column. This avoids
+	 * creating a Row object for each result row and should be used when the
+	 * results are consumed on the server.
+	 * 
+	 * @param callback
+	 * @param query
+	 * @return
+	 */
+	ColumnarRowSet queryColumnar(ProgressCallback callback, SqlQuery query);
+	
 	/**
 	 * Run a simple count query.
 	 * @param sql
@@ -149,6 +160,18 @@ public interface TableIndexDAO {
 	 * @return
 	 */
 	<T> T executeInReadTransaction(TransactionCallback<T> callable);
+
+	/**
+	 * Run calls within a read transaction that times out after the given time.
+	 * Each statement of the transaction is given a JDBC query timeout of the time
+	 * left, so a statement that runs too long is stopped on the database and its
+	 * connection is returned to the pool.
+	 * 
+	 * @param callable
+	 * @param timeoutMS
+	 * @return
+	 */
+	<T> T executeInReadTransaction(TransactionCallback<T> callable, long timeoutMS);
 	
 	/**
 	 * Run the passed callable within a write transaction.
@@ -539,6 +562,85 @@ public interface TableIndexDAO {
 	 * @param idsToDelete
 	 */
 	void deleteRowsFromViewBatch(IdAndVersion viewId, Long...idsToDelete);
+
+	/**
+	 * Get the IDs of the containers that are registered for the given view.
+	 * 
+	 * @param viewId
+	 * @return
+	 */
+	Set<Long> getViewScopeContainerIds(Long viewId);
+
+	/**
+	 * Register the given containers for the given view. Once registered, every
+	 * change to an object in one of the containers will mark the object's row as
+	 * stale for the view.
+	 * 
+	 * @param viewId
+	 * @param objectType
+	 * @param containerIds
+	 */
+	void addViewScopeContainerIds(Long viewId, ViewObjectType objectType, Set<Long> containerIds);
+
+	/**
+	 * Remove the given containers from the registration of the given view.
+	 * 
+	 * @param viewId
+	 * @param containerIds
+	 */
+	void removeViewScopeContainerIds(Long viewId, Set<Long> containerIds);
+
+	/**
+	 * Mark the rows of all of the replicated objects in the given containers as
+	 * stale for the given view, regardless of the containers registered for the
+	 * view.
+	 * 
+	 * @param viewId
+	 * @param objectType
+	 * @param containerIds
+	 * @param token        Identifies this change. A stale row that is marked
+	 *                     again replaces its token.
+	 */
+	void markViewRowsStaleForContainers(Long viewId, ViewObjectType objectType, Set<Long> containerIds, String token);
+
+	/**
+	 * For each view that includes any of the given objects, as currently
+	 * replicated, mark the rows of the objects as stale.
+	 * 
+	 * @param objectType
+	 * @param objectIds
+	 * @param token      Identifies this change. A stale row that is marked again
+	 *                   replaces its token.
+	 */
+	void markViewRowsStale(ViewObjectType objectType, List<Long> objectIds, String token);
+
+	/**
+	 * Get a single page of the stale rows of the given view.
+	 * 
+	 * @param viewId
+	 * @param limit
+	 * @return Map of the stale row IDs to the token of the change that marked
+	 *         each row.
+	 */
+	Map<Long, String> getViewStaleRows(Long viewId, long limit);
+
+	/**
+	 * Delete the given stale rows of a view. A row is only deleted if it still
+	 * has the given token, so a row that was marked again since it was read
+	 * remains stale.
+	 * 
+	 * @param viewId
+	 * @param staleRows Map of the row IDs to their tokens.
+	 */
+	void deleteViewStaleRows(Long viewId, Map<Long, String> staleRows);
+
+	/**
+	 * Delete both the registered containers and all stale rows of the given
+	 * view.
+	 * 
+	 * @param viewId
+	 */
+	void deleteViewScopeContainers(Long viewId);
 	
 	// For testing:
 	
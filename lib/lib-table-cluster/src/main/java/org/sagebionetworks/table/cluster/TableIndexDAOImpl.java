@@ -50,6 +50,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -337,6 +338,20 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		return rowSet;
 	}
 	
+	@Override
+	public ColumnarRowSet queryColumnar(ProgressCallback callback, final SqlQuery query) {
+		if (query == null)
+			throw new IllegalArgumentException("SqlQuery cannot be null");
+		ColumnarRowSet results = new ColumnarRowSet(query);
+		final ColumnTypeInfo[] infoArray = SQLTranslatorUtils.getColumnTypeInfoArray(query.getSelectColumns());
+		// Read each value directly into the column arrays without creating a Row.
+		namedTemplate.query(query.getOutputSQL(), new MapSqlParameterSource(query.getParameters()),
+				(ResultSet rs) -> {
+					results.readRow(rs, infoArray);
+				});
+		return results;
+	}
+	
 	@Override
 	public Long countQuery(String sql, Map<String, Object> parameters) {
 		ValidateArgument.required(sql, "sql");
@@ -369,6 +384,19 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		return readTransactionTemplate.execute(callable);
 	}
 
+	@Override
+	public <T> T executeInReadTransaction(TransactionCallback<T> callable, long timeoutMS) {
+		ValidateArgument.requirement(timeoutMS > 0, "timeoutMS must be greater than zero");
+		TransactionTemplate timedTemplate = new TransactionTemplate(transactionManager, readTransactionTemplate);
+		/*
+		 * The JdbcTemplate applies the time left in the transaction as the query
+		 * timeout of each statement, which the driver enforces with a KILL QUERY.
+		 * JDBC timeouts are in whole seconds.
+		 */
+		timedTemplate.setTimeout((int) Math.min(Integer.MAX_VALUE, (timeoutMS + 999L) / 1000L));
+		return timedTemplate.execute(callable);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.sagebionetworks.table.cluster.TableIndexDAO#executeInWriteTransaction(org.springframework.transaction.support.TransactionCallback)
@@ -706,6 +734,8 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		template.update(TableConstants.OBJECT_REPLICATION_TABLE_CREATE);
 		template.update(TableConstants.ANNOTATION_REPLICATION_TABLE_CREATE);
 		template.update(TableConstants.REPLICATION_SYNCH_EXPIRATION_TABLE_CREATE);
+		template.update(TableConstants.VIEW_SCOPE_CONTAINER_TABLE_CREATE);
+		template.update(TableConstants.VIEW_STALE_ROW_TABLE_CREATE);
 	}
 
 	@Override
@@ -1388,6 +1418,132 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		});
 	}
 	
+	@Override
+	public Set<Long> getViewScopeContainerIds(Long viewId) {
+		ValidateArgument.required(viewId, "viewId");
+		List<Long> containerIds = template.queryForList(TableConstants.SELECT_VIEW_SCOPE_CONTAINER_IDS, Long.class, viewId);
+		return new HashSet<Long>(containerIds);
+	}
+
+	@Override
+	public void addViewScopeContainerIds(Long viewId, ViewObjectType objectType, Set<Long> containerIds) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(objectType, "objectType");
+		ValidateArgument.required(containerIds, "containerIds");
+		if (containerIds.isEmpty()) {
+			return;
+		}
+		final List<Long> sorted = new ArrayList<Long>(containerIds);
+		// sort to prevent deadlock.
+		Collections.sort(sorted);
+		template.batchUpdate(TableConstants.BATCH_INSERT_VIEW_SCOPE_CONTAINER, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				int index = 1;
+				ps.setLong(index++, viewId);
+				ps.setString(index++, objectType.name());
+				ps.setLong(index++, sorted.get(i));
+			}
+
+			@Override
+			public int getBatchSize() {
+				return sorted.size();
+			}
+		});
+	}
+
+	@Override
+	public void removeViewScopeContainerIds(Long viewId, Set<Long> containerIds) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(containerIds, "containerIds");
+		if (containerIds.isEmpty()) {
+			return;
+		}
+		MapSqlParameterSource param = new MapSqlParameterSource();
+		param.addValue(TableConstants.VIEW_ID_PARAM_NAME, viewId);
+		param.addValue(PARENT_ID_PARAM_NAME, containerIds);
+		namedTemplate.update(TableConstants.DELETE_VIEW_SCOPE_CONTAINER_IDS, param);
+	}
+
+	@Override
+	public void markViewRowsStaleForContainers(Long viewId, ViewObjectType objectType, Set<Long> containerIds,
+			String token) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(objectType, "objectType");
+		ValidateArgument.required(containerIds, "containerIds");
+		ValidateArgument.required(token, "token");
+		if (containerIds.isEmpty()) {
+			return;
+		}
+		MapSqlParameterSource param = new MapSqlParameterSource();
+		param.addValue(TableConstants.VIEW_ID_PARAM_NAME, viewId);
+		param.addValue(OBJECT_TYPE_PARAM_NAME, objectType.name());
+		param.addValue(PARENT_ID_PARAM_NAME, containerIds);
+		param.addValue(TableConstants.TOKEN_PARAM_NAME, token);
+		namedTemplate.update(TableConstants.MARK_VIEW_ROWS_STALE_FOR_CONTAINERS, param);
+	}
+
+	@Override
+	public void markViewRowsStale(ViewObjectType objectType, List<Long> objectIds, String token) {
+		ValidateArgument.required(objectType, "objectType");
+		ValidateArgument.required(objectIds, "objectIds");
+		ValidateArgument.required(token, "token");
+		if (objectIds.isEmpty()) {
+			return;
+		}
+		MapSqlParameterSource param = new MapSqlParameterSource();
+		param.addValue(OBJECT_TYPE_PARAM_NAME, objectType.name());
+		param.addValue(ID_PARAM_NAME, objectIds);
+		param.addValue(TableConstants.TOKEN_PARAM_NAME, token);
+		namedTemplate.update(TableConstants.MARK_VIEW_ROWS_STALE, param);
+	}
+
+	@Override
+	public Map<Long, String> getViewStaleRows(Long viewId, long limit) {
+		ValidateArgument.required(viewId, "viewId");
+		Map<Long, String> staleRows = new LinkedHashMap<>();
+		template.query(TableConstants.SELECT_VIEW_STALE_ROWS, new RowCallbackHandler() {
+
+			@Override
+			public void processRow(ResultSet rs) throws SQLException {
+				staleRows.put(rs.getLong(TableConstants.VIEW_STALE_ROW_COL_ROW_ID),
+						rs.getString(TableConstants.VIEW_STALE_ROW_COL_TOKEN));
+			}
+		}, viewId, limit);
+		return staleRows;
+	}
+
+	@Override
+	public void deleteViewStaleRows(Long viewId, Map<Long, String> staleRows) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(staleRows, "staleRows");
+		final List<Entry<Long, String>> rows = new ArrayList<>(staleRows.entrySet());
+		template.batchUpdate(TableConstants.DELETE_VIEW_STALE_ROW_WITH_TOKEN, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				Entry<Long, String> row = rows.get(i);
+				int index = 1;
+				ps.setLong(index++, viewId);
+				ps.setLong(index++, row.getKey());
+				ps.setString(index++, row.getValue());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return rows.size();
+			}
+		});
+	}
+
+	@Override
+	public void deleteViewScopeContainers(Long viewId) {
+		ValidateArgument.required(viewId, "viewId");
+		template.update(TableConstants.DELETE_VIEW_SCOPE_CONTAINERS, viewId);
+		template.update(TableConstants.DELETE_VIEW_STALE_ROWS, viewId);
+	}
+
 	@Override
 	public void truncateReplicationSyncExpiration() {
 		template.update(TRUNCATE_REPLICATION_SYNC_EXPIRATION_TABLE);
@@ -1396,6 +1552,8 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 	@Override
 	public void truncateIndex() {
 		truncateReplicationSyncExpiration();
+		template.update(TableConstants.TRUNCATE_VIEW_SCOPE_CONTAINER_TABLE);
+		template.update(TableConstants.TRUNCATE_VIEW_STALE_ROW_TABLE);
 		template.update(TRUNCATE_ANNOTATION_REPLICATION_TABLE);
 		template.update(TRUNCATE_OBJECT_REPLICATION_TABLE);
 	}
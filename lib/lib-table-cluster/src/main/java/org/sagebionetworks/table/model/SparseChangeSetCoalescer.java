@@ -0,0 +1,194 @@
+package org.sagebionetworks.table.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.repo.model.table.SparseRowDto;
+import org.sagebionetworks.table.cluster.utils.TableModelUtils;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * Merges a sequence of consecutive row change sets that share the same schema
+ * into a single change set with one row per row ID. Later changes to a cell
+ * overwrite earlier changes to the same cell and a row delete replaces all
+ * earlier changes to that row. A write to a row that is held as a delete is
+ * not merged, since the write alone would leave any cells the row already had
+ * in the index, so the delete must be applied first. Applying the merged change
+ * set to an index results in the same rows as applying each change set in
+ * order.
+ * <p>
+ * Since file handles that were replaced by a later change are still part of the
+ * table's history, the file handle IDs of every merged change set are tracked
+ * separately.
+ *
+ */
+public class SparseChangeSetCoalescer {
+
+	private final long maxBytes;
+	private String tableId;
+	private List<ColumnModel> schema;
+	private int maxRowSizeBytes;
+	private Map<Long, SparseRowDto> rows;
+	private Set<Long> fileHandleIds;
+	private Long lastChangeNumber;
+	private String lastEtag;
+	private int changeCount;
+
+	/**
+	 *
+	 * @param maxBytes The maximum estimated size of the merged change set.
+	 */
+	public SparseChangeSetCoalescer(long maxBytes) {
+		ValidateArgument.requirement(maxBytes > 0, "maxBytes must be greater than zero");
+		this.maxBytes = maxBytes;
+		clear();
+	}
+
+	/**
+	 * Can the given change set be merged with the changes already held by this
+	 * coalescer? A change set can be merged when this coalescer is empty, or when
+	 * it has the same schema as the held changes, does not write a row that is
+	 * held as a delete and the merged result would not exceed the size limit.
+	 *
+	 * @param changeSet
+	 * @return
+	 */
+	public boolean canAppend(SparseChangeSet changeSet) {
+		ValidateArgument.required(changeSet, "changeSet");
+		if (isEmpty()) {
+			return true;
+		}
+		if (!schema.equals(changeSet.getSchema())) {
+			return false;
+		}
+		long estimatedRowCount = rows.size() + changeSet.getRowCount();
+		if (estimatedRowCount * maxRowSizeBytes > maxBytes) {
+			return false;
+		}
+		return !writesDeletedRow(changeSet);
+	}
+
+	/**
+	 * Does the given change set write to any row that is held as a delete?
+	 *
+	 * @param changeSet
+	 * @return
+	 */
+	private boolean writesDeletedRow(SparseChangeSet changeSet) {
+		for (SparseRow row : changeSet.rowIterator()) {
+			if (!row.isDelete()) {
+				SparseRowDto merged = rows.get(row.getRowId());
+				if (merged != null && isDelete(merged)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Merge the given change into this coalescer.
+	 *
+	 * @param change
+	 * @throws IllegalArgumentException If the change cannot be appended.
+	 */
+	public void append(ChangeData<SparseChangeSet> change) {
+		ValidateArgument.required(change, "change");
+		SparseChangeSet changeSet = change.getChange();
+		ValidateArgument.required(changeSet, "change.change");
+		if (isEmpty()) {
+			this.tableId = changeSet.getTableId();
+			this.schema = changeSet.getSchema();
+			this.maxRowSizeBytes = Math.max(1, TableModelUtils.calculateMaxRowSize(schema));
+		} else if (!schema.equals(changeSet.getSchema())) {
+			throw new IllegalArgumentException("Cannot merge change sets with different schemas");
+		} else if (writesDeletedRow(changeSet)) {
+			throw new IllegalArgumentException("Cannot merge a write to a row that is held as a delete");
+		}
+		for (SparseRow row : changeSet.rowIterator()) {
+			SparseRowDto merged = rows.get(row.getRowId());
+			if (merged == null || row.isDelete()) {
+				// the row is new or deleted so earlier changes no longer apply.
+				merged = new SparseRowDto();
+				merged.setRowId(row.getRowId());
+				merged.setValues(new HashMap<>());
+				rows.put(row.getRowId(), merged);
+			}
+			merged.setVersionNumber(row.getVersionNumber());
+			merged.setEtag(row.getRowEtag());
+			for (ColumnModel cm : schema) {
+				if (row.hasCellValue(cm.getId())) {
+					merged.getValues().put(cm.getId(), row.getCellValue(cm.getId()));
+				}
+			}
+		}
+		fileHandleIds.addAll(changeSet.getFileHandleIdsInSparseChangeSet());
+		lastChangeNumber = change.getChangeNumber();
+		lastEtag = changeSet.getEtag();
+		changeCount++;
+	}
+
+	private static boolean isDelete(SparseRowDto row) {
+		return row.getValues() == null || row.getValues().isEmpty();
+	}
+
+	/**
+	 * Build a single change set from all of the merged changes.
+	 *
+	 * @return
+	 */
+	public ChangeData<SparseChangeSet> build() {
+		if (isEmpty()) {
+			throw new IllegalStateException("There are no changes to build");
+		}
+		SparseChangeSet merged = new SparseChangeSet(tableId, schema, new ArrayList<>(rows.values()), lastEtag);
+		return new ChangeData<>(lastChangeNumber, merged);
+	}
+
+	/**
+	 * The IDs of all file handles referenced by any of the merged changes.
+	 *
+	 * @return
+	 */
+	public Set<Long> getFileHandleIds() {
+		return fileHandleIds;
+	}
+
+	/**
+	 * The number of change sets merged since the last clear.
+	 *
+	 * @return
+	 */
+	public int getChangeCount() {
+		return changeCount;
+	}
+
+	/**
+	 * Does this coalescer hold any changes?
+	 *
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return changeCount < 1;
+	}
+
+	/**
+	 * Discard all of the merged changes.
+	 */
+	public void clear() {
+		this.tableId = null;
+		this.schema = null;
+		this.maxRowSizeBytes = 0;
+		this.rows = new LinkedHashMap<>();
+		this.fileHandleIds = new HashSet<>();
+		this.lastChangeNumber = null;
+		this.lastEtag = null;
+		this.changeCount = 0;
+	}
+}
@@ -0,0 +1,157 @@
+package org.sagebionetworks.table.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sagebionetworks.repo.model.table.TableConstants.ROW_ETAG;
+import static org.sagebionetworks.repo.model.table.TableConstants.ROW_ID;
+import static org.sagebionetworks.repo.model.table.TableConstants.ROW_VERSION;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.model.table.Row;
+import org.sagebionetworks.repo.model.table.RowSet;
+import org.sagebionetworks.repo.model.table.SelectColumn;
+
+@ExtendWith(MockitoExtension.class)
+public class ColumnarRowSetTest {
+
+	@Mock
+	ResultSet mockResultSet;
+
+	List<SelectColumn> headers;
+	ColumnTypeInfo[] infoArray;
+
+	@BeforeEach
+	public void before() {
+		SelectColumn one = new SelectColumn();
+		one.setName("one");
+		SelectColumn two = new SelectColumn();
+		two.setName("two");
+		headers = Arrays.asList(one, two);
+		infoArray = new ColumnTypeInfo[] { ColumnTypeInfo.STRING, ColumnTypeInfo.BOOLEAN };
+	}
+
+	@Test
+	public void testReadRowWithRowIdAndEtag() throws SQLException {
+		when(mockResultSet.getLong(ROW_ID)).thenReturn(123L);
+		when(mockResultSet.getLong(ROW_VERSION)).thenReturn(2L);
+		when(mockResultSet.getString(ROW_ETAG)).thenReturn("etag");
+		when(mockResultSet.getString(1)).thenReturn("aString");
+		when(mockResultSet.getString(2)).thenReturn("1");
+		ColumnarRowSet results = new ColumnarRowSet("syn123", headers, true, true, 10L);
+		// call under test
+		results.readRow(mockResultSet, infoArray);
+		assertEquals(1, results.getRowCount());
+		assertEquals(2, results.getColumnCount());
+		assertEquals(123L, results.getRowId(0).longValue());
+		assertEquals(2L, results.getVersionNumber(0).longValue());
+		assertEquals("etag", results.getEtag(0));
+		assertEquals("aString", results.getValue(0, 0));
+		assertEquals("true", results.getValue(0, 1));
+	}
+
+	@Test
+	public void testReadRowWithoutRowId() throws SQLException {
+		when(mockResultSet.getString(1)).thenReturn("aString");
+		when(mockResultSet.getString(2)).thenReturn(null);
+		// the etag is ignored without the row ID.
+		ColumnarRowSet results = new ColumnarRowSet("syn123", headers, false, true, null);
+		// call under test
+		results.readRow(mockResultSet, infoArray);
+		verify(mockResultSet, never()).getLong(ROW_ID);
+		verify(mockResultSet, never()).getString(ROW_ETAG);
+		assertNull(results.getRowId(0));
+		assertNull(results.getVersionNumber(0));
+		assertNull(results.getEtag(0));
+		assertEquals("aString", results.getValue(0, 0));
+		assertNull(results.getValue(0, 1));
+	}
+
+	@Test
+	public void testReadRowWrongColumnCount() {
+		ColumnarRowSet results = new ColumnarRowSet("syn123", headers, false, false, null);
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			results.readRow(mockResultSet, new ColumnTypeInfo[] { ColumnTypeInfo.STRING });
+		});
+	}
+
+	@Test
+	public void testAppendRowPastInitialCapacity() {
+		ColumnarRowSet results = new ColumnarRowSet("syn123", headers, true, false, 1L);
+		int count = ColumnarRowSet.DEFAULT_INITIAL_CAPACITY * 3;
+		for (int i = 0; i < count; i++) {
+			Row row = new Row();
+			row.setRowId((long) i);
+			row.setVersionNumber(1L);
+			row.setValues(Arrays.asList("value" + i, Integer.toString(i)));
+			// call under test
+			results.appendRow(row);
+		}
+		assertEquals(count, results.getRowCount());
+		for (int i = 0; i < count; i++) {
+			assertEquals(i, results.getRowId(i).longValue());
+			assertEquals("value" + i, results.getValue(i, 0));
+			assertEquals(Integer.toString(i), results.getValue(i, 1));
+		}
+	}
+
+	@Test
+	public void testNextRowWithoutRowId() {
+		ColumnarRowSet results = new ColumnarRowSet("syn123", headers, true, false, null);
+		Row row = new Row();
+		row.setValues(Arrays.asList("a", "true"));
+		// call under test
+		results.nextRow(row);
+		assertEquals(1, results.getRowCount());
+		assertNull(results.getRowId(0));
+		assertNull(results.getVersionNumber(0));
+		// the row is returned as it was captured.
+		assertEquals(row, results.getRow(0));
+	}
+
+	@Test
+	public void testGetValueOutOfBounds() {
+		ColumnarRowSet results = new ColumnarRowSet("syn123", headers, false, false, 10L);
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			// call under test
+			results.getValue(0, 0);
+		});
+	}
+
+	@Test
+	public void testToRowSet() {
+		ColumnarRowSet results = new ColumnarRowSet("syn123", headers, true, true, null);
+		Row one = new Row();
+		one.setRowId(1L);
+		one.setVersionNumber(3L);
+		one.setEtag("etag1");
+		one.setValues(Arrays.asList("a", "true"));
+		Row two = new Row();
+		two.setRowId(2L);
+		two.setVersionNumber(4L);
+		two.setEtag("etag2");
+		two.setValues(Arrays.asList(null, "false"));
+		results.appendRow(one);
+		results.appendRow(two);
+		// call under test
+		RowSet rowSet = results.toRowSet();
+		RowSet expected = new RowSet();
+		expected.setTableId("syn123");
+		expected.setHeaders(headers);
+		expected.setRows(Arrays.asList(one, two));
+		assertEquals(expected, rowSet);
+	}
+}
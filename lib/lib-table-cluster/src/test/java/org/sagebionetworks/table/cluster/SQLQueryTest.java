@@ -840,4 +840,76 @@ public class SQLQueryTest {
 		assertEquals("SELECT _C111_, ROW_ID, ROW_VERSION FROM T123 WHERE ( _C333_ = :b0 ) AND ( ( _C111_ LIKE :b1 ) )", query.getOutputSQL());
 	}
 
+	/**
+	 * Build the same query with and without the cache.
+	 */
+	void assertCachedQueryMatches(SqlQueryCache cache, String sql, Long offset, Long limit, Long maxBytesPerPage) throws ParseException {
+		SqlQuery expected = new SqlQueryBuilder(sql, tableSchema).overrideOffset(offset).overrideLimit(limit)
+				.maxBytesPerPage(maxBytesPerPage).build();
+		// call under test
+		SqlQuery cached = new SqlQueryBuilder(sql, tableSchema).overrideOffset(offset).overrideLimit(limit)
+				.maxBytesPerPage(maxBytesPerPage).queryCache(cache).build();
+		assertEquals(expected.getOutputSQL(), cached.getOutputSQL());
+		assertEquals(expected.getParameters(), cached.getParameters());
+		assertEquals(expected.getSelectColumns(), cached.getSelectColumns());
+		assertEquals(expected.isAggregatedResult(), cached.isAggregatedResult());
+		assertEquals(expected.includesRowIdAndVersion(), cached.includesRowIdAndVersion());
+		assertEquals(expected.getMaxRowSizeBytes(), cached.getMaxRowSizeBytes());
+		assertEquals(expected.getMaxRowsPerPage(), cached.getMaxRowsPerPage());
+		assertEquals(expected.getModel().toSql(), cached.getModel().toSql());
+		assertEquals(expected.getTransformedModel().toSql(), cached.getTransformedModel().toSql());
+	}
+
+	@Test
+	public void testQueryCacheMissThenHit() throws ParseException {
+		SqlQueryCache cache = new SqlQueryCache(10);
+		sql = "select foo, bar from syn123 where foo = 'a' order by bar";
+		assertCachedQueryMatches(cache, sql, 0L, 10L, 1000L);
+		assertEquals(0L, cache.getHitCount());
+		assertEquals(1L, cache.getMissCount());
+		assertEquals(1, cache.size());
+		// each later page only binds its own limit and offset.
+		assertCachedQueryMatches(cache, sql, 10L, 10L, 1000L);
+		assertCachedQueryMatches(cache, sql, 20L, 5L, 1000L);
+		assertCachedQueryMatches(cache, sql, null, null, 1000L);
+		assertEquals(3L, cache.getHitCount());
+		assertEquals(1L, cache.getMissCount());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testQueryCacheHitWithQueryPagination() throws ParseException {
+		SqlQueryCache cache = new SqlQueryCache(10);
+		sql = "select foo from syn123 limit 34 offset 12";
+		assertCachedQueryMatches(cache, sql, 2L, 100L, 1000L);
+		assertCachedQueryMatches(cache, sql, 50L, 3L, 1000L);
+		assertCachedQueryMatches(cache, sql, null, 3L, 10L);
+		assertEquals(2L, cache.getHitCount());
+	}
+
+	@Test
+	public void testQueryCacheHitWithoutPagination() throws ParseException {
+		SqlQueryCache cache = new SqlQueryCache(10);
+		sql = "select foo, count(*) from syn123 group by foo";
+		assertCachedQueryMatches(cache, sql, null, null, null);
+		assertCachedQueryMatches(cache, sql, null, null, null);
+		assertEquals(1L, cache.getHitCount());
+		// a paginated query has a different template.
+		assertCachedQueryMatches(cache, sql, null, 10L, null);
+		assertEquals(1L, cache.getHitCount());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testQueryCacheDifferentSchema() throws ParseException {
+		SqlQueryCache cache = new SqlQueryCache(10);
+		sql = "select foo from syn123";
+		assertCachedQueryMatches(cache, sql, 0L, 10L, 1000L);
+		// a change to the schema must not use the old template.
+		ColumnModel changed = TableModelTestUtils.createColumn(123L, "foo", ColumnType.INTEGER);
+		tableSchema.set(0, changed);
+		assertCachedQueryMatches(cache, sql, 0L, 10L, 1000L);
+		assertEquals(0L, cache.getHitCount());
+		assertEquals(2, cache.size());
+	}
 }
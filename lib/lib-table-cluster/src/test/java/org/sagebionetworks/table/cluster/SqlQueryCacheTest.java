@@ -0,0 +1,108 @@
+package org.sagebionetworks.table.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.EntityType;
+import org.sagebionetworks.repo.model.dbo.dao.table.TableModelTestUtils;
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.repo.model.table.ColumnType;
+import org.sagebionetworks.table.query.ParseException;
+import org.sagebionetworks.table.query.TableQueryParser;
+import org.sagebionetworks.table.query.model.QuerySpecification;
+
+public class SqlQueryCacheTest {
+
+	List<ColumnModel> schema;
+	QuerySpecification model;
+
+	@BeforeEach
+	public void before() throws ParseException {
+		schema = Arrays.asList(TableModelTestUtils.createColumn(111L, "foo", ColumnType.STRING),
+				TableModelTestUtils.createColumn(222L, "bar", ColumnType.INTEGER));
+		model = new TableQueryParser("select foo from syn123.4 where bar > 1").querySpecification();
+	}
+
+	SqlQueryTemplate createTemplate() {
+		return new SqlQueryTemplate(Collections.emptyList(), false, 10, "SELECT 1", Collections.emptyMap(), null,
+				null);
+	}
+
+	@Test
+	public void testGetAndPut() {
+		SqlQueryCache cache = new SqlQueryCache(2);
+		SqlQueryTemplate template = createTemplate();
+		assertNull(cache.get("one"));
+		cache.put("one", template);
+		// call under test
+		assertSame(template, cache.get("one"));
+		assertEquals(1L, cache.getHitCount());
+		assertEquals(1L, cache.getMissCount());
+		assertEquals(0L, cache.getEvictionCount());
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed() {
+		SqlQueryCache cache = new SqlQueryCache(2);
+		cache.put("one", createTemplate());
+		cache.put("two", createTemplate());
+		// using one makes two the least recently used.
+		assertNotNull(cache.get("one"));
+		// call under test
+		cache.put("three", createTemplate());
+		assertEquals(2, cache.size());
+		assertEquals(1L, cache.getEvictionCount());
+		assertNotNull(cache.get("one"));
+		assertNull(cache.get("two"));
+		assertNotNull(cache.get("three"));
+	}
+
+	@Test
+	public void testMaxSizeZero() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new SqlQueryCache(0);
+		});
+	}
+
+	@Test
+	public void testCreateKey() {
+		String key = SqlQueryCache.createKey(model, schema, false, EntityType.table, true);
+		assertNotNull(key);
+		// the key is a fixed size hash rather than the SQL.
+		assertEquals(64, key.length());
+		// the same inputs yield the same key.
+		assertEquals(key, SqlQueryCache.createKey(model, schema, false, EntityType.table, true));
+		// each input changes the key.
+		assertNotEquals(key, SqlQueryCache.createKey(model, schema, true, EntityType.table, true));
+		assertNotEquals(key, SqlQueryCache.createKey(model, schema, false, EntityType.entityview, true));
+		assertNotEquals(key, SqlQueryCache.createKey(model, schema, false, EntityType.table, false));
+		List<ColumnModel> otherSchema = Arrays.asList(schema.get(0));
+		assertNotEquals(key, SqlQueryCache.createKey(model, otherSchema, false, EntityType.table, true));
+	}
+
+	@Test
+	public void testCreateKeyIncludesTableVersion() throws ParseException {
+		String key = SqlQueryCache.createKey(model, schema, false, EntityType.table, true);
+		QuerySpecification otherVersion = new TableQueryParser("select foo from syn123.5 where bar > 1")
+				.querySpecification();
+		assertNotEquals(key, SqlQueryCache.createKey(otherVersion, schema, false, EntityType.table, true));
+	}
+
+	@Test
+	public void testCreateKeyColumnWithoutId() {
+		ColumnModel noId = TableModelTestUtils.createColumn(null, "baz", ColumnType.STRING);
+		schema = Arrays.asList(schema.get(0), noId);
+		// call under test
+		assertNull(SqlQueryCache.createKey(model, schema, false, EntityType.table, true));
+	}
+}
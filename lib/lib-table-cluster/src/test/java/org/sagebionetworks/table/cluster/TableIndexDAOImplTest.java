@@ -31,6 +31,7 @@ import java.util.stream.Collectors;
 
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.dbcp2.BasicDataSource;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -70,9 +71,11 @@ import org.sagebionetworks.table.query.util.SqlElementUntils;
 import org.sagebionetworks.util.Callback;
 import org.sagebionetworks.util.EnumUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.TransactionStatus;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
@@ -463,6 +466,40 @@ public class TableIndexDAOImplTest {
 		mockProgressCallback = null;
 	}
 
+	@Test
+	public void testQueryColumnar() throws ParseException {
+		// Create the table
+		List<ColumnModel> allTypes = TableModelTestUtils.createOneOfEachType();
+		createOrUpdateTable(allTypes, tableId, isView);
+		// Now add some data
+		List<Row> rows = TableModelTestUtils.createRows(allTypes, 2);
+		RowSet set = new RowSet();
+		set.setRows(rows);
+		List<SelectColumn> headers = TableModelUtils.getSelectColumns(allTypes);
+		set.setHeaders(headers);
+		set.setTableId(tableId.toString());
+		IdRange range = new IdRange();
+		range.setMinimumId(100L);
+		range.setMaximumId(200L);
+		range.setVersionNumber(3L);
+		TableModelTestUtils.assignRowIdsAndVersionNumbers(set, range);
+		createOrUpdateOrDeleteRows(tableId, set, allTypes);
+		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, allTypes).build();
+		// call under test
+		ColumnarRowSet results = tableIndexDAO.queryColumnar(mockProgressCallback, query);
+		assertNotNull(results);
+		assertEquals(headers, results.getHeaders());
+		assertEquals(2, results.getRowCount());
+		assertEquals(allTypes.size(), results.getColumnCount());
+		assertEquals(new Long(100), results.getRowId(0));
+		assertEquals(new Long(3), results.getVersionNumber(0));
+		assertEquals("string0", results.getValue(0, 0));
+		assertEquals(new Long(101), results.getRowId(1));
+		assertEquals("true", results.getValue(1, 3));
+		// the RowSet form must match the row based query.
+		assertEquals(tableIndexDAO.query(mockProgressCallback, query), results.toRowSet());
+	}
+
 	@Test
 	public void testDoubleQuery() throws ParseException {
 		// Create the table
@@ -3595,6 +3632,125 @@ public class TableIndexDAOImplTest {
 		return object;
 	}
 	
+	@Test
+	public void testAddAndRemoveViewScopeContainerIds() {
+		Long viewId = tableId.getId();
+		assertEquals(Collections.emptySet(), tableIndexDAO.getViewScopeContainerIds(viewId));
+		// call under test
+		tableIndexDAO.addViewScopeContainerIds(viewId, objectType, Sets.newHashSet(1L, 2L));
+		assertEquals(Sets.newHashSet(1L, 2L), tableIndexDAO.getViewScopeContainerIds(viewId));
+		tableIndexDAO.addViewScopeContainerIds(viewId, objectType, Sets.newHashSet(3L));
+		tableIndexDAO.addViewScopeContainerIds(viewId, objectType, Collections.emptySet());
+		assertEquals(Sets.newHashSet(1L, 2L, 3L), tableIndexDAO.getViewScopeContainerIds(viewId));
+		// call under test
+		tableIndexDAO.removeViewScopeContainerIds(viewId, Sets.newHashSet(1L, 3L));
+		tableIndexDAO.removeViewScopeContainerIds(viewId, Collections.emptySet());
+		assertEquals(Sets.newHashSet(2L), tableIndexDAO.getViewScopeContainerIds(viewId));
+		tableIndexDAO.deleteViewScopeContainers(viewId);
+		assertEquals(Collections.emptySet(), tableIndexDAO.getViewScopeContainerIds(viewId));
+	}
+	
+	@Test
+	public void testMarkViewRowsStale() {
+		Long viewId = tableId.getId();
+		Long otherViewId = viewId + 1;
+		tableIndexDAO.addViewScopeContainerIds(viewId, objectType, Sets.newHashSet(1L));
+		tableIndexDAO.addViewScopeContainerIds(otherViewId, objectType, Sets.newHashSet(5L));
+		ObjectDataDTO inView = createObjectDTO(objectType, EntityType.file, 10, 1L);
+		ObjectDataDTO inOtherView = createObjectDTO(objectType, EntityType.file, 11, 5L);
+		ObjectDataDTO inNoView = createObjectDTO(objectType, EntityType.file, 12, 7L);
+		// call under test
+		tableIndexDAO.markViewRowsStale(objectType,
+				Lists.newArrayList(inView.getId(), inOtherView.getId(), inNoView.getId()), "token");
+		Map<Long, String> expected = new HashMap<>();
+		expected.put(inView.getId(), "token");
+		assertEquals(expected, tableIndexDAO.getViewStaleRows(viewId, 100L));
+		expected = new HashMap<>();
+		expected.put(inOtherView.getId(), "token");
+		assertEquals(expected, tableIndexDAO.getViewStaleRows(otherViewId, 100L));
+		tableIndexDAO.deleteViewScopeContainers(otherViewId);
+	}
+	
+	/**
+	 * The scope of some views is the objects themselves rather than their parents.
+	 */
+	@Test
+	public void testMarkViewRowsStaleContainerIsObject() {
+		Long viewId = tableId.getId();
+		ObjectDataDTO project = createObjectDTO(objectType, EntityType.project, 10, 1L);
+		tableIndexDAO.addViewScopeContainerIds(viewId, objectType, Sets.newHashSet(project.getId()));
+		// call under test
+		tableIndexDAO.markViewRowsStale(objectType, Lists.newArrayList(project.getId()), "token");
+		assertEquals(Sets.newHashSet(project.getId()), tableIndexDAO.getViewStaleRows(viewId, 100L).keySet());
+	}
+	
+	@Test
+	public void testMarkViewRowsStaleOtherObjectType() {
+		Long viewId = tableId.getId();
+		tableIndexDAO.addViewScopeContainerIds(viewId, otherObjectType, Sets.newHashSet(1L));
+		ObjectDataDTO file = createObjectDTO(objectType, EntityType.file, 10, 1L);
+		// call under test
+		tableIndexDAO.markViewRowsStale(objectType, Lists.newArrayList(file.getId()), "token");
+		assertEquals(Collections.emptyMap(), tableIndexDAO.getViewStaleRows(viewId, 100L));
+	}
+	
+	@Test
+	public void testMarkViewRowsStaleEmpty() {
+		Long viewId = tableId.getId();
+		tableIndexDAO.addViewScopeContainerIds(viewId, objectType, Sets.newHashSet(1L));
+		// call under test
+		tableIndexDAO.markViewRowsStale(objectType, Collections.emptyList(), "token");
+		assertEquals(Collections.emptyMap(), tableIndexDAO.getViewStaleRows(viewId, 100L));
+	}
+	
+	@Test
+	public void testGetViewStaleRowsLimit() {
+		Long viewId = tableId.getId();
+		tableIndexDAO.addViewScopeContainerIds(viewId, objectType, Sets.newHashSet(1L));
+		ObjectDataDTO one = createObjectDTO(objectType, EntityType.file, 10, 1L);
+		ObjectDataDTO two = createObjectDTO(objectType, EntityType.file, 11, 1L);
+		tableIndexDAO.markViewRowsStale(objectType, Lists.newArrayList(one.getId(), two.getId()), "token");
+		// call under test
+		Map<Long, String> page = tableIndexDAO.getViewStaleRows(viewId, 1L);
+		assertEquals(Sets.newHashSet(one.getId()), page.keySet());
+	}
+	
+	@Test
+	public void testDeleteViewStaleRows() {
+		Long viewId = tableId.getId();
+		tableIndexDAO.addViewScopeContainerIds(viewId, objectType, Sets.newHashSet(1L));
+		ObjectDataDTO one = createObjectDTO(objectType, EntityType.file, 10, 1L);
+		ObjectDataDTO two = createObjectDTO(objectType, EntityType.file, 11, 1L);
+		tableIndexDAO.markViewRowsStale(objectType, Lists.newArrayList(one.getId(), two.getId()), "first");
+		Map<Long, String> staleRows = tableIndexDAO.getViewStaleRows(viewId, 100L);
+		// the second row changes again after it was read.
+		tableIndexDAO.markViewRowsStale(objectType, Lists.newArrayList(two.getId()), "second");
+		// call under test
+		tableIndexDAO.deleteViewStaleRows(viewId, staleRows);
+		Map<Long, String> expected = new HashMap<>();
+		expected.put(two.getId(), "second");
+		assertEquals(expected, tableIndexDAO.getViewStaleRows(viewId, 100L));
+	}
+	
+	@Test
+	public void testMarkViewRowsStaleForContainers() {
+		Long viewId = tableId.getId();
+		ObjectDataDTO inContainer = createObjectDTO(objectType, EntityType.file, 10, 1L);
+		ObjectDataDTO container = createObjectDTO(objectType, EntityType.project, 11, 7L);
+		// not in any of the containers.
+		createObjectDTO(objectType, EntityType.file, 12, 5L);
+		// call under test
+		tableIndexDAO.markViewRowsStaleForContainers(viewId, objectType, Sets.newHashSet(1L, container.getId()), "token");
+		Map<Long, String> expected = new HashMap<>();
+		expected.put(inContainer.getId(), "token");
+		expected.put(container.getId(), "token");
+		assertEquals(expected, tableIndexDAO.getViewStaleRows(viewId, 100L));
+		// call under test
+		tableIndexDAO.markViewRowsStaleForContainers(viewId, otherObjectType, Sets.newHashSet(5L), "other");
+		tableIndexDAO.markViewRowsStaleForContainers(viewId, objectType, Collections.emptySet(), "other");
+		assertEquals(expected, tableIndexDAO.getViewStaleRows(viewId, 100L));
+	}
+	
 	@Test
 	public void testDeleteRowsFromView() {
 		isView = true;
@@ -4106,4 +4262,21 @@ public class TableIndexDAOImplTest {
 		assertEquals(2, tableIndexDAO.tempTableListColumnMaxLength(tableId,columnId));
 	}
 
+	@Test
+	public void testExecuteInReadTransactionWithTimeout() {
+		BasicDataSource dataSource = (BasicDataSource) tableConnectionFactory.getFirstDataSource();
+		int activeBefore = dataSource.getNumActive();
+		long start = System.currentTimeMillis();
+		//method under test
+		assertThrows(DataAccessException.class, () -> {
+			tableIndexDAO.executeInReadTransaction((TransactionStatus status) -> {
+				return tableIndexDAO.getConnection().queryForObject("SELECT SLEEP(30)", Long.class);
+			}, 1000L);
+		});
+		// the statement was stopped on the database rather than left to finish
+		assertTrue(System.currentTimeMillis() - start < 10000L);
+		// and its connection was returned to the pool.
+		assertEquals(activeBefore, dataSource.getNumActive());
+	}
+
 }
@@ -0,0 +1,218 @@
+package org.sagebionetworks.table.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.dbo.dao.table.TableModelTestUtils;
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.repo.model.table.ColumnType;
+import org.sagebionetworks.table.cluster.utils.TableModelUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class SparseChangeSetCoalescerTest {
+
+	ColumnModel stringColumn;
+	ColumnModel fileColumn;
+	List<ColumnModel> schema;
+	SparseChangeSetCoalescer coalescer;
+
+	@BeforeEach
+	public void before() {
+		stringColumn = TableModelTestUtils.createColumn(1L, "aString", ColumnType.STRING);
+		fileColumn = TableModelTestUtils.createColumn(2L, "aFile", ColumnType.FILEHANDLEID);
+		schema = Lists.newArrayList(stringColumn, fileColumn);
+		coalescer = new SparseChangeSetCoalescer(1024L * 1024L);
+	}
+
+	/**
+	 * Helper to add a row to the given change set.
+	 */
+	SparseRow addRow(SparseChangeSet changeSet, long rowId, long version, String stringValue, String fileValue) {
+		SparseRow row = changeSet.addEmptyRow();
+		row.setRowId(rowId);
+		row.setVersionNumber(version);
+		if (stringValue != null) {
+			row.setCellValue(stringColumn.getId(), stringValue);
+		}
+		if (fileValue != null) {
+			row.setCellValue(fileColumn.getId(), fileValue);
+		}
+		return row;
+	}
+
+	List<SparseRow> getRows(SparseChangeSet changeSet) {
+		List<SparseRow> rows = new ArrayList<>();
+		changeSet.rowIterator().forEach(rows::add);
+		return rows;
+	}
+
+	@Test
+	public void testAppendLastWriterWinsPerCell() {
+		SparseChangeSet one = new SparseChangeSet("syn123", schema, "etag-1");
+		addRow(one, 1L, 1L, "a", "11");
+		addRow(one, 2L, 1L, "b", null);
+		SparseChangeSet two = new SparseChangeSet("syn123", schema, "etag-2");
+		addRow(two, 1L, 2L, "c", null);
+		addRow(two, 3L, 2L, null, "33");
+
+		// call under test
+		coalescer.append(new ChangeData<>(1L, one));
+		assertTrue(coalescer.canAppend(two));
+		coalescer.append(new ChangeData<>(2L, two));
+
+		assertEquals(2, coalescer.getChangeCount());
+		ChangeData<SparseChangeSet> result = coalescer.build();
+		assertEquals(2L, result.getChangeNumber());
+		assertEquals("etag-2", result.getChange().getEtag());
+		List<SparseRow> rows = getRows(result.getChange());
+		assertEquals(3, rows.size());
+		// row one keeps the file from the first change and the string from the second.
+		assertEquals(1L, rows.get(0).getRowId().longValue());
+		assertEquals(2L, rows.get(0).getVersionNumber().longValue());
+		assertEquals("c", rows.get(0).getCellValue(stringColumn.getId()));
+		assertEquals("11", rows.get(0).getCellValue(fileColumn.getId()));
+		assertEquals(2L, rows.get(1).getRowId().longValue());
+		assertEquals("b", rows.get(1).getCellValue(stringColumn.getId()));
+		assertFalse(rows.get(1).hasCellValue(fileColumn.getId()));
+		assertEquals(3L, rows.get(2).getRowId().longValue());
+		assertEquals("33", rows.get(2).getCellValue(fileColumn.getId()));
+		assertEquals(Sets.newHashSet(11L, 33L), coalescer.getFileHandleIds());
+	}
+
+	@Test
+	public void testAppendWithDelete() {
+		SparseChangeSet one = new SparseChangeSet("syn123", schema);
+		addRow(one, 1L, 1L, "a", "11");
+		addRow(one, 2L, 1L, "b", "22");
+		SparseChangeSet two = new SparseChangeSet("syn123", schema);
+		// delete row one
+		addRow(two, 1L, 2L, null, null);
+		SparseChangeSet three = new SparseChangeSet("syn123", schema);
+		// row two is updated and then deleted
+		addRow(three, 2L, 3L, "d", null);
+		SparseChangeSet four = new SparseChangeSet("syn123", schema);
+		addRow(four, 2L, 4L, null, null);
+
+		// call under test
+		coalescer.append(new ChangeData<>(1L, one));
+		coalescer.append(new ChangeData<>(2L, two));
+		coalescer.append(new ChangeData<>(3L, three));
+		coalescer.append(new ChangeData<>(4L, four));
+
+		List<SparseRow> rows = getRows(coalescer.build().getChange());
+		assertEquals(2, rows.size());
+		assertTrue(rows.get(0).isDelete());
+		assertTrue(rows.get(1).isDelete());
+		assertEquals(4L, rows.get(1).getVersionNumber().longValue());
+		// replaced file handles are still tracked
+		assertEquals(Sets.newHashSet(11L, 22L), coalescer.getFileHandleIds());
+	}
+
+	@Test
+	public void testCanAppendWriteAfterDelete() {
+		SparseChangeSet one = new SparseChangeSet("syn123", schema);
+		addRow(one, 1L, 1L, "a", "11");
+		SparseChangeSet two = new SparseChangeSet("syn123", schema);
+		addRow(two, 1L, 2L, null, null);
+		SparseChangeSet three = new SparseChangeSet("syn123", schema);
+		addRow(three, 1L, 3L, "d", null);
+		coalescer.append(new ChangeData<>(1L, one));
+		coalescer.append(new ChangeData<>(2L, two));
+		// call under test
+		assertFalse(coalescer.canAppend(three));
+		assertThrows(IllegalArgumentException.class, () -> {
+			coalescer.append(new ChangeData<>(3L, three));
+		});
+		// another delete of the row can still be merged.
+		SparseChangeSet deleteAgain = new SparseChangeSet("syn123", schema);
+		addRow(deleteAgain, 1L, 3L, null, null);
+		assertTrue(coalescer.canAppend(deleteAgain));
+	}
+
+	@Test
+	public void testWriteAfterDeleteAcrossFlush() {
+		// row one is written, deleted and then written again with only some of its cells.
+		SparseChangeSet one = new SparseChangeSet("syn123", schema);
+		addRow(one, 1L, 1L, "a", "11");
+		SparseChangeSet two = new SparseChangeSet("syn123", schema);
+		addRow(two, 1L, 2L, null, null);
+		SparseChangeSet three = new SparseChangeSet("syn123", schema);
+		addRow(three, 1L, 3L, "d", null);
+		List<SparseChangeSet> applied = new ArrayList<>();
+		long changeNumber = 1L;
+		// call under test, flushing the way the index manager does.
+		for (SparseChangeSet changeSet : Lists.newArrayList(one, two, three)) {
+			if (!coalescer.canAppend(changeSet)) {
+				applied.add(coalescer.build().getChange());
+				coalescer.clear();
+			}
+			coalescer.append(new ChangeData<>(changeNumber++, changeSet));
+		}
+		applied.add(coalescer.build().getChange());
+
+		assertEquals(2, applied.size());
+		// the delete reaches the index before the new write so the old file cell is not kept.
+		List<SparseRow> first = getRows(applied.get(0));
+		assertEquals(1, first.size());
+		assertTrue(first.get(0).isDelete());
+		assertEquals(2L, first.get(0).getVersionNumber().longValue());
+		List<SparseRow> second = getRows(applied.get(1));
+		assertEquals(1, second.size());
+		assertEquals("d", second.get(0).getCellValue(stringColumn.getId()));
+		assertFalse(second.get(0).hasCellValue(fileColumn.getId()));
+	}
+
+	@Test
+	public void testCanAppendWithSchemaChange() {
+		SparseChangeSet one = new SparseChangeSet("syn123", schema);
+		addRow(one, 1L, 1L, "a", null);
+		SparseChangeSet two = new SparseChangeSet("syn123", Lists.newArrayList(stringColumn));
+		addRow(two, 1L, 2L, "b", null);
+		coalescer.append(new ChangeData<>(1L, one));
+		// call under test
+		assertFalse(coalescer.canAppend(two));
+		assertThrows(IllegalArgumentException.class, () -> {
+			coalescer.append(new ChangeData<>(2L, two));
+		});
+	}
+
+	@Test
+	public void testCanAppendOverSize() {
+		int maxRowSize = TableModelUtils.calculateMaxRowSize(schema);
+		coalescer = new SparseChangeSetCoalescer(maxRowSize * 2);
+		SparseChangeSet one = new SparseChangeSet("syn123", schema);
+		addRow(one, 1L, 1L, "a", null);
+		addRow(one, 2L, 1L, "b", null);
+		SparseChangeSet two = new SparseChangeSet("syn123", schema);
+		addRow(two, 3L, 2L, "c", null);
+		// an empty coalescer can always accept a change.
+		assertTrue(coalescer.canAppend(one));
+		coalescer.append(new ChangeData<>(1L, one));
+		// call under test
+		assertFalse(coalescer.canAppend(two));
+	}
+
+	@Test
+	public void testClear() {
+		SparseChangeSet one = new SparseChangeSet("syn123", schema);
+		addRow(one, 1L, 1L, "a", "11");
+		coalescer.append(new ChangeData<>(1L, one));
+		assertFalse(coalescer.isEmpty());
+		// call under test
+		coalescer.clear();
+		assertTrue(coalescer.isEmpty());
+		assertTrue(coalescer.getFileHandleIds().isEmpty());
+		assertThrows(IllegalStateException.class, () -> {
+			coalescer.build();
+		});
+	}
+}
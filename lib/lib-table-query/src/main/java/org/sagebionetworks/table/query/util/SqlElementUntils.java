@@ -522,37 +522,60 @@ public class SqlElementUntils {
 			// there is nothing to do.
 			return model;
 		}
-		long limitFromRequest = (limit != null) ? limit : Long.MAX_VALUE;
-		long offsetFromRequest = (offset != null) ? offset : 0L;
-		
-		long limitFromQuery = Long.MAX_VALUE;
-		long offsetFromQuery = 0L;
-		
+		Long limitFromQuery = null;
+		Long offsetFromQuery = null;
 		Pagination pagination = model.getTableExpression().getPagination();
 		if (pagination != null) {
-			if (pagination.getLimitLong() != null) {
-				limitFromQuery = pagination.getLimitLong();
-			}
-			if (pagination.getOffsetLong() != null) {
-				offsetFromQuery = pagination.getOffsetLong();
-			}
+			limitFromQuery = pagination.getLimitLong();
+			offsetFromQuery = pagination.getOffsetLong();
 		}
-		
-		long paginatedOffset = offsetFromQuery + offsetFromRequest;
+		long paginatedOffset = calculatePaginatedOffset(offsetFromQuery, offset);
+		long paginatedLimit = calculatePaginatedLimit(limitFromQuery, offset, limit, maxRowsPerPage);
+		return convertToPaginatedQuery(model, paginatedOffset, paginatedLimit);
+	}
+	
+	/**
+	 * Calculate the offset of a query with the given pagination after the offset
+	 * of a request is applied.
+	 * 
+	 * @param offsetFromQuery The offset from the query's pagination or null.
+	 * @param offset          The offset from the request or null.
+	 * @return
+	 */
+	public static long calculatePaginatedOffset(Long offsetFromQuery, Long offset) {
+		long offsetFromRequest = (offset != null) ? offset : 0L;
+		long queryOffset = (offsetFromQuery != null) ? offsetFromQuery : 0L;
+		return queryOffset + offsetFromRequest;
+	}
+
+	/**
+	 * Calculate the limit of a query with the given pagination after the offset
+	 * and limit of a request and the maximum rows per page are applied.
+	 * 
+	 * @param limitFromQuery The limit from the query's pagination or null.
+	 * @param offset         The offset from the request or null.
+	 * @param limit          The limit from the request or null.
+	 * @param maxRowsPerPage The maximum number of rows per page or null.
+	 * @return
+	 */
+	public static long calculatePaginatedLimit(Long limitFromQuery, Long offset, Long limit, Long maxRowsPerPage) {
+		long limitFromRequest = (limit != null) ? limit : Long.MAX_VALUE;
+		long offsetFromRequest = (offset != null) ? offset : 0L;
+		long queryLimit = (limitFromQuery != null) ? limitFromQuery : Long.MAX_VALUE;
 		// adjust the limit from the query based on the additional offset (assume Long.MAX_VALUE - offset is still
 		// always large enough)
-		limitFromQuery = Math.max(0, limitFromQuery - offsetFromRequest);
-		
-		long paginatedLimit = Math.min(limitFromRequest, limitFromQuery);
-		
-		if(maxRowsPerPage != null){
+		queryLimit = Math.max(0, queryLimit - offsetFromRequest);
+
+		long paginatedLimit = Math.min(limitFromRequest, queryLimit);
+
+		if (maxRowsPerPage != null) {
 			if (paginatedLimit > maxRowsPerPage) {
 				paginatedLimit = maxRowsPerPage;
 			}
 		}
-		return convertToPaginatedQuery(model, paginatedOffset, paginatedLimit);
+		return paginatedLimit;
 	}
-	
+
 	/**
 	 * Create SQL that can be used for a count query from the given query model.
 	 * 
@@ -440,4 +440,21 @@ public class SqlElementUntilsTest {
 		assertEquals(" WHERE ("+ whereClause.getSearchCondition().toSql() + ") AND (" + searchConditionString + ")", stringBuilder.toString());
 	}
 
+	@Test
+	public void testCalculatePaginatedOffset() {
+		assertEquals(0L, SqlElementUntils.calculatePaginatedOffset(null, null));
+		assertEquals(12L, SqlElementUntils.calculatePaginatedOffset(12L, null));
+		assertEquals(2L, SqlElementUntils.calculatePaginatedOffset(null, 2L));
+		assertEquals(14L, SqlElementUntils.calculatePaginatedOffset(12L, 2L));
+	}
+
+	@Test
+	public void testCalculatePaginatedLimit() {
+		assertEquals(Long.MAX_VALUE, SqlElementUntils.calculatePaginatedLimit(null, null, null, null));
+		assertEquals(1000L, SqlElementUntils.calculatePaginatedLimit(null, null, null, 1000L));
+		assertEquals(32L, SqlElementUntils.calculatePaginatedLimit(34L, 2L, null, 1000L));
+		assertEquals(3L, SqlElementUntils.calculatePaginatedLimit(34L, null, 3L, 1000L));
+		assertEquals(0L, SqlElementUntils.calculatePaginatedLimit(34L, 50L, 3L, 1000L));
+		assertEquals(10L, SqlElementUntils.calculatePaginatedLimit(34L, null, 100L, 10L));
+	}
 }
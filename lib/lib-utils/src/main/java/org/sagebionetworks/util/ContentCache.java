@@ -0,0 +1,31 @@
+package org.sagebionetworks.util;
+
+import java.util.Optional;
+
+/**
+ * A local cache of immutable text content. Each key must identify a single
+ * version of the content (for example the ID of an immutable file or a hash of
+ * the inputs that produced the content), so entries never need to be
+ * invalidated.
+ *
+ */
+public interface ContentCache {
+
+	/**
+	 * Get the cached content for the given key.
+	 *
+	 * @param key
+	 * @return Empty if the content is not in the cache.
+	 */
+	Optional<String> get(String key);
+
+	/**
+	 * Add content to the cache. Failures to cache content are never passed to
+	 * the caller.
+	 *
+	 * @param key
+	 * @param content
+	 */
+	void put(String key, String content);
+
+}
@@ -0,0 +1,202 @@
+package org.sagebionetworks.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A {@link ContentCache} with an in-memory tier and an optional local-disk
+ * tier, each bounded by bytes. Content is written to both tiers. A miss in
+ * memory that is found on disk is promoted back to memory. The least recently
+ * used files are deleted once the disk tier exceeds its budget.
+ *
+ */
+public class TieredContentCache implements ContentCache {
+
+	private final Cache<String, String> memory;
+	private final File diskDirectory;
+	private final long diskMaxBytes;
+	/**
+	 * File name -> size of each file in the disk tier, in access order.
+	 */
+	private final LinkedHashMap<String, Long> diskEntries;
+	private long diskBytes;
+
+	/**
+	 *
+	 * @param memoryMaxBytes The maximum number of bytes of content held in
+	 *                       memory.
+	 * @param diskMaxBytes   The maximum number of bytes of content held on disk.
+	 *                       Zero disables the disk tier.
+	 * @param directoryPrefix The prefix of the name of the directory of the disk
+	 *                        tier. Each cache creates its own directory under the
+	 *                        temporary directory of the JVM and deletes it when
+	 *                        the JVM exits.
+	 */
+	public TieredContentCache(long memoryMaxBytes, long diskMaxBytes, String directoryPrefix) {
+		this(memoryMaxBytes, diskMaxBytes, diskMaxBytes > 0 ? createDiskDirectory(directoryPrefix) : null);
+	}
+
+	/**
+	 *
+	 * @param memoryMaxBytes
+	 * @param diskMaxBytes
+	 * @param diskDirectory  An existing directory used only by this cache. Null
+	 *                       when the disk tier is disabled.
+	 */
+	TieredContentCache(long memoryMaxBytes, long diskMaxBytes, File diskDirectory) {
+		ValidateArgument.requirement(memoryMaxBytes >= 0, "memoryMaxBytes cannot be negative");
+		ValidateArgument.requirement(diskMaxBytes <= 0 || diskDirectory != null,
+				"A directory is required when the disk tier is enabled");
+		this.memory = CacheBuilder.newBuilder().maximumWeight(memoryMaxBytes)
+				.weigher((String key, String content) -> sizeInBytes(key) + sizeInBytes(content)).build();
+		this.diskMaxBytes = diskMaxBytes;
+		this.diskEntries = new LinkedHashMap<>(16, 0.75f, true);
+		this.diskBytes = 0L;
+		this.diskDirectory = diskMaxBytes > 0 ? diskDirectory : null;
+	}
+
+	/**
+	 * Create a new directory for the disk tier. The temporary directory can be
+	 * shared by other processes on the same machine so each cache gets a directory
+	 * of its own.
+	 *
+	 * @param directoryPrefix
+	 * @return
+	 */
+	private static File createDiskDirectory(String directoryPrefix) {
+		ValidateArgument.required(directoryPrefix, "directoryPrefix");
+		File directory;
+		try {
+			directory = Files.createTempDirectory(directoryPrefix).toFile();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot create a directory for the disk tier", e);
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> FileUtils.deleteQuietly(directory)));
+		return directory;
+	}
+
+	@Override
+	public Optional<String> get(String key) {
+		ValidateArgument.required(key, "key");
+		String content = memory.getIfPresent(key);
+		if (content == null && diskDirectory != null) {
+			content = readFromDisk(key);
+			if (content != null) {
+				memory.put(key, content);
+			}
+		}
+		return Optional.ofNullable(content);
+	}
+
+	@Override
+	public void put(String key, String content) {
+		ValidateArgument.required(key, "key");
+		ValidateArgument.required(content, "content");
+		memory.put(key, content);
+		if (diskDirectory != null) {
+			writeToDisk(key, content);
+		}
+	}
+
+	/**
+	 * The number of bytes currently held by the disk tier.
+	 *
+	 * @return
+	 */
+	public synchronized long getDiskBytes() {
+		return diskBytes;
+	}
+
+	private String readFromDisk(String key) {
+		String fileName = fileName(key);
+		synchronized (this) {
+			// Also marks the entry as the most recently used.
+			if (diskEntries.get(fileName) == null) {
+				return null;
+			}
+		}
+		try {
+			return new String(Files.readAllBytes(new File(diskDirectory, fileName).toPath()), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			// The disk tier is only an optimization so a file that cannot be read is a miss.
+			return null;
+		}
+	}
+
+	private void writeToDisk(String key, String content) {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > diskMaxBytes) {
+			return;
+		}
+		String fileName = fileName(key);
+		synchronized (this) {
+			if (diskEntries.containsKey(fileName)) {
+				// Content never changes for a key.
+				return;
+			}
+		}
+		try {
+			// Write to a temporary file first so a reader never sees a partial file.
+			File temp = File.createTempFile(fileName, ".tmp", diskDirectory);
+			Files.write(temp.toPath(), bytes);
+			Files.move(temp.toPath(), new File(diskDirectory, fileName).toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// The disk tier is only an optimization so content that cannot be written is not cached.
+			return;
+		}
+		synchronized (this) {
+			if (diskEntries.put(fileName, (long) bytes.length) == null) {
+				diskBytes += bytes.length;
+			}
+			evictFromDisk();
+		}
+	}
+
+	/**
+	 * Delete the least recently used files until the disk tier is within its
+	 * budget. Must be called while holding the lock of this cache.
+	 */
+	private void evictFromDisk() {
+		Iterator<Map.Entry<String, Long>> iterator = diskEntries.entrySet().iterator();
+		while (diskBytes > diskMaxBytes && iterator.hasNext()) {
+			Map.Entry<String, Long> eldest = iterator.next();
+			iterator.remove();
+			diskBytes -= eldest.getValue();
+			FileUtils.deleteQuietly(new File(diskDirectory, eldest.getKey()));
+		}
+	}
+
+	/**
+	 * Keys can contain any characters so files are named by a hash of the key.
+	 *
+	 * @param key
+	 * @return
+	 */
+	static String fileName(String key) {
+		return DigestUtils.sha256Hex(key);
+	}
+
+	/**
+	 * Strings are held in memory as two bytes per character.
+	 *
+	 * @param value
+	 * @return
+	 */
+	private static int sizeInBytes(String value) {
+		return value.length() * 2;
+	}
+}
@@ -0,0 +1,127 @@
+package org.sagebionetworks.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TieredContentCacheTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testMemoryOnly() {
+		TieredContentCache cache = new TieredContentCache(1000L, 0L, (File) null);
+		assertFalse(cache.get("one").isPresent());
+		cache.put("one", "content one");
+		// call under test
+		assertEquals(Optional.of("content one"), cache.get("one"));
+		assertEquals(0L, cache.getDiskBytes());
+	}
+
+	@Test
+	public void testMemoryDisabled() {
+		TieredContentCache cache = new TieredContentCache(0L, 0L, (File) null);
+		cache.put("one", "content one");
+		// call under test
+		assertFalse(cache.get("one").isPresent());
+	}
+
+	@Test
+	public void testDiskPromotedToMemory() throws Exception {
+		File directory = tempDir.toFile();
+		// memory only fits one entry
+		TieredContentCache cache = new TieredContentCache(12L, 1000L, directory);
+		cache.put("one", "111");
+		cache.put("two", "222");
+		assertEquals(6L, cache.getDiskBytes());
+		// one is read from disk and promoted to memory
+		assertEquals(Optional.of("111"), cache.get("one"));
+		// remove the file to show the next read is served from memory.
+		Files.delete(new File(directory, TieredContentCache.fileName("one")).toPath());
+		// call under test
+		assertEquals(Optional.of("111"), cache.get("one"));
+	}
+
+	@Test
+	public void testMemoryEvictionServedFromDisk() {
+		// memory only fits one entry
+		TieredContentCache cache = new TieredContentCache(12L, 1000L, tempDir.toFile());
+		cache.put("one", "111");
+		cache.put("two", "222");
+		// call under test
+		assertEquals(Optional.of("111"), cache.get("one"));
+		assertEquals(Optional.of("222"), cache.get("two"));
+	}
+
+	@Test
+	public void testDiskEvictsLeastRecentlyUsed() {
+		File directory = tempDir.toFile();
+		TieredContentCache cache = new TieredContentCache(0L, 6L, directory);
+		cache.put("one", "111");
+		cache.put("two", "222");
+		// touch one so that two is the least recently used.
+		assertEquals(Optional.of("111"), cache.get("one"));
+		// call under test
+		cache.put("three", "333");
+		assertEquals(6L, cache.getDiskBytes());
+		assertEquals(Optional.of("111"), cache.get("one"));
+		assertFalse(cache.get("two").isPresent());
+		assertEquals(Optional.of("333"), cache.get("three"));
+		assertFalse(new File(directory, TieredContentCache.fileName("two")).exists());
+	}
+
+	@Test
+	public void testDiskContentLargerThanBudget() {
+		TieredContentCache cache = new TieredContentCache(0L, 2L, tempDir.toFile());
+		// call under test
+		cache.put("one", "111");
+		assertFalse(cache.get("one").isPresent());
+		assertEquals(0L, cache.getDiskBytes());
+	}
+
+	@Test
+	public void testDiskMultiByteCharacters() {
+		TieredContentCache cache = new TieredContentCache(0L, 1000L, tempDir.toFile());
+		String content = "\u00e9\u4e2d";
+		// call under test
+		cache.put("one", content);
+		assertEquals(content.getBytes(StandardCharsets.UTF_8).length, cache.getDiskBytes());
+		assertEquals(Optional.of(content), cache.get("one"));
+	}
+
+	@Test
+	public void testDirectoryPerInstance() {
+		// call under test
+		TieredContentCache one = new TieredContentCache(0L, 1000L, "tiered-cache-test");
+		TieredContentCache two = new TieredContentCache(0L, 1000L, "tiered-cache-test");
+		one.put("one", "111");
+		assertEquals(Optional.of("111"), one.get("one"));
+		assertFalse(two.get("one").isPresent());
+	}
+
+	@Test
+	public void testDiskWithoutDirectory() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new TieredContentCache(0L, 1000L, (File) null);
+		});
+	}
+
+	@Test
+	public void testPutNullContent() {
+		TieredContentCache cache = new TieredContentCache(1000L, 0L, (File) null);
+		assertThrows(IllegalArgumentException.class, () -> {
+			cache.put("one", null);
+		});
+		assertFalse(cache.get("one").isPresent());
+	}
+}
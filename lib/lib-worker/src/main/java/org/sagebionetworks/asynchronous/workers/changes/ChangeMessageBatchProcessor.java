@@ -1,6 +1,10 @@
 package org.sagebionetworks.asynchronous.workers.changes;
 
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,7 +17,12 @@ import org.sagebionetworks.workers.util.aws.message.MessageDrivenRunner;
 import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
 
 import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
 import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.google.common.collect.Lists;
 
 /**
  * A message driven runner that can read a batch of change messages and
@@ -27,15 +36,49 @@ public class ChangeMessageBatchProcessor implements MessageDrivenRunner {
 	static private Logger log = LogManager
 			.getLogger(ChangeMessageBatchProcessor.class);
 
+	/**
+	 * The maximum number of entries allowed in a single SQS send message batch.
+	 */
+	public static final int MAX_SEND_MESSAGE_BATCH_SIZE = 10;
+	/**
+	 * The maximum number of times a failed batch is split in halves. A part that
+	 * still fails at this depth is put back on the queue as single messages.
+	 */
+	public static final int MAX_BISECTION_DEPTH = 5;
+
 	private AmazonSQS awsSQSClient;
 	private String queueUrl;
 	private ChangeMessageRunner runner;
+	private AtomicLong poisonMessageCount;
+	private AtomicLong bisectionRunCount;
 
 	public ChangeMessageBatchProcessor(AmazonSQS awsSQSClient,
 			String queueName, ChangeMessageRunner runner) {
 		this.awsSQSClient = awsSQSClient;
 		this.queueUrl = awsSQSClient.getQueueUrl(queueName).getQueueUrl();
 		this.runner = runner;
+		this.poisonMessageCount = new AtomicLong(0L);
+		this.bisectionRunCount = new AtomicLong(0L);
+	}
+
+	/**
+	 * The number of change messages that failed on their own, or as part of a
+	 * batch at the maximum bisection depth, after a failed batch was bisected.
+	 * Each of these messages was put back on the queue.
+	 * 
+	 * @return
+	 */
+	public long getPoisonMessageCount() {
+		return poisonMessageCount.get();
+	}
+
+	/**
+	 * The number of times part of a failed batch was run again while bisecting.
+	 * 
+	 * @return
+	 */
+	public long getBisectionRunCount() {
+		return bisectionRunCount.get();
 	}
 
 	@Override
@@ -63,24 +106,125 @@ public class ChangeMessageBatchProcessor implements MessageDrivenRunner {
 		try{
 			batchRunner.run(progressCallback, batch);
 		} catch (Exception e) {
-			//if part of the batch fails for any reason, put everything back onto the queue as individual batched messages and retry later
-
 			if (batch.size() == 1) {
 				// Let the container handle retry for single messages.
 				throw e;
+			} else if (isRecoverable(e)) {
+				// Running parts of the batch again right away would fail for the same reason.
+				requeueAsSingleMessages(batch);
 			} else {
-				// Push each single message back onto the queue
-				for(ChangeMessage message: batch){
-					// Add the message back to the queue as a single message
-					awsSQSClient.sendMessage(queueUrl,
-							EntityFactory.createJSONStringForEntity(message));
-				}
+				/*
+				 * If part of the batch fails, narrow the failure down to the messages that
+				 * fail on their own and only put those back onto the queue as single
+				 * messages to retry later.
+				 */
+				List<ChangeMessage> toRequeue = new LinkedList<ChangeMessage>();
+				bisect(progressCallback, batch, batchRunner, toRequeue, 1);
+				requeueAsSingleMessages(toRequeue);
 			}
 		} catch (Throwable e) {
 			log.error("Failed on Batch: " + batch.toString(), e);
 		}
 	}
 
+	/**
+	 * Is the given failure expected to go away when the same messages are run
+	 * again later?
+	 * 
+	 * @param e
+	 * @return
+	 */
+	static boolean isRecoverable(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof RecoverableMessageException || cause instanceof SQLTransientException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Split a failed batch in halves and run each half again. Each half that fails
+	 * is split again until the failure is narrowed down to single messages, or
+	 * until the maximum bisection depth is reached. A half that fails with a
+	 * recoverable failure is not split again.
+	 * 
+	 * @param progressCallback
+	 * @param failed           A batch that failed to run.
+	 * @param batchRunner
+	 * @param toRequeue        Each message that should be put back onto the queue
+	 *                         is added to this list.
+	 * @param depth            The bisection depth of the given batch, starting at
+	 *                         one.
+	 */
+	void bisect(final ProgressCallback progressCallback, List<ChangeMessage> failed,
+			BatchChangeMessageDrivenRunner batchRunner, List<ChangeMessage> toRequeue, int depth) {
+		if (failed.size() == 1) {
+			ChangeMessage message = failed.get(0);
+			log.warn("Change Number: " + message.getChangeNumber() + " failed on its own and will be retried later");
+			poisonMessageCount.incrementAndGet();
+			toRequeue.add(message);
+			return;
+		}
+		if (depth > MAX_BISECTION_DEPTH) {
+			log.warn(failed.size() + " change messages still failed at the maximum bisection depth and will be retried later");
+			poisonMessageCount.addAndGet(failed.size());
+			toRequeue.addAll(failed);
+			return;
+		}
+		int middle = failed.size() / 2;
+		List<List<ChangeMessage>> halves = new ArrayList<List<ChangeMessage>>(2);
+		halves.add(failed.subList(0, middle));
+		halves.add(failed.subList(middle, failed.size()));
+		for (List<ChangeMessage> half : halves) {
+			bisectionRunCount.incrementAndGet();
+			try {
+				batchRunner.run(progressCallback, half);
+			} catch (Exception e) {
+				if (isRecoverable(e)) {
+					toRequeue.addAll(half);
+				} else {
+					bisect(progressCallback, half, batchRunner, toRequeue, depth + 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Put each of the given messages back onto the queue as a single message,
+	 * using as few SQS requests as possible.
+	 * 
+	 * @param messages
+	 * @throws JSONObjectAdapterException
+	 * @throws RecoverableMessageException If any of the messages could not be put
+	 *                                     back on the queue, so the container
+	 *                                     retries the original message.
+	 */
+	void requeueAsSingleMessages(List<ChangeMessage> messages)
+			throws JSONObjectAdapterException, RecoverableMessageException {
+		int failedCount = 0;
+		for (List<ChangeMessage> page : Lists.partition(messages, MAX_SEND_MESSAGE_BATCH_SIZE)) {
+			List<SendMessageBatchRequestEntry> entries = new ArrayList<SendMessageBatchRequestEntry>(page.size());
+			for (int i = 0; i < page.size(); i++) {
+				entries.add(new SendMessageBatchRequestEntry("" + i,
+						EntityFactory.createJSONStringForEntity(page.get(i))));
+			}
+			SendMessageBatchResult result = awsSQSClient
+					.sendMessageBatch(new SendMessageBatchRequest(queueUrl, entries));
+			if (result.getFailed() != null) {
+				for (BatchResultErrorEntry error : result.getFailed()) {
+					ChangeMessage message = page.get(Integer.parseInt(error.getId()));
+					log.error("Failed to put Change Number: " + message.getChangeNumber() + " back on the queue: "
+							+ error.getMessage());
+					failedCount++;
+				}
+			}
+		}
+		if (failedCount > 0) {
+			throw new RecoverableMessageException("Failed to put " + failedCount + " change messages back on the queue");
+		}
+	}
+
 	/**
 	 * Run each messages from the batch separately.
 	 * @param progressCallback
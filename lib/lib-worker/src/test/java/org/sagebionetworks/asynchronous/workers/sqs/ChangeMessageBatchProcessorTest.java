@@ -1,18 +1,25 @@
 package org.sagebionetworks.asynchronous.workers.sqs;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyListOf;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.invocation.InvocationOnMock;
@@ -30,7 +37,11 @@ import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
 
 import com.amazonaws.services.sqs.AmazonSQS;
 import com.amazonaws.services.sqs.model.GetQueueUrlResult;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
 import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
 
 public class ChangeMessageBatchProcessorTest {
 
@@ -109,8 +120,8 @@ public class ChangeMessageBatchProcessorTest {
 	}
 	
 	/**
-	 * When a batch processor fails with RecoverableMessageException, each
-	 * change message should be restored to the queue individually.  
+	 * When a batch processor fails for every message, each change message
+	 * should be restored to the queue individually with a single batch request.
 	 * 
 	 * @throws RecoverableMessageException
 	 * @throws Exception
@@ -120,17 +131,161 @@ public class ChangeMessageBatchProcessorTest {
 			Exception {
 		processor = new ChangeMessageBatchProcessor(mockAwsSQSClient,
 				queueName, mockBatchRunner);
+		when(mockAwsSQSClient.sendMessageBatch(any(SendMessageBatchRequest.class))).thenReturn(new SendMessageBatchResult());
 		// setup RecoverableMessageException failures
 		doThrow(new Exception()).when(mockBatchRunner).run(
 				any(ProgressCallback.class), anyListOf(ChangeMessage.class));
 		// call under test
 		processor.run(mockProgressCallback, awsMessage);
-		verify(mockBatchRunner).run(any(ProgressCallback.class),
+		// the batch followed by each half.
+		verify(mockBatchRunner, times(3)).run(any(ProgressCallback.class),
 				anyListOf(ChangeMessage.class));
-		verify(mockAwsSQSClient).sendMessage(queueUrl,
-				EntityFactory.createJSONStringForEntity(one));
-		verify(mockAwsSQSClient).sendMessage(queueUrl,
-				EntityFactory.createJSONStringForEntity(two));
+		List<SendMessageBatchRequestEntry> entries = captureRequeuedEntries(1).get(0).getEntries();
+		assertEquals(2, entries.size());
+		assertEquals(EntityFactory.createJSONStringForEntity(one), entries.get(0).getMessageBody());
+		assertEquals(EntityFactory.createJSONStringForEntity(two), entries.get(1).getMessageBody());
+		verify(mockAwsSQSClient, never()).sendMessage(any(String.class), any(String.class));
+		assertEquals(2L, processor.getPoisonMessageCount());
+	}
+
+	/**
+	 * A single bad message in a batch should be isolated by bisection so the
+	 * rest of the batch is processed in-process and only the bad message is put
+	 * back on the queue.
+	 */
+	@Test
+	public void testBatchProcessorBisectsPoisonMessage() throws RecoverableMessageException, Exception {
+		processor = new ChangeMessageBatchProcessor(mockAwsSQSClient,
+				queueName, mockBatchRunner);
+		when(mockAwsSQSClient.sendMessageBatch(any(SendMessageBatchRequest.class))).thenReturn(new SendMessageBatchResult());
+		List<ChangeMessage> batch = new ArrayList<ChangeMessage>();
+		for (int i = 0; i < 8; i++) {
+			ChangeMessage change = new ChangeMessage();
+			change.setChangeType(ChangeType.UPDATE);
+			change.setChangeNumber(new Long(i));
+			change.setObjectId("syn" + i);
+			batch.add(change);
+		}
+		final ChangeMessage poison = batch.get(5);
+		final List<ChangeMessage> processed = new ArrayList<ChangeMessage>();
+		doAnswer(new Answer<Object>() {
+			public Object answer(InvocationOnMock invocation) throws Exception {
+				List<ChangeMessage> toRun = (List<ChangeMessage>) invocation.getArguments()[1];
+				if (toRun.contains(poison)) {
+					throw new IllegalArgumentException("Something is not right");
+				}
+				processed.addAll(toRun);
+				return null;
+			}
+		}).when(mockBatchRunner).run(any(ProgressCallback.class), anyListOf(ChangeMessage.class));
+		ChangeMessages messages = new ChangeMessages();
+		messages.setList(batch);
+		awsMessage = MessageUtils.createTopicMessage(messages, "topic:arn", "id", "handle");
+		// call under test
+		processor.run(mockProgressCallback, awsMessage);
+		// every other message was processed
+		assertEquals(7, processed.size());
+		// the batch of eight, then two halves of each of the three failed sizes.
+		verify(mockBatchRunner, times(7)).run(any(ProgressCallback.class), anyListOf(ChangeMessage.class));
+		List<SendMessageBatchRequestEntry> entries = captureRequeuedEntries(1).get(0).getEntries();
+		assertEquals(1, entries.size());
+		assertEquals(EntityFactory.createJSONStringForEntity(poison), entries.get(0).getMessageBody());
+		assertEquals(1L, processor.getPoisonMessageCount());
+		assertEquals(6L, processor.getBisectionRunCount());
+	}
+
+	@Test
+	public void testBatchProcessorRequeuePages() throws Exception {
+		processor = new ChangeMessageBatchProcessor(mockAwsSQSClient,
+				queueName, mockBatchRunner);
+		when(mockAwsSQSClient.sendMessageBatch(any(SendMessageBatchRequest.class))).thenReturn(new SendMessageBatchResult());
+		doThrow(new Exception()).when(mockBatchRunner).run(
+				any(ProgressCallback.class), anyListOf(ChangeMessage.class));
+		List<ChangeMessage> batch = new ArrayList<ChangeMessage>();
+		for (int i = 0; i < ChangeMessageBatchProcessor.MAX_SEND_MESSAGE_BATCH_SIZE + 1; i++) {
+			batch.add(one);
+		}
+		ChangeMessages messages = new ChangeMessages();
+		messages.setList(batch);
+		awsMessage = MessageUtils.createTopicMessage(messages, "topic:arn", "id", "handle");
+		// call under test
+		processor.run(mockProgressCallback, awsMessage);
+		// more messages failed than fit in a single request.
+		List<SendMessageBatchRequest> requests = captureRequeuedEntries(2);
+		assertEquals(ChangeMessageBatchProcessor.MAX_SEND_MESSAGE_BATCH_SIZE, requests.get(0).getEntries().size());
+		assertEquals(1, requests.get(1).getEntries().size());
+		assertEquals(queueUrl, requests.get(0).getQueueUrl());
+	}
+
+	/**
+	 * A recoverable failure of the batch should put the whole batch back on the
+	 * queue without bisecting.
+	 */
+	@Test
+	public void testBatchProcessorRecoverableRequeuesWholeBatch() throws Exception {
+		processor = new ChangeMessageBatchProcessor(mockAwsSQSClient,
+				queueName, mockBatchRunner);
+		when(mockAwsSQSClient.sendMessageBatch(any(SendMessageBatchRequest.class))).thenReturn(new SendMessageBatchResult());
+		doThrow(new RecoverableMessageException()).when(mockBatchRunner).run(
+				any(ProgressCallback.class), anyListOf(ChangeMessage.class));
+		// call under test
+		processor.run(mockProgressCallback, awsMessage);
+		verify(mockBatchRunner, times(1)).run(any(ProgressCallback.class), anyListOf(ChangeMessage.class));
+		List<SendMessageBatchRequestEntry> entries = captureRequeuedEntries(1).get(0).getEntries();
+		assertEquals(2, entries.size());
+		assertEquals(0L, processor.getBisectionRunCount());
+		assertEquals(0L, processor.getPoisonMessageCount());
+	}
+
+	@Test
+	public void testBatchProcessorBisectionDepth() throws Exception {
+		processor = new ChangeMessageBatchProcessor(mockAwsSQSClient,
+				queueName, mockBatchRunner);
+		when(mockAwsSQSClient.sendMessageBatch(any(SendMessageBatchRequest.class))).thenReturn(new SendMessageBatchResult());
+		doThrow(new IllegalArgumentException("Something is not right")).when(mockBatchRunner).run(
+				any(ProgressCallback.class), anyListOf(ChangeMessage.class));
+		List<ChangeMessage> batch = new ArrayList<ChangeMessage>();
+		for (int i = 0; i < 64; i++) {
+			batch.add(one);
+		}
+		ChangeMessages messages = new ChangeMessages();
+		messages.setList(batch);
+		awsMessage = MessageUtils.createTopicMessage(messages, "topic:arn", "id", "handle");
+		// call under test
+		processor.run(mockProgressCallback, awsMessage);
+		// the batch of 64 is split down to parts of two and not further.
+		verify(mockBatchRunner, times(63)).run(any(ProgressCallback.class), anyListOf(ChangeMessage.class));
+		assertEquals(62L, processor.getBisectionRunCount());
+		assertEquals(64L, processor.getPoisonMessageCount());
+		captureRequeuedEntries(7);
+	}
+
+	@Test(expected = RecoverableMessageException.class)
+	public void testBatchProcessorRequeueFailure() throws Exception {
+		processor = new ChangeMessageBatchProcessor(mockAwsSQSClient,
+				queueName, mockBatchRunner);
+		when(mockAwsSQSClient.sendMessageBatch(any(SendMessageBatchRequest.class))).thenReturn(
+				new SendMessageBatchResult().withFailed(new BatchResultErrorEntry().withId("1").withMessage("failed")));
+		doThrow(new RecoverableMessageException()).when(mockBatchRunner).run(
+				any(ProgressCallback.class), anyListOf(ChangeMessage.class));
+		// call under test
+		processor.run(mockProgressCallback, awsMessage);
+	}
+
+	@Test
+	public void testIsRecoverable() {
+		assertTrue(ChangeMessageBatchProcessor.isRecoverable(new RecoverableMessageException()));
+		assertTrue(ChangeMessageBatchProcessor.isRecoverable(new RuntimeException(new SQLTransientException("deadlock"))));
+		assertFalse(ChangeMessageBatchProcessor.isRecoverable(new IllegalArgumentException("bad")));
+	}
+
+	/**
+	 * Capture the batch requests sent to SQS.
+	 */
+	List<SendMessageBatchRequest> captureRequeuedEntries(int count) {
+		ArgumentCaptor<SendMessageBatchRequest> captor = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+		verify(mockAwsSQSClient, times(count)).sendMessageBatch(captor.capture());
+		return captor.getAllValues();
 	}
 
 	@Test(expected = RecoverableMessageException.class)
@@ -4,5 +4,15 @@ import java.util.List;
 
 public interface AwsKinesisFirehoseLogger {
 
-	void logBatch(String kinesisDataStreamSuffix, List<? extends AwsKinesisLogRecord> logRecords);
+	/**
+	 * Send the given records to the firehose stream with the given suffix. Records
+	 * rejected by firehose are sent again with a jittered backoff, so this call
+	 * might block for a short time and should not be made from a request thread.
+	 * 
+	 * @param kinesisDataStreamSuffix
+	 * @param logRecords
+	 * @return The number of records that could not be delivered after all the
+	 *         attempts.
+	 */
+	int logBatch(String kinesisDataStreamSuffix, List<? extends AwsKinesisLogRecord> logRecords);
 }
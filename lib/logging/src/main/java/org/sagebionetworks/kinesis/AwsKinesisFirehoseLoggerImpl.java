@@ -1,20 +1,27 @@
 package org.sagebionetworks.kinesis;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections4.ListUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.DefaultClock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.amazonaws.services.kinesisfirehose.AmazonKinesisFirehose;
 import com.amazonaws.services.kinesisfirehose.model.AmazonKinesisFirehoseException;
+import com.amazonaws.services.kinesisfirehose.model.InvalidArgumentException;
 import com.amazonaws.services.kinesisfirehose.model.PutRecordBatchRequest;
+import com.amazonaws.services.kinesisfirehose.model.PutRecordBatchResponseEntry;
 import com.amazonaws.services.kinesisfirehose.model.PutRecordBatchResult;
 import com.amazonaws.services.kinesisfirehose.model.Record;
+import com.amazonaws.services.kinesisfirehose.model.ResourceNotFoundException;
 
 @Component
 public class AwsKinesisFirehoseLoggerImpl implements AwsKinesisFirehoseLogger {
@@ -24,36 +31,114 @@ public class AwsKinesisFirehoseLoggerImpl implements AwsKinesisFirehoseLogger {
 	// Kinesis has a record limit of 500 for each batch
 	private static final int FIREHOSE_MAX_RECORD_LIMIT = 500;
 
+	// The number of times a batch is sent before the records that still fail are dropped
+	static final int MAX_ATTEMPTS = 4;
+
+	// The backoff before the first retry, doubled for each following retry
+	static final long BASE_BACKOFF_MS = 100L;
+
 	private AmazonKinesisFirehose kinesisFirehoseClient;
 
 	private AwsKinesisLogRecordSerializer kinesisRecordSerializer;
 
 	private StackConfiguration stackConfiguration;
 
+	private Clock clock;
+
 	@Autowired
 	public AwsKinesisFirehoseLoggerImpl(AmazonKinesisFirehose kinesisFirehoseClient, AwsKinesisLogRecordSerializer kinesisRecordSerializer, StackConfiguration stackConfiguration) {
+		this(kinesisFirehoseClient, kinesisRecordSerializer, stackConfiguration, new DefaultClock());
+	}
+
+	AwsKinesisFirehoseLoggerImpl(AmazonKinesisFirehose kinesisFirehoseClient, AwsKinesisLogRecordSerializer kinesisRecordSerializer, StackConfiguration stackConfiguration, Clock clock) {
 		this.kinesisFirehoseClient = kinesisFirehoseClient;
 		this.kinesisRecordSerializer = kinesisRecordSerializer;
 		this.stackConfiguration = stackConfiguration;
+		this.clock = clock;
 	}
 
 	@Override
-	public void logBatch(String kinesisDataStreamSuffix, List<? extends AwsKinesisLogRecord> logRecordList) {
+	public int logBatch(String kinesisDataStreamSuffix, List<? extends AwsKinesisLogRecord> logRecordList) {
 
 		List<? extends List<? extends AwsKinesisLogRecord>> partitionedRecords = ListUtils.partition(logRecordList,
 				FIREHOSE_MAX_RECORD_LIMIT);
 
+		int undeliveredCount = 0;
+
 		for (List<? extends AwsKinesisLogRecord> batch : partitionedRecords) {
 			PutRecordBatchRequest batchRequest = buildBatchRequest(kinesisDataStreamSuffix, batch);
+			undeliveredCount += sendWithRetry(batchRequest);
+		}
+
+		return undeliveredCount;
+	}
+
+	/**
+	 * Send the given batch, sending again only the records that failed until all
+	 * the records are delivered or the attempts are exhausted.
+	 * 
+	 * @param batchRequest
+	 * @return The number of records that could not be delivered.
+	 */
+	int sendWithRetry(PutRecordBatchRequest batchRequest) {
+		String streamName = batchRequest.getDeliveryStreamName();
+		List<Record> pending = batchRequest.getRecords();
+		for (int attempt = 1;; attempt++) {
 			try {
-				PutRecordBatchResult result = kinesisFirehoseClient.putRecordBatch(batchRequest);
-				if (result.getFailedPutCount() > 0) {
-					LOG.warn("Could not send {} records to stream {}", result.getFailedPutCount(), kinesisDataStreamSuffix);
+				PutRecordBatchResult result = kinesisFirehoseClient
+						.putRecordBatch(new PutRecordBatchRequest().withDeliveryStreamName(streamName).withRecords(pending));
+				if (result.getFailedPutCount() == null || result.getFailedPutCount() < 1) {
+					return 0;
 				}
+				pending = getFailedRecords(pending, result);
+			} catch (ResourceNotFoundException | InvalidArgumentException e) {
+				// Sending the same request again will not help
+				LOG.error("Could not send " + pending.size() + " records to stream " + streamName + ": " + e.getMessage(), e);
+				return pending.size();
 			} catch (AmazonKinesisFirehoseException e) {
-				LOG.error(e.getMessage(), e);
+				LOG.warn("Attempt {} to send {} records to stream {} failed: {}", attempt, pending.size(), streamName, e.getMessage());
+			}
+			if (attempt >= MAX_ATTEMPTS) {
+				LOG.error("Could not send {} records to stream {} after {} attempts", pending.size(), streamName, attempt);
+				return pending.size();
 			}
+			clock.sleepNoInterrupt(getBackoffMs(attempt));
+		}
+	}
+
+	/**
+	 * The responses of a batch are in the same order as the records of the
+	 * request and a failed record has an error code.
+	 * 
+	 * @param records
+	 * @param result
+	 * @return
+	 */
+	static List<Record> getFailedRecords(List<Record> records, PutRecordBatchResult result) {
+		List<PutRecordBatchResponseEntry> responses = result.getRequestResponses();
+		if (responses == null || responses.size() != records.size()) {
+			// Cannot tell which records failed so all of them are sent again.
+			return records;
 		}
+		List<Record> failed = new ArrayList<>(result.getFailedPutCount());
+		for (int i = 0; i < records.size(); i++) {
+			if (responses.get(i).getErrorCode() != null) {
+				failed.add(records.get(i));
+			}
+		}
+		return failed;
+	}
+
+	/**
+	 * Full jitter: a random wait up to an exponentially growing limit, so the
+	 * machines retrying after a throttle do not all retry at the same time.
+	 * 
+	 * @param attempt
+	 * @return
+	 */
+	static long getBackoffMs(int attempt) {
+		long maxBackoffMs = BASE_BACKOFF_MS << (attempt - 1);
+		return ThreadLocalRandom.current().nextLong(maxBackoffMs + 1);
 	}
 
 	private PutRecordBatchRequest buildBatchRequest(String kinesisDataStreamSuffix,
@@ -34,19 +34,28 @@ public class ProfilerFrameStackManager {
 
 	public void endProfiling(String methodName, long elapsedTimeMillis){
 		Stack<Frame> parentFramesStack = threadFrameStack.get();
+		// the stack cannot be trusted after an error so it is dropped unless this ends a nested frame
+		boolean outermostFrame = true;
+		try {
+			// now that the method finished pop the current frame off the stack
+			Frame currentFrame = parentFramesStack.pop();
+
+			if(!currentFrame.getName().equals(methodName)){
+				throw new IllegalArgumentException("Expected to end profiling on " + currentFrame.getName() + " but got " + methodName);
+			}
 
-		// now that the method finished pop the current frame off the stack
-		Frame currentFrame = parentFramesStack.pop();
-
-		if(!currentFrame.getName().equals(methodName)){
-			throw new IllegalArgumentException("Expected to end profiling on " + currentFrame.getName() + " but got " + methodName);
-		}
-
-		currentFrame.addElapsedTime(elapsedTimeMillis);
+			currentFrame.addElapsedTime(elapsedTimeMillis);
 
-		// If this is the first frame, log the profiling data
-		if (parentFramesStack.isEmpty()) {
-			doFireProfile(currentFrame);
+			// If this is the first frame, log the profiling data
+			outermostFrame = parentFramesStack.isEmpty();
+			if (outermostFrame) {
+				doFireProfile(currentFrame);
+			}
+		} finally {
+			if (outermostFrame) {
+				// the request is done with the stack so the thread should not retain it
+				threadFrameStack.remove();
+			}
 		}
 	}
 
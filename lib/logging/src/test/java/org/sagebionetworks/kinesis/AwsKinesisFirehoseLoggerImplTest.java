@@ -1,6 +1,11 @@
 package org.sagebionetworks.kinesis;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -19,11 +24,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.util.Clock;
 
 import com.amazonaws.services.kinesisfirehose.AmazonKinesisFirehoseClient;
 import com.amazonaws.services.kinesisfirehose.model.PutRecordBatchRequest;
+import com.amazonaws.services.kinesisfirehose.model.PutRecordBatchResponseEntry;
 import com.amazonaws.services.kinesisfirehose.model.PutRecordBatchResult;
 import com.amazonaws.services.kinesisfirehose.model.Record;
+import com.amazonaws.services.kinesisfirehose.model.ResourceNotFoundException;
+import com.amazonaws.services.kinesisfirehose.model.ServiceUnavailableException;
 import com.google.common.collect.Lists;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,6 +60,9 @@ class AwsKinesisFirehoseLoggerImplTest {
 	@Mock
 	AwsKinesisLogRecordSerializer mockRecordSerializer;
 
+	@Mock
+	Clock mockClock;
+
 
 	String kinesisStreamSuffix = "myKinesisStream";
 	String stack = "dev";
@@ -79,7 +91,9 @@ class AwsKinesisFirehoseLoggerImplTest {
 
 
 		//method under test
-		kinesisFirehoseLogger.logBatch(kinesisStreamSuffix, mockRecordList);
+		int undelivered = kinesisFirehoseLogger.logBatch(kinesisStreamSuffix, mockRecordList);
+
+		assertEquals(0, undelivered);
 
 		verify(mockRecord1).withStack(stack);
 		verify(mockRecord1).withInstance(instance);
@@ -126,4 +140,109 @@ class AwsKinesisFirehoseLoggerImplTest {
 
 		verifyNoMoreInteractions(mockKinesisFirehoseClient);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testLogBatchRetryFailedRecords(){
+		List<AwsKinesisLogRecord> mockRecordList = Lists.newArrayList(mockRecord1, mockRecord2);
+
+		ByteBuffer mockRecord1Bytes = ByteBuffer.wrap(new byte[1]);
+		ByteBuffer mockRecord2Bytes = ByteBuffer.wrap(new byte[2]);
+
+		when(mockRecordSerializer.toBytes(mockRecord1)).thenReturn(mockRecord1Bytes);
+		when(mockRecordSerializer.toBytes(mockRecord2)).thenReturn(mockRecord2Bytes);
+
+		// the second record is throttled the first time
+		PutRecordBatchResult partialFailure = new PutRecordBatchResult().withFailedPutCount(1).withRequestResponses(
+				new PutRecordBatchResponseEntry().withRecordId("one"),
+				new PutRecordBatchResponseEntry().withErrorCode("ServiceUnavailableException"));
+		when(mockKinesisFirehoseClient.putRecordBatch(any())).thenReturn(partialFailure,
+				new PutRecordBatchResult().withFailedPutCount(0));
+
+		//method under test
+		int undelivered = kinesisFirehoseLogger.logBatch(kinesisStreamSuffix, mockRecordList);
+
+		assertEquals(0, undelivered);
+		verify(mockKinesisFirehoseClient).putRecordBatch(
+				new PutRecordBatchRequest()
+						.withDeliveryStreamName("devtestmyKinesisStream")
+						.withRecords(Arrays.asList(
+								new Record().withData(mockRecord1Bytes),
+								new Record().withData(mockRecord2Bytes)))
+		);
+		// only the failed record is sent again
+		verify(mockKinesisFirehoseClient).putRecordBatch(
+				new PutRecordBatchRequest()
+						.withDeliveryStreamName("devtestmyKinesisStream")
+						.withRecords(Arrays.asList(new Record().withData(mockRecord2Bytes)))
+		);
+		verify(mockClock).sleepNoInterrupt(anyLong());
+		verifyNoMoreInteractions(mockKinesisFirehoseClient);
+	}
+
+	@Test
+	public void testLogBatchRetryExhausted(){
+		ByteBuffer mockRecord1Bytes = ByteBuffer.wrap(new byte[1]);
+		when(mockRecordSerializer.toBytes(mockRecord1)).thenReturn(mockRecord1Bytes);
+		PutRecordBatchResult failure = new PutRecordBatchResult().withFailedPutCount(1).withRequestResponses(
+				new PutRecordBatchResponseEntry().withErrorCode("ServiceUnavailableException"));
+		when(mockKinesisFirehoseClient.putRecordBatch(any())).thenReturn(failure);
+
+		//method under test
+		int undelivered = kinesisFirehoseLogger.logBatch(kinesisStreamSuffix, Lists.newArrayList(mockRecord1));
+
+		assertEquals(1, undelivered);
+		verify(mockKinesisFirehoseClient, times(AwsKinesisFirehoseLoggerImpl.MAX_ATTEMPTS)).putRecordBatch(any());
+		verify(mockClock, times(AwsKinesisFirehoseLoggerImpl.MAX_ATTEMPTS - 1)).sleepNoInterrupt(anyLong());
+	}
+
+	@Test
+	public void testLogBatchRetryAfterException(){
+		ByteBuffer mockRecord1Bytes = ByteBuffer.wrap(new byte[1]);
+		when(mockRecordSerializer.toBytes(mockRecord1)).thenReturn(mockRecord1Bytes);
+		when(mockKinesisFirehoseClient.putRecordBatch(any())).thenThrow(new ServiceUnavailableException("busy"))
+				.thenReturn(mockRecordResult);
+
+		//method under test
+		int undelivered = kinesisFirehoseLogger.logBatch(kinesisStreamSuffix, Lists.newArrayList(mockRecord1));
+
+		assertEquals(0, undelivered);
+		verify(mockKinesisFirehoseClient, times(2)).putRecordBatch(any());
+		verify(mockClock).sleepNoInterrupt(anyLong());
+	}
+
+	@Test
+	public void testLogBatchNoRetryForMissingStream(){
+		ByteBuffer mockRecord1Bytes = ByteBuffer.wrap(new byte[1]);
+		when(mockRecordSerializer.toBytes(mockRecord1)).thenReturn(mockRecord1Bytes);
+		when(mockKinesisFirehoseClient.putRecordBatch(any())).thenThrow(new ResourceNotFoundException("missing"));
+
+		//method under test
+		int undelivered = kinesisFirehoseLogger.logBatch(kinesisStreamSuffix, Lists.newArrayList(mockRecord1));
+
+		assertEquals(1, undelivered);
+		verify(mockKinesisFirehoseClient).putRecordBatch(any());
+		verify(mockClock, never()).sleepNoInterrupt(anyLong());
+	}
+
+	@Test
+	public void testGetFailedRecordsWithoutResponses(){
+		List<Record> records = Arrays.asList(new Record(), new Record());
+
+		//method under test
+		List<Record> failed = AwsKinesisFirehoseLoggerImpl.getFailedRecords(records,
+				new PutRecordBatchResult().withFailedPutCount(1));
+
+		// cannot tell which record failed
+		assertEquals(records, failed);
+	}
+
+	@Test
+	public void testGetBackoffMs(){
+		for (int attempt = 1; attempt < AwsKinesisFirehoseLoggerImpl.MAX_ATTEMPTS; attempt++) {
+			long maxBackoffMs = AwsKinesisFirehoseLoggerImpl.BASE_BACKOFF_MS << (attempt - 1);
+			//method under test
+			long backoffMs = AwsKinesisFirehoseLoggerImpl.getBackoffMs(attempt);
+			assertTrue(backoffMs >= 0 && backoffMs <= maxBackoffMs);
+		}
+	}
+}
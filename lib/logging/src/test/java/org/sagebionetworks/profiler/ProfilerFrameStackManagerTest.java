@@ -189,6 +189,8 @@ public class ProfilerFrameStackManagerTest {
 		}
 
 		verify(mockThreadLocalStack).get();
+		// the mismatched stack is not retained by the thread
+		verify(mockThreadLocalStack).remove();
 		verify(mockFrameStack).pop();
 		verify(mockFrame, times(2)).getName();
 
@@ -228,6 +230,7 @@ public class ProfilerFrameStackManagerTest {
 		spyProfilerFrameStackManager.endProfiling(methodName, elapsedTime);
 
 		verify(mockThreadLocalStack).get();
+		verify(mockThreadLocalStack).remove();
 		verify(mockFrameStack).pop();
 		verify(mockFrameStack).isEmpty();
 		verify(mockFrame).addElapsedTime(elapsedTime);
@@ -1,6 +1,7 @@
 package org.sagebionetworks.repo.model;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.sagebionetworks.repo.model.auth.AuthorizationStatus;
@@ -26,6 +27,18 @@ public interface AccessControlListDAO  {
 	public AuthorizationStatus canAccess(UserInfo user, String resourceId, ObjectType resourceType,
 			ACCESS_TYPE permission);
 
+	/**
+	 * Get all of the access types that any group in 'groups' has been explicitly
+	 * granted on 'resourceId' with a single query.
+	 * 
+	 * @param groups       The principal IDs of the user.
+	 * @param resourceId   Identifier of the resource (the benefactor for
+	 *                     entities).
+	 * @param resourceType Type of the resource.
+	 * @return An empty set if no access has been granted.
+	 */
+	public Set<ACCESS_TYPE> getAccessTypes(Set<Long> groups, String resourceId, ObjectType resourceType);
+
 	/**
 	 * Create a new ACL
 	 * @param dto
@@ -65,6 +78,17 @@ public interface AccessControlListDAO  {
 	 * @throws NotFoundException
 	 */
 	public List<Long> getAclIds(List<Long> ownerIds, ObjectType objectType);	
+
+	/**
+	 * Get the ACLs of the given owners. The ACLs and all of their resource access
+	 * are read with a fixed number of queries regardless of the number of owners.
+	 * 
+	 * @param ownerIds
+	 * @param ownerType
+	 * @return Map from each owner ID to its ACL. Owners without an ACL are not
+	 *         included.
+	 */
+	public Map<Long, AccessControlList> getAcls(List<Long> ownerIds, ObjectType ownerType);
 	/**
 	 * Get an ACL using the ACL's ID
 	 * @param id - the id of the acl (not the ownerId)
@@ -76,6 +76,13 @@ public interface NodeDAO {
 	 */
 	public Node getNode(String id);
 	
+	/**
+	 * Fetch the current version of each of the given nodes with a single query.
+	 * @param nodeIds
+	 * @return The nodes that exist, in no particular order.
+	 */
+	public List<Node> getNodes(List<Long> nodeIds);
+	
 	/**
 	 * Get the node for a given version number.
 	 * @param id
@@ -164,6 +171,16 @@ public interface NodeDAO {
 	 */
 	Annotations getUserAnnotationsForVersion(String id, Long versionNumber);
 
+	/**
+	 * Get the user annotations of the current version of each of the given nodes
+	 * with a single query.
+	 * 
+	 * @param nodeIds
+	 * @return Map from each node ID to its user annotations. Nodes that do not
+	 *         exist are not included.
+	 */
+	Map<Long, Annotations> getUserAnnotationsForCurrentVersions(List<Long> nodeIds);
+
 	/**
 	 * Get Entity properties that could not be stored as a Node
 	 * @param id
@@ -220,7 +237,16 @@ public interface NodeDAO {
 	 * @return
 	 */
 	public Set<Long> getAvailableNodes(List<Long> nodeIds);
-	
+
+	/**
+	 * Get the benefactor of each of the given nodes with a single query.
+	 *
+	 * @param nodeIds
+	 * @return Map of node ID to benefactor ID. Nodes that do not exist or that do
+	 *         not have a benefactor will not be included in the map.
+	 */
+	public Map<Long, Long> getBenefactors(List<Long> nodeIds);
+
 	/**
 	 * True if the node exists and is not in the trash.
 	 * @param nodeId
@@ -505,6 +531,16 @@ public interface NodeDAO {
 	 */
 	public String getProjectId(String objectId);
 	
+	/**
+	 * Get the project of each of the given entities with a single query.
+	 * 
+	 * @param nodeIds
+	 * @return Map from each entity ID to the ID of its project. Entities that
+	 *         do not exist, are in the trash or are not within a project are not
+	 *         included.
+	 */
+	public Map<Long, Long> getProjectIds(Collection<Long> nodeIds);
+	
 	/**
 	 * A node's permissions benefactor is the node which its permissions are inherited from.
 	 * This is the non-cached version of the node's benefactor.  The returned value is always consistent.
@@ -1,6 +1,7 @@
 package org.sagebionetworks.repo.model.auth;
 
 import java.util.Date;
+import java.util.Map;
 
 import org.sagebionetworks.repo.web.NotFoundException;
 
@@ -43,6 +44,13 @@ public interface PersonalAccessTokenDao {
 	 */
 	void updateLastUsed(String tokenId);
 
+	/**
+	 * Set the "last used" time of each of the given tokens with a single batch
+	 * update. The time of a token is never moved backwards.
+	 * @param lastUsedByTokenId map of token ID to the time the token was last used
+	 */
+	void updateLastUsed(Map<String, Date> lastUsedByTokenId);
+
 	/**
 	 * Deletes a token record by its unique token ID. This effectively revokes the token.
 	 * @param tokenId
@@ -3,6 +3,7 @@ package org.sagebionetworks.repo.model.dao.table;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 import org.sagebionetworks.repo.model.table.ColumnChange;
@@ -70,7 +71,8 @@ public interface TableRowTruthDAO {
 	public TableRowChange getLastTableRowChange(String tableId, TableChangeType changeType);
 	
 	/**
-	 * Append a SpareChangeSet to the given table.
+	 * Append a SpareChangeSet to the given table. The change is also tracked as
+	 * the last change of each row in the delta.
 	 * 
 	 * @param userId
 	 * @param tableId
@@ -210,5 +212,26 @@ public interface TableRowTruthDAO {
 	 * @return
 	 */
 	public boolean isEtagInTablesChangeHistory(String tableId, String etag);
+
+	/**
+	 * Get the first change number of the given table that is included in the
+	 * last change tracked for each row. Row changes with a smaller number were
+	 * appended before the rows of the table were tracked.
+	 * 
+	 * @param tableId
+	 * @return Empty if no change of the table has been tracked.
+	 */
+	public Optional<Long> getFirstTrackedRowChangeNumber(String tableId);
+
+	/**
+	 * Get the sub-set of the given row IDs that were modified by a tracked change
+	 * with a number greater than the given change number (exclusive).
+	 * 
+	 * @param tableId
+	 * @param rowIds
+	 * @param changeNumber
+	 * @return
+	 */
+	public Set<Long> getRowIdsChangedAfter(String tableId, Set<Long> rowIds, long changeNumber);
 	
 }
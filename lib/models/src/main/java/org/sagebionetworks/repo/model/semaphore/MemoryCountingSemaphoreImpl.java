@@ -1,11 +1,11 @@
 package org.sagebionetworks.repo.model.semaphore;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.sagebionetworks.common.util.Clock;
 import org.sagebionetworks.util.ValidateArgument;
@@ -19,10 +19,12 @@ import org.sagebionetworks.util.ValidateArgument;
 public class MemoryCountingSemaphoreImpl implements MemoryCountingSemaphore {
 	
 	/*
-	 * Note: This is not a synchronized map. All access to this map must occur in a synchronized method
-	 * making this singleton the lock (not the map).
+	 * Note: The lists in this map are not synchronized. A list must only be
+	 * accessed within a compute of its key, which locks that key only, so calls
+	 * for different keys never wait for each other. A key is removed as soon as
+	 * it has no locks.
 	 */
-	private Map<String, List<Lock>> keyTokenMap = new HashMap<String, List<Lock>>();
+	private ConcurrentMap<String, List<Lock>> keyTokenMap = new ConcurrentHashMap<String, List<Lock>>();
 	// abstraction from the system clock.
 	private Clock clock;
 	
@@ -36,45 +38,46 @@ public class MemoryCountingSemaphoreImpl implements MemoryCountingSemaphore {
 	}
 
 	@Override
-	public synchronized String attemptToAcquireLock(String key, long timeoutSec,
+	public String attemptToAcquireLock(String key, long timeoutSec,
 			int maxLockCount) {
 		ValidateArgument.required(key, "key");
-		// Is there an entry in the map for this key?
-		List<Lock> locks = keyTokenMap.get(key);
-		if(locks == null){
-			locks = new LinkedList<Lock>();
-			keyTokenMap.put(key, locks);
-		}
-		// remove expired locks
-		long now = clock.currentTimeMillis();
-		Iterator<Lock> it = locks.iterator();
-		while(it.hasNext()){
-			Lock lock = it.next();
-			if(now > lock.getExpiresTimeMs()){
-				it.remove();
+		String[] issuedToken = new String[1];
+		keyTokenMap.compute(key, (k, locks) -> {
+			// Is there an entry in the map for this key?
+			if(locks == null){
+				locks = new LinkedList<Lock>();
 			}
-		}
-		// are we out of locks for this key?
-		if(locks.size() < maxLockCount){
-			// a new lock can be issued
-			Lock lock = new Lock();
-			lock.setExpiresTimeMs(now+(timeoutSec*1000));
-			lock.setToken(UUID.randomUUID().toString());
-			locks.add(lock);
-			return lock.getToken();
-		}
-		// a new token could not be issued.
-		return null;
+			// remove expired locks
+			long now = clock.currentTimeMillis();
+			Iterator<Lock> it = locks.iterator();
+			while(it.hasNext()){
+				Lock lock = it.next();
+				if(now > lock.getExpiresTimeMs()){
+					it.remove();
+				}
+			}
+			// are we out of locks for this key?
+			if(locks.size() < maxLockCount){
+				// a new lock can be issued
+				Lock lock = new Lock();
+				lock.setExpiresTimeMs(now+(timeoutSec*1000));
+				lock.setToken(UUID.randomUUID().toString());
+				locks.add(lock);
+				issuedToken[0] = lock.getToken();
+			}
+			return locks.isEmpty() ? null : locks;
+		});
+		// null if a new token could not be issued.
+		return issuedToken[0];
 	}
 
 	@Override
-	public synchronized void refreshLockTimeout(String key, String tokenString, long timeoutSec) {
+	public void refreshLockTimeout(String key, String tokenString, long timeoutSec) {
 		ValidateArgument.required(key, "key");
 		ValidateArgument.required(tokenString, "token");
+		boolean[] refreshed = new boolean[1];
 		// Get the tokens for this key
-		List<Lock> locks = keyTokenMap.get(key);
-		boolean refreshed = false;
-		if(locks != null){
+		keyTokenMap.computeIfPresent(key, (k, locks) -> {
 			Iterator<Lock> it = locks.iterator();
 			while(it.hasNext()){
 				Lock lock = it.next();
@@ -82,42 +85,43 @@ public class MemoryCountingSemaphoreImpl implements MemoryCountingSemaphore {
 					// found a match.
 					long now = clock.currentTimeMillis();
 					lock.setExpiresTimeMs(now+(timeoutSec*1000));
-					refreshed = true;
+					refreshed[0] = true;
 					break;
 				}
 			}
-		}
-		if(!refreshed){
+			return locks;
+		});
+		if(!refreshed[0]){
 			throw new LockReleaseFailedException("Key: " + key + " token: "	+ tokenString + " has expired.");
 		}
 	}
 
 	@Override
-	public synchronized void releaseLock(String key, String tokenString) {
+	public void releaseLock(String key, String tokenString) {
 		ValidateArgument.required(key, "key");
 		ValidateArgument.required(tokenString, "token");
+		boolean[] released = new boolean[1];
 		// Get the tokens for this key
-		List<Lock> locks = keyTokenMap.get(key);
-		boolean released = false;
-		if(locks != null){
+		keyTokenMap.computeIfPresent(key, (k, locks) -> {
 			Iterator<Lock> it = locks.iterator();
 			while(it.hasNext()){
 				Lock lock = it.next();
 				if(lock.getToken().equals(tokenString)){
 					// found a match.
 					it.remove();
-					released = true;
+					released[0] = true;
 					break;
 				}
 			}
-		}
-		if(!released){
+			return locks.isEmpty() ? null : locks;
+		});
+		if(!released[0]){
 			throw new LockReleaseFailedException("Key: " + key + " token: "	+ tokenString + " has expired.");
 		}
 	}
 
 	@Override
-	public synchronized void releaseAllLocks() {
+	public void releaseAllLocks() {
 		keyTokenMap.clear();
 	}
 
@@ -1,15 +1,47 @@
 package org.sagebionetworks.repo.model.semaphore;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
 
 import org.sagebionetworks.util.ValidateArgument;
 
 public class MemoryTimeBlockCountingSemaphoreImpl implements MemoryTimeBlockCountingSemaphore{
-	private Map<String, SimpleSemaphore> keySemaphoreMap = new HashMap<String,SimpleSemaphore>();
+	
+	/**
+	 * Expired semaphores of keys that are no longer used are removed on average
+	 * once per this many attempts. The attempt that sweeps is picked at random so
+	 * there is no counter shared by all threads.
+	 */
+	public static final int EXPIRED_SWEEP_INTERVAL = 10_000;
+	
+	/*
+	 * Note: A semaphore must only be accessed within a compute of its key, which
+	 * locks that key only, so calls for different keys never wait for each other.
+	 */
+	private ConcurrentMap<String, SimpleSemaphore> keySemaphoreMap = new ConcurrentHashMap<String,SimpleSemaphore>();
+	
+	/*
+	 * Draws a number from zero (inclusive) to EXPIRED_SWEEP_INTERVAL (exclusive)
+	 * for each attempt; the attempt that draws zero sweeps.
+	 */
+	private final IntSupplier sweepDraw;
+	
+	public MemoryTimeBlockCountingSemaphoreImpl() {
+		this(() -> ThreadLocalRandom.current().nextInt(EXPIRED_SWEEP_INTERVAL));
+	}
+	
+	/**
+	 * @param sweepDraw Draws the number that decides if an attempt sweeps the
+	 *                  expired semaphores. Exposed for testing.
+	 */
+	MemoryTimeBlockCountingSemaphoreImpl(IntSupplier sweepDraw) {
+		this.sweepDraw = sweepDraw;
+	}
 	
 	@Override
-	public synchronized boolean attemptToAcquireLock(String key, long timeoutSec, long maxLockCount) {
+	public boolean attemptToAcquireLock(String key, long timeoutSec, long maxLockCount) {
 		ValidateArgument.required(key, "key");
 		ValidateArgument.requirement(timeoutSec >= 0, "timeoutSec must be a positive value");
 		ValidateArgument.requirement(maxLockCount >= 0, "maxLockCount must be a positive value");
@@ -19,30 +51,33 @@ public class MemoryTimeBlockCountingSemaphoreImpl implements MemoryTimeBlockCoun
 			return false;
 		}
 		
-		SimpleSemaphore semaphore = keySemaphoreMap.get(key);
+		boolean[] acquired = new boolean[1];
+		keySemaphoreMap.compute(key, (k, semaphore) -> {
+			if(semaphore == null){
+				//no semaphore created for key yet
+				//create new semaphore and increment
+				SimpleSemaphore newSem = new SimpleSemaphore();
+				resetAndIncrementSemaphore(newSem, timeoutSec);
+				acquired[0] = true;
+				return newSem;
+			}
+			
+			if(semaphore.isExpired()){
+				//reset and increment if semaphore has expired
+				resetAndIncrementSemaphore(semaphore, timeoutSec);
+				acquired[0] = true;
+			} else if(semaphore.getCount() < maxLockCount){
+				//current count not exceeding maximum. just increment
+				semaphore.increment();
+				acquired[0] = true;
+			}
+			return semaphore;
+		});
 		
-		if(semaphore == null){
-			//no semaphore created for key yet
-			//create new semaphore and increment
-			SimpleSemaphore newSem = new SimpleSemaphore();
-			resetAndIncrementSemaphore(newSem, timeoutSec);
-			keySemaphoreMap.put(key, newSem);
-			return true;
+		if(sweepDraw.getAsInt() == 0){
+			removeExpiredSemaphores();
 		}
-		
-		if(semaphore.isExpired()){
-			//reset and increment if semaphore has expired
-			resetAndIncrementSemaphore(semaphore, timeoutSec);
-			return true;
-		}
-		
-		if(semaphore.getCount() < maxLockCount){
-			//current count not exceeding maximum. just increment
-			semaphore.increment();
-			return true;
-		}
-		
-		return false;
+		return acquired[0];
 	}
 	
 	//resets the semaphore, give it a new expiration and increment the count
@@ -52,9 +87,20 @@ public class MemoryTimeBlockCountingSemaphoreImpl implements MemoryTimeBlockCoun
 		semaphore.resetCount();
 		semaphore.increment();
 	}
+	
+	/**
+	 * An expired semaphore holds nothing, so removing it is the same as resetting
+	 * it on the next attempt. Each key is checked within its own compute so a
+	 * semaphore that is reset concurrently is never removed.
+	 */
+	void removeExpiredSemaphores(){
+		for(String key: keySemaphoreMap.keySet()){
+			keySemaphoreMap.computeIfPresent(key, (k, semaphore) -> semaphore.isExpired() ? null : semaphore);
+		}
+	}
 
 	@Override
-	public synchronized void releaseAllLocks() {
+	public void releaseAllLocks() {
 		keySemaphoreMap.clear();
 	}
 
@@ -164,6 +164,120 @@ public class TableConstants {
 	public static final String TRUNCATE_REPLICATION_SYNC_EXPIRATION_TABLE = 
 			"TRUNCATE TABLE "+REPLICATION_SYNC_EXPIRATION_TABLE;
 
+	// VIEW_SCOPE_CONTAINER: reverse index from each container to the views that include it.
+	public static final String VIEW_SCOPE_CONTAINER_TABLE					= "VIEW_SCOPE_CONTAINER";
+	public static final String VIEW_SCOPE_CONTAINER_COL_VIEW_ID				= "VIEW_ID";
+	public static final String VIEW_SCOPE_CONTAINER_COL_OBJECT_TYPE			= "OBJECT_TYPE";
+	public static final String VIEW_SCOPE_CONTAINER_COL_CONTAINER_ID		= "CONTAINER_ID";
+
+	// VIEW_STALE_ROW: rows of a view that changed since they were last applied to the view.
+	public static final String VIEW_STALE_ROW_TABLE							= "VIEW_STALE_ROW";
+	public static final String VIEW_STALE_ROW_COL_VIEW_ID					= "VIEW_ID";
+	public static final String VIEW_STALE_ROW_COL_ROW_ID					= "ROW_ID";
+	public static final String VIEW_STALE_ROW_COL_TOKEN						= "TOKEN";
+
+	public static final String VIEW_ID_PARAM_NAME = "viewId";
+	public static final String TOKEN_PARAM_NAME = "token";
+
+	public final static String VIEW_SCOPE_CONTAINER_TABLE_CREATE =
+			"CREATE TABLE IF NOT EXISTS "+VIEW_SCOPE_CONTAINER_TABLE+ "("
+			+ VIEW_SCOPE_CONTAINER_COL_VIEW_ID + " BIGINT NOT NULL,"
+			+ VIEW_SCOPE_CONTAINER_COL_OBJECT_TYPE + " ENUM(" + OBJECT_TYPES_ENUM_STRING + ") NOT NULL,"
+			+ VIEW_SCOPE_CONTAINER_COL_CONTAINER_ID + " BIGINT NOT NULL,"
+			+ "PRIMARY KEY("+ VIEW_SCOPE_CONTAINER_COL_VIEW_ID + "," + VIEW_SCOPE_CONTAINER_COL_CONTAINER_ID + ")"
+			+ ", INDEX ("+VIEW_SCOPE_CONTAINER_COL_CONTAINER_ID+", "+VIEW_SCOPE_CONTAINER_COL_OBJECT_TYPE+")"
+			+")";
+
+	public final static String VIEW_STALE_ROW_TABLE_CREATE =
+			"CREATE TABLE IF NOT EXISTS "+VIEW_STALE_ROW_TABLE+ "("
+			+ VIEW_STALE_ROW_COL_VIEW_ID + " BIGINT NOT NULL,"
+			+ VIEW_STALE_ROW_COL_ROW_ID + " BIGINT NOT NULL,"
+			+ VIEW_STALE_ROW_COL_TOKEN + " char(36) NOT NULL,"
+			+ "PRIMARY KEY("+ VIEW_STALE_ROW_COL_VIEW_ID + "," + VIEW_STALE_ROW_COL_ROW_ID + ")"
+			+")";
+
+	public static final String SELECT_VIEW_SCOPE_CONTAINER_IDS =
+			"SELECT " + VIEW_SCOPE_CONTAINER_COL_CONTAINER_ID
+			+ " FROM " + VIEW_SCOPE_CONTAINER_TABLE
+			+ " WHERE " + VIEW_SCOPE_CONTAINER_COL_VIEW_ID + " = ?";
+
+	public static final String DELETE_VIEW_SCOPE_CONTAINERS =
+			"DELETE FROM " + VIEW_SCOPE_CONTAINER_TABLE
+			+ " WHERE " + VIEW_SCOPE_CONTAINER_COL_VIEW_ID + " = ?";
+
+	public static final String DELETE_VIEW_SCOPE_CONTAINER_IDS =
+			"DELETE FROM " + VIEW_SCOPE_CONTAINER_TABLE
+			+ " WHERE " + VIEW_SCOPE_CONTAINER_COL_VIEW_ID + " = :" + VIEW_ID_PARAM_NAME
+			+ " AND " + VIEW_SCOPE_CONTAINER_COL_CONTAINER_ID + " IN (:" + PARENT_ID_PARAM_NAME + ")";
+
+	public static final String BATCH_INSERT_VIEW_SCOPE_CONTAINER =
+			"INSERT INTO " + VIEW_SCOPE_CONTAINER_TABLE + " ("
+			+ VIEW_SCOPE_CONTAINER_COL_VIEW_ID + ", "
+			+ VIEW_SCOPE_CONTAINER_COL_OBJECT_TYPE + ", "
+			+ VIEW_SCOPE_CONTAINER_COL_CONTAINER_ID
+			+ ") VALUES (?,?,?)";
+
+	/**
+	 * Mark the rows of the given objects as stale in every view that includes
+	 * either the object itself or its parent in the current state of the
+	 * replication table.
+	 */
+	public static final String MARK_VIEW_ROWS_STALE =
+			"INSERT INTO " + VIEW_STALE_ROW_TABLE + " ("
+			+ VIEW_STALE_ROW_COL_VIEW_ID + ", "
+			+ VIEW_STALE_ROW_COL_ROW_ID + ", "
+			+ VIEW_STALE_ROW_COL_TOKEN + ")"
+			+ " SELECT C." + VIEW_SCOPE_CONTAINER_COL_VIEW_ID + ", R." + OBJECT_REPLICATION_COL_OBJECT_ID + ", :" + TOKEN_PARAM_NAME
+			+ " FROM " + OBJECT_REPLICATION_TABLE + " R JOIN " + VIEW_SCOPE_CONTAINER_TABLE + " C"
+			+ " ON (C." + VIEW_SCOPE_CONTAINER_COL_OBJECT_TYPE + " = R." + OBJECT_REPLICATION_COL_OBJECT_TYPE
+			+ " AND (C." + VIEW_SCOPE_CONTAINER_COL_CONTAINER_ID + " = R." + OBJECT_REPLICATION_COL_PARENT_ID
+			+ " OR C." + VIEW_SCOPE_CONTAINER_COL_CONTAINER_ID + " = R." + OBJECT_REPLICATION_COL_OBJECT_ID + "))"
+			+ " WHERE R." + OBJECT_REPLICATION_COL_OBJECT_TYPE + " = :" + OBJECT_TYPE_PARAM_NAME
+			+ " AND R." + OBJECT_REPLICATION_COL_OBJECT_ID + " IN (:" + ID_PARAM_NAME + ")"
+			+ " ON DUPLICATE KEY UPDATE " + VIEW_STALE_ROW_COL_TOKEN + " = :" + TOKEN_PARAM_NAME;
+
+	/**
+	 * Mark the rows of all of the objects in the given containers, or that are
+	 * the given containers, as stale for a single view.
+	 */
+	public static final String MARK_VIEW_ROWS_STALE_FOR_CONTAINERS =
+			"INSERT INTO " + VIEW_STALE_ROW_TABLE + " ("
+			+ VIEW_STALE_ROW_COL_VIEW_ID + ", "
+			+ VIEW_STALE_ROW_COL_ROW_ID + ", "
+			+ VIEW_STALE_ROW_COL_TOKEN + ")"
+			+ " SELECT :" + VIEW_ID_PARAM_NAME + ", R." + OBJECT_REPLICATION_COL_OBJECT_ID + ", :" + TOKEN_PARAM_NAME
+			+ " FROM " + OBJECT_REPLICATION_TABLE + " R"
+			+ " WHERE R." + OBJECT_REPLICATION_COL_OBJECT_TYPE + " = :" + OBJECT_TYPE_PARAM_NAME
+			+ " AND (R." + OBJECT_REPLICATION_COL_PARENT_ID + " IN (:" + PARENT_ID_PARAM_NAME + ")"
+			+ " OR R." + OBJECT_REPLICATION_COL_OBJECT_ID + " IN (:" + PARENT_ID_PARAM_NAME + "))"
+			+ " ON DUPLICATE KEY UPDATE " + VIEW_STALE_ROW_COL_TOKEN + " = :" + TOKEN_PARAM_NAME;
+
+	public static final String SELECT_VIEW_STALE_ROWS =
+			"SELECT " + VIEW_STALE_ROW_COL_ROW_ID + ", " + VIEW_STALE_ROW_COL_TOKEN
+			+ " FROM " + VIEW_STALE_ROW_TABLE
+			+ " WHERE " + VIEW_STALE_ROW_COL_VIEW_ID + " = ?"
+			+ " ORDER BY " + VIEW_STALE_ROW_COL_ROW_ID
+			+ " LIMIT ?";
+
+	/**
+	 * Only delete a stale row if it was not marked again since it was read.
+	 */
+	public static final String DELETE_VIEW_STALE_ROW_WITH_TOKEN =
+			"DELETE FROM " + VIEW_STALE_ROW_TABLE
+			+ " WHERE " + VIEW_STALE_ROW_COL_VIEW_ID + " = ?"
+			+ " AND " + VIEW_STALE_ROW_COL_ROW_ID + " = ?"
+			+ " AND " + VIEW_STALE_ROW_COL_TOKEN + " = ?";
+
+	public static final String DELETE_VIEW_STALE_ROWS =
+			"DELETE FROM " + VIEW_STALE_ROW_TABLE
+			+ " WHERE " + VIEW_STALE_ROW_COL_VIEW_ID + " = ?";
+
+	public static final String TRUNCATE_VIEW_SCOPE_CONTAINER_TABLE =
+			"TRUNCATE TABLE " + VIEW_SCOPE_CONTAINER_TABLE;
+
+	public static final String TRUNCATE_VIEW_STALE_ROW_TABLE =
+			"TRUNCATE TABLE " + VIEW_STALE_ROW_TABLE;
+
 	public final static String OBJECT_REPLICATION_TABLE_CREATE = "CREATE TABLE IF NOT EXISTS "+OBJECT_REPLICATION_TABLE+"("
 			+ OBJECT_REPLICATION_COL_OBJECT_TYPE + " ENUM(" + OBJECT_TYPES_ENUM_STRING+") NOT NULL,"
 			+ OBJECT_REPLICATION_COL_OBJECT_ID +" BIGINT NOT NULL,"
@@ -85,6 +85,15 @@ public interface V2WikiPageDao {
 	 */
 	public String getMarkdown(WikiPageKey key, Long version) throws IOException, NotFoundException;
 	
+	/**
+	 * Download the markdown stored in the given file handle.
+	 * @param markdownFileHandleId The markdown file handle of a version of a wiki page
+	 * @return
+	 * @throws IOException
+	 * @throws NotFoundException
+	 */
+	public String getMarkdownForFileHandle(String markdownFileHandleId) throws IOException, NotFoundException;
+	
 	/**
 	 * Get ALL the file handle ids used (in the past/currently) for a wiki page.
 	 * @param key
@@ -142,6 +151,19 @@ public interface V2WikiPageDao {
 	 */
 	List<V2WikiHeader> getHeaderTree(String ownerId, ObjectType ownerType, Long limit, Long offset) throws DatastoreException, NotFoundException;
 	
+	/**
+	 * Get all of the wiki pages of each of the given owners with a single query.
+	 * Only the id, title, parentWikiId and markdownFileHandleId (of the current
+	 * version) of each page are set. The pages of each owner are in the same order
+	 * as {@link #getHeaderTree(String, ObjectType, Long, Long)}.
+	 * 
+	 * @param ownerIds
+	 * @param ownerType
+	 * @return Map from each owner ID to its pages. Owners without a wiki are not
+	 *         included.
+	 */
+	Map<Long, List<V2WikiPage>> getPagesForOwners(List<Long> ownerIds, ObjectType ownerType);
+	
 	/**
 	 * Lock for update, returning the current etag
 	 * @param wikiId
@@ -0,0 +1,127 @@
+package org.sagebionetworks.repo.model.semaphore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sagebionetworks.common.util.ClockImpl;
+
+/**
+ * Runs the in-memory throttling semaphores with many threads competing for a
+ * small number of keys, the way the web tier does for concurrent requests of
+ * the same users, and checks that no key issues more locks than allowed.
+ *
+ */
+public class MemorySemaphoreContentionTest {
+
+	private static final int THREAD_COUNT = 64;
+	private static final int KEY_COUNT = 16;
+	private static final int ATTEMPTS_PER_THREAD = 5_000;
+	private static final int MAX_LOCK_COUNT = 3;
+	private static final long TIMEOUT_SEC = 60;
+
+	private ExecutorService executor;
+
+	@Before
+	public void before() {
+		executor = Executors.newFixedThreadPool(THREAD_COUNT);
+	}
+
+	@After
+	public void after() throws InterruptedException {
+		executor.shutdownNow();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testCountingSemaphoreContention() throws Exception {
+		MemoryCountingSemaphore semaphore = new MemoryCountingSemaphoreImpl(new ClockImpl());
+		AtomicInteger[] held = new AtomicInteger[KEY_COUNT];
+		for (int i = 0; i < KEY_COUNT; i++) {
+			held[i] = new AtomicInteger(0);
+		}
+		AtomicInteger overIssued = new AtomicInteger(0);
+		AtomicLong acquired = new AtomicLong(0);
+		runThreads(threadIndex -> {
+			for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+				int keyIndex = (threadIndex + i) % KEY_COUNT;
+				String key = "user-" + keyIndex;
+				String token = semaphore.attemptToAcquireLock(key, TIMEOUT_SEC, MAX_LOCK_COUNT);
+				if (token != null) {
+					acquired.incrementAndGet();
+					if (held[keyIndex].incrementAndGet() > MAX_LOCK_COUNT) {
+						overIssued.incrementAndGet();
+					}
+					held[keyIndex].decrementAndGet();
+					semaphore.releaseLock(key, token);
+				}
+			}
+		});
+		assertEquals("More locks were issued than the maximum", 0, overIssued.get());
+		assertTrue(acquired.get() > 0);
+		// every lock was released so each key can issue the maximum again.
+		for (int i = 0; i < KEY_COUNT; i++) {
+			for (int j = 0; j < MAX_LOCK_COUNT; j++) {
+				assertTrue(semaphore.attemptToAcquireLock("user-" + i, TIMEOUT_SEC, MAX_LOCK_COUNT) != null);
+			}
+		}
+	}
+
+	@Test
+	public void testTimeBlockSemaphoreContention() throws Exception {
+		MemoryTimeBlockCountingSemaphore semaphore = new MemoryTimeBlockCountingSemaphoreImpl();
+		AtomicInteger[] acquired = new AtomicInteger[KEY_COUNT];
+		for (int i = 0; i < KEY_COUNT; i++) {
+			acquired[i] = new AtomicInteger(0);
+		}
+		runThreads(threadIndex -> {
+			for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+				int keyIndex = (threadIndex + i) % KEY_COUNT;
+				if (semaphore.attemptToAcquireLock("user-" + keyIndex, TIMEOUT_SEC, MAX_LOCK_COUNT)) {
+					acquired[keyIndex].incrementAndGet();
+				}
+			}
+		});
+		// None of the blocks expire during the test so each key issues exactly the maximum.
+		for (int i = 0; i < KEY_COUNT; i++) {
+			assertEquals(MAX_LOCK_COUNT, acquired[i].get());
+		}
+	}
+
+	interface Worker {
+		void run(int threadIndex) throws Exception;
+	}
+
+	/**
+	 * Start all of the threads at the same time and wait for them to finish.
+	 */
+	private void runThreads(Worker worker) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Void>> futures = new ArrayList<>(THREAD_COUNT);
+		for (int t = 0; t < THREAD_COUNT; t++) {
+			int threadIndex = t;
+			futures.add(executor.submit((Callable<Void>) () -> {
+				start.await();
+				worker.run(threadIndex);
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<Void> future : futures) {
+			future.get(2, TimeUnit.MINUTES);
+		}
+	}
+}
@@ -3,19 +3,19 @@ package org.sagebionetworks.repo.model.semaphore;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -24,10 +24,9 @@ import org.springframework.test.util.ReflectionTestUtils;
 @RunWith(MockitoJUnitRunner.class)
 public class MempryTimeBlockCountingSemaphoreTest {
 	
-	private MemoryTimeBlockCountingSemaphore memoryTimeBlockCountingSemaphore;
+	private MemoryTimeBlockCountingSemaphoreImpl memoryTimeBlockCountingSemaphore;
 	
-	@Mock
-	private Map<String, SimpleSemaphore> keySemaphoreMap;
+	private ConcurrentMap<String, SimpleSemaphore> keySemaphoreMap;
 	
 	@Mock
 	private SimpleSemaphore mockSemaphore;
@@ -41,7 +40,9 @@ public class MempryTimeBlockCountingSemaphoreTest {
 	@Before
 	public void setUp() throws Exception {
 		MockitoAnnotations.initMocks(this);
-		memoryTimeBlockCountingSemaphore = new MemoryTimeBlockCountingSemaphoreImpl();
+		// never sweep unless a test asks for it
+		memoryTimeBlockCountingSemaphore = new MemoryTimeBlockCountingSemaphoreImpl(() -> 1);
+		keySemaphoreMap = new ConcurrentHashMap<>();
 		ReflectionTestUtils.setField(memoryTimeBlockCountingSemaphore, "keySemaphoreMap", keySemaphoreMap);
 	}
 	
@@ -63,72 +64,93 @@ public class MempryTimeBlockCountingSemaphoreTest {
 
 	@Test
 	public void testAcquireLockNoExistentSemaphore() {
-		when(keySemaphoreMap.get(key)).thenReturn(null);
-		
 		assertTrue(memoryTimeBlockCountingSemaphore.attemptToAcquireLock(key, timeoutSec, limit));
 		
-		verify(keySemaphoreMap).get(key);
-		ArgumentCaptor<SimpleSemaphore> semaphoreCaptor = ArgumentCaptor.forClass(SimpleSemaphore.class);
-		verify(keySemaphoreMap).put(eq(key), semaphoreCaptor.capture());
-		SimpleSemaphore capturedSemaphore = semaphoreCaptor.getValue();
-		assertEquals(1, capturedSemaphore.getCount());
-		verifyNoMoreInteractions(keySemaphoreMap);
+		SimpleSemaphore createdSemaphore = keySemaphoreMap.get(key);
+		assertEquals(1, createdSemaphore.getCount());
+		assertFalse(createdSemaphore.isExpired());
+		assertEquals(1, keySemaphoreMap.size());
 	}
 	
 	@Test
 	public void testAcquireLockExpiredSemaphore() throws InterruptedException {
-		when(keySemaphoreMap.get(key)).thenReturn(mockSemaphore);
+		keySemaphoreMap.put(key, mockSemaphore);
 		when(mockSemaphore.isExpired()).thenReturn(true);
 		
 		assertTrue(memoryTimeBlockCountingSemaphore.attemptToAcquireLock(key, timeoutSec, limit));
 		
-		verify(keySemaphoreMap).get(key);
 		verify(mockSemaphore).isExpired();
 		verify(mockSemaphore).setExpiration(any(Long.class));
 		verify(mockSemaphore).resetCount();
 		verify(mockSemaphore).increment();
 		
-		verifyNoMoreInteractions(keySemaphoreMap,  mockSemaphore);
+		verifyNoMoreInteractions(mockSemaphore);
 	}
 	
 	@Test
 	public void testAcquireLockOverCountLimit(){
-		when(keySemaphoreMap.get(key)).thenReturn(mockSemaphore);
+		keySemaphoreMap.put(key, mockSemaphore);
 		when(mockSemaphore.isExpired()).thenReturn(false);
 		when(mockSemaphore.getCount()).thenReturn(limit);
 		
 		assertFalse(memoryTimeBlockCountingSemaphore.attemptToAcquireLock(key, timeoutSec, limit));
 		
-		verify(keySemaphoreMap).get(key);
 		verify(mockSemaphore).isExpired();
 		verify(mockSemaphore).getCount();
-		verifyNoMoreInteractions(keySemaphoreMap,  mockSemaphore);
+		verifyNoMoreInteractions(mockSemaphore);
 	}
 	
 	@Test
 	public void testAcquireLockUnderCountLimit(){
-		when(keySemaphoreMap.get(key)).thenReturn(mockSemaphore);
+		keySemaphoreMap.put(key, mockSemaphore);
 		when(mockSemaphore.isExpired()).thenReturn(false);
 		when(mockSemaphore.getCount()).thenReturn(limit - 1);
 		
 		assertTrue(memoryTimeBlockCountingSemaphore.attemptToAcquireLock(key, timeoutSec, limit));
 		
-		verify(keySemaphoreMap).get(key);
 		verify(mockSemaphore).isExpired();
 		verify(mockSemaphore).getCount();
 		verify(mockSemaphore).increment();
-		verifyNoMoreInteractions(keySemaphoreMap,  mockSemaphore);
+		verifyNoMoreInteractions(mockSemaphore);
 
 	}
 	
 	@Test
 	public void testAcquireLockZeroMaxLocks(){
 		assertFalse(memoryTimeBlockCountingSemaphore.attemptToAcquireLock(key, timeoutSec, 0));
-		verify(keySemaphoreMap, never()).get(key);
+		assertNull(keySemaphoreMap.get(key));
 		verify(mockSemaphore, never()).isExpired();
 		verify(mockSemaphore, never()).getCount();
 		verify(mockSemaphore, never()).increment();
 		verify(mockSemaphore, never()).setExpiration(any(Long.class));
 	}
+	
+	@Test
+	public void testAcquireLockSweep(){
+		memoryTimeBlockCountingSemaphore = new MemoryTimeBlockCountingSemaphoreImpl(() -> 0);
+		ReflectionTestUtils.setField(memoryTimeBlockCountingSemaphore, "keySemaphoreMap", keySemaphoreMap);
+		keySemaphoreMap.put("expired", mockSemaphore);
+		when(mockSemaphore.isExpired()).thenReturn(true);
+		
+		assertTrue(memoryTimeBlockCountingSemaphore.attemptToAcquireLock(key, timeoutSec, limit));
+		
+		// the attempt that draws zero removes the expired semaphores of other keys.
+		assertNull(keySemaphoreMap.get("expired"));
+		assertEquals(1, keySemaphoreMap.get(key).getCount());
+	}
+	
+	@Test
+	public void testRemoveExpiredSemaphores(){
+		SimpleSemaphore activeSemaphore = new SimpleSemaphore();
+		activeSemaphore.setExpiration(System.currentTimeMillis() + 60_000L);
+		keySemaphoreMap.put("active", activeSemaphore);
+		keySemaphoreMap.put(key, mockSemaphore);
+		when(mockSemaphore.isExpired()).thenReturn(true);
+		
+		memoryTimeBlockCountingSemaphore.removeExpiredSemaphores();
+		
+		assertNull(keySemaphoreMap.get(key));
+		assertEquals(activeSemaphore, keySemaphoreMap.get("active"));
+	}
 
 }
@@ -86,6 +86,16 @@ public interface StackConfiguration {
 
 	public String getIdGeneratorDatabaseDriver();
 
+	/**
+	 * The number of IDs of the given type that the ID generator leases from the
+	 * database in a single call. A value of one (the default) disables leasing
+	 * for the type.
+	 * 
+	 * @param typeName The name of the ID type.
+	 * @return
+	 */
+	public int getIdGeneratorBlockSize(String typeName);
+
 	/**
 	 * Driver for the repository service.
 	 * 
@@ -260,6 +270,14 @@ public interface StackConfiguration {
 	 */
 	public boolean getSearchEnabled();
 
+	/**
+	 * The number of threads shared by the search workers to download the wiki
+	 * markdown of the entities of a batch of search documents.
+	 * 
+	 * @return
+	 */
+	public int getSearchWikiFetchThreadCount();
+
 	/**
 	 * Is the DOI feature enabled?
 	 * 
@@ -437,6 +455,38 @@ public interface StackConfiguration {
 	 */
 	public Long getFileMultipartUploadDaemonCopyPartMaxThreads();
 
+	/**
+	 * The number of threads shared by all stream uploads to upload their parts
+	 * to S3.
+	 * 
+	 * @return
+	 */
+	public int getMultipartStreamUploadThreadCount();
+
+	/**
+	 * Should table CSV downloads upload the CSV to S3 while the query is still
+	 * running, rather than writing it to a local file first?
+	 * 
+	 * @return
+	 */
+	public boolean getTableCsvDownloadStreamingEnabled();
+
+	/**
+	 * The maximum number of files of a single bulk download that are downloaded
+	 * from S3 ahead of the file being added to the zip.
+	 * 
+	 * @return
+	 */
+	public int getBulkFileDownloadPrefetchMaxFiles();
+
+	/**
+	 * The number of threads shared by all bulk downloads to download files from
+	 * S3 ahead of time.
+	 * 
+	 * @return
+	 */
+	public int getBulkFileDownloadPrefetchThreadCount();
+
 	/**
 	 * Get credentials for the Jira service account used to create Jira issues
 	 * 
@@ -532,6 +582,87 @@ public interface StackConfiguration {
 	 */
 	public long getTableWorkerTimeoutMS();
 
+	/**
+	 * The maximum number of table changes that will be loaded ahead of time while
+	 * building a table index. Zero disables the read-ahead.
+	 * 
+	 * @return
+	 */
+	public int getTableChangePrefetchMaxChanges();
+
+	/**
+	 * The maximum number of bytes of table change data that will be loaded ahead
+	 * of time while building a single table index.
+	 * 
+	 * @return
+	 */
+	public long getTableChangePrefetchMaxBytes();
+
+	/**
+	 * The number of threads shared by all table index builds to load table changes
+	 * ahead of time.
+	 * 
+	 * @return
+	 */
+	public int getTableChangePrefetchThreadCount();
+
+	/**
+	 * The maximum number of queries a single table query request can run at the
+	 * same time (for example the count and facet queries).
+	 * 
+	 * @return
+	 */
+	public int getTableQueryMaxConcurrency();
+
+	/**
+	 * The maximum amount of time in MS that a single count or facet query of a
+	 * table query request can run.
+	 * 
+	 * @return
+	 */
+	public long getTableQueryTimeoutMS();
+
+	/**
+	 * The number of threads shared by all table query requests to run count and
+	 * facet queries.
+	 * 
+	 * @return
+	 */
+	public int getTableQueryThreadCount();
+
+	/**
+	 * The maximum number of translated table queries to keep in the query cache.
+	 * 
+	 * @return
+	 */
+	public int getTableQueryCacheMaxSize();
+
+	/**
+	 * The maximum amount of time in MS for a replication batch to be applied to a
+	 * single table index instance.
+	 * 
+	 * @return
+	 */
+	public long getTableReplicationTimeoutMS();
+
+	/**
+	 * Should hierarchy lookups (project, path, containers) be answered from the
+	 * node ancestor table? Even when enabled, the table is only read while the
+	 * node ancestor synchronization worker has recorded a full pass that
+	 * repaired nothing. Benefactor lookups always walk the node table.
+	 * 
+	 * @return
+	 */
+	public boolean getNodeAncestorTableReadEnabled();
+
+	/**
+	 * The number of threads shared by all replication workers to apply
+	 * replication batches to the table index instances.
+	 * 
+	 * @return
+	 */
+	public int getTableReplicationThreadCount();
+
 	/**
 	 * The maxiumn amount of time in MS that a table reader can hold a read lock on
 	 * a table.
@@ -701,6 +832,22 @@ public interface StackConfiguration {
 	 */
 	public String getSynapseBaseUrl();
 
+	/**
+	 * The maximum number of bytes held in memory by each cache of wiki markdown
+	 * and rendered markdown.
+	 * 
+	 * @return
+	 */
+	public long getMarkdownCacheMemoryMaxBytes();
+
+	/**
+	 * The maximum number of bytes held on local disk by each cache of wiki
+	 * markdown and rendered markdown. Zero disables the disk tier.
+	 * 
+	 * @return
+	 */
+	public long getMarkdownCacheDiskMaxBytes();
+
 	/**
 	 * The maximum number of entities per container.
 	 * 
@@ -190,6 +190,16 @@ public class StackConfigurationImpl implements StackConfiguration {
 		return configuration.getProperty("org.sagebionetworks.id.generator.database.driver");
 	}
 
+	@Override
+	public int getIdGeneratorBlockSize(String typeName) {
+		String key = "org.sagebionetworks.id.generator.block.size." + typeName;
+		if (configuration.hasProperty(key)) {
+			return Integer.parseInt(configuration.getProperty(key));
+		} else {
+			return 1;
+		}
+	}
+
 	/**
 	 * Driver for the repository service.
 	 * 
@@ -434,6 +444,11 @@ public class StackConfigurationImpl implements StackConfiguration {
 		return Boolean.parseBoolean(configuration.getProperty("org.sagebionetworks.search.enabled"));
 	}
 
+	@Override
+	public int getSearchWikiFetchThreadCount() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.search.wiki.fetch.thread.count"));
+	}
+
 	/**
 	 * Is the DOI feature enabled?
 	 * 
@@ -699,6 +714,26 @@ public class StackConfigurationImpl implements StackConfiguration {
 				.getProperty("org.sagebionetworks.repo.manager.file.multipart.upload.daemon.copy.part.max.threads"));
 	}
 
+	@Override
+	public int getMultipartStreamUploadThreadCount() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.repo.manager.file.multipart.stream.upload.thread.count"));
+	}
+
+	@Override
+	public boolean getTableCsvDownloadStreamingEnabled() {
+		return Boolean.parseBoolean(configuration.getProperty("org.sagebionetworks.table.csv.download.streaming.enabled"));
+	}
+
+	@Override
+	public int getBulkFileDownloadPrefetchMaxFiles() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.file.bulk.download.prefetch.max.files"));
+	}
+
+	@Override
+	public int getBulkFileDownloadPrefetchThreadCount() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.file.bulk.download.prefetch.thread.count"));
+	}
+
 	/**
 	 * Get credentials for the Jira service account used to create Jira issues
 	 * 
@@ -826,6 +861,56 @@ public class StackConfigurationImpl implements StackConfiguration {
 		return Long.parseLong(configuration.getProperty("org.sagebionetworks.table.worker.timeout.ms"));
 	}
 
+	@Override
+	public int getTableChangePrefetchMaxChanges() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.change.prefetch.max.changes"));
+	}
+
+	@Override
+	public long getTableChangePrefetchMaxBytes() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.table.change.prefetch.max.bytes"));
+	}
+
+	@Override
+	public int getTableChangePrefetchThreadCount() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.change.prefetch.thread.count"));
+	}
+
+	@Override
+	public int getTableQueryMaxConcurrency() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.query.max.concurrency"));
+	}
+
+	@Override
+	public long getTableQueryTimeoutMS() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.table.query.timeout.ms"));
+	}
+
+	@Override
+	public int getTableQueryThreadCount() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.query.thread.count"));
+	}
+
+	@Override
+	public int getTableQueryCacheMaxSize() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.query.cache.max.size"));
+	}
+
+	@Override
+	public long getTableReplicationTimeoutMS() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.table.replication.timeout.ms"));
+	}
+
+	@Override
+	public boolean getNodeAncestorTableReadEnabled() {
+		return Boolean.parseBoolean(configuration.getProperty("org.sagebionetworks.node.ancestor.table.read.enabled"));
+	}
+
+	@Override
+	public int getTableReplicationThreadCount() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.replication.thread.count"));
+	}
+
 	/**
 	 * The maxiumn amount of time in MS that a table reader can hold a read lock on
 	 * a table.
@@ -1061,6 +1146,16 @@ public class StackConfigurationImpl implements StackConfiguration {
 		return configuration.getProperty("org.sagebionetworks.synapse.base.url");
 	}
 
+	@Override
+	public long getMarkdownCacheMemoryMaxBytes() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.markdown.cache.memory.max.bytes"));
+	}
+
+	@Override
+	public long getMarkdownCacheDiskMaxBytes() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.markdown.cache.disk.max.bytes"));
+	}
+
 	/**
 	 * The maximum number of entities per container.
 	 * 
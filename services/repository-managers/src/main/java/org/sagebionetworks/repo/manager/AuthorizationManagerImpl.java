@@ -7,6 +7,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.sagebionetworks.StackConfigurationSingleton;
@@ -252,16 +253,21 @@ public class AuthorizationManagerImpl implements AuthorizationManager {
 		while(remaining > 0) {			
 			PaginatedResults<Reference> generatedBy = activityDAO.getEntitiesGeneratedBy(activityId, limit, offset);
 			remaining = generatedBy.getTotalNumberOfResults() - (offset+limit);
+			List<Long> nodeIds = new ArrayList<>(generatedBy.getResults().size());
 			for(Reference ref : generatedBy.getResults()) {
-				String nodeId = ref.getTargetId();
 				try {
-					if(canAccess(userInfo, nodeId, ObjectType. ENTITY, ACCESS_TYPE.READ).isAuthorized()) {
-						return AuthorizationStatus.authorized();
-					}
+					nodeIds.add(KeyFactory.stringToKey(ref.getTargetId()));
 				} catch (Exception e) {
 					// do nothing, same as false
 				}
 			}
+			// check the entire page with a single batch call
+			Map<Long, AuthorizationStatus> statusMap = entityPermissionsManager.hasAccess(userInfo, nodeIds, ACCESS_TYPE.READ);
+			for (AuthorizationStatus status : statusMap.values()) {
+				if (status.isAuthorized()) {
+					return AuthorizationStatus.authorized();
+				}
+			}
 			offset += limit; 
 		}
 		// no access found to generated entities, no access
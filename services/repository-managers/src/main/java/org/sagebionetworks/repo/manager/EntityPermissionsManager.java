@@ -1,5 +1,7 @@
 package org.sagebionetworks.repo.manager;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.sagebionetworks.repo.model.ACCESS_TYPE;
@@ -87,6 +89,22 @@ public interface EntityPermissionsManager {
 	 */
 	public AuthorizationStatus hasAccess(String resourceId, ACCESS_TYPE  accessType, UserInfo userInfo) throws NotFoundException, DatastoreException;
 
+	/**
+	 * Use case: Need to find out if a user can access each entity of a list.
+	 * The benefactors of all of the entities are resolved with a single query
+	 * and checked against the ACLs with a second query, regardless of the size
+	 * of the list. Unlike {@link #hasAccess(String, ACCESS_TYPE, UserInfo)} an
+	 * entity that does not exist or that is in the trash is denied rather than
+	 * causing an exception.
+	 * 
+	 * @param userInfo
+	 * @param entityIds
+	 * @param accessType
+	 * @return Map of entity ID to the authorization status for that entity. The
+	 *         map will include an entry for each of the given IDs.
+	 */
+	public Map<Long, AuthorizationStatus> hasAccess(UserInfo userInfo, List<Long> entityIds, ACCESS_TYPE accessType) throws DatastoreException;
+
 	/**
 	 * Get the user permission for an entity.
 	 * @param userInfo
@@ -10,10 +10,16 @@ import static org.sagebionetworks.repo.model.ACCESS_TYPE.READ;
 import static org.sagebionetworks.repo.model.ACCESS_TYPE.UPDATE;
 import static org.sagebionetworks.repo.model.ACCESS_TYPE.UPLOAD;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.StackConfigurationSingleton;
@@ -61,6 +67,10 @@ public class EntityPermissionsManagerImpl implements EntityPermissionsManager {
 
 	private static final Long TRASH_FOLDER_ID = Long.parseLong(StackConfigurationSingleton.singleton().getTrashFolderEntityId());
 	private static final String ERR_MESSAGE_CERTIFIED_USER_CONTENT = "Only certified users may create or update content in Synapse.";
+	/**
+	 * The access types that depend on more than the ACL of the benefactor.
+	 */
+	private static final Set<ACCESS_TYPE> NON_ACL_ACCESS_TYPES = EnumSet.of(CREATE, UPDATE, DOWNLOAD, UPLOAD);
 
 	@Autowired
 	private NodeDAO nodeDao;
@@ -235,6 +245,16 @@ public class EntityPermissionsManagerImpl implements EntityPermissionsManager {
 		return !isCertificationRequired(userInfo, entityId);
 	}
 	
+	/**
+	 * Same as {@link #isCertifiedUserOrFeatureDisabled(UserInfo, String)} when the certification requirement of the
+	 * entity is already known.
+	 */
+	private boolean isCertifiedUserOrFeatureDisabled(UserInfo userInfo, boolean isCertificationRequired) {
+		Boolean featureIsDisabled = configuration.getDisableCertifiedUser();
+		return featureIsDisabled == null || featureIsDisabled || AuthorizationUtils.isCertifiedUser(userInfo)
+				|| !isCertificationRequired;
+	}
+	
 	boolean isCertificationRequired(UserInfo userInfo, String entityId) {
 		// by default the certification is required, checks if the project is configured to disable the certification requirement
 		
@@ -358,6 +378,68 @@ public class EntityPermissionsManagerImpl implements EntityPermissionsManager {
 		}
 	}
 
+	@Override
+	public Map<Long, AuthorizationStatus> hasAccess(UserInfo userInfo, List<Long> entityIds, ACCESS_TYPE accessType)
+			throws DatastoreException {
+		ValidateArgument.required(userInfo, "userInfo");
+		ValidateArgument.required(entityIds, "entityIds");
+		ValidateArgument.required(accessType, "accessType");
+		Map<Long, AuthorizationStatus> results = new LinkedHashMap<>(entityIds.size());
+		if (entityIds.isEmpty()) {
+			return results;
+		}
+		if (NON_ACL_ACCESS_TYPES.contains(accessType)) {
+			/*
+			 * Certification, download and upload checks depend on more than the ACL
+			 * of the benefactor so each entity is checked on its own.
+			 */
+			for (Long entityId : entityIds) {
+				results.put(entityId, hasAccessOrDenied(KeyFactory.keyToString(entityId), accessType, userInfo));
+			}
+			return results;
+		}
+		// Anonymous can at most READ
+		boolean isAnonymousDenied = AuthorizationUtils.isUserAnonymous(userInfo) && accessType != READ;
+		// One query for all of the benefactors
+		Map<Long, Long> benefactors = nodeDao.getBenefactors(entityIds);
+		Set<Long> accessibleBenefactors = Collections.emptySet();
+		if (!userInfo.isAdmin() && !isAnonymousDenied) {
+			// One query for all of the ACLs
+			accessibleBenefactors = aclDAO.getAccessibleBenefactors(userInfo.getGroups(),
+					new HashSet<>(benefactors.values()), ObjectType.ENTITY, accessType);
+		}
+		for (Long entityId : entityIds) {
+			Long benefactorId = benefactors.get(entityId);
+			if (benefactorId == null) {
+				results.put(entityId, AuthorizationStatus.accessDenied(
+						new NotFoundException("Entity " + KeyFactory.keyToString(entityId) + " does not exist.")));
+			} else if (TRASH_FOLDER_ID.equals(benefactorId) && !DELETE.equals(accessType)) {
+				results.put(entityId, AuthorizationStatus.accessDenied(
+						new EntityInTrashCanException("Entity " + KeyFactory.keyToString(entityId) + " is in trash can.")));
+			} else if (isAnonymousDenied) {
+				results.put(entityId, AuthorizationStatus.accessDenied("Anonymous users have only READ access permission."));
+			} else if (userInfo.isAdmin() || accessibleBenefactors.contains(benefactorId)) {
+				results.put(entityId, AuthorizationStatus.authorized());
+			} else {
+				results.put(entityId, AuthorizationStatus.accessDenied("You do not have " + accessType
+						+ " permission for the requested entity, " + KeyFactory.keyToString(entityId) + "."));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Single entity check that reports a missing or trashed entity as a denial
+	 * rather than an exception.
+	 */
+	private AuthorizationStatus hasAccessOrDenied(String entityId, ACCESS_TYPE accessType, UserInfo userInfo) {
+		try {
+			return hasAccess(entityId, accessType, userInfo);
+		} catch (NotFoundException | EntityInTrashCanException e) {
+			return AuthorizationStatus.accessDenied(e);
+		}
+	}
+
 	/**
 	 * Get the permission benefactor of an entity.
 	 * @throws DatastoreException 
@@ -372,29 +454,43 @@ public class EntityPermissionsManagerImpl implements EntityPermissionsManager {
 			throws NotFoundException, DatastoreException {
 
 		Node node = nodeDao.getNode(entityId);
+		EntityType entityType = node.getNodeType();
 		
+		// The node type and benefactor are resolved once and all of the permissions are computed from a single ACL lookup
 		String benefactor = nodeDao.getBenefactor(entityId);
+		if (TRASH_FOLDER_ID.equals(KeyFactory.stringToKey(benefactor))) {
+			throw new EntityInTrashCanException("Entity " + entityId + " is in trash can.");
+		}
+		
+		Set<ACCESS_TYPE> granted = userInfo.isAdmin() ? Collections.emptySet()
+				: aclDAO.getAccessTypes(userInfo.getGroups(), benefactor, ObjectType.ENTITY);
+		
+		boolean isCertificationRequired = isCertificationRequired(userInfo, entityId);
+		boolean certifiedOrNotRequired = isCertifiedUserOrFeatureDisabled(userInfo, isCertificationRequired);
+		boolean canCertifiedUserAddChild = hasPermission(userInfo, granted, CREATE);
+		boolean canCertifiedUserEdit = hasPermission(userInfo, granted, UPDATE);
 
 		UserEntityPermissions permissions = new UserEntityPermissions();
-		permissions.setCanAddChild(hasAccess(entityId, CREATE, userInfo).isAuthorized());
-		permissions.setCanCertifiedUserAddChild(certifiedUserHasAccess(entityId, node.getNodeType(), CREATE, userInfo).isAuthorized());
-		permissions.setCanChangePermissions(hasAccess(entityId, CHANGE_PERMISSIONS, userInfo).isAuthorized());
-		permissions.setCanChangeSettings(hasAccess(entityId, CHANGE_SETTINGS, userInfo).isAuthorized());
-		permissions.setCanDelete(hasAccess(entityId, DELETE, userInfo).isAuthorized());
-		permissions.setCanEdit(hasAccess(entityId, UPDATE, userInfo).isAuthorized());
-		permissions.setCanCertifiedUserEdit(certifiedUserHasAccess(entityId, node.getNodeType(), UPDATE, userInfo).isAuthorized());
-		permissions.setCanView(hasAccess(entityId, READ, userInfo).isAuthorized());
-		permissions.setCanDownload(canDownload(userInfo, entityId, benefactor, node.getNodeType()).isAuthorized());
+		permissions.setCanAddChild(canCertifiedUserAddChild && (userInfo.isAdmin() || certifiedOrNotRequired));
+		permissions.setCanCertifiedUserAddChild(canCertifiedUserAddChild);
+		permissions.setCanChangePermissions(hasPermission(userInfo, granted, CHANGE_PERMISSIONS));
+		permissions.setCanChangeSettings(hasPermission(userInfo, granted, CHANGE_SETTINGS));
+		permissions.setCanDelete(hasPermission(userInfo, granted, DELETE));
+		permissions.setCanEdit(canCertifiedUserEdit
+				&& (userInfo.isAdmin() || entityType == EntityType.project || certifiedOrNotRequired));
+		permissions.setCanCertifiedUserEdit(canCertifiedUserEdit);
+		permissions.setCanView(hasPermission(userInfo, granted, READ));
+		permissions.setCanDownload(canDownload(userInfo, entityId, granted::contains).isAuthorized());
 		permissions.setCanUpload(canUpload(userInfo, entityId).isAuthorized());
-		permissions.setCanModerate(hasAccess(entityId, MODERATE, userInfo).isAuthorized());
-		permissions.setIsCertificationRequired(isCertificationRequired(userInfo, entityId));
+		permissions.setCanModerate(hasPermission(userInfo, granted, MODERATE));
+		permissions.setIsCertificationRequired(isCertificationRequired);
 
 		permissions.setOwnerPrincipalId(node.getCreatedByPrincipalId());
 		
 		permissions.setIsCertifiedUser(AuthorizationUtils.isCertifiedUser(userInfo));
 
 		UserInfo anonymousUser = UserInfoHelper.createAnonymousUserInfo();
-		permissions.setCanPublicRead(hasAccess(entityId, READ, anonymousUser).isAuthorized());
+		permissions.setCanPublicRead(aclDAO.canAccess(anonymousUser.getGroups(), benefactor, ObjectType.ENTITY, READ));
 
 		final boolean parentIsRoot = nodeDao.isNodesParentRoot(entityId);
 		if (userInfo.isAdmin()) {
@@ -406,6 +502,26 @@ public class EntityPermissionsManagerImpl implements EntityPermissionsManager {
 		}
 		return permissions;
 	}
+	
+	/**
+	 * Same as {@link #certifiedUserHasAccess(String, EntityType, ACCESS_TYPE, UserInfo)} for the access types that
+	 * only depend on the ACL of the benefactor, using the access types already granted to the user on the benefactor.
+	 * 
+	 * @param userInfo
+	 * @param granted
+	 * @param accessType
+	 * @return
+	 */
+	private static boolean hasPermission(UserInfo userInfo, Set<ACCESS_TYPE> granted, ACCESS_TYPE accessType) {
+		// Anonymous can at most READ (or DOWNLOAD when the entity is marked with OPEN_ACCESS)
+		if (AuthorizationUtils.isUserAnonymous(userInfo) && accessType != READ && accessType != DOWNLOAD) {
+			return false;
+		}
+		if (userInfo.isAdmin()) {
+			return true;
+		}
+		return granted.contains(accessType);
+	}
 
 	@Override
 	public boolean hasLocalACL(String resourceId) {
@@ -419,6 +535,18 @@ public class EntityPermissionsManagerImpl implements EntityPermissionsManager {
 	// entities have to meet access requirements (ARs)
 	private AuthorizationStatus canDownload(UserInfo userInfo, String entityId, String benefactor, EntityType entityType)
 			throws DatastoreException, NotFoundException {
+		return canDownload(userInfo, entityId,
+				(ACCESS_TYPE accessType) -> aclDAO.canAccess(userInfo.getGroups(), benefactor, ObjectType.ENTITY, accessType));
+	}
+	
+	/**
+	 * @param userInfo
+	 * @param entityId
+	 * @param aclAllows Tests if the ACL of the entity's benefactor grants the user the given access type.
+	 * @return
+	 */
+	private AuthorizationStatus canDownload(UserInfo userInfo, String entityId, Predicate<ACCESS_TYPE> aclAllows)
+			throws DatastoreException, NotFoundException {
 		
 		if (userInfo.isAdmin()) {
 			return AuthorizationStatus.authorized();
@@ -439,7 +567,7 @@ public class EntityPermissionsManagerImpl implements EntityPermissionsManager {
 			accessTypeCheck = READ;
 		}
 		
-		boolean aclAllowsDownload = aclDAO.canAccess(userInfo.getGroups(), benefactor, ObjectType.ENTITY, accessTypeCheck);
+		boolean aclAllowsDownload = aclAllows.test(accessTypeCheck);
 		
 		if (!aclAllowsDownload) {
 			return AuthorizationStatus.accessDenied("You lack " + accessTypeCheck.name() + " access to the requested entity.");	
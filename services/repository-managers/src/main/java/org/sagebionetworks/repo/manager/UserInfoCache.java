@@ -0,0 +1,81 @@
+package org.sagebionetworks.repo.manager;
+
+import java.util.Optional;
+
+import org.sagebionetworks.repo.model.UserInfo;
+
+/**
+ * A local, bounded and short lived cache of the {@link UserInfo} built for each
+ * user. Change messages for a principal or a team committed on this machine
+ * invalidate the affected entries, while other changes, including those made on
+ * other machines, are picked up once the cached entry expires. Administrators
+ * and members of the ACT are never cached.
+ *
+ */
+public interface UserInfoCache {
+
+	/**
+	 * Get the cached UserInfo of the given user.
+	 *
+	 * @param principalId
+	 * @return Empty if the user is not in the cache or if the cached entry has
+	 *         expired. Each call returns a new copy that can be modified by the
+	 *         caller.
+	 */
+	Optional<UserInfo> get(Long principalId);
+
+	/**
+	 * Add the UserInfo of a user to the cache. A copy of the given UserInfo is
+	 * cached. The UserInfo of an administrator or of a member of the ACT is not
+	 * cached.
+	 *
+	 * @param userInfo
+	 */
+	void put(UserInfo userInfo);
+
+	/**
+	 * Remove the cached UserInfo of the given principal and of every user that is
+	 * a member of the given principal.
+	 *
+	 * @param principalId The ID of a user or of a group.
+	 */
+	void invalidate(Long principalId);
+
+	/**
+	 * The total number of lookups that found a UserInfo.
+	 *
+	 * @return
+	 */
+	long getHitCount();
+
+	/**
+	 * The total number of lookups that did not find a UserInfo.
+	 *
+	 * @return
+	 */
+	long getMissCount();
+
+	/**
+	 * The total number of entries removed because the cache was full or because
+	 * they expired.
+	 *
+	 * @return
+	 */
+	long getEvictionCount();
+
+	/**
+	 * The total number of entries removed by a change to a principal.
+	 *
+	 * @return
+	 */
+	long getInvalidationCount();
+
+	/**
+	 * The sum of the age (in MS) of every UserInfo returned by
+	 * {@link #get(Long)}. Divided by the hit count this is the average staleness
+	 * of the served entries.
+	 *
+	 * @return
+	 */
+	long getHitAgeMs();
+}
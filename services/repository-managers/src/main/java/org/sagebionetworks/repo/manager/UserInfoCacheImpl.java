@@ -0,0 +1,185 @@
+package org.sagebionetworks.repo.manager;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.sagebionetworks.repo.model.AuthorizationConstants.BOOTSTRAP_PRINCIPAL;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.UserInfo;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.TransactionalMessenger;
+import org.sagebionetworks.repo.model.message.TransactionalMessengerObserver;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+@Service
+public class UserInfoCacheImpl implements UserInfoCache, TransactionalMessengerObserver {
+
+	/**
+	 * The maximum time a UserInfo is used without loading it from the database
+	 * again. This bounds how long a change made on another machine, such as the
+	 * removal of a user from a team, can go unnoticed.
+	 */
+	public static final long TIME_TO_LIVE_MS = 10 * 1000L;
+	/**
+	 * The maximum number of users held in the cache.
+	 */
+	public static final long MAX_SIZE = 10_000L;
+
+	private final Clock clock;
+	private final TransactionalMessenger transactionalMessenger;
+	private final Cache<Long, CachedUserInfo> cache;
+	private final AtomicLong invalidationCount;
+	private final AtomicLong hitAgeMs;
+
+	@Autowired
+	public UserInfoCacheImpl(Clock clock, TransactionalMessenger transactionalMessenger) {
+		this.clock = clock;
+		this.transactionalMessenger = transactionalMessenger;
+		this.invalidationCount = new AtomicLong(0);
+		this.hitAgeMs = new AtomicLong(0);
+		this.cache = CacheBuilder.newBuilder().maximumSize(MAX_SIZE)
+				.expireAfterWrite(TIME_TO_LIVE_MS, TimeUnit.MILLISECONDS).recordStats().ticker(new Ticker() {
+					@Override
+					public long read() {
+						return TimeUnit.MILLISECONDS.toNanos(clock.currentTimeMillis());
+					}
+				}).build();
+	}
+
+	/**
+	 * Called by Spring after the bean is created to start listening to the
+	 * changes committed on this machine.
+	 */
+	@PostConstruct
+	public void initialize() {
+		// We only want to be in the list once
+		transactionalMessenger.removeObserver(this);
+		transactionalMessenger.registerObserver(this);
+	}
+
+	@Override
+	public Optional<UserInfo> get(Long principalId) {
+		ValidateArgument.required(principalId, "principalId");
+		CachedUserInfo cached = cache.getIfPresent(principalId);
+		if (cached == null) {
+			return Optional.empty();
+		}
+		hitAgeMs.addAndGet(clock.currentTimeMillis() - cached.getCachedOn());
+		return Optional.of(copy(cached.getUserInfo()));
+	}
+
+	@Override
+	public void put(UserInfo userInfo) {
+		ValidateArgument.required(userInfo, "userInfo");
+		ValidateArgument.required(userInfo.getId(), "userInfo.id");
+		if (isPrivileged(userInfo)) {
+			// A stale UserInfo must never extend privileged access.
+			return;
+		}
+		cache.put(userInfo.getId(), new CachedUserInfo(copy(userInfo), clock.currentTimeMillis()));
+	}
+
+	@Override
+	public void invalidate(Long principalId) {
+		ValidateArgument.required(principalId, "principalId");
+		/*
+		 * Changes are rare and the cache is bounded so a scan of the entries is
+		 * acceptable.
+		 */
+		cache.asMap().entrySet().removeIf(entry -> {
+			boolean affected = principalId.equals(entry.getKey())
+					|| entry.getValue().getUserInfo().getGroups().contains(principalId);
+			if (affected) {
+				invalidationCount.incrementAndGet();
+			}
+			return affected;
+		});
+	}
+
+	/**
+	 * Is the given user an administrator or a member of the ACT?
+	 *
+	 * @param userInfo
+	 * @return
+	 */
+	static boolean isPrivileged(UserInfo userInfo) {
+		return userInfo.isAdmin() || (userInfo.getGroups() != null && userInfo.getGroups()
+				.contains(BOOTSTRAP_PRINCIPAL.ACCESS_AND_COMPLIANCE_GROUP.getPrincipalId()));
+	}
+
+	@Override
+	public void fireChangeMessage(ChangeMessage message) {
+		if (ObjectType.PRINCIPAL == message.getObjectType() || ObjectType.TEAM == message.getObjectType()) {
+			invalidate(Long.parseLong(message.getObjectId()));
+		}
+	}
+
+	@Override
+	public long getHitCount() {
+		return cache.stats().hitCount();
+	}
+
+	@Override
+	public long getMissCount() {
+		return cache.stats().missCount();
+	}
+
+	@Override
+	public long getEvictionCount() {
+		return cache.stats().evictionCount();
+	}
+
+	@Override
+	public long getInvalidationCount() {
+		return invalidationCount.get();
+	}
+
+	@Override
+	public long getHitAgeMs() {
+		return hitAgeMs.get();
+	}
+
+	/**
+	 * UserInfo is mutable so callers never share the cached instance.
+	 *
+	 * @param userInfo
+	 * @return
+	 */
+	static UserInfo copy(UserInfo userInfo) {
+		UserInfo copy = new UserInfo(userInfo.isAdmin(), userInfo.getId());
+		copy.setCreationDate(userInfo.getCreationDate() == null ? null : new Date(userInfo.getCreationDate().getTime()));
+		copy.setGroups(userInfo.getGroups() == null ? new HashSet<>() : new HashSet<>(userInfo.getGroups()));
+		return copy;
+	}
+
+	private static class CachedUserInfo {
+
+		private final UserInfo userInfo;
+		private final long cachedOn;
+
+		CachedUserInfo(UserInfo userInfo, long cachedOn) {
+			this.userInfo = userInfo;
+			this.cachedOn = cachedOn;
+		}
+
+		UserInfo getUserInfo() {
+			return userInfo;
+		}
+
+		long getCachedOn() {
+			return cachedOn;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package org.sagebionetworks.repo.manager;
+
+import java.util.Date;
+
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.util.ValidateArgument;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Publishes the hit rate, invalidations and staleness of the
+ * {@link UserInfoCache} to cloud watch. Each call publishes the change since the
+ * previous call.
+ *
+ */
+public class UserInfoCacheMetricPublisher {
+
+	public static final String METRIC_NAMESPACE_PREFIX = "User-Info-";
+	public static final String METRIC_CACHE_HIT_RATE = "User info cache hit rate";
+	public static final String METRIC_CACHE_HIT = "User info cache hit count";
+	public static final String METRIC_CACHE_MISS = "User info cache miss count";
+	public static final String METRIC_CACHE_EVICTION = "User info cache eviction count";
+	public static final String METRIC_CACHE_INVALIDATION = "User info cache invalidation count";
+	public static final String METRIC_CACHE_HIT_AGE = "User info cache average hit age";
+
+	private final UserInfoCache userInfoCache;
+	private final Consumer consumer;
+	private final String metricNamespace;
+
+	private long lastHitCount;
+	private long lastMissCount;
+	private long lastEvictionCount;
+	private long lastInvalidationCount;
+	private long lastHitAgeMs;
+
+	public UserInfoCacheMetricPublisher(UserInfoCache userInfoCache, StackConfiguration config, Consumer consumer) {
+		ValidateArgument.required(userInfoCache, "userInfoCache");
+		ValidateArgument.required(config, "config");
+		ValidateArgument.required(consumer, "consumer");
+		this.userInfoCache = userInfoCache;
+		this.consumer = consumer;
+		this.metricNamespace = METRIC_NAMESPACE_PREFIX + config.getStackInstance();
+		this.lastHitCount = 0L;
+		this.lastMissCount = 0L;
+		this.lastEvictionCount = 0L;
+		this.lastInvalidationCount = 0L;
+		this.lastHitAgeMs = 0L;
+	}
+
+	/**
+	 * Called from a timer.
+	 */
+	public void timerFired() {
+		long hitCount = userInfoCache.getHitCount();
+		long missCount = userInfoCache.getMissCount();
+		long evictionCount = userInfoCache.getEvictionCount();
+		long invalidationCount = userInfoCache.getInvalidationCount();
+		long hitAgeMs = userInfoCache.getHitAgeMs();
+		long hits = hitCount - lastHitCount;
+		long misses = missCount - lastMissCount;
+		long evictions = evictionCount - lastEvictionCount;
+		long invalidations = invalidationCount - lastInvalidationCount;
+		long hitAge = hitAgeMs - lastHitAgeMs;
+		lastHitCount = hitCount;
+		lastMissCount = missCount;
+		lastEvictionCount = evictionCount;
+		lastInvalidationCount = invalidationCount;
+		lastHitAgeMs = hitAgeMs;
+		if (hits + misses < 1) {
+			// no lookups since the last call.
+			return;
+		}
+		Date now = new Date();
+		double hitRate = 100.0 * hits / (hits + misses);
+		consumer.addProfileData(createMetric(METRIC_CACHE_HIT_RATE, hitRate, StandardUnit.Percent, now));
+		consumer.addProfileData(createMetric(METRIC_CACHE_HIT, hits, StandardUnit.Count, now));
+		consumer.addProfileData(createMetric(METRIC_CACHE_MISS, misses, StandardUnit.Count, now));
+		consumer.addProfileData(createMetric(METRIC_CACHE_EVICTION, evictions, StandardUnit.Count, now));
+		consumer.addProfileData(createMetric(METRIC_CACHE_INVALIDATION, invalidations, StandardUnit.Count, now));
+		if (hits > 0) {
+			consumer.addProfileData(
+					createMetric(METRIC_CACHE_HIT_AGE, (double) hitAge / hits, StandardUnit.Milliseconds, now));
+		}
+	}
+
+	private ProfileData createMetric(String name, double value, StandardUnit unit, Date timestamp) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(metricNamespace);
+		profileData.setName(name);
+		profileData.setValue(value);
+		profileData.setUnit(unit.name());
+		profileData.setTimestamp(timestamp);
+		return profileData;
+	}
+
+}
@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import org.sagebionetworks.repo.manager.principal.NewUserUtils;
@@ -63,6 +64,9 @@ public class UserManagerImpl implements UserManager {
 	@Autowired
 	private DBOBasicDao basicDAO;
 
+	@Autowired
+	private UserInfoCache userInfoCache;
+
 	
 	public void setUserGroupDAO(UserGroupDAO userGroupDAO) {
 		this.userGroupDAO = userGroupDAO;
@@ -183,6 +187,23 @@ public class UserManagerImpl implements UserManager {
 
 	@Override
 	public UserInfo getUserInfo(Long principalId) throws NotFoundException {
+		Optional<UserInfo> cached = userInfoCache.get(principalId);
+		if (cached.isPresent()) {
+			return cached.get();
+		}
+		UserInfo ui = loadUserInfo(principalId);
+		userInfoCache.put(ui);
+		return ui;
+	}
+
+	/**
+	 * Build the UserInfo of the given user from the database.
+	 * 
+	 * @param principalId
+	 * @return
+	 * @throws NotFoundException
+	 */
+	UserInfo loadUserInfo(Long principalId) throws NotFoundException {
 		UserGroup principal = userGroupDAO.get(principalId);
 		if(!principal.getIsIndividual()) throw new IllegalArgumentException("Principal: "+principalId+" is not a User");
 		// Lookup the user's name
@@ -227,6 +248,7 @@ public class UserManagerImpl implements UserManager {
 		}
 		
 		userGroupDAO.delete(principalId.toString());
+		userInfoCache.invalidate(principalId);
 	}
 
 	@Override
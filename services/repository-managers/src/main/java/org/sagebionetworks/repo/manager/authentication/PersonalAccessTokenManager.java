@@ -25,11 +25,18 @@ public interface PersonalAccessTokenManager {
 	boolean isTokenActive(String tokenId);
 
 	/**
-	 * Updates the "last used" time for a token to the current time.
+	 * Records the current time as the "last used" time for a token. The time is
+	 * written to the database by the next call to {@link #flushLastUsedTimes()}.
 	 * @param tokenId
 	 */
 	void updateLastUsedTime(String tokenId);
 
+	/**
+	 * Write the "last used" times recorded since the last flush to the database in
+	 * a single batch. Called from a timer.
+	 */
+	void flushLastUsedTimes();
+
 	/**
 	 * Retrieves a paginated list of personal access tokens.
 	 * @param userInfo
@@ -5,11 +5,14 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.sagebionetworks.repo.manager.oauth.ClaimsJsonUtil;
 import org.sagebionetworks.repo.manager.oauth.OIDCTokenHelper;
+import org.sagebionetworks.repo.manager.oauth.ValidatedAccessTokenCache;
 import org.sagebionetworks.repo.model.AuthorizationUtils;
 import org.sagebionetworks.repo.model.UnauthenticatedException;
 import org.sagebionetworks.repo.model.UnauthorizedException;
@@ -20,6 +23,7 @@ import org.sagebionetworks.repo.model.auth.AccessTokenRecord;
 import org.sagebionetworks.repo.model.auth.AccessTokenRecordList;
 import org.sagebionetworks.repo.model.auth.AccessTokenState;
 import org.sagebionetworks.repo.model.auth.PersonalAccessTokenDao;
+import org.sagebionetworks.repo.model.message.TransactionSynchronizationProxy;
 import org.sagebionetworks.repo.model.oauth.OAuthScope;
 import org.sagebionetworks.repo.model.oauth.OIDCClaimName;
 import org.sagebionetworks.repo.transactions.WriteTransaction;
@@ -29,6 +33,7 @@ import org.sagebionetworks.util.EnumKeyedJsonMapUtil;
 import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwsHeader;
@@ -52,6 +57,17 @@ public class PersonalAccessTokenManagerImpl implements PersonalAccessTokenManage
 	@Autowired
 	private Clock clock;
 
+	@Autowired
+	private ValidatedAccessTokenCache validatedAccessTokenCache;
+
+	@Autowired
+	private TransactionSynchronizationProxy transactionSynchronization;
+
+	/*
+	 * The last used time of each token that has been used since the last flush.
+	 */
+	private final Map<String, Date> pendingLastUsed = new ConcurrentHashMap<>();
+
 	/**
 	 * Determine the state of the access token record using the last used date.
 	 * Method exposed for testing.
@@ -141,10 +157,33 @@ public class PersonalAccessTokenManagerImpl implements PersonalAccessTokenManage
 		return determineActiveState(lastUsedDate).equals(AccessTokenState.ACTIVE);
 	}
 
-	@WriteTransaction
 	@Override
 	public void updateLastUsedTime(String tokenId) {
-		personalAccessTokenDao.updateLastUsed(tokenId);
+		ValidateArgument.required(tokenId, "tokenId");
+		// Only the latest use of each token needs to be written.
+		pendingLastUsed.put(tokenId, clock.now());
+	}
+
+	@Override
+	public void flushLastUsedTimes() {
+		if (pendingLastUsed.isEmpty()) {
+			return;
+		}
+		Map<String, Date> batch = new HashMap<>(pendingLastUsed.size());
+		for (String tokenId : pendingLastUsed.keySet()) {
+			// remove() ensures a use recorded after this point is kept for the next flush.
+			Date lastUsed = pendingLastUsed.remove(tokenId);
+			if (lastUsed != null) {
+				batch.put(tokenId, lastUsed);
+			}
+		}
+		try {
+			personalAccessTokenDao.updateLastUsed(batch);
+		} catch (RuntimeException e) {
+			// Put the batch back for the next flush, unless the token was used again since.
+			batch.forEach(pendingLastUsed::putIfAbsent);
+			throw e;
+		}
 	}
 
 	@Override
@@ -177,8 +216,26 @@ public class PersonalAccessTokenManagerImpl implements PersonalAccessTokenManage
 		AccessTokenRecord record = personalAccessTokenDao.getTokenRecord(tokenId);
 		if (userInfo.getId().toString().equals(record.getUserId()) || userInfo.isAdmin()) {
 			personalAccessTokenDao.deleteToken(tokenId);
+			// A cache refill before the delete commits would still see the token.
+			afterCommit(() -> {
+				pendingLastUsed.remove(tokenId);
+				validatedAccessTokenCache.invalidatePersonalAccessToken(tokenId);
+			});
 		} else {
 			throw new UnauthorizedException("You do not have permission to revoke this token.");
 		}
 	}
+
+	private void afterCommit(Runnable action) {
+		if (transactionSynchronization.isActualTransactionActive()) {
+			transactionSynchronization.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
 }
@@ -1,5 +1,7 @@
 package org.sagebionetworks.repo.manager.events;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import org.sagebionetworks.kinesis.AwsKinesisLogRecord;
@@ -32,4 +34,22 @@ public interface EventLogRecordProvider<E extends SynapseEvent> {
 	 */
 	Optional<AwsKinesisLogRecord> getRecordForEvent(E event);
 
+	/**
+	 * Translates a batch of events at once. By default each event is translated on
+	 * its own using {@link #getRecordForEvent(SynapseEvent)}, providers that look up
+	 * additional data for each record should override this to load the data for
+	 * the whole batch with a single query.
+	 * 
+	 * @param events A batch of events that are all sent to the same stream
+	 * @return The records for the events of the batch that can be sent to the
+	 *         stream
+	 */
+	default List<AwsKinesisLogRecord> getRecordsForEvents(List<E> events) {
+		List<AwsKinesisLogRecord> records = new ArrayList<>(events.size());
+		for (E event : events) {
+			getRecordForEvent(event).ifPresent(records::add);
+		}
+		return records;
+	}
+
 }
@@ -2,23 +2,47 @@ package org.sagebionetworks.repo.manager.events;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentLinkedQueue;
-
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
 import org.sagebionetworks.kinesis.AwsKinesisFirehoseLogger;
 import org.sagebionetworks.kinesis.AwsKinesisLogRecord;
 import org.sagebionetworks.repo.model.message.TransactionSynchronizationProxy;
+import org.sagebionetworks.util.Clock;
 import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionSynchronization;
 
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
 @Service
 public class EventsCollectorImpl implements EventsCollector, EventsQueue {
 
+	private static final Logger LOG = LogManager.getLogger(EventsCollectorImpl.class);
+
+	/**
+	 * The maximum number of events waiting for the next flush. Events collected
+	 * while the queue is full are dropped rather than growing the heap without
+	 * bound when firehose is slow or unavailable.
+	 */
+	public static final int MAX_QUEUE_SIZE = 100_000;
+
+	public static final String METRIC_NAMESPACE_PREFIX = "Synapse-Events-";
+	public static final String METRIC_QUEUE_DEPTH = "Events queue depth";
+	public static final String METRIC_DROPPED = "Events dropped";
+	public static final String METRIC_FLUSH_LATENCY = "Events flush latency";
+
 	@FunctionalInterface
 	private static interface Action {
 		void proceed();
@@ -30,28 +54,41 @@ public class EventsCollectorImpl implements EventsCollector, EventsQueue {
 
 	private TransactionSynchronizationProxy transactionSynchronization;
 
-	private ConcurrentLinkedQueue<SynapseEvent> queue = new ConcurrentLinkedQueue<SynapseEvent>();
+	private Consumer consumer;
+
+	private Clock clock;
+
+	private String metricNamespace;
+
+	private BlockingQueue<SynapseEvent> queue = new LinkedBlockingQueue<SynapseEvent>(MAX_QUEUE_SIZE);
+
+	// The events dropped since the last flush
+	private AtomicLong droppedCount = new AtomicLong(0);
 
 	@Autowired
 	public EventsCollectorImpl(AwsKinesisFirehoseLogger firehoseLogger,
-			EventLogRecordProviderFactory logRecordProviderFactory, TransactionSynchronizationProxy transactionSynchronization) {
+			EventLogRecordProviderFactory logRecordProviderFactory, TransactionSynchronizationProxy transactionSynchronization,
+			Consumer consumer, Clock clock, StackConfiguration stackConfiguration) {
 		this.firehoseLogger = firehoseLogger;
 		this.logRecordProviderFactory = logRecordProviderFactory;
 		this.transactionSynchronization = transactionSynchronization;
+		this.consumer = consumer;
+		this.clock = clock;
+		this.metricNamespace = METRIC_NAMESPACE_PREFIX + stackConfiguration.getStackInstance();
 	}
 
 	@Override
 	public <E extends SynapseEvent> void collectEvent(final E event) {
 		ValidateArgument.required(event, "event");
 
-		afterCommit(() -> queue.add(event));
+		afterCommit(() -> enqueue(event));
 	}
 
 	@Override
 	public <E extends SynapseEvent> void collectEvents(List<E> events) {
 		ValidateArgument.required(events, "events");
 
-		afterCommit(() -> queue.addAll(events));
+		afterCommit(() -> events.forEach(this::enqueue));
 	}
 
 	@Override
@@ -61,14 +98,47 @@ public class EventsCollectorImpl implements EventsCollector, EventsQueue {
 			return;
 		}
 
-		List<SynapseEvent> eventsBatch = new LinkedList<>();
+		int queueDepth = queue.size();
+
+		List<SynapseEvent> eventsBatch = new ArrayList<>(queueDepth);
+
+		queue.drainTo(eventsBatch);
+
+		long start = clock.currentTimeMillis();
+
+		long undeliveredCount = log(eventsBatch);
+
+		long latencyMs = clock.currentTimeMillis() - start;
+
+		publishMetrics(queueDepth, droppedCount.getAndSet(0) + undeliveredCount, latencyMs);
+
+	}
 
-		for (SynapseEvent event = queue.poll(); event != null; event = queue.poll()) {
-			eventsBatch.add(event);
+	private void enqueue(SynapseEvent event) {
+		// Never block the thread that collects the event
+		if (!queue.offer(event)) {
+			droppedCount.incrementAndGet();
 		}
+	}
 
-		log(eventsBatch);
+	private void publishMetrics(int queueDepth, long dropped, long latencyMs) {
+		if (dropped > 0) {
+			LOG.warn("Dropped {} events", dropped);
+		}
+		Date now = clock.now();
+		consumer.addProfileData(createMetric(METRIC_QUEUE_DEPTH, queueDepth, StandardUnit.Count, now));
+		consumer.addProfileData(createMetric(METRIC_DROPPED, dropped, StandardUnit.Count, now));
+		consumer.addProfileData(createMetric(METRIC_FLUSH_LATENCY, latencyMs, StandardUnit.Milliseconds, now));
+	}
 
+	private ProfileData createMetric(String name, double value, StandardUnit unit, Date timestamp) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(metricNamespace);
+		profileData.setName(name);
+		profileData.setValue(value);
+		profileData.setUnit(unit.name());
+		profileData.setTimestamp(timestamp);
+		return profileData;
 	}
 
 	private void afterCommit(Action action) {
@@ -85,15 +155,22 @@ public class EventsCollectorImpl implements EventsCollector, EventsQueue {
 		}
 	}
 
-	private <E extends SynapseEvent> void log(List<E> events) {
+	/**
+	 * @return The number of records that could not be delivered
+	 */
+	private <E extends SynapseEvent> long log(List<E> events) {
 
 		Map<String, List<AwsKinesisLogRecord>> recordsMap = getRecordsMap(events);
 
-		recordsMap.forEach((streamName, records) -> {
-			if (!records.isEmpty()) {
-				firehoseLogger.logBatch(streamName, records);
+		long undeliveredCount = 0;
+
+		for (Map.Entry<String, List<AwsKinesisLogRecord>> entry : recordsMap.entrySet()) {
+			if (!entry.getValue().isEmpty()) {
+				undeliveredCount += firehoseLogger.logBatch(entry.getKey(), entry.getValue());
 			}
-		});
+		}
+
+		return undeliveredCount;
 	}
 
 	private <E extends SynapseEvent> Map<String, List<AwsKinesisLogRecord>> getRecordsMap(List<E> events) {
@@ -102,7 +179,8 @@ public class EventsCollectorImpl implements EventsCollector, EventsQueue {
 			return Collections.emptyMap();
 		}
 
-		Map<String, List<AwsKinesisLogRecord>> recordsMap = new HashMap<>();
+		// Events are grouped by provider and stream so that each provider translates a whole batch at once
+		Map<EventLogRecordProvider<E>, Map<String, List<E>>> eventsByProvider = new HashMap<>();
 
 		for (E event : events) {
 
@@ -110,13 +188,23 @@ public class EventsCollectorImpl implements EventsCollector, EventsQueue {
 
 			String streamName = provider.getStreamName(event);
 
-			List<AwsKinesisLogRecord> records = recordsMap.get(streamName);
+			eventsByProvider.computeIfAbsent(provider, (EventLogRecordProvider<E> key) -> new HashMap<>())
+					.computeIfAbsent(streamName, (String stream) -> new ArrayList<>()).add(event);
+		}
 
-			if (records == null) {
-				recordsMap.put(streamName, records = new ArrayList<>());
-			}
+		Map<String, List<AwsKinesisLogRecord>> recordsMap = new HashMap<>();
+
+		for (Map.Entry<EventLogRecordProvider<E>, Map<String, List<E>>> providerEntry : eventsByProvider.entrySet()) {
 
-			provider.getRecordForEvent(event).ifPresent(records::add);
+			EventLogRecordProvider<E> provider = providerEntry.getKey();
+
+			for (Map.Entry<String, List<E>> streamEntry : providerEntry.getValue().entrySet()) {
+
+				List<AwsKinesisLogRecord> records = recordsMap.computeIfAbsent(streamEntry.getKey(),
+						(String stream) -> new ArrayList<>());
+
+				records.addAll(provider.getRecordsForEvents(streamEntry.getValue()));
+			}
 		}
 
 		return recordsMap;
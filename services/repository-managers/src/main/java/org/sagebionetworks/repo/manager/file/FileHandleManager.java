@@ -247,6 +247,24 @@ public interface FileHandleManager {
 	 */
 	S3FileHandle multipartUploadLocalFile(LocalFileUploadRequest request);
 
+	/**
+	 * Start a multi-part upload to S3 that is fed by writing to the returned
+	 * stream, so workers do not need to write the content to a local file first.
+	 * 
+	 * @param request
+	 * @return
+	 */
+	MultipartUploadOutputStream startStreamUpload(StreamUploadRequest request);
+
+	/**
+	 * Complete a stream upload and create its file handle.
+	 * 
+	 * @param stream
+	 * @return
+	 * @throws IOException
+	 */
+	S3FileHandle completeStreamUpload(MultipartUploadOutputStream stream) throws IOException;
+
 	/**
 	 * Get the list of upload destinations for this parent
 	 * 
@@ -791,6 +791,16 @@ public class FileHandleManagerImpl implements FileHandleManager {
 		return multipartManager.multipartUploadLocalFile(request);
 	}
 
+	@Override
+	public MultipartUploadOutputStream startStreamUpload(StreamUploadRequest request) {
+		return multipartManager.startStreamUpload(request);
+	}
+
+	@Override
+	public S3FileHandle completeStreamUpload(MultipartUploadOutputStream stream) throws IOException {
+		return multipartManager.completeStreamUpload(stream);
+	}
+
 	@Override
 	public UploadDaemonStatus getUploadDaemonStatus(UserInfo userInfo,
 			String daemonId) throws DatastoreException, NotFoundException {
@@ -1,5 +1,6 @@
 package org.sagebionetworks.repo.manager.file;
 
+import java.io.IOException;
 import java.net.URL;
 
 import org.sagebionetworks.repo.model.DatastoreException;
@@ -91,4 +92,27 @@ public interface MultipartManager {
 	 * @return
 	 */
 	S3FileHandle multipartUploadLocalFile(LocalFileUploadRequest request);
+
+	/**
+	 * Start a multi-part upload to S3 that is fed by writing to the returned
+	 * stream. Parts are uploaded while the caller is still writing, so the
+	 * content never needs to be written to a local file. Once all of the content
+	 * is written, call {@link #completeStreamUpload(MultipartUploadOutputStream)}.
+	 * Closing the stream without completing it aborts the upload.
+	 * 
+	 * @param request
+	 * @return
+	 */
+	MultipartUploadOutputStream startStreamUpload(StreamUploadRequest request);
+
+	/**
+	 * Complete an upload started with
+	 * {@link #startStreamUpload(StreamUploadRequest)} and create its file
+	 * handle.
+	 * 
+	 * @param stream
+	 * @return
+	 * @throws IOException If any part of the content failed to upload.
+	 */
+	S3FileHandle completeStreamUpload(MultipartUploadOutputStream stream) throws IOException;
 }
@@ -1,10 +1,12 @@
 package org.sagebionetworks.repo.manager.file;
 
+import java.io.IOException;
 import java.net.URL;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 
 import org.sagebionetworks.aws.SynapseS3Client;
 import org.sagebionetworks.ids.IdGenerator;
@@ -22,6 +24,7 @@ import org.sagebionetworks.repo.model.file.S3FileHandle;
 import org.sagebionetworks.repo.model.project.StorageLocationSetting;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.util.ContentDispositionUtils;
+import org.sagebionetworks.util.ValidateArgument;
 import org.sagebionetworks.utils.MD5ChecksumHelper;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -50,6 +53,17 @@ import com.amazonaws.util.BinaryUtils;
  *
  */
 public class MultipartManagerImpl implements MultipartManager {
+
+	/**
+	 * The size of each part of a stream upload. S3 allows 10,000 parts so a
+	 * single stream upload can be up to 80 GB.
+	 */
+	public static final int STREAM_UPLOAD_PART_SIZE_BYTES = 8 * 1024 * 1024;
+	/**
+	 * The maximum number of full parts of a single stream upload held in memory
+	 * while they wait to be uploaded.
+	 */
+	public static final int STREAM_UPLOAD_MAX_PARTS_IN_FLIGHT = 4;
 	
 	@Autowired
 	SynapseS3Client s3Client;
@@ -62,6 +76,17 @@ public class MultipartManagerImpl implements MultipartManager {
 	@Autowired
 	IdGenerator idGenerator;
 
+	private ExecutorService streamUploadExecutor;
+
+	/**
+	 * Injected. The parts of all stream uploads are uploaded with this executor.
+	 * 
+	 * @param streamUploadExecutor
+	 */
+	public void setStreamUploadExecutor(ExecutorService streamUploadExecutor) {
+		this.streamUploadExecutor = streamUploadExecutor;
+	}
+
 	@Override
 	public ChunkResult copyPart(ChunkedFileToken token, int partNumber, Long storageLocationId) throws DatastoreException, NotFoundException {
 		// The part number cannot be less than one
@@ -266,4 +291,39 @@ public class MultipartManagerImpl implements MultipartManager {
 		} 
 	}
 
+	@Override
+	public MultipartUploadOutputStream startStreamUpload(StreamUploadRequest request) {
+		ValidateArgument.required(request, "request");
+		ValidateArgument.required(request.getUserId(), "request.userId");
+		ValidateArgument.required(request.getFileName(), "request.fileName");
+		StorageLocationSetting storageLocationSetting = getStorageLocationSetting(request.getStorageLocationId());
+		S3FileHandle handle = new S3FileHandle();
+		handle.setBucketName(MultipartUtils.getBucket(storageLocationSetting));
+		handle.setKey(MultipartUtils.createNewKey(request.getUserId(), request.getFileName(), storageLocationSetting));
+		handle.setContentType(request.getContentType());
+		handle.setCreatedBy(request.getUserId());
+		handle.setFileName(request.getFileName());
+		handle.setStorageLocationId(request.getStorageLocationId());
+		// The MD5 is not known until all of the content is written.
+		ObjectMetadata meta = TransferUtils.prepareObjectMetadata(handle);
+		InitiateMultipartUploadResult imur = s3Client.initiateMultipartUpload(
+				new InitiateMultipartUploadRequest(handle.getBucketName(), handle.getKey()).withObjectMetadata(meta)
+						.withCannedACL(CannedAccessControlList.BucketOwnerFullControl));
+		return new MultipartUploadOutputStream(s3Client, streamUploadExecutor, handle, imur.getUploadId(),
+				STREAM_UPLOAD_PART_SIZE_BYTES, STREAM_UPLOAD_MAX_PARTS_IN_FLIGHT);
+	}
+
+	@Override
+	public S3FileHandle completeStreamUpload(MultipartUploadOutputStream stream) throws IOException {
+		ValidateArgument.required(stream, "stream");
+		stream.complete();
+		S3FileHandle handle = stream.getFileHandle();
+		handle.setContentMd5(stream.getContentMd5());
+		handle.setContentSize(stream.getContentSize());
+		handle.setCreatedOn(new Date(System.currentTimeMillis()));
+		handle.setEtag(UUID.randomUUID().toString());
+		handle.setId(idGenerator.generateNewId(IdType.FILE_IDS).toString());
+		return (S3FileHandle) fileHandleDao.createFile(handle);
+	}
+
 }
@@ -0,0 +1,375 @@
+package org.sagebionetworks.repo.manager.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
+import org.sagebionetworks.util.ValidateArgument;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.util.BinaryUtils;
+
+/**
+ * An OutputStream that uploads everything written to it to S3 with a
+ * multi-part upload. Written bytes are collected in fixed-size part buffers and
+ * each full buffer is uploaded on the given executor while the caller keeps
+ * writing, so the content never needs to be written to a local file. The number
+ * of parts waiting to be uploaded is bounded, so a writer that is faster than
+ * S3 is blocked rather than buffering all of the content in memory.
+ * <p>
+ * Once all of the content is written, call {@link #complete()}. Closing the
+ * stream before it is completed aborts the upload.
+ *
+ */
+public class MultipartUploadOutputStream extends OutputStream {
+
+	/**
+	 * S3 requires every part except the last to be at least 5 MB.
+	 */
+	public static final int MIN_PART_SIZE_BYTES = 5 * 1024 * 1024;
+	/**
+	 * S3 allows at most 10,000 parts in a single upload.
+	 */
+	public static final int MAX_PART_COUNT = 10_000;
+	/**
+	 * The maximum time to wait for part uploads that are already running before
+	 * an unfinished upload is aborted.
+	 */
+	public static final long ABORT_WAIT_MS = 30_000L;
+
+	private final SynapseS3Client s3Client;
+	private final ExecutorService executor;
+	private final S3FileHandle fileHandle;
+	private final String uploadId;
+	private final int partSize;
+	private final Semaphore partsInFlight;
+	private final MessageDigest md5Digest;
+	private final List<Future<PartETag>> parts;
+	/**
+	 * The first error of any part upload.
+	 */
+	private final AtomicReference<Throwable> partFailure;
+	/**
+	 * Guards runningUploads and aborting.
+	 */
+	private final Object uploadLock;
+	private int runningUploads;
+	private boolean aborting;
+	private byte[] buffer;
+	private int bufferPosition;
+	private long contentSize;
+	private String contentMd5;
+	private boolean completed;
+	private boolean closed;
+
+	/**
+	 *
+	 * @param s3Client
+	 * @param executor         Parts are uploaded with this executor.
+	 * @param fileHandle       The bucket and key of the upload.
+	 * @param uploadId         The ID of the multi-part upload that was already
+	 *                         started for the bucket and key.
+	 * @param partSize         The number of bytes of each part except the last.
+	 * @param maxPartsInFlight The maximum number of full parts waiting to be
+	 *                         uploaded or being uploaded at the same time.
+	 */
+	MultipartUploadOutputStream(SynapseS3Client s3Client, ExecutorService executor, S3FileHandle fileHandle,
+			String uploadId, int partSize, int maxPartsInFlight) {
+		ValidateArgument.required(s3Client, "s3Client");
+		ValidateArgument.required(executor, "executor");
+		ValidateArgument.required(fileHandle, "fileHandle");
+		ValidateArgument.required(uploadId, "uploadId");
+		ValidateArgument.requirement(partSize >= MIN_PART_SIZE_BYTES,
+				"partSize must be at least " + MIN_PART_SIZE_BYTES + " bytes");
+		ValidateArgument.requirement(maxPartsInFlight > 0, "maxPartsInFlight must be greater than zero");
+		this.s3Client = s3Client;
+		this.executor = executor;
+		this.fileHandle = fileHandle;
+		this.uploadId = uploadId;
+		this.partSize = partSize;
+		this.partsInFlight = new Semaphore(maxPartsInFlight);
+		try {
+			this.md5Digest = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		this.parts = new ArrayList<>();
+		this.partFailure = new AtomicReference<>();
+		this.uploadLock = new Object();
+		this.runningUploads = 0;
+		this.aborting = false;
+		this.bufferPosition = 0;
+		this.contentSize = 0L;
+		this.completed = false;
+		this.closed = false;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureWritable();
+		if (buffer == null) {
+			buffer = new byte[partSize];
+		}
+		buffer[bufferPosition++] = (byte) b;
+		md5Digest.update((byte) b);
+		contentSize++;
+		if (bufferPosition == partSize) {
+			uploadBuffer();
+		}
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		ensureWritable();
+		md5Digest.update(bytes, offset, length);
+		contentSize += length;
+		while (length > 0) {
+			if (buffer == null) {
+				buffer = new byte[partSize];
+			}
+			int count = Math.min(length, partSize - bufferPosition);
+			System.arraycopy(bytes, offset, buffer, bufferPosition, count);
+			bufferPosition += count;
+			offset += count;
+			length -= count;
+			if (bufferPosition == partSize) {
+				uploadBuffer();
+			}
+		}
+	}
+
+	/**
+	 * Upload the last part, wait for all of the parts to be uploaded and then
+	 * complete the multi-part upload.
+	 *
+	 * @throws IOException If any part failed to upload.
+	 */
+	public void complete() throws IOException {
+		ensureWritable();
+		// The last part can be smaller than the minimum. Empty content is uploaded as a single empty part.
+		if (bufferPosition > 0 || parts.isEmpty()) {
+			uploadBuffer();
+		}
+		List<PartETag> partETags = new ArrayList<>(parts.size());
+		for (Future<PartETag> part : parts) {
+			partETags.add(waitForPart(part));
+		}
+		try {
+			s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(fileHandle.getBucketName(),
+					fileHandle.getKey(), uploadId, partETags));
+		} catch (SdkClientException e) {
+			throw new IOException(e);
+		}
+		contentMd5 = BinaryUtils.toHex(md5Digest.digest());
+		completed = true;
+	}
+
+	/**
+	 * Abort the upload unless it was completed. S3 can still store a part that is
+	 * being uploaded while the upload is aborted, so parts that have not started
+	 * are skipped and the parts that are already running are given up to
+	 * {@link #ABORT_WAIT_MS} to finish or fail before the abort.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		buffer = null;
+		if (!completed) {
+			for (Future<PartETag> part : parts) {
+				part.cancel(true);
+			}
+			waitForRunningUploads();
+			try {
+				s3Client.abortMultipartUpload(
+						new AbortMultipartUploadRequest(fileHandle.getBucketName(), fileHandle.getKey(), uploadId));
+			} catch (SdkClientException e) {
+				throw new IOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Hand the current buffer to the executor. Blocks while the maximum number of
+	 * parts are already in flight.
+	 *
+	 * @throws IOException
+	 */
+	private void uploadBuffer() throws IOException {
+		final int partNumber = parts.size() + 1;
+		if (partNumber > MAX_PART_COUNT) {
+			throw new IOException("The content exceeds the maximum size of a multi-part upload: "
+					+ ((long) partSize * MAX_PART_COUNT) + " bytes");
+		}
+		try {
+			partsInFlight.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to upload part: " + partNumber);
+		}
+		final byte[] partBytes = buffer == null ? new byte[0] : buffer;
+		final int partLength = bufferPosition;
+		// The buffer now belongs to the part so a new one is allocated on the next write.
+		buffer = null;
+		bufferPosition = 0;
+		try {
+			parts.add(executor.submit(() -> {
+				try {
+					startUpload(partNumber);
+				} catch (Throwable e) {
+					partsInFlight.release();
+					throw e;
+				}
+				try {
+					return s3Client.uploadPart(new UploadPartRequest().withBucketName(fileHandle.getBucketName())
+							.withKey(fileHandle.getKey()).withUploadId(uploadId).withPartNumber(partNumber)
+							.withInputStream(new ByteArrayInputStream(partBytes, 0, partLength))
+							.withPartSize(partLength)).getPartETag();
+				} catch (Throwable e) {
+					partFailure.compareAndSet(null, e);
+					throw e;
+				} finally {
+					finishUpload();
+					partsInFlight.release();
+				}
+			}));
+		} catch (RejectedExecutionException e) {
+			partsInFlight.release();
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Called by a part before it starts to upload.
+	 *
+	 * @param partNumber
+	 * @throws IOException If the upload is being aborted.
+	 */
+	private void startUpload(int partNumber) throws IOException {
+		synchronized (uploadLock) {
+			if (aborting) {
+				throw new IOException("The upload was aborted before part: " + partNumber);
+			}
+			runningUploads++;
+		}
+	}
+
+	/**
+	 * Called by a part after it finished or failed to upload.
+	 */
+	private void finishUpload() {
+		synchronized (uploadLock) {
+			runningUploads--;
+			uploadLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Stop any new part from starting and wait for the running parts to finish or
+	 * fail. Gives up after {@link #ABORT_WAIT_MS} or when interrupted so the
+	 * upload is still aborted.
+	 */
+	private void waitForRunningUploads() {
+		long deadline = System.currentTimeMillis() + ABORT_WAIT_MS;
+		synchronized (uploadLock) {
+			aborting = true;
+			long remaining = ABORT_WAIT_MS;
+			while (runningUploads > 0 && remaining > 0) {
+				try {
+					uploadLock.wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				remaining = deadline - System.currentTimeMillis();
+			}
+		}
+	}
+
+	private PartETag waitForPart(Future<PartETag> part) throws IOException {
+		try {
+			return part.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the parts to upload");
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Writes stop as soon as any part has failed since the upload can no longer
+	 * be completed.
+	 *
+	 * @throws IOException
+	 */
+	private void ensureWritable() throws IOException {
+		if (closed) {
+			throw new IOException("The stream is closed");
+		}
+		if (completed) {
+			throw new IOException("The upload is already complete");
+		}
+		Throwable failure = partFailure.get();
+		if (failure != null) {
+			throw new IOException(failure);
+		}
+	}
+
+	/**
+	 * The file handle of this upload. The bucket and key are set when the upload
+	 * is started.
+	 *
+	 * @return
+	 */
+	public S3FileHandle getFileHandle() {
+		return fileHandle;
+	}
+
+	/**
+	 * The total number of bytes written to this stream.
+	 *
+	 * @return
+	 */
+	public long getContentSize() {
+		return contentSize;
+	}
+
+	/**
+	 * The hex MD5 of all of the content. Only available after
+	 * {@link #complete()}.
+	 *
+	 * @return
+	 */
+	public String getContentMd5() {
+		return contentMd5;
+	}
+
+	/**
+	 * Has {@link #complete()} finished successfully?
+	 *
+	 * @return
+	 */
+	public boolean isCompleted() {
+		return completed;
+	}
+}
@@ -0,0 +1,44 @@
+package org.sagebionetworks.repo.manager.file;
+
+/**
+ * Request to upload content to S3 as it is written to a
+ * {@link MultipartUploadOutputStream}.
+ *
+ */
+public class StreamUploadRequest {
+
+	Long storageLocationId;
+	String userId;
+	String contentType;
+	String fileName;
+
+	public Long getStorageLocationId() {
+		return storageLocationId;
+	}
+	public String getUserId() {
+		return userId;
+	}
+	public String getContentType() {
+		return contentType;
+	}
+	public String getFileName() {
+		return fileName;
+	}
+	public StreamUploadRequest withStorageLocationId(Long storageLocationId) {
+		this.storageLocationId = storageLocationId;
+		return this;
+	}
+	public StreamUploadRequest withUserId(String userId) {
+		this.userId = userId;
+		return this;
+	}
+	public StreamUploadRequest withContentType(String contentType) {
+		this.contentType = contentType;
+		return this;
+	}
+	public StreamUploadRequest withFileName(String fileName) {
+		this.fileName = fileName;
+		return this;
+	}
+
+}
@@ -1,7 +1,9 @@
 package org.sagebionetworks.repo.manager.message;
 
 import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -9,6 +11,8 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.message.ChangeMessages;
@@ -20,6 +24,7 @@ import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
 import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
 import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sns.model.CreateTopicRequest;
 import com.amazonaws.services.sns.model.CreateTopicResult;
@@ -36,6 +41,10 @@ import com.google.common.collect.Lists;
 public class RepositoryMessagePublisherImpl implements RepositoryMessagePublisher {
 	
 	public static final String SEMAPHORE_KEY = "UNSENT_MESSAGE_WORKER";
+	public static final String METRIC_NAMESPACE_PREFIX = "Repository-Messages-";
+	public static final String METRIC_DRAINED = "Change messages drained";
+	public static final String METRIC_PUBLISHED = "Change messages published";
+	public static final String METRIC_FAILED = "Change messages failed";
 	static private Log log = LogFactory.getLog(RepositoryMessagePublisherImpl.class);
 
 	@Autowired
@@ -47,6 +56,9 @@ public class RepositoryMessagePublisherImpl implements RepositoryMessagePublishe
 	@Autowired
 	StackConfiguration stackConfiguration;
 
+	@Autowired
+	Consumer consumer;
+
 	// Maps each object type to its topic
 	Map<ObjectType, TopicInfo> typeToTopicMap = new HashMap<ObjectType, TopicInfo>();;
 
@@ -111,20 +123,51 @@ public class RepositoryMessagePublisherImpl implements RepositoryMessagePublishe
 			}
 			return;
 		}
-		// Publish each message to the topic
+		if (currentQueue.isEmpty()) {
+			return;
+		}
+		List<ChangeMessage> changes = new LinkedList<ChangeMessage>();
+		long countFailures = 0;
 		for (Message queueItem : currentQueue) {
-			try {
-				if (queueItem instanceof ChangeMessage) {
-					ChangeMessage message = (ChangeMessage) queueItem;
-					publishToTopic(message);
-				} else {
-					throw new IllegalArgumentException("Unknown message type " + queueItem.getClass().getName());
+			if (queueItem instanceof ChangeMessage) {
+				changes.add((ChangeMessage) queueItem);
+			} else {
+				countFailures++;
+				log.error("Failed to publish message.",
+						new IllegalArgumentException("Unknown message type " + queueItem.getClass().getName()));
+			}
+		}
+		// Group the changes by object type and partition by max changes per SQS messages body.
+		Map<ObjectType, List<List<ChangeMessage>>> batches = ChangeMessageUtils.groupByObjectTypeAndPartitionEachGroup(
+				changes, ChangeMessageUtils.MAX_NUMBER_OF_CHANGE_MESSAGES_PER_SQS_MESSAGE);
+		long countSuccess = 0;
+		for (ObjectType groupType : batches.keySet()) {
+			// Each batch is registered as sent in a single transaction and published with a single request.
+			for (List<ChangeMessage> batch : batches.get(groupType)) {
+				try {
+					publishBatchToTopic(groupType, batch);
+					countSuccess += batch.size();
+				} catch (Throwable e) {
+					// If one batch fails, we must send the rest.
+					countFailures += batch.size();
+					log.error("Failed to publish message batch.", e);
 				}
-			} catch (Throwable e) {
-				// If one messages fails, we must send the rest.
-				log.error("Failed to publish message.", e);
 			}
 		}
+		Date now = new Date();
+		consumer.addProfileData(createMetric(METRIC_DRAINED, currentQueue.size(), now));
+		consumer.addProfileData(createMetric(METRIC_PUBLISHED, countSuccess, now));
+		consumer.addProfileData(createMetric(METRIC_FAILED, countFailures, now));
+	}
+
+	private ProfileData createMetric(String name, long count, Date timestamp) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(METRIC_NAMESPACE_PREFIX + stackConfiguration.getStackInstance());
+		profileData.setName(name);
+		profileData.setValue((double) count);
+		profileData.setUnit(StandardUnit.Count.name());
+		profileData.setTimestamp(timestamp);
+		return profileData;
 	}
 	
 	/**
@@ -0,0 +1,29 @@
+package org.sagebionetworks.repo.manager.migration;
+
+import java.util.List;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.dao.NodeAncestorDao;
+import org.sagebionetworks.repo.model.migration.MigrationType;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * The node ancestor table is not migrated, so restored nodes are not in it
+ * until the synchronization worker repairs them. Each batch of restored nodes
+ * clears the full pass marker so hierarchy lookups fall back to the node table
+ * until the next full pass that finds nothing to repair.
+ *
+ */
+public class NodeAncestorMigrationListener implements MigrationTypeListener {
+
+	@Autowired
+	NodeAncestorDao nodeAncestorDao;
+
+	@Override
+	public <D extends DatabaseObject<?>> void afterCreateOrUpdate(MigrationType type, List<D> delta) {
+		if (MigrationType.NODE == type && !delta.isEmpty()) {
+			nodeAncestorDao.clearFullPassComplete();
+		}
+	}
+
+}
@@ -12,6 +12,7 @@ import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.auth.OAuthClientDao;
 import org.sagebionetworks.repo.model.auth.OAuthDao;
 import org.sagebionetworks.repo.model.auth.OAuthRefreshTokenDao;
+import org.sagebionetworks.repo.model.message.TransactionSynchronizationProxy;
 import org.sagebionetworks.repo.model.oauth.OAuthClientAuthorizationHistory;
 import org.sagebionetworks.repo.model.oauth.OAuthClientAuthorizationHistoryList;
 import org.sagebionetworks.repo.model.oauth.OAuthRefreshTokenInformation;
@@ -28,6 +29,7 @@ import org.sagebionetworks.util.Clock;
 import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
 
 @Service
 public class OAuthRefreshTokenManagerImpl implements OAuthRefreshTokenManager {
@@ -44,6 +46,12 @@ public class OAuthRefreshTokenManagerImpl implements OAuthRefreshTokenManager {
 	@Autowired
 	Clock clock;
 
+	@Autowired
+	ValidatedAccessTokenCache validatedAccessTokenCache;
+
+	@Autowired
+	TransactionSynchronizationProxy transactionSynchronization;
+
 	/**
 	 * The maximum number of days a refresh token can go unused and still
 	 * be considered active. A refresh token is "used" when it is used
@@ -183,6 +191,8 @@ public class OAuthRefreshTokenManagerImpl implements OAuthRefreshTokenManager {
 		ValidateArgument.required(clientId, "clientId");
 		oauthDao.deleteAuthorizationConsentForClient(userInfo.getId(), Long.valueOf(clientId));
 		oauthRefreshTokenDao.deleteAllTokensForUserClientPair(userInfo.getId().toString(), clientId);
+		// A cache refill before the delete commits would still see the tokens.
+		afterCommit(() -> validatedAccessTokenCache.invalidateUserClientPair(userInfo.getId().toString(), clientId));
 	}
 
 	@WriteTransaction
@@ -196,6 +206,7 @@ public class OAuthRefreshTokenManagerImpl implements OAuthRefreshTokenManager {
 		}
 
 		oauthRefreshTokenDao.deleteToken(tokenId);
+		afterCommit(() -> validatedAccessTokenCache.invalidateRefreshToken(tokenId));
 	}
 
 	@WriteTransaction
@@ -209,6 +220,20 @@ public class OAuthRefreshTokenManagerImpl implements OAuthRefreshTokenManager {
 		}
 
 		oauthRefreshTokenDao.deleteToken(tokenId);
+		afterCommit(() -> validatedAccessTokenCache.invalidateRefreshToken(tokenId));
+	}
+
+	private void afterCommit(Runnable action) {
+		if (transactionSynchronization.isActualTransactionActive()) {
+			transactionSynchronization.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
 	}
 
 	@WriteTransaction
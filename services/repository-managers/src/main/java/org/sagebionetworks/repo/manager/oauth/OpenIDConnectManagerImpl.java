@@ -10,6 +10,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
@@ -89,6 +90,9 @@ public class OpenIDConnectManagerImpl implements OpenIDConnectManager {
 
 	@Autowired
 	private Clock clock;
+
+	@Autowired
+	private ValidatedAccessTokenCache validatedAccessTokenCache;
 	
 	/**
 	 * Injected.
@@ -274,15 +278,24 @@ public class OpenIDConnectManagerImpl implements OpenIDConnectManager {
 	
 	@Override
 	public String validateAccessToken(String jwtToken) {
+		Optional<ValidatedAccessToken> cached = validatedAccessTokenCache.get(jwtToken);
+		if (cached.isPresent()) {
+			ValidatedAccessToken validated = cached.get();
+			if (TokenType.PERSONAL_ACCESS_TOKEN == validated.getTokenType()) {
+				personalAccessTokenManager.updateLastUsedTime(validated.getTokenId());
+			}
+			return validated.getUserId();
+		}
 		// Parsing the JWT handles tokens that have expired
 		Claims claims = oidcTokenHelper.parseJWT(jwtToken).getBody();
 
 		String userId = getUserIdFromPPID(claims.getSubject(), claims.getAudience());
 		TokenType tokenType = TokenType.valueOf(claims.get(OIDCClaimName.token_type.name(), String.class));
+		String refreshTokenId = null;
 		switch (tokenType) {
 			case OIDC_ACCESS_TOKEN:
 				// If the access token has an associated refresh token, we check to see if the refresh token has been revoked.
-				String refreshTokenId = claims.get(OIDCClaimName.refresh_token_id.name(), String.class);
+				refreshTokenId = claims.get(OIDCClaimName.refresh_token_id.name(), String.class);
 				if (refreshTokenId != null && !oauthRefreshTokenManager.isRefreshTokenActive(refreshTokenId)) {
 					throw new OAuthUnauthenticatedException(OAuthErrorCode.invalid_token, "The access token has been revoked.");
 				}
@@ -299,6 +312,8 @@ public class OpenIDConnectManagerImpl implements OpenIDConnectManager {
 				throw new OAuthUnauthenticatedException(OAuthErrorCode.invalid_token, "The provided token is an OIDC ID token and cannot be used to authenticate requests.");
 
 		}
+		validatedAccessTokenCache.put(jwtToken, new ValidatedAccessToken(userId, claims.getAudience(), tokenType,
+				claims.getId(), refreshTokenId, claims.getExpiration()));
 		return userId;
 	}
 
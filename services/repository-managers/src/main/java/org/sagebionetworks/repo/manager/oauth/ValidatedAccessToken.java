@@ -0,0 +1,94 @@
+package org.sagebionetworks.repo.manager.oauth;
+
+import java.util.Date;
+import java.util.Objects;
+
+import org.sagebionetworks.repo.model.auth.TokenType;
+
+/**
+ * The information extracted from an access token that has passed signature
+ * and revocation checks.
+ *
+ */
+public class ValidatedAccessToken {
+
+	private final String userId;
+	private final String clientId;
+	private final TokenType tokenType;
+	private final String tokenId;
+	private final String refreshTokenId;
+	private final Date expiration;
+
+	/**
+	 *
+	 * @param userId         The ID of the user the token represents.
+	 * @param clientId       The ID of the OAuth client the token was issued to
+	 *                       (the audience of the token).
+	 * @param tokenType
+	 * @param tokenId        The ID of the token (jti). For a personal access token
+	 *                       this is the ID of the token record.
+	 * @param refreshTokenId The ID of the refresh token associated with an OIDC
+	 *                       access token. Null if there is no refresh token.
+	 * @param expiration     The expiration of the token. Null if the token does
+	 *                       not expire.
+	 */
+	public ValidatedAccessToken(String userId, String clientId, TokenType tokenType, String tokenId,
+			String refreshTokenId, Date expiration) {
+		this.userId = userId;
+		this.clientId = clientId;
+		this.tokenType = tokenType;
+		this.tokenId = tokenId;
+		this.refreshTokenId = refreshTokenId;
+		this.expiration = expiration;
+	}
+
+	public String getUserId() {
+		return userId;
+	}
+
+	public String getClientId() {
+		return clientId;
+	}
+
+	public TokenType getTokenType() {
+		return tokenType;
+	}
+
+	public String getTokenId() {
+		return tokenId;
+	}
+
+	public String getRefreshTokenId() {
+		return refreshTokenId;
+	}
+
+	public Date getExpiration() {
+		return expiration;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(clientId, expiration, refreshTokenId, tokenId, tokenType, userId);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ValidatedAccessToken)) {
+			return false;
+		}
+		ValidatedAccessToken other = (ValidatedAccessToken) obj;
+		return Objects.equals(clientId, other.clientId) && Objects.equals(expiration, other.expiration)
+				&& Objects.equals(refreshTokenId, other.refreshTokenId) && Objects.equals(tokenId, other.tokenId)
+				&& tokenType == other.tokenType && Objects.equals(userId, other.userId);
+	}
+
+	@Override
+	public String toString() {
+		return "ValidatedAccessToken [userId=" + userId + ", clientId=" + clientId + ", tokenType=" + tokenType
+				+ ", tokenId=" + tokenId + ", refreshTokenId=" + refreshTokenId + ", expiration=" + expiration + "]";
+	}
+
+}
@@ -0,0 +1,54 @@
+package org.sagebionetworks.repo.manager.oauth;
+
+import java.util.Optional;
+
+/**
+ * A local, bounded and short lived cache of access tokens that have already
+ * been validated. A hit avoids the signature verification, the PPID lookup and
+ * the revocation check for a token that was recently used. Revocations made on
+ * this machine are applied to the cache immediately, while revocations made on
+ * other machines are picked up once the cached entry expires.
+ *
+ */
+public interface ValidatedAccessTokenCache {
+
+	/**
+	 * Get the cached validation of the given access token.
+	 *
+	 * @param accessToken The serialized JWT.
+	 * @return Empty if the token is not in the cache, if the cached entry has
+	 *         expired or if the token itself has expired.
+	 */
+	Optional<ValidatedAccessToken> get(String accessToken);
+
+	/**
+	 * Add the validation of an access token to the cache.
+	 *
+	 * @param accessToken The serialized JWT.
+	 * @param validated
+	 */
+	void put(String accessToken, ValidatedAccessToken validated);
+
+	/**
+	 * Remove all cached tokens for the given personal access token.
+	 *
+	 * @param tokenId
+	 */
+	void invalidatePersonalAccessToken(String tokenId);
+
+	/**
+	 * Remove all cached access tokens associated with the given refresh token.
+	 *
+	 * @param refreshTokenId
+	 */
+	void invalidateRefreshToken(String refreshTokenId);
+
+	/**
+	 * Remove all cached access tokens issued to the given client on behalf of the
+	 * given user.
+	 *
+	 * @param userId
+	 * @param clientId
+	 */
+	void invalidateUserClientPair(String userId, String clientId);
+}
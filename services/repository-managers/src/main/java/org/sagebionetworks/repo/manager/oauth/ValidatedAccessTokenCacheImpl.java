@@ -0,0 +1,107 @@
+package org.sagebionetworks.repo.manager.oauth;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.sagebionetworks.repo.model.auth.TokenType;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+@Service
+public class ValidatedAccessTokenCacheImpl implements ValidatedAccessTokenCache {
+
+	/**
+	 * The maximum time a validated token is trusted without checking the database
+	 * again. This bounds how long a token revoked on another machine can still be
+	 * used.
+	 */
+	public static final long TIME_TO_LIVE_MS = 30 * 1000L;
+	/**
+	 * The maximum number of tokens held in the cache.
+	 */
+	public static final long MAX_SIZE = 10_000L;
+
+	private final Clock clock;
+	/*
+	 * Keyed by the hash of the token so the tokens themselves are not held in
+	 * memory.
+	 */
+	private final Cache<String, ValidatedAccessToken> cache;
+
+	@Autowired
+	public ValidatedAccessTokenCacheImpl(Clock clock) {
+		this.clock = clock;
+		this.cache = CacheBuilder.newBuilder().maximumSize(MAX_SIZE)
+				.expireAfterWrite(TIME_TO_LIVE_MS, TimeUnit.MILLISECONDS).ticker(new Ticker() {
+					@Override
+					public long read() {
+						return TimeUnit.MILLISECONDS.toNanos(clock.currentTimeMillis());
+					}
+				}).build();
+	}
+
+	static String hashToken(String accessToken) {
+		return DigestUtils.sha256Hex(accessToken);
+	}
+
+	@Override
+	public Optional<ValidatedAccessToken> get(String accessToken) {
+		ValidateArgument.required(accessToken, "accessToken");
+		String key = hashToken(accessToken);
+		ValidatedAccessToken validated = cache.getIfPresent(key);
+		if (validated == null) {
+			return Optional.empty();
+		}
+		if (validated.getExpiration() != null && validated.getExpiration().getTime() <= clock.currentTimeMillis()) {
+			// The token expired while in the cache so it must be parsed again to get the correct error.
+			cache.invalidate(key);
+			return Optional.empty();
+		}
+		return Optional.of(validated);
+	}
+
+	@Override
+	public void put(String accessToken, ValidatedAccessToken validated) {
+		ValidateArgument.required(accessToken, "accessToken");
+		ValidateArgument.required(validated, "validated");
+		cache.put(hashToken(accessToken), validated);
+	}
+
+	@Override
+	public void invalidatePersonalAccessToken(String tokenId) {
+		ValidateArgument.required(tokenId, "tokenId");
+		invalidateIf(validated -> TokenType.PERSONAL_ACCESS_TOKEN == validated.getTokenType()
+				&& tokenId.equals(validated.getTokenId()));
+	}
+
+	@Override
+	public void invalidateRefreshToken(String refreshTokenId) {
+		ValidateArgument.required(refreshTokenId, "refreshTokenId");
+		invalidateIf(validated -> refreshTokenId.equals(validated.getRefreshTokenId()));
+	}
+
+	@Override
+	public void invalidateUserClientPair(String userId, String clientId) {
+		ValidateArgument.required(userId, "userId");
+		ValidateArgument.required(clientId, "clientId");
+		invalidateIf(validated -> TokenType.OIDC_ACCESS_TOKEN == validated.getTokenType()
+				&& userId.equals(validated.getUserId()) && clientId.equals(validated.getClientId()));
+	}
+
+	/**
+	 * Revocations are rare and the cache is bounded so a scan of the entries is
+	 * acceptable.
+	 */
+	private void invalidateIf(Predicate<ValidatedAccessToken> predicate) {
+		cache.asMap().values().removeIf(predicate);
+	}
+
+}
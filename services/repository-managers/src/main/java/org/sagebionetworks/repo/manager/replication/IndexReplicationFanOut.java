@@ -0,0 +1,227 @@
+package org.sagebionetworks.repo.manager.replication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.table.cluster.TableIndexDAO;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
+import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Applies a replication batch to all of the table index instances in parallel.
+ * Each instance gets the same amount of time to apply the batch and a failure
+ * on one instance does not stop the batch from being applied to the others.
+ * The replication lag of each instance is published to cloud watch.
+ * <p>
+ * Interrupting a thread does not stop a JDBC statement that is already
+ * running, so a batch is only handed back for a retry after the work of every
+ * timed out instance has either been prevented from starting or has finished.
+ * Otherwise the retry could race the original on the same index.
+ *
+ */
+public class IndexReplicationFanOut {
+
+	private static final Logger log = LogManager.getLogger(IndexReplicationFanOut.class);
+
+	public static final String METRIC_NAMESPACE_PREFIX = "Table-Replication-";
+	public static final String METRIC_LAG = "Replication lag";
+	public static final String METRIC_FAILURE = "Replication failure count";
+	public static final String DIMENSION_INSTANCE = "instance";
+	public static final String INSTANCE_PREFIX = "index-";
+
+	/**
+	 * The replication of a batch to a single index instance.
+	 *
+	 */
+	public interface IndexReplication {
+
+		void replicate(TableIndexDAO indexDao);
+	}
+
+	private final ExecutorService executor;
+	private final long timeoutMS;
+	private final Consumer consumer;
+	private final Clock clock;
+	private final String metricNamespace;
+
+	public IndexReplicationFanOut(ExecutorService executor, StackConfiguration config, Consumer consumer,
+			Clock clock) {
+		ValidateArgument.required(executor, "executor");
+		ValidateArgument.required(config, "config");
+		ValidateArgument.required(consumer, "consumer");
+		ValidateArgument.required(clock, "clock");
+		this.executor = executor;
+		this.timeoutMS = config.getTableReplicationTimeoutMS();
+		this.consumer = consumer;
+		this.clock = clock;
+		this.metricNamespace = METRIC_NAMESPACE_PREFIX + config.getStackInstance();
+	}
+
+	/**
+	 * Apply the given replication to each of the given index instances in
+	 * parallel and wait for all of them to finish.
+	 *
+	 * @param indexDaos          All of the index instances.
+	 * @param oldestChangeTimeMS The time of the oldest change in the batch, used
+	 *                           to calculate the replication lag of each
+	 *                           instance. Optional.
+	 * @param replication
+	 * @throws RecoverableMessageException If any instance did not finish within
+	 *                                     the timeout. Only thrown once the work
+	 *                                     of the timed out instances is no
+	 *                                     longer running.
+	 */
+	public void replicateToAll(List<TableIndexDAO> indexDaos, Long oldestChangeTimeMS, IndexReplication replication)
+			throws RecoverableMessageException {
+		ValidateArgument.required(indexDaos, "indexDaos");
+		ValidateArgument.required(replication, "replication");
+		List<InstanceTask> tasks = new ArrayList<>(indexDaos.size());
+		List<Future<?>> futures = new ArrayList<>(indexDaos.size());
+		for (TableIndexDAO indexDao : indexDaos) {
+			InstanceTask task = new InstanceTask(indexDao, replication);
+			tasks.add(task);
+			futures.add(executor.submit(task));
+		}
+		long deadlineMS = clock.currentTimeMillis() + timeoutMS;
+		List<String> timedOut = new ArrayList<>();
+		List<InstanceTask> timedOutTasks = new ArrayList<>();
+		RuntimeException firstFailure = null;
+		for (int i = 0; i < futures.size(); i++) {
+			String instance = INSTANCE_PREFIX + i;
+			Future<?> future = futures.get(i);
+			try {
+				future.get(Math.max(0L, deadlineMS - clock.currentTimeMillis()), TimeUnit.MILLISECONDS);
+				publishLag(instance, oldestChangeTimeMS);
+			} catch (TimeoutException | CancellationException e) {
+				future.cancel(true);
+				log.warn("Replication to " + instance + " did not finish within " + timeoutMS + " MS");
+				publishFailure(instance);
+				timedOut.add(instance);
+				timedOutTasks.add(tasks.get(i));
+			} catch (ExecutionException e) {
+				log.warn("Replication to " + instance + " failed: " + e.getCause().getMessage());
+				publishFailure(instance);
+				if (firstFailure == null) {
+					firstFailure = unwrap(e.getCause());
+				}
+			} catch (InterruptedException e) {
+				for (Future<?> toCancel : futures) {
+					toCancel.cancel(true);
+				}
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+		}
+		for (InstanceTask task : timedOutTasks) {
+			try {
+				task.abandonAndWait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+		}
+		if (firstFailure != null) {
+			// The caller decides if the batch should be retried based on the type of failure.
+			throw firstFailure;
+		}
+		if (!timedOut.isEmpty()) {
+			throw new RecoverableMessageException("Replication timed out for: " + timedOut);
+		}
+	}
+
+	/**
+	 * The replication to a single instance that can be abandoned before it starts
+	 * or waited on after it started.
+	 *
+	 */
+	private static class InstanceTask implements Runnable {
+
+		private final TableIndexDAO indexDao;
+		private final IndexReplication replication;
+		private final AtomicBoolean claimed = new AtomicBoolean(false);
+		private final CountDownLatch finished = new CountDownLatch(1);
+
+		InstanceTask(TableIndexDAO indexDao, IndexReplication replication) {
+			this.indexDao = indexDao;
+			this.replication = replication;
+		}
+
+		@Override
+		public void run() {
+			if (!claimed.compareAndSet(false, true)) {
+				// abandoned before it started.
+				return;
+			}
+			try {
+				replication.replicate(indexDao);
+			} finally {
+				finished.countDown();
+			}
+		}
+
+		/**
+		 * Prevent the replication from starting or, if it already started, wait for
+		 * it to finish.
+		 *
+		 * @throws InterruptedException
+		 */
+		void abandonAndWait() throws InterruptedException {
+			if (claimed.compareAndSet(false, true)) {
+				return;
+			}
+			finished.await();
+		}
+	}
+
+	private static RuntimeException unwrap(Throwable cause) {
+		if (cause instanceof RuntimeException) {
+			return (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return new RuntimeException(cause);
+	}
+
+	private void publishLag(String instance, Long oldestChangeTimeMS) {
+		if (oldestChangeTimeMS == null) {
+			return;
+		}
+		long lagMS = Math.max(0L, clock.currentTimeMillis() - oldestChangeTimeMS);
+		consumer.addProfileData(createMetric(METRIC_LAG, lagMS, StandardUnit.Milliseconds, instance));
+	}
+
+	private void publishFailure(String instance) {
+		consumer.addProfileData(createMetric(METRIC_FAILURE, 1L, StandardUnit.Count, instance));
+	}
+
+	private ProfileData createMetric(String name, long value, StandardUnit unit, String instance) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(metricNamespace);
+		profileData.setName(name);
+		profileData.setValue((double) value);
+		profileData.setUnit(unit.name());
+		profileData.setTimestamp(new Date(clock.currentTimeMillis()));
+		profileData.setDimension(Collections.singletonMap(DIMENSION_INSTANCE, instance));
+		return profileData;
+	}
+
+}
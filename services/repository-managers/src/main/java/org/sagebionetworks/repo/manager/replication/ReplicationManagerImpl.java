@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.UUID;
 
 import org.sagebionetworks.repo.manager.table.TableManagerSupport;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProvider;
@@ -54,17 +55,21 @@ public class ReplicationManagerImpl implements ReplicationManager {
 
 	private Clock clock;
 
+	private IndexReplicationFanOut indexReplicationFanOut;
+
 	@Autowired
 	public ReplicationManagerImpl(ConnectionFactory connectionFactory,
 			MetadataIndexProviderFactory metadataIndexProviderFactory, 
 			TableManagerSupport tableManagerSupport,
 			ReplicationMessageManager replicationMessageManager, 
-			Clock clock) {
+			Clock clock,
+			IndexReplicationFanOut indexReplicationFanOut) {
 		this.connectionFactory = connectionFactory;
 		this.metadataIndexProviderFactory = metadataIndexProviderFactory;
 		this.tableManagerSupport = tableManagerSupport;
 		this.replicationMessageManager = replicationMessageManager;
 		this.clock = clock;
+		this.indexReplicationFanOut = indexReplicationFanOut;
 	}
 
 	/**
@@ -77,6 +82,7 @@ public class ReplicationManagerImpl implements ReplicationManager {
 	public void replicate(List<ChangeMessage> messages) throws RecoverableMessageException {
 
 		Map<ViewObjectType, ReplicationDataGroup> data = groupByObjectType(messages);
+		Long oldestChangeTimeMS = getOldestTimestamp(messages);
 
 		for (Entry<ViewObjectType, ReplicationDataGroup> groupEntry : data.entrySet()) {
 
@@ -93,11 +99,10 @@ public class ReplicationManagerImpl implements ReplicationManager {
 			// Get the connections
 			List<TableIndexDAO> indexDaos = connectionFactory.getAllConnections();
 
-			// make all changes in an index as a transaction
-			for (TableIndexDAO indexDao : indexDaos) {
-				// apply the change to this index.
+			// make all changes in each index as a transaction, with all indices updated in parallel.
+			indexReplicationFanOut.replicateToAll(indexDaos, oldestChangeTimeMS, (TableIndexDAO indexDao) -> {
 				replicateInIndex(indexDao, objectType, objectData, groupData.getAllIds());
-			}
+			});
 
 		}
 
@@ -188,6 +193,25 @@ public class ReplicationManagerImpl implements ReplicationManager {
 		return data;
 	}
 
+	/**
+	 * The time of the oldest of the given messages.
+	 * 
+	 * @param messages
+	 * @return Null if none of the messages has a timestamp.
+	 */
+	static Long getOldestTimestamp(List<ChangeMessage> messages) {
+		Long oldest = null;
+		for (ChangeMessage message : messages) {
+			if (message.getTimestamp() != null) {
+				long time = message.getTimestamp().getTime();
+				if (oldest == null || time < oldest) {
+					oldest = time;
+				}
+			}
+		}
+		return oldest;
+	}
+
 	/**
 	 * Get the sub-set of containerIds that are in the trash.
 	 * 
@@ -339,7 +363,9 @@ public class ReplicationManagerImpl implements ReplicationManager {
 	}
 
 	/**
-	 * Replicate the given
+	 * Replicate the given objects. In the same transaction, the rows of the
+	 * objects are marked as stale for every view that included the objects
+	 * before the change or includes them after the change.
 	 * 
 	 * @param indexDao
 	 * @param entityDTOs DTO to be created/updated
@@ -348,8 +374,13 @@ public class ReplicationManagerImpl implements ReplicationManager {
 	void replicateInIndex(TableIndexDAO indexDao, ViewObjectType objectType, List<ObjectDataDTO> entityDTOs,
 			List<Long> ids) {
 		indexDao.executeInWriteTransaction((TransactionStatus status) -> {
+			String token = UUID.randomUUID().toString();
+			// views that included the objects before the change.
+			indexDao.markViewRowsStale(objectType, ids, token);
 			indexDao.deleteObjectData(objectType, ids);
 			indexDao.addObjectData(objectType, entityDTOs);
+			// views that include the objects after the change.
+			indexDao.markViewRowsStale(objectType, ids, token);
 			return null;
 		});
 	}
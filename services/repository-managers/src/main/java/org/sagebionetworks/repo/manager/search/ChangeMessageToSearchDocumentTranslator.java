@@ -1,5 +1,12 @@
 package org.sagebionetworks.repo.manager.search;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sagebionetworks.repo.model.ObjectType;
@@ -43,6 +50,76 @@ public class ChangeMessageToSearchDocumentTranslator {
 		}
 	}
 
+	/**
+	 * Translate a batch of changes into search documents. The documents of all of
+	 * the entities referenced by the batch are built by a single call to
+	 * {@link SearchDocumentDriver#formulateSearchDocuments(List)}, and multiple
+	 * changes to the same entity result in a single document.
+	 * 
+	 * @param changes
+	 * @return One document for each distinct entity referenced by the changes.
+	 */
+	List<Document> generateSearchDocumentsIfNecessary(List<ChangeMessage> changes) {
+		// Group the log records of the changes by the entity they apply to.
+		Map<String, List<CloudSearchDocumentLogRecord>> recordsByEntityId = new LinkedHashMap<>();
+		for (ChangeMessage change : changes) {
+			CloudSearchDocumentLogRecord record = recordLogger.startRecordForChangeMessage(change);
+			String entityId = resolveEntityId(change, record);
+			if (entityId != null) {
+				recordsByEntityId.computeIfAbsent(entityId, k -> new LinkedList<>()).add(record);
+			}
+		}
+		if (recordsByEntityId.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Map<String, Document> documents = searchDocumentDriver
+				.formulateSearchDocuments(new ArrayList<>(recordsByEntityId.keySet()));
+		List<Document> results = new ArrayList<>(recordsByEntityId.size());
+		for (Map.Entry<String, List<CloudSearchDocumentLogRecord>> entry : recordsByEntityId.entrySet()) {
+			Document document = documents.get(entry.getKey());
+			DocumentAction action = DocumentAction.CREATE_OR_UPDATE;
+			if (document == null) {
+				action = DocumentAction.DELETE;
+				document = createDeleteDocument(entry.getKey());
+			}
+			for (CloudSearchDocumentLogRecord record : entry.getValue()) {
+				record.withAction(action);
+			}
+			results.add(document);
+		}
+		return results;
+	}
+
+	/**
+	 * Resolve the ID of the entity that must be updated for the given change.
+	 * 
+	 * @param change
+	 * @param record
+	 * @return Null if the change will be ignored.
+	 */
+	String resolveEntityId(ChangeMessage change, CloudSearchDocumentLogRecord record) {
+		switch (change.getObjectType()) {
+		case ENTITY:
+			return change.getObjectId();
+		case WIKI:
+			try {
+				WikiPageKey key = wikiPageDao.lookupWikiKey(change.getObjectId());
+				if (ObjectType.ENTITY == key.getOwnerObjectType()) {
+					record.withWikiOwner(key.getOwnerObjectId());
+					return key.getOwnerObjectId();
+				}
+			} catch (NotFoundException e) {
+				// Nothing to do if the wiki does not exist
+				log.info("Wiki not found for id: " + change.getObjectId() + " Message: " + e.getMessage());
+			}
+			// this change will be ignored.
+			record.withAction(DocumentAction.IGNORE);
+			return null;
+		default:
+			throw new IllegalArgumentException("Unknown change type: " + change.getChangeType());
+		}
+	}
+
 	/**
 	 * Wiki changes are converted into entity changes.
 	 * @param wikiId
@@ -10,8 +10,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,6 +39,7 @@ import org.sagebionetworks.repo.model.annotation.v2.AnnotationsValue;
 import org.sagebionetworks.repo.model.dao.WikiPageKey;
 import org.sagebionetworks.repo.model.dao.WikiPageKeyHelper;
 import org.sagebionetworks.repo.model.entity.NameIdType;
+import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.sagebionetworks.repo.model.search.Document;
 import org.sagebionetworks.repo.model.search.DocumentFields;
 import org.sagebionetworks.repo.model.search.DocumentTypeNames;
@@ -41,6 +48,7 @@ import org.sagebionetworks.repo.model.v2.wiki.V2WikiHeader;
 import org.sagebionetworks.repo.model.v2.wiki.V2WikiPage;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.search.SearchUtil;
+import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
@@ -59,6 +67,11 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 	 * No more than 100 values in a field value array
 	 */
 	public static final int FIELD_VALUE_SIZE_LIMIT = 100;
+	
+	/**
+	 * The maximum number of wiki pages of a single entity included in its search document.
+	 */
+	public static final int MAX_WIKI_PAGES = 100;
 
 	private static Log log = LogFactory.getLog(SearchDocumentDriverImpl.class);
 
@@ -70,6 +83,8 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 	private AccessControlListDAO aclDAO;
 	@Autowired
 	V2WikiPageDao wikiPageDao;
+	
+	private ExecutorService wikiFetchExecutor;
 
 	static { // initialize SEARCHABLE_NODE_ANNOTATIONS
 		// NOTE: ORDER MATTERS. Earlier annotation key names will be preferred over later ones if both keys are present.
@@ -88,6 +103,16 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 	 */
 	public SearchDocumentDriverImpl() {
 	}
+	
+	/**
+	 * Injected. The bounded pool used to download the wiki markdown of a batch of
+	 * entities concurrently.
+	 * 
+	 * @param wikiFetchExecutor
+	 */
+	public void setWikiFetchExecutor(ExecutorService wikiFetchExecutor) {
+		this.wikiFetchExecutor = wikiFetchExecutor;
+	}
 
 	/**
 	 * @param node
@@ -268,6 +293,102 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 		return formulateFromBackup(node);
 	}
 
+	@Override
+	public Map<String, Document> formulateSearchDocuments(List<String> entityIds) {
+		ValidateArgument.required(entityIds, "entityIds");
+		if (entityIds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		Map<Long, String> idMap = new LinkedHashMap<>(entityIds.size());
+		for (String entityId : entityIds) {
+			idMap.putIfAbsent(KeyFactory.stringToKey(entityId), entityId);
+		}
+		Set<Long> available = nodeDao.getAvailableNodes(new ArrayList<>(idMap.keySet()));
+		if (available.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		List<Long> nodeIds = new ArrayList<>(available);
+		Map<Long, Node> nodes = new HashMap<>(nodeIds.size());
+		for (Node node : nodeDao.getNodes(nodeIds)) {
+			nodes.put(KeyFactory.stringToKey(node.getId()), node);
+		}
+		Map<Long, Long> benefactors = nodeDao.getBenefactors(nodeIds);
+		Map<Long, AccessControlList> acls = aclDAO.getAcls(new ArrayList<>(new HashSet<>(benefactors.values())), ObjectType.ENTITY);
+		Map<Long, Annotations> annotations = nodeDao.getUserAnnotationsForCurrentVersions(nodeIds);
+		Map<Long, String> wikiPagesText = getAllWikiPageText(nodeIds);
+		
+		Map<String, Document> documents = new LinkedHashMap<>(nodeIds.size());
+		for (Map.Entry<Long, String> entry : idMap.entrySet()) {
+			Long nodeId = entry.getKey();
+			Node node = nodes.get(nodeId);
+			AccessControlList acl = acls.get(benefactors.get(nodeId));
+			Annotations annos = annotations.get(nodeId);
+			if (node == null || acl == null || annos == null) {
+				// Not available or deleted while the batch was read.
+				continue;
+			}
+			documents.put(entry.getValue(), formulateSearchDocument(node, annos, acl, wikiPagesText.get(nodeId)));
+		}
+		return documents;
+	}
+
+	/**
+	 * Get all wiki text for a batch of entities. The pages of all of the entities
+	 * are read with a single query and their markdown is downloaded concurrently.
+	 * 
+	 * @param nodeIds
+	 * @return Map from each node ID to its wiki text. Nodes without a wiki are
+	 *         not included.
+	 */
+	Map<Long, String> getAllWikiPageText(List<Long> nodeIds) {
+		Map<Long, List<V2WikiPage>> pagesByOwner = wikiPageDao.getPagesForOwners(nodeIds, ObjectType.ENTITY);
+		// Start all of the downloads before waiting on any of them.
+		Map<Long, List<Future<String>>> markdownByOwner = new HashMap<>(pagesByOwner.size());
+		for (Map.Entry<Long, List<V2WikiPage>> entry : pagesByOwner.entrySet()) {
+			List<V2WikiPage> pages = entry.getValue();
+			List<Future<String>> markdown = new ArrayList<>(Math.min(pages.size(), MAX_WIKI_PAGES));
+			for (V2WikiPage page : pages.subList(0, Math.min(pages.size(), MAX_WIKI_PAGES))) {
+				markdown.add(wikiFetchExecutor.submit(() -> wikiPageDao.getMarkdownForFileHandle(page.getMarkdownFileHandleId())));
+			}
+			markdownByOwner.put(entry.getKey(), markdown);
+		}
+		Map<Long, String> results = new HashMap<>(pagesByOwner.size());
+		for (Map.Entry<Long, List<V2WikiPage>> entry : pagesByOwner.entrySet()) {
+			List<Future<String>> markdown = markdownByOwner.get(entry.getKey());
+			StringBuilder builder = new StringBuilder();
+			try {
+				for (int i = 0; i < markdown.size(); i++) {
+					V2WikiPage page = entry.getValue().get(i);
+					// Append the title and markdown
+					if (page.getTitle() != null) {
+						builder.append("\n");
+						builder.append(page.getTitle());
+					}
+					builder.append("\n");
+					builder.append(getMarkdown(markdown.get(i)));
+				}
+				results.put(entry.getKey(), builder.toString());
+			} catch (NotFoundException e) {
+				// Same as a single entity: a missing page means there is no wiki text for the entity.
+			}
+		}
+		return results;
+	}
+	
+	private static String getMarkdown(Future<String> markdown) {
+		try {
+			return markdown.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
 	/**
 	 * Get all wiki text for an entity.
 	 * 
@@ -6,7 +6,6 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -32,6 +31,11 @@ import com.google.common.collect.Iterators;
 public class SearchManagerImpl implements SearchManager{
 	private static final Logger log = LogManager.getLogger(SearchManagerImpl.class.getName());
 
+	/**
+	 * The maximum number of change messages translated into documents at a time.
+	 */
+	public static final int CHANGE_MESSAGE_BATCH_SIZE = 100;
+
 
 	@Autowired
 	SearchDocumentDriver searchDocumentDriver;
@@ -143,9 +147,10 @@ public class SearchManagerImpl implements SearchManager{
 	@Override
 	public void documentChangeMessages(List<ChangeMessage> messages){
 		try {
-			Iterator<Document> documentIterator = Iterators.filter(
-					Iterators.transform(messages.iterator(), translator::generateSearchDocumentIfNecessary),
-					Objects::nonNull);
+			// Each chunk of changes is translated with a fixed number of queries as the documents are consumed.
+			Iterator<Document> documentIterator = Iterators.concat(Iterators.transform(
+					Iterators.partition(messages.iterator(), CHANGE_MESSAGE_BATCH_SIZE),
+					batch -> translator.generateSearchDocumentsIfNecessary(batch).iterator()));
 			searchDao.sendDocuments(documentIterator);
 		}finally {
 			recordLogger.pushAllRecordsAndReset();
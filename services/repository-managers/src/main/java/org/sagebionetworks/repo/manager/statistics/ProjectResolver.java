@@ -1,5 +1,8 @@
 package org.sagebionetworks.repo.manager.statistics;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.sagebionetworks.repo.model.file.FileHandleAssociateType;
 import org.sagebionetworks.repo.web.NotFoundException;
 
@@ -13,4 +16,18 @@ public interface ProjectResolver {
 	
 	Long resolveProject(FileHandleAssociateType associationType, String associationId) throws UnsupportedOperationException, NotFoundException, IllegalStateException;
 
+	/**
+	 * Resolve the project of a batch of associations of the same type, any
+	 * association that is not already known is resolved with a single query
+	 * 
+	 * @param associationType The type of the associations
+	 * @param associationIds  The ids of the associated objects
+	 * @return Map from each association id to the id of its project, associations
+	 *         whose project cannot be resolved (e.g. the object does not exist
+	 *         anymore) are not included
+	 * @throws UnsupportedOperationException If the association type is not
+	 *                                       supported
+	 */
+	Map<String, Long> resolveProjects(FileHandleAssociateType associationType, Collection<String> associationIds) throws UnsupportedOperationException;
+
 }
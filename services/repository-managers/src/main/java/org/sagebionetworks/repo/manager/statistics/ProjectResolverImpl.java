@@ -1,19 +1,72 @@
 package org.sagebionetworks.repo.manager.statistics;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
 import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.file.FileHandleAssociateType;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.ChangeType;
+import org.sagebionetworks.repo.model.message.TransactionalMessenger;
+import org.sagebionetworks.repo.model.message.TransactionalMessengerObserver;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 @Service
-public class ProjectResolverImpl implements ProjectResolver {
+public class ProjectResolverImpl implements ProjectResolver, TransactionalMessengerObserver {
+
+	/**
+	 * The maximum time an entity to project mapping is used without resolving it
+	 * again. This bounds how long a move made on another machine, or the move or
+	 * deletion of one of the ancestors of the entity, can go unnoticed.
+	 */
+	public static final long TIME_TO_LIVE_MS = 10 * 60 * 1000L;
+	/**
+	 * The maximum number of entities held in the cache.
+	 */
+	public static final long MAX_SIZE = 100_000L;
 
 	private NodeDAO nodeDao;
 
+	private TransactionalMessenger transactionalMessenger;
+
+	// Entity id -> project id
+	private Cache<Long, Long> projectCache;
+
 	@Autowired
-	public ProjectResolverImpl(NodeDAO nodeDao) {
+	public ProjectResolverImpl(NodeDAO nodeDao, Clock clock, TransactionalMessenger transactionalMessenger) {
 		this.nodeDao = nodeDao;
+		this.transactionalMessenger = transactionalMessenger;
+		this.projectCache = CacheBuilder.newBuilder().maximumSize(MAX_SIZE)
+				.expireAfterWrite(TIME_TO_LIVE_MS, TimeUnit.MILLISECONDS).ticker(new Ticker() {
+					@Override
+					public long read() {
+						return TimeUnit.MILLISECONDS.toNanos(clock.currentTimeMillis());
+					}
+				}).build();
+	}
+
+	/**
+	 * Called by Spring after the bean is created to start listening to the
+	 * entity changes committed on this machine.
+	 */
+	@PostConstruct
+	public void initialize() {
+		// We only want to be in the list once
+		transactionalMessenger.removeObserver(this);
+		transactionalMessenger.registerObserver(this);
 	}
 
 	@Override
@@ -27,9 +80,63 @@ public class ProjectResolverImpl implements ProjectResolver {
 		}
 	}
 
+	@Override
+	public Map<String, Long> resolveProjects(FileHandleAssociateType associationType, Collection<String> associationIds) {
+		ValidateArgument.required(associationType, "associationType");
+		ValidateArgument.required(associationIds, "associationIds");
+		switch (associationType) {
+		case FileEntity:
+		case TableEntity:
+			return getProjectsForNodes(associationIds);
+		default:
+			throw new UnsupportedOperationException("Cannot resolve project for type " + associationType);
+		}
+	}
+
+	@Override
+	public void fireChangeMessage(ChangeMessage message) {
+		if (ObjectType.ENTITY != message.getObjectType()) {
+			return;
+		}
+		// A move is sent as an update of the moved entity
+		if (ChangeType.UPDATE == message.getChangeType() || ChangeType.DELETE == message.getChangeType()) {
+			// Only the entity itself is invalidated, the entities under a moved or deleted
+			// container keep their mapping until it expires (see TIME_TO_LIVE_MS)
+			projectCache.invalidate(KeyFactory.stringToKey(message.getObjectId()));
+		}
+	}
+
 	private Long getProjectForNode(String objectId) {
-		String projectIdString = nodeDao.getProjectId(objectId);
-		return KeyFactory.stringToKey(projectIdString);
+		Long nodeId = KeyFactory.stringToKey(objectId);
+		Long projectId = projectCache.getIfPresent(nodeId);
+		if (projectId == null) {
+			projectId = KeyFactory.stringToKey(nodeDao.getProjectId(objectId));
+			projectCache.put(nodeId, projectId);
+		}
+		return projectId;
+	}
+
+	private Map<String, Long> getProjectsForNodes(Collection<String> objectIds) {
+		Map<String, Long> results = new HashMap<>(objectIds.size());
+		Map<Long, String> missing = new HashMap<>();
+		for (String objectId : objectIds) {
+			Long nodeId = KeyFactory.stringToKey(objectId);
+			Long projectId = projectCache.getIfPresent(nodeId);
+			if (projectId == null) {
+				missing.put(nodeId, objectId);
+			} else {
+				results.put(objectId, projectId);
+			}
+		}
+		if (missing.isEmpty()) {
+			return results;
+		}
+		Map<Long, Long> loaded = nodeDao.getProjectIds(missing.keySet());
+		projectCache.putAll(loaded);
+		for (Map.Entry<Long, Long> entry : loaded.entrySet()) {
+			results.put(missing.get(entry.getKey()), entry.getValue());
+		}
+		return results;
 	}
 
 }
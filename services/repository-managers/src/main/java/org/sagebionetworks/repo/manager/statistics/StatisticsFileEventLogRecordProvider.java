@@ -1,5 +1,10 @@
 package org.sagebionetworks.repo.manager.statistics;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -62,12 +67,51 @@ public class StatisticsFileEventLogRecordProvider implements EventLogRecordProvi
 			return Optional.empty();
 		}
 		
-		return Optional.of(new StatisticsFileEventLogRecord()
+		return Optional.of(createRecord(event, projectId));
+	}
+
+	@Override
+	public List<AwsKinesisLogRecord> getRecordsForEvents(List<StatisticsFileEvent> events) {
+		ValidateArgument.required(events, "events");
+
+		Map<FileHandleAssociateType, Set<String>> associationIds = new HashMap<>();
+
+		for (StatisticsFileEvent event : events) {
+			ValidateArgument.required(event, "event");
+			if (ACCEPTED.contains(event.getAssociationType())) {
+				associationIds.computeIfAbsent(event.getAssociationType(), (FileHandleAssociateType type) -> new HashSet<>())
+						.add(event.getAssociationId());
+			}
+		}
+
+		// One lookup for each association type rather than one for each event
+		Map<FileHandleAssociateType, Map<String, Long>> projectIds = new HashMap<>();
+
+		for (Map.Entry<FileHandleAssociateType, Set<String>> entry : associationIds.entrySet()) {
+			projectIds.put(entry.getKey(), projectResolver.resolveProjects(entry.getKey(), entry.getValue()));
+		}
+
+		List<AwsKinesisLogRecord> records = new ArrayList<>(events.size());
+
+		for (StatisticsFileEvent event : events) {
+			Map<String, Long> projects = projectIds.get(event.getAssociationType());
+			// The association type is not supported, the object does not exist anymore or there is a loop
+			Long projectId = projects == null ? null : projects.get(event.getAssociationId());
+			if (projectId != null) {
+				records.add(createRecord(event, projectId));
+			}
+		}
+
+		return records;
+	}
+
+	private static AwsKinesisLogRecord createRecord(StatisticsFileEvent event, Long projectId) {
+		return new StatisticsFileEventLogRecord()
 				.withTimestamp(event.getTimestamp())
 				.withUserId(event.getUserId())
 				.withFileHandleId(event.getFileHandleId())
 				.withAssociation(event.getAssociationType(), event.getAssociationId())
-				.withProjectId(projectId));
+				.withProjectId(projectId);
 	}
 
 }
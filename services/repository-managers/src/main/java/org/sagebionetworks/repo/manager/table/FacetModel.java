@@ -151,6 +151,7 @@ public class FacetModel {
 					.includeRowIdAndRowVersion(sqlQuery.includesRowIdAndVersion())
 					.tableType(sqlQuery.getTableType())
 					.selectedFacets(sqlQuery.getSelectedFacets())
+					.queryCache(sqlQuery.getQueryCache())
 					.build();
 		}catch (ParseException e){
 			throw new RuntimeException(e);
@@ -1,7 +1,7 @@
 package org.sagebionetworks.repo.manager.table;
 
 import org.sagebionetworks.repo.model.table.FacetColumnResult;
-import org.sagebionetworks.repo.model.table.RowSet;
+import org.sagebionetworks.table.cluster.ColumnarRowSet;
 import org.sagebionetworks.table.cluster.SqlQuery;
 
 /**
@@ -26,8 +26,8 @@ public interface FacetTransformer {
 	
 	/**
 	 * translates the result obtained after running the query generated by generateSqlQuery()
-	 * @param rowSet
+	 * @param results
 	 * @return
 	 */
-	public FacetColumnResult translateToResult(RowSet rowSet);
+	public FacetColumnResult translateToResult(ColumnarRowSet results);
 }
@@ -5,9 +5,8 @@ import java.util.List;
 import org.sagebionetworks.repo.model.table.FacetColumnResult;
 import org.sagebionetworks.repo.model.table.FacetColumnResultRange;
 import org.sagebionetworks.repo.model.table.FacetType;
-import org.sagebionetworks.repo.model.table.Row;
-import org.sagebionetworks.repo.model.table.RowSet;
 import org.sagebionetworks.repo.model.table.SelectColumn;
+import org.sagebionetworks.table.cluster.ColumnarRowSet;
 import org.sagebionetworks.table.cluster.SqlQuery;
 import org.sagebionetworks.table.cluster.SqlQueryBuilder;
 import org.sagebionetworks.table.query.ParseException;
@@ -81,28 +80,24 @@ public class FacetTransformerRange implements FacetTransformer {
 	}
 	
 	@Override
-	public FacetColumnResult translateToResult(RowSet rowSet) {
-		ValidateArgument.required(rowSet, "rowSet");
-		List<SelectColumn> headers = rowSet.getHeaders();
+	public FacetColumnResult translateToResult(ColumnarRowSet results) {
+		ValidateArgument.required(results, "results");
+		List<SelectColumn> headers = results.getHeaders();
 		//check for expected headers
 		if(headers.size() != 2 || !headers.get(0).getName().equals(MIN_ALIAS) || !headers.get(1).getName().equals(MAX_ALIAS)){
 			throw new IllegalArgumentException("The RowSet's headers did not contain the expected column names");
 		}
 		
-		List<Row> rows = rowSet.getRows();
 		//should only have one row
-		if(rows.size() != 1){ 
+		if(results.getRowCount() != 1){ 
 			throw new IllegalArgumentException("Expected RowSet to only have one row");
 		}
 		
-		Row row = rows.get(0);
-		
 		FacetColumnResultRange result = new FacetColumnResultRange();
 		result.setColumnName(this.columnName);
 		result.setFacetType(FacetType.range);
-		List<String> values =  row.getValues();
-		result.setColumnMin(values.get(0));
-		result.setColumnMax(values.get(1));
+		result.setColumnMin(results.getValue(0, 0));
+		result.setColumnMax(results.getValue(0, 1));
 		result.setSelectedMin(this.selectedMin);
 		result.setSelectedMax(this.selectedMax);
 		
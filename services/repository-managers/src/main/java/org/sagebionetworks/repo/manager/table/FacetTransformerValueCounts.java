@@ -10,9 +10,8 @@ import org.sagebionetworks.repo.model.table.FacetColumnResult;
 import org.sagebionetworks.repo.model.table.FacetColumnResultValueCount;
 import org.sagebionetworks.repo.model.table.FacetColumnResultValues;
 import org.sagebionetworks.repo.model.table.FacetType;
-import org.sagebionetworks.repo.model.table.Row;
-import org.sagebionetworks.repo.model.table.RowSet;
 import org.sagebionetworks.repo.model.table.SelectColumn;
+import org.sagebionetworks.table.cluster.ColumnarRowSet;
 import org.sagebionetworks.table.cluster.SqlQuery;
 import org.sagebionetworks.table.cluster.SqlQueryBuilder;
 import org.sagebionetworks.table.query.ParseException;
@@ -90,19 +89,18 @@ public class FacetTransformerValueCounts implements FacetTransformer {
 	}
 
 	@Override
-	public FacetColumnResult translateToResult(RowSet rowSet) {
-		ValidateArgument.required(rowSet, "rowSet");
+	public FacetColumnResult translateToResult(ColumnarRowSet results) {
+		ValidateArgument.required(results, "results");
 		
-		List<SelectColumn> headers = rowSet.getHeaders();
+		List<SelectColumn> headers = results.getHeaders();
 		//check for expected headers
 		if(headers.size() != 2 || !headers.get(0).getName().equals(VALUE_ALIAS) || !headers.get(1).getName().equals(COUNT_ALIAS)){
 			throw new IllegalArgumentException("The RowSet's headers did not contain the expected column names" + headers);
 		}
 		
-		List<FacetColumnResultValueCount> valueCounts = new ArrayList<>();
-		for(Row row : rowSet.getRows()){
-			List<String> rowValues  = row.getValues();
-			String value = rowValues.get(0);
+		List<FacetColumnResultValueCount> valueCounts = new ArrayList<>(results.getRowCount());
+		for(int i = 0; i < results.getRowCount(); i++){
+			String value = results.getValue(i, 0);
 			if(value == null){
 				//for counts of unset values
 				value = NULL_VALUE_KEYWORD;
@@ -110,7 +108,7 @@ public class FacetTransformerValueCounts implements FacetTransformer {
 			FacetColumnResultValueCount valCount = new FacetColumnResultValueCount();
 			valCount.setValue(value);
 			valCount.setIsSelected(selectedValues != null && selectedValues.contains(value));
-			valCount.setCount(Long.parseLong(rowValues.get(1)));
+			valCount.setCount(Long.parseLong(results.getValue(i, 1)));
 			valueCounts.add(valCount);
 		}
 		
@@ -0,0 +1,221 @@
+package org.sagebionetworks.repo.manager.table;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.sagebionetworks.repo.web.TemporarilyUnavailableException;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * The queries of a single table query request. Submitted queries are handed to
+ * the shared executor in the order they were submitted with no more than the
+ * maximum concurrency running at the same time. A query that runs for longer
+ * than the timeout cancels all of the queries of the group.
+ *
+ */
+public class QueryTaskGroup implements AutoCloseable {
+
+	private final ExecutorService executor;
+	private final int maxConcurrency;
+	private final long timeoutMS;
+
+	private final LinkedList<GroupTask<?>> waiting;
+	private final List<GroupTask<?>> all;
+	private int runningCount;
+	private boolean closed;
+
+	QueryTaskGroup(ExecutorService executor, int maxConcurrency, long timeoutMS) {
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+		this.timeoutMS = timeoutMS;
+		this.waiting = new LinkedList<>();
+		this.all = new ArrayList<>();
+		this.runningCount = 0;
+		this.closed = false;
+	}
+
+	/**
+	 * The time each query of this group may run, starting when it is handed to an
+	 * executor thread.
+	 *
+	 * @return
+	 */
+	public long getTimeoutMS() {
+		return timeoutMS;
+	}
+
+	/**
+	 * Submit a query to run on the shared executor.
+	 *
+	 * @param query
+	 * @return
+	 */
+	public synchronized <T> Future<T> submit(Callable<T> query) {
+		ValidateArgument.required(query, "query");
+		if (closed) {
+			throw new IllegalStateException("The group has been closed");
+		}
+		GroupTask<T> task = new GroupTask<>(query);
+		all.add(task);
+		waiting.add(task);
+		startWaiting();
+		return task;
+	}
+
+	/**
+	 * Hand waiting queries to the executor while below the maximum concurrency.
+	 */
+	private synchronized void startWaiting() {
+		while (!closed && runningCount < maxConcurrency && !waiting.isEmpty()) {
+			GroupTask<?> task = waiting.removeFirst();
+			if (task.isDone()) {
+				// cancelled before it started.
+				continue;
+			}
+			// the timeout starts when the task runs, not while it waits for an executor thread.
+			task.submitted = true;
+			runningCount++;
+			executor.execute(task);
+		}
+	}
+
+	private synchronized void onStart(GroupTask<?> task) {
+		task.startedOn = System.currentTimeMillis();
+	}
+
+	private synchronized void onDone(GroupTask<?> task) {
+		if (task.submitted) {
+			runningCount--;
+		}
+		startWaiting();
+	}
+
+	/**
+	 * Wait for the result of a query submitted to this group.
+	 *
+	 * @param future A future returned by {@link #submit(Callable)}.
+	 * @return
+	 * @throws TemporarilyUnavailableException If any query of the group ran
+	 *                                         longer than the timeout.
+	 */
+	public <T> T get(Future<T> future) {
+		ValidateArgument.required(future, "future");
+		ValidateArgument.requirement(all.contains(future), "The future was not submitted to this group");
+		try {
+			while (true) {
+				try {
+					return future.get(getWaitMS((GroupTask<T>) future), TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					checkTimeouts();
+				}
+			}
+		} catch (InterruptedException e) {
+			close();
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (CancellationException e) {
+			throw new TemporarilyUnavailableException("Query was cancelled", e);
+		} catch (ExecutionException e) {
+			close();
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	/**
+	 * How long to wait for the given task before checking the timeouts again.
+	 *
+	 * @param task
+	 * @return
+	 */
+	private synchronized long getWaitMS(GroupTask<?> task) {
+		if (task.startedOn == null) {
+			// still waiting for an earlier query or an executor thread.
+			return timeoutMS;
+		}
+		long elapsed = System.currentTimeMillis() - task.startedOn;
+		return Math.max(1L, timeoutMS - elapsed);
+	}
+
+	/**
+	 * Cancel all queries if any running query exceeded the timeout.
+	 */
+	private void checkTimeouts() {
+		long now = System.currentTimeMillis();
+		synchronized (this) {
+			for (GroupTask<?> task : all) {
+				if (task.startedOn != null && !task.isDone() && now - task.startedOn >= timeoutMS) {
+					close();
+					throw new TemporarilyUnavailableException(
+							"A table query did not complete within " + timeoutMS + " MS");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Cancel any query that has not finished. Cancelling only interrupts the
+	 * executor thread, so each query should also apply {@link #getTimeoutMS()}
+	 * to its database statements to stop them on the database.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		waiting.clear();
+		for (GroupTask<?> task : all) {
+			task.cancel(true);
+		}
+	}
+
+	/**
+	 * A query of this group.
+	 *
+	 * @param <T>
+	 */
+	private final class GroupTask<T> extends FutureTask<T> {
+
+		/**
+		 * Was this task handed to the executor? Guarded by the group.
+		 */
+		boolean submitted;
+		/**
+		 * When this task started running on an executor thread. Guarded by the
+		 * group.
+		 */
+		Long startedOn;
+
+		GroupTask(Callable<T> callable) {
+			super(callable);
+		}
+
+		@Override
+		public void run() {
+			onStart(this);
+			super.run();
+		}
+
+		@Override
+		protected void done() {
+			onDone(this);
+		}
+	}
+
+}
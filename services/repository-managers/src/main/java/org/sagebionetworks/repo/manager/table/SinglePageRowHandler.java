@@ -1,30 +1,33 @@
 package org.sagebionetworks.repo.manager.table;
 
-import java.util.LinkedList;
 import java.util.List;
 
-import org.sagebionetworks.repo.model.dao.table.RowHandler;
 import org.sagebionetworks.repo.model.table.Row;
+import org.sagebionetworks.table.cluster.ColumnarRowSet;
+import org.sagebionetworks.table.cluster.SqlQuery;
 
 /**
- * A simple row handler that captures all all rows in memory.
+ * A simple row handler that captures all all rows in memory. The page is
+ * captured column by column, so a Row is only created for each result when
+ * the page is returned.
  *
  */
-public class SinglePageRowHandler implements RowHandler {
-	
-	List<Row> rows = new LinkedList<Row>();
+public class SinglePageRowHandler extends ColumnarRowSet {
 
-	@Override
-	public void nextRow(Row row) {
-		rows.add(row);
+	/**
+	 * 
+	 * @param query The query of the page.
+	 */
+	public SinglePageRowHandler(SqlQuery query) {
+		super(query);
 	}
-	
+
 	/**
 	 * Get the captured rows.
 	 * @return
 	 */
 	public List<Row> getRows(){
-		return rows;
+		return toRowSet().getRows();
 	}
 
 
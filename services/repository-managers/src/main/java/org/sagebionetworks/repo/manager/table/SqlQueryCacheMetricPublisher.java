@@ -0,0 +1,81 @@
+package org.sagebionetworks.repo.manager.table;
+
+import java.util.Date;
+
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.table.cluster.SqlQueryCache;
+import org.sagebionetworks.util.ValidateArgument;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Publishes the hit rate and eviction count of the {@link SqlQueryCache} to
+ * cloud watch. Each call publishes the change since the previous call.
+ *
+ */
+public class SqlQueryCacheMetricPublisher {
+
+	public static final String METRIC_NAMESPACE_PREFIX = "Table-Query-";
+	public static final String METRIC_CACHE_HIT_RATE = "Query cache hit rate";
+	public static final String METRIC_CACHE_HIT = "Query cache hit count";
+	public static final String METRIC_CACHE_MISS = "Query cache miss count";
+	public static final String METRIC_CACHE_EVICTION = "Query cache eviction count";
+
+	private final SqlQueryCache queryCache;
+	private final Consumer consumer;
+	private final String metricNamespace;
+
+	private long lastHitCount;
+	private long lastMissCount;
+	private long lastEvictionCount;
+
+	public SqlQueryCacheMetricPublisher(SqlQueryCache queryCache, StackConfiguration config, Consumer consumer) {
+		ValidateArgument.required(queryCache, "queryCache");
+		ValidateArgument.required(config, "config");
+		ValidateArgument.required(consumer, "consumer");
+		this.queryCache = queryCache;
+		this.consumer = consumer;
+		this.metricNamespace = METRIC_NAMESPACE_PREFIX + config.getStackInstance();
+		this.lastHitCount = 0L;
+		this.lastMissCount = 0L;
+		this.lastEvictionCount = 0L;
+	}
+
+	/**
+	 * Called from a timer.
+	 */
+	public void timerFired() {
+		long hitCount = queryCache.getHitCount();
+		long missCount = queryCache.getMissCount();
+		long evictionCount = queryCache.getEvictionCount();
+		long hits = hitCount - lastHitCount;
+		long misses = missCount - lastMissCount;
+		long evictions = evictionCount - lastEvictionCount;
+		lastHitCount = hitCount;
+		lastMissCount = missCount;
+		lastEvictionCount = evictionCount;
+		if (hits + misses < 1) {
+			// no queries since the last call.
+			return;
+		}
+		Date now = new Date();
+		double hitRate = 100.0 * hits / (hits + misses);
+		consumer.addProfileData(createMetric(METRIC_CACHE_HIT_RATE, hitRate, StandardUnit.Percent, now));
+		consumer.addProfileData(createMetric(METRIC_CACHE_HIT, hits, StandardUnit.Count, now));
+		consumer.addProfileData(createMetric(METRIC_CACHE_MISS, misses, StandardUnit.Count, now));
+		consumer.addProfileData(createMetric(METRIC_CACHE_EVICTION, evictions, StandardUnit.Count, now));
+	}
+
+	private ProfileData createMetric(String name, double value, StandardUnit unit, Date timestamp) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(metricNamespace);
+		profileData.setName(name);
+		profileData.setValue(value);
+		profileData.setUnit(unit.name());
+		profileData.setTimestamp(timestamp);
+		return profileData;
+	}
+
+}
@@ -429,10 +429,27 @@ public class TableEntityManagerImpl implements TableEntityManager {
 		}
 		final Set<Long> deltaRowIds = rowIdToRowVersionNumberFromUpdate.keySet();
 		if(!deltaRowIds.isEmpty()){
-			// Need to check all changes that have been applied since the version of the delta?
+			// The last change of each row is tracked starting with this change number.
+			Optional<Long> firstTrackedChange = tableRowTruthDao.getFirstTrackedRowChangeNumber(tableIdString);
+			if(firstTrackedChange.isPresent()){
+				Set<Long> changedRowIds = tableRowTruthDao.getRowIdsChangedAfter(tableIdString, deltaRowIds, versionOfDelta);
+				if(!changedRowIds.isEmpty()){
+					throw new ConflictingUpdateException("Row id: " + changedRowIds.iterator().next()
+							+ " has been changed since last read.  Please get the latest value for this row and then attempt to update it again.");
+				}
+				if(firstTrackedChange.get() <= versionOfDelta + 1){
+					// Every change since the version of the delta is tracked.
+					return;
+				}
+			}
+			// Changes that are not tracked must be read from S3.
 			List<TableRowChange> rowChanges = tableRowTruthDao.listRowSetsKeysForTableGreaterThanVersion(tableIdString, versionOfDelta);
 			// scan all changes greater than this row.
 			for (final TableRowChange rowChange : rowChanges) {
+				if(firstTrackedChange.isPresent() && rowChange.getRowVersion() >= firstTrackedChange.get()){
+					// The remaining changes are tracked.
+					break;
+				}
 				if(TableChangeType.ROW.equals(rowChange.getChangeType())){
 					SparseChangeSetDto change = tableRowTruthDao.getRowSet(rowChange);
 					for(SparseRowDto row: change.getRows()){
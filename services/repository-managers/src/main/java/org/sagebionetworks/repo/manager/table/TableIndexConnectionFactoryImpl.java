@@ -1,5 +1,6 @@
 package org.sagebionetworks.repo.manager.table;
 
+import org.sagebionetworks.repo.manager.table.change.TableChangePrefetcher;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProviderFactory;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 import org.sagebionetworks.table.cluster.ConnectionFactory;
@@ -18,14 +19,18 @@ public class TableIndexConnectionFactoryImpl implements TableIndexConnectionFact
 	private MetadataIndexProviderFactory metaDataIndexProviderFactory;
 	
 	private ObjectFieldModelResolverFactory objectFieldModelResolverFactory;
+	
+	private TableChangePrefetcher tableChangePrefetcher;
 
 	@Autowired
 	public TableIndexConnectionFactoryImpl(ConnectionFactory connectionFactory, TableManagerSupport tableManagerSupport,
-			MetadataIndexProviderFactory metaDataIndexProviderFactory, ObjectFieldModelResolverFactory objectFieldModelResolverFactory) {
+			MetadataIndexProviderFactory metaDataIndexProviderFactory, ObjectFieldModelResolverFactory objectFieldModelResolverFactory,
+			TableChangePrefetcher tableChangePrefetcher) {
 		this.connectionFactory = connectionFactory;
 		this.tableManagerSupport = tableManagerSupport;
 		this.metaDataIndexProviderFactory = metaDataIndexProviderFactory;
 		this.objectFieldModelResolverFactory = objectFieldModelResolverFactory;
+		this.tableChangePrefetcher = tableChangePrefetcher;
 	}
 
 	@Override
@@ -37,13 +42,13 @@ public class TableIndexConnectionFactoryImpl implements TableIndexConnectionFact
 		if(dao == null){
 			throw new TableIndexConnectionUnavailableException("Cannot connect to table: "+tableId);
 		}
-		return new TableIndexManagerImpl(dao, tableManagerSupport, metaDataIndexProviderFactory, objectFieldModelResolverFactory);
+		return new TableIndexManagerImpl(dao, tableManagerSupport, metaDataIndexProviderFactory, objectFieldModelResolverFactory, tableChangePrefetcher);
 	}
 	
 	@Override
 	public TableIndexManager connectToFirstIndex(){
 		TableIndexDAO dao = connectionFactory.getFirstConnection();
-		return new TableIndexManagerImpl(dao, tableManagerSupport, metaDataIndexProviderFactory, objectFieldModelResolverFactory);
+		return new TableIndexManagerImpl(dao, tableManagerSupport, metaDataIndexProviderFactory, objectFieldModelResolverFactory, tableChangePrefetcher);
 	}
 
 }
@@ -2,6 +2,7 @@ package org.sagebionetworks.repo.manager.table;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.sagebionetworks.common.util.progress.ProgressCallback;
@@ -249,4 +250,40 @@ public interface TableIndexManager {
 	void updateViewRowsInTransaction(IdAndVersion viewId, Set<Long> rowsIdsWithChanges, ViewScopeType scopeType,
 			Set<Long> allContainersInScope, List<ColumnModel> currentSchema);
 
+	/**
+	 * Register the containers that define the scope of a view so that any change
+	 * replicated for an object in one of the containers marks the object's row
+	 * as stale for the view. When the scope of a registered view changed only the
+	 * containers that were added or removed are updated, and the rows of the
+	 * objects in those containers are marked as stale.
+	 * 
+	 * @param viewId The Id of the view.
+	 * @param scopeType The scope type of the view.
+	 * @param allContainersInScope The container Ids that define the scope of this view.
+	 * @return True if the view was not registered before. Changes that occurred
+	 *         before the registration were not tracked, so the caller must check
+	 *         the entire view for out-of-date rows.
+	 */
+	boolean registerViewScope(IdAndVersion viewId, ViewScopeType scopeType, Set<Long> allContainersInScope);
+
+	/**
+	 * Get a single page (up to the provided limit) of the rows of a view that
+	 * were marked as stale since they were last applied to the view.
+	 * 
+	 * @param viewId The Id of the view.
+	 * @param limit Limit the number of rows returned.
+	 * @return Map of the stale row Ids to the token of the change that marked
+	 *         each row.
+	 */
+	Map<Long, String> getStaleRowsForView(IdAndVersion viewId, long limit);
+
+	/**
+	 * Clear the given stale rows of a view after they were applied to the view.
+	 * Rows that were marked again since they were read remain stale.
+	 * 
+	 * @param viewId The Id of the view.
+	 * @param staleRows The stale rows as returned by {@link #getStaleRowsForView(IdAndVersion, long)}.
+	 */
+	void clearStaleRowsForView(IdAndVersion viewId, Map<Long, String> staleRows);
+
 }
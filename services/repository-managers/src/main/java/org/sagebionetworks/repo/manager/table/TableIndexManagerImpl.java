@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -16,7 +17,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.manager.table.change.ListColumnIndexTableChange;
+import org.sagebionetworks.repo.manager.table.change.TableChangeIterator;
 import org.sagebionetworks.repo.manager.table.change.TableChangeMetaData;
+import org.sagebionetworks.repo.manager.table.change.TableChangePrefetcher;
 import org.sagebionetworks.repo.manager.table.metadata.DefaultColumnModel;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProvider;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProviderFactory;
@@ -29,6 +32,7 @@ import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.sagebionetworks.repo.model.table.ColumnModel;
 import org.sagebionetworks.repo.model.table.ColumnModelPage;
 import org.sagebionetworks.repo.model.table.ColumnType;
+import org.sagebionetworks.repo.model.table.TableChangeType;
 import org.sagebionetworks.repo.model.table.TableUnavailableException;
 import org.sagebionetworks.repo.model.table.ViewEntityType;
 import org.sagebionetworks.repo.model.table.ViewObjectType;
@@ -49,6 +53,7 @@ import org.sagebionetworks.table.model.Grouping;
 import org.sagebionetworks.table.model.ListColumnRowChanges;
 import org.sagebionetworks.table.model.SchemaChange;
 import org.sagebionetworks.table.model.SparseChangeSet;
+import org.sagebionetworks.table.model.SparseChangeSetCoalescer;
 import org.sagebionetworks.table.query.util.ColumnTypeListMappings;
 import org.sagebionetworks.util.ValidateArgument;
 import org.sagebionetworks.util.csv.CSVWriterStream;
@@ -56,19 +61,24 @@ import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
 import org.sagebionetworks.workers.util.semaphore.LockUnavilableException;
 import org.springframework.transaction.TransactionStatus;
 
+import com.google.common.collect.Sets;
+
 public class TableIndexManagerImpl implements TableIndexManager {
 	static private Logger log = LogManager.getLogger(TableIndexManagerImpl.class);
 
 	public static final int MAX_MYSQL_INDEX_COUNT = 60; // mysql only supports a max of 64 secondary indices per table.
 
 	public static final long MAX_BYTES_PER_BATCH = 1024*1024*5;// 5MB
+	
+	public static final long MAX_BYTES_PER_COALESCED_CHANGE = 1024*1024*50;// 50MB
 
 	private final TableIndexDAO tableIndexDao;
 	private final TableManagerSupport tableManagerSupport;
 	private final MetadataIndexProviderFactory metadataIndexProviderFactory;
 	private final ObjectFieldModelResolverFactory objectFieldModelResolverFactory;
+	private final TableChangePrefetcher tableChangePrefetcher;
 
-	public TableIndexManagerImpl(TableIndexDAO dao, TableManagerSupport tableManagerSupport, MetadataIndexProviderFactory metadataIndexProviderFactory, ObjectFieldModelResolverFactory objectFieldModelResolverFactory){
+	public TableIndexManagerImpl(TableIndexDAO dao, TableManagerSupport tableManagerSupport, MetadataIndexProviderFactory metadataIndexProviderFactory, ObjectFieldModelResolverFactory objectFieldModelResolverFactory, TableChangePrefetcher tableChangePrefetcher){
 		if(dao == null){
 			throw new IllegalArgumentException("TableIndexDAO cannot be null");
 		}
@@ -81,10 +91,14 @@ public class TableIndexManagerImpl implements TableIndexManager {
 		if (objectFieldModelResolverFactory == null) {
 			throw new IllegalArgumentException("ObjectFieldModelResolverFactory cannot be null");
 		}
+		if (tableChangePrefetcher == null) {
+			throw new IllegalArgumentException("TableChangePrefetcher cannot be null");
+		}
 		this.tableIndexDao = dao;
 		this.tableManagerSupport = tableManagerSupport;
 		this.metadataIndexProviderFactory = metadataIndexProviderFactory;
 		this.objectFieldModelResolverFactory = objectFieldModelResolverFactory;
+		this.tableChangePrefetcher = tableChangePrefetcher;
 	}
 	/*
 	 * (non-Javadoc)
@@ -111,6 +125,20 @@ public class TableIndexManagerImpl implements TableIndexManager {
 	@Override
 	public void applyChangeSetToIndex(final IdAndVersion tableId, final SparseChangeSet rowset,
 			final long changeSetVersionNumber) {
+		applyChangeSetToIndex(tableId, rowset, rowset.getFileHandleIdsInSparseChangeSet(), changeSetVersionNumber);
+	}
+	
+	/**
+	 * Apply the given change set to the index.
+	 * 
+	 * @param tableId
+	 * @param rowset
+	 * @param fileHandleIds          The IDs of the file handles to associate with
+	 *                               the table.
+	 * @param changeSetVersionNumber
+	 */
+	void applyChangeSetToIndex(final IdAndVersion tableId, final SparseChangeSet rowset,
+			final Set<Long> fileHandleIds, final long changeSetVersionNumber) {
 		// Validate all rows have the same version number
 		// Has this version already been applied to the table index?
 		final long currentVersion = tableIndexDao
@@ -123,8 +151,6 @@ public class TableIndexManagerImpl implements TableIndexManager {
 							for(Grouping grouping: rowset.groupByValidValues()){
 								tableIndexDao.createOrUpdateOrDeleteRows(tableId, grouping);
 							}
-							// Extract all file handle IDs from this set
-							Set<Long> fileHandleIds = rowset.getFileHandleIdsInSparseChangeSet();
 							if (!fileHandleIds.isEmpty()) {
 								tableIndexDao.applyFileHandleIdsToTable(
 										tableId, fileHandleIds);
@@ -186,6 +212,10 @@ public class TableIndexManagerImpl implements TableIndexManager {
 	public void deleteTableIndex(final IdAndVersion tableId) {
 		// delete all tables for this index.
 		tableIndexDao.deleteTable(tableId);
+		if (!tableId.getVersion().isPresent()) {
+			// changes are no longer tracked for the view.
+			tableIndexDao.deleteViewScopeContainers(tableId.getId());
+		}
 	}
 
 	@Override
@@ -596,22 +626,45 @@ public class TableIndexManagerImpl implements TableIndexManager {
 	String buildIndexToLatestChange(final IdAndVersion idAndVersion, final Iterator<TableChangeMetaData> iterator,
 			final long targetChangeNumber, final String tableResetToken) throws NotFoundException, IOException {
 		String lastEtag = null;
-		// Inspect each change.
-		while(iterator.hasNext()) {
-			TableChangeMetaData changeMetadata = iterator.next();
-			if(changeMetadata.getChangeNumber() > targetChangeNumber) {
-				// all changes have been applied to the index.
-				break;
-			}
-			if(!isVersionAppliedToIndex(idAndVersion, changeMetadata.getChangeNumber())) {
-				// This change needs to be applied to the table
-				tableManagerSupport.attemptToUpdateTableProgress(idAndVersion,
-						tableResetToken, "Applying change: " + changeMetadata.getChangeNumber(), changeMetadata.getChangeNumber(),
-						targetChangeNumber);
-				applyChangeToIndex(idAndVersion, changeMetadata);
-				lastEtag = changeMetadata.getETag();
+		// Only changes that are not already applied to the index are loaded ahead of time.
+		final long startingIndexVersion = getCurrentVersionOfIndex(idAndVersion);
+		/*
+		 * When the index is built from scratch, consecutive row changes are merged
+		 * before they are applied so each surviving row is only written once.
+		 */
+		final boolean isReplay = startingIndexVersion < 0L;
+		final SparseChangeSetCoalescer coalescer = new SparseChangeSetCoalescer(MAX_BYTES_PER_COALESCED_CHANGE);
+		try (TableChangeIterator changes = tableChangePrefetcher.startPrefetching(iterator,
+				(TableChangeMetaData change) -> change.getChangeNumber() > startingIndexVersion
+						&& change.getChangeNumber() <= targetChangeNumber)) {
+			// Inspect each change.
+			while (changes.hasNext()) {
+				TableChangeMetaData changeMetadata = changes.next();
+				if (changeMetadata.getChangeNumber() > targetChangeNumber) {
+					// all changes have been applied to the index.
+					break;
+				}
+				if (!isVersionAppliedToIndex(idAndVersion, changeMetadata.getChangeNumber())) {
+					// This change needs to be applied to the table
+					tableManagerSupport.attemptToUpdateTableProgress(idAndVersion, tableResetToken,
+							"Applying change: " + changeMetadata.getChangeNumber(), changeMetadata.getChangeNumber(),
+							targetChangeNumber);
+					if (isReplay && TableChangeType.ROW.equals(changeMetadata.getChangeType())) {
+						ChangeData<SparseChangeSet> rowChange = changeMetadata.loadChangeData(SparseChangeSet.class);
+						if (!coalescer.canAppend(rowChange.getChange())) {
+							applyCoalescedRowChangesToIndex(idAndVersion, coalescer);
+						}
+						coalescer.append(rowChange);
+					} else {
+						// pending row changes must be applied before any other change.
+						applyCoalescedRowChangesToIndex(idAndVersion, coalescer);
+						applyChangeToIndex(idAndVersion, changeMetadata);
+					}
+					lastEtag = changeMetadata.getETag();
+				}
 			}
 		}
+		applyCoalescedRowChangesToIndex(idAndVersion, coalescer);
 
 		/*
 		 * When building a table to the current version, we unconditionally apply the
@@ -630,6 +683,31 @@ public class TableIndexManagerImpl implements TableIndexManager {
 		return lastEtag;
 	}
 	
+	/**
+	 * Apply all of the row changes merged by the given coalescer to the index and
+	 * clear the coalescer.
+	 * 
+	 * @param idAndVersion
+	 * @param coalescer
+	 */
+	void applyCoalescedRowChangesToIndex(IdAndVersion idAndVersion, SparseChangeSetCoalescer coalescer) {
+		if (coalescer.isEmpty()) {
+			return;
+		}
+		ChangeData<SparseChangeSet> mergedChange = coalescer.build();
+		if (coalescer.getChangeCount() > 1) {
+			log.info("Applying " + coalescer.getChangeCount() + " merged row changes up to change: "
+					+ mergedChange.getChangeNumber() + " for table: " + idAndVersion);
+		}
+		SparseChangeSet sparseChangeSet = mergedChange.getChange();
+		// match the schema to the change set.
+		boolean isTableView = false;
+		setIndexSchema(idAndVersion, isTableView, sparseChangeSet.getSchema());
+		applyChangeSetToIndex(idAndVersion, sparseChangeSet, coalescer.getFileHandleIds(),
+				mergedChange.getChangeNumber());
+		coalescer.clear();
+	}
+	
 	/**
 	 * Apply the provided change to the provided index.
 	 * 
@@ -748,6 +826,48 @@ public class TableIndexManagerImpl implements TableIndexManager {
 		});
 	}
 	
+	@Override
+	public boolean registerViewScope(IdAndVersion viewId, ViewScopeType scopeType, Set<Long> allContainersInScope) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(scopeType, "scopeType");
+		ValidateArgument.required(allContainersInScope, "allContainersInScope");
+		
+		Set<Long> registeredContainers = tableIndexDao.getViewScopeContainerIds(viewId.getId());
+		if (registeredContainers.equals(allContainersInScope)) {
+			return false;
+		}
+		boolean firstRegistration = registeredContainers.isEmpty();
+		Set<Long> addedContainers = new HashSet<>(Sets.difference(allContainersInScope, registeredContainers));
+		Set<Long> removedContainers = new HashSet<>(Sets.difference(registeredContainers, allContainersInScope));
+		tableIndexDao.executeInWriteTransaction((TransactionStatus status) -> {
+			tableIndexDao.removeViewScopeContainerIds(viewId.getId(), removedContainers);
+			tableIndexDao.addViewScopeContainerIds(viewId.getId(), scopeType.getObjectType(), addedContainers);
+			if (!firstRegistration) {
+				// Only the rows of the objects in the added or removed containers can be out-of-date because of the scope change.
+				tableIndexDao.markViewRowsStaleForContainers(viewId.getId(), scopeType.getObjectType(),
+						Sets.union(addedContainers, removedContainers), UUID.randomUUID().toString());
+			}
+			return null;
+		});
+		return firstRegistration;
+	}
+	
+	@Override
+	public Map<Long, String> getStaleRowsForView(IdAndVersion viewId, long limit) {
+		ValidateArgument.required(viewId, "viewId");
+		return tableIndexDao.getViewStaleRows(viewId.getId(), limit);
+	}
+	
+	@Override
+	public void clearStaleRowsForView(IdAndVersion viewId, Map<Long, String> staleRows) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(staleRows, "staleRows");
+		if (staleRows.isEmpty()) {
+			return;
+		}
+		tableIndexDao.deleteViewStaleRows(viewId.getId(), staleRows);
+	}
+	
 	void determineCauseOfReplicationFailure(Exception exception, List<ColumnModel> currentSchema, MetadataIndexProvider provider, Long viewTypeMask, ViewScopeFilter scopeFilter) {
 		DefaultColumnModel defaultColumnModel = provider.getDefaultColumnModel(viewTypeMask);
 		
@@ -6,6 +6,8 @@ import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.common.util.progress.ProgressingCallable;
@@ -36,9 +38,11 @@ import org.sagebionetworks.repo.model.table.TableUnavailableException;
 import org.sagebionetworks.repo.model.table.ViewObjectType;
 import org.sagebionetworks.repo.model.table.ViewScopeType;
 import org.sagebionetworks.repo.web.NotFoundException;
+import org.sagebionetworks.table.cluster.ColumnarRowSet;
 import org.sagebionetworks.table.cluster.ConnectionFactory;
 import org.sagebionetworks.table.cluster.SqlQuery;
 import org.sagebionetworks.table.cluster.SqlQueryBuilder;
+import org.sagebionetworks.table.cluster.SqlQueryCache;
 import org.sagebionetworks.table.cluster.TableIndexDAO;
 import org.sagebionetworks.table.cluster.utils.TableModelUtils;
 import org.sagebionetworks.table.query.ParseException;
@@ -53,6 +57,7 @@ import org.sagebionetworks.util.csv.CSVWriterStream;
 import org.sagebionetworks.workers.util.semaphore.LockUnavilableException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.transaction.TransactionStatus;
 
 public class TableQueryManagerImpl implements TableQueryManager {
 
@@ -72,6 +77,24 @@ public class TableQueryManagerImpl implements TableQueryManager {
 		this.maxBytesPerRequest = maxBytesPerRequest;
 	}
 
+	/**
+	 * Injected via spring
+	 */
+	TableQueryTaskRunner queryTaskRunner;
+
+	public void setQueryTaskRunner(TableQueryTaskRunner queryTaskRunner) {
+		this.queryTaskRunner = queryTaskRunner;
+	}
+
+	/**
+	 * Injected via spring
+	 */
+	SqlQueryCache sqlQueryCache;
+
+	public void setSqlQueryCache(SqlQueryCache sqlQueryCache) {
+		this.sqlQueryCache = sqlQueryCache;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -86,13 +109,13 @@ public class TableQueryManagerImpl implements TableQueryManager {
 		try {
 			// Set the default values
 			TableQueryManagerImpl.setDefaultsValues(query);
+			// pre-flight includes parsing and authorization
+			SqlQuery sqlQuery = queryPreflight(user, query, this.maxBytesPerRequest);
 			// handler will capture the results of the query.
 			SinglePageRowHandler rowHandler = null;
 			if (options.runQuery()) {
-				rowHandler = new SinglePageRowHandler();
+				rowHandler = new SinglePageRowHandler(sqlQuery);
 			}
-			// pre-flight includes parsing and authorization
-			SqlQuery sqlQuery = queryPreflight(user, query, this.maxBytesPerRequest);
 
 			// run the query as a stream.
 			QueryResultBundle bundle = queryAsStream(progressCallback, user, sqlQuery, rowHandler, options);
@@ -169,7 +192,8 @@ public class TableQueryManagerImpl implements TableQueryManager {
 		return new SqlQueryBuilder(model).tableSchema(columnModels).overrideOffset(query.getOffset())
 				.overrideLimit(query.getLimit()).maxBytesPerPage(maxBytesPerPage)
 				.includeEntityEtag(query.getIncludeEntityEtag()).selectedFacets(query.getSelectedFacets())
-				.sortList(query.getSort()).additionalFilters(query.getAdditionalFilters()).tableType(tableType).build();
+				.sortList(query.getSort()).additionalFilters(query.getAdditionalFilters()).tableType(tableType)
+				.queryCache(sqlQueryCache).build();
 	}
 
 	/**
@@ -274,40 +298,47 @@ public class TableQueryManagerImpl implements TableQueryManager {
 		FacetModel facetModel = new FacetModel(query.getSelectedFacets(), query, options.returnFacets());
 
 		// determine whether or not to run with facet filters
-		SqlQuery queryToRun;
-		if (facetModel.hasFiltersApplied()) {
-			queryToRun = facetModel.getFacetFilteredQuery();
-		} else {
-			queryToRun = query;
-		}
+		final SqlQuery queryToRun = facetModel.hasFiltersApplied() ? facetModel.getFacetFilteredQuery() : query;
 
-		// run the actual query if needed.
-		if (rowHandler != null) {
-			// run the query
-			RowSet rowSet = runQueryAsStream(progressCallback, queryToRun, rowHandler, indexDao);
-			QueryResult queryResult = new QueryResult();
-			queryResult.setQueryResults(rowSet);
-			bundle.setQueryResult(queryResult);
-		}
+		try (QueryTaskGroup group = queryTaskRunner.startGroup()) {
+			// start the count, facet and file size queries so they run while the main query runs.
+			Future<Long> countFuture = null;
+			if (options.runCount()) {
+				countFuture = submitQuery(group, indexDao, () -> runCountQuery(queryToRun, indexDao));
+			}
+			List<Future<FacetColumnResult>> facetFutures = null;
+			if (options.returnFacets()) {
+				// use original query instead of queryToRun because need the where clause that
+				// was not modified by any facets
+				facetFutures = submitFacetQueries(facetModel, indexDao, group);
+			}
+			Future<SumFileSizes> sumFileSizesFuture = null;
+			if (options.runSumFileSizes()) {
+				sumFileSizesFuture = submitQuery(group, indexDao, () -> runSumFileSize(queryToRun, indexDao));
+			}
 
-		// run the count query if needed.
-		if (options.runCount()) {
-			// count requested.
-			Long count = runCountQuery(queryToRun, indexDao);
-			bundle.setQueryCount(count);
-		}
+			// run the actual query if needed.
+			if (rowHandler != null) {
+				// the main query streams to the handler so it runs on the caller's thread.
+				RowSet rowSet = runQueryAsStream(progressCallback, queryToRun, rowHandler, indexDao);
+				QueryResult queryResult = new QueryResult();
+				queryResult.setQueryResults(rowSet);
+				bundle.setQueryResult(queryResult);
+			}
 
-		// run the facet counts if needed
-		if (options.returnFacets()) {
-			// use original query instead of queryToRun because need the where clause that
-			// was not modified by any facets
-			List<FacetColumnResult> facetResults = runFacetQueries(facetModel, indexDao);
-			bundle.setFacets(facetResults);
-		}
-		
-		if(options.runSumFileSizes()) {
-			SumFileSizes sumFileSizes = runSumFileSize(queryToRun, indexDao);
-			bundle.setSumFileSizes(sumFileSizes);
+			if (countFuture != null) {
+				bundle.setQueryCount(group.get(countFuture));
+			}
+			if (facetFutures != null) {
+				List<FacetColumnResult> facetResults = new ArrayList<>(facetFutures.size());
+				for (Future<FacetColumnResult> facetFuture : facetFutures) {
+					facetResults.add(group.get(facetFuture));
+				}
+				bundle.setFacets(facetResults);
+			}
+			if (sumFileSizesFuture != null) {
+				bundle.setSumFileSizes(group.get(sumFileSizesFuture));
+			}
 		}
 		
 		if(options.returnLastUpdatedOn()) {
@@ -319,25 +350,53 @@ public class TableQueryManagerImpl implements TableQueryManager {
 	}
 
 	/**
-	 * Runs facet queries (enumeration count or range min/max) for all columns in
-	 * queryFacetColumns.
+	 * Submit the facet queries (enumeration count or range min/max) for all
+	 * columns in queryFacetColumns to the given group.
 	 * 
-	 * @param originalQuery     the non-transformed query that was submitted by the
-	 *                          user.
-	 * @param queryFacetColumns
+	 * @param facetModel
 	 * @param indexDao
-	 * @return
+	 * @param group
+	 * @return One future for each facet, in the same order as the facet model.
 	 */
-	public List<FacetColumnResult> runFacetQueries(FacetModel facetModel, TableIndexDAO indexDao) {
+	List<Future<FacetColumnResult>> submitFacetQueries(FacetModel facetModel, TableIndexDAO indexDao,
+			QueryTaskGroup group) {
 		ValidateArgument.required(facetModel, "queryFacetColumns");
 		ValidateArgument.required(indexDao, "indexDao");
+		ValidateArgument.required(group, "group");
 
-		List<FacetColumnResult> facetResults = new ArrayList<>();
+		List<Future<FacetColumnResult>> facetFutures = new ArrayList<>();
 		for (FacetTransformer facetQueryTransformer : facetModel.getFacetInformationQueries()) {
-			RowSet rowSet = indexDao.query(null, facetQueryTransformer.getFacetSqlQuery());
-			facetResults.add(facetQueryTransformer.translateToResult(rowSet));
+			facetFutures.add(submitQuery(group, indexDao, () -> runFacetQuery(facetQueryTransformer, indexDao)));
 		}
-		return facetResults;
+		return facetFutures;
+	}
+
+	/**
+	 * Submit a query to the given group. The query runs in a read transaction
+	 * with the timeout of the group, which starts when the query starts, so its
+	 * statements are stopped on the database and their connection released once
+	 * the group gives up on it.
+	 * 
+	 * @param group
+	 * @param indexDao
+	 * @param query
+	 * @return
+	 */
+	<T> Future<T> submitQuery(QueryTaskGroup group, TableIndexDAO indexDao, Supplier<T> query) {
+		return group.submit(() -> indexDao.executeInReadTransaction((TransactionStatus status) -> query.get(),
+				group.getTimeoutMS()));
+	}
+
+	/**
+	 * Run a single facet query.
+	 * 
+	 * @param facetQueryTransformer
+	 * @param indexDao
+	 * @return
+	 */
+	FacetColumnResult runFacetQuery(FacetTransformer facetQueryTransformer, TableIndexDAO indexDao) {
+		ColumnarRowSet results = indexDao.queryColumnar(null, facetQueryTransformer.getFacetSqlQuery());
+		return facetQueryTransformer.translateToResult(results);
 	}
 
 	/**
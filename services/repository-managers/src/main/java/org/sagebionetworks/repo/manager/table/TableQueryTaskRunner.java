@@ -0,0 +1,45 @@
+package org.sagebionetworks.repo.manager.table;
+
+import java.util.concurrent.ExecutorService;
+
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * Runs the independent queries of a single table query request (count, facets,
+ * sum of file sizes) on an executor shared by all requests. Each request gets
+ * its own {@link QueryTaskGroup} so the number of queries a single request can
+ * run against the table's database at the same time is capped, and each query
+ * is limited to a configured amount of time.
+ *
+ */
+public class TableQueryTaskRunner {
+
+	private final ExecutorService executor;
+	private final int maxConcurrency;
+	private final long timeoutMS;
+
+	public TableQueryTaskRunner(ExecutorService executor, StackConfiguration config) {
+		this(executor, config.getTableQueryMaxConcurrency(), config.getTableQueryTimeoutMS());
+	}
+
+	public TableQueryTaskRunner(ExecutorService executor, int maxConcurrency, long timeoutMS) {
+		ValidateArgument.required(executor, "executor");
+		ValidateArgument.requirement(maxConcurrency > 0, "maxConcurrency must be greater than zero");
+		ValidateArgument.requirement(timeoutMS > 0, "timeoutMS must be greater than zero");
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+		this.timeoutMS = timeoutMS;
+	}
+
+	/**
+	 * Start a new group for the queries of a single request. The group must be
+	 * closed when the request is finished.
+	 *
+	 * @return
+	 */
+	public QueryTaskGroup startGroup() {
+		return new QueryTaskGroup(executor, maxConcurrency, timeoutMS);
+	}
+
+}
@@ -409,34 +409,18 @@ public class TableViewManagerImpl implements TableViewManager {
 			ViewScopeType scopeType = tableManagerSupport.getViewScopeType(viewId);
 			Set<Long> allContainersInScope = tableManagerSupport.getAllContainerIdsForViewScope(viewId, scopeType);
 			List<ColumnModel> currentSchema = tableManagerSupport.getTableSchema(viewId);
-			Set<Long> rowsIdsWithChanges = null;
-			Set<Long> previousPageRowIdsWithChanges = Collections.emptySet();
-			// Continue applying change to the view until none remain.
-			do {
-				Optional<TableState> optionalState = tableManagerSupport.getTableStatusState(viewId);
-				if(!optionalState.isPresent() || optionalState.get() != TableState.AVAILABLE) {
-					// no point in continuing if the table is no longer available.
-					return;
-				}
-				rowsIdsWithChanges = indexManager.getOutOfDateRowsForView(viewId, scopeType, allContainersInScope,  MAX_ROWS_PER_TRANSACTION);
-				// Are thrashing on the same Ids?
-				Set<Long> intersectionWithPreviousPage = Sets.intersection(rowsIdsWithChanges,
-						previousPageRowIdsWithChanges);
-				if (intersectionWithPreviousPage.size() > 0) {
-					log.warn("Found " + intersectionWithPreviousPage.size()
-							+ " rows that were just updated but are still out-of-date for view:" + viewId.toString()
-							+ " View update will terminate.");
+			/*
+			 * Replication marks the rows that change in the containers registered for the
+			 * view, and a scope change marks the rows in the added or removed containers.
+			 * On the first update of the view earlier changes were not tracked so the
+			 * entire view must be compared to the replication tables once.
+			 */
+			if (indexManager.registerViewScope(viewId, scopeType, allContainersInScope)) {
+				if (!applyOutOfDateRowsToView(indexManager, viewId, scopeType, allContainersInScope, currentSchema)) {
 					return;
 				}
-				
-				if (!rowsIdsWithChanges.isEmpty()) {
-					// update these rows in a new transaction.
-					indexManager.updateViewRowsInTransaction(viewId, rowsIdsWithChanges, scopeType, allContainersInScope,
-							currentSchema);
-					previousPageRowIdsWithChanges = rowsIdsWithChanges;
-					tableManagerSupport.updateChangedOnIfAvailable(viewId);
-				}
-			} while (!rowsIdsWithChanges.isEmpty());
+			}
+			applyStaleRowsToView(indexManager, viewId, scopeType, allContainersInScope, currentSchema);
 		} catch (Exception e) {
 			// failed.
 			tableManagerSupport.attemptToSetTableStatusToFailed(viewId, e);
@@ -444,6 +428,74 @@ public class TableViewManagerImpl implements TableViewManager {
 		}
 	}
 
+	/**
+	 * Compare the entire view to the replication tables and apply all of the
+	 * out-of-date rows.
+	 * 
+	 * @return False if the update was terminated before all of the rows were
+	 *         applied.
+	 */
+	boolean applyOutOfDateRowsToView(TableIndexManager indexManager, IdAndVersion viewId, ViewScopeType scopeType,
+			Set<Long> allContainersInScope, List<ColumnModel> currentSchema) {
+		Set<Long> rowsIdsWithChanges = null;
+		Set<Long> previousPageRowIdsWithChanges = Collections.emptySet();
+		// Continue applying change to the view until none remain.
+		do {
+			if (!isViewAvailable(viewId)) {
+				// no point in continuing if the table is no longer available.
+				return false;
+			}
+			rowsIdsWithChanges = indexManager.getOutOfDateRowsForView(viewId, scopeType, allContainersInScope,  MAX_ROWS_PER_TRANSACTION);
+			// Are thrashing on the same Ids?
+			Set<Long> intersectionWithPreviousPage = Sets.intersection(rowsIdsWithChanges,
+					previousPageRowIdsWithChanges);
+			if (intersectionWithPreviousPage.size() > 0) {
+				log.warn("Found " + intersectionWithPreviousPage.size()
+						+ " rows that were just updated but are still out-of-date for view:" + viewId.toString()
+						+ " View update will terminate.");
+				return false;
+			}
+			
+			if (!rowsIdsWithChanges.isEmpty()) {
+				// update these rows in a new transaction.
+				indexManager.updateViewRowsInTransaction(viewId, rowsIdsWithChanges, scopeType, allContainersInScope,
+						currentSchema);
+				previousPageRowIdsWithChanges = rowsIdsWithChanges;
+				tableManagerSupport.updateChangedOnIfAvailable(viewId);
+			}
+		} while (!rowsIdsWithChanges.isEmpty());
+		return true;
+	}
+
+	/**
+	 * Apply only the rows that replication marked as stale for the view. A row
+	 * that changes again while it is applied stays marked and is applied on the
+	 * next page.
+	 */
+	void applyStaleRowsToView(TableIndexManager indexManager, IdAndVersion viewId, ViewScopeType scopeType,
+			Set<Long> allContainersInScope, List<ColumnModel> currentSchema) {
+		Map<Long, String> staleRows = null;
+		do {
+			if (!isViewAvailable(viewId)) {
+				// no point in continuing if the table is no longer available.
+				return;
+			}
+			staleRows = indexManager.getStaleRowsForView(viewId, MAX_ROWS_PER_TRANSACTION);
+			if (!staleRows.isEmpty()) {
+				// update these rows in a new transaction.
+				indexManager.updateViewRowsInTransaction(viewId, staleRows.keySet(), scopeType, allContainersInScope,
+						currentSchema);
+				indexManager.clearStaleRowsForView(viewId, staleRows);
+				tableManagerSupport.updateChangedOnIfAvailable(viewId);
+			}
+		} while (!staleRows.isEmpty());
+	}
+
+	private boolean isViewAvailable(IdAndVersion viewId) {
+		Optional<TableState> optionalState = tableManagerSupport.getTableStatusState(viewId);
+		return optionalState.isPresent() && optionalState.get() == TableState.AVAILABLE;
+	}
+
 	/**
 	 * Create or rebuild a view from scratch. Users will not be able to query the
 	 * view during this build.
@@ -0,0 +1,281 @@
+package org.sagebionetworks.repo.manager.table.change;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.sagebionetworks.repo.model.table.TableChangeType;
+import org.sagebionetworks.repo.web.NotFoundException;
+import org.sagebionetworks.table.cluster.utils.TableModelUtils;
+import org.sagebionetworks.table.model.ChangeData;
+import org.sagebionetworks.table.model.SchemaChange;
+import org.sagebionetworks.table.model.SparseChangeSet;
+import org.sagebionetworks.table.model.TableChange;
+
+/**
+ * Iterator that loads the data of the next changes on a separate executor
+ * while the caller is working on the current change. Changes are always
+ * returned in the order of the wrapped iterator. The read-ahead is bounded both
+ * by the number of changes and by the estimated size of the loaded change
+ * data.
+ *
+ */
+public class PrefetchingTableChangeIterator implements TableChangeIterator {
+
+	/**
+	 * Upper bound on the number of change metadata (loaded or not) that will be
+	 * buffered while looking for the next change to prefetch.
+	 */
+	public static final int MAX_BUFFERED_CHANGES = 1000;
+
+	private final Iterator<TableChangeMetaData> source;
+	private final Predicate<TableChangeMetaData> filter;
+	private final ExecutorService executor;
+	private final int maxPrefetchChanges;
+	private final long maxPrefetchBytes;
+	private final TableChangePrefetcherImpl prefetcher;
+
+	private final LinkedList<TableChangeMetaData> buffer;
+	private final AtomicLong bufferedBytes;
+	private int outstandingCount;
+	private PrefetchedChange current;
+	private long hitCount;
+	private long missCount;
+	private boolean closed;
+
+	PrefetchingTableChangeIterator(Iterator<TableChangeMetaData> source, Predicate<TableChangeMetaData> filter,
+			ExecutorService executor, int maxPrefetchChanges, long maxPrefetchBytes, TableChangePrefetcherImpl prefetcher) {
+		this.source = source;
+		this.filter = filter;
+		this.executor = executor;
+		this.maxPrefetchChanges = maxPrefetchChanges;
+		this.maxPrefetchBytes = maxPrefetchBytes;
+		this.prefetcher = prefetcher;
+		this.buffer = new LinkedList<>();
+		this.bufferedBytes = new AtomicLong(0L);
+		this.outstandingCount = 0;
+		this.hitCount = 0L;
+		this.missCount = 0L;
+		this.closed = false;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !buffer.isEmpty() || source.hasNext();
+	}
+
+	@Override
+	public TableChangeMetaData next() {
+		if (closed) {
+			throw new IllegalStateException("Iterator has been closed");
+		}
+		// the caller has moved past the previous change so its data can be released.
+		if (current != null) {
+			current.release();
+			current = null;
+		}
+		fillBuffer();
+		if (buffer.isEmpty()) {
+			// Read-ahead is disabled or its limits are reached so the change is loaded on demand.
+			return source.next();
+		}
+		TableChangeMetaData next = buffer.removeFirst();
+		if (next instanceof PrefetchedChange) {
+			current = (PrefetchedChange) next;
+			outstandingCount--;
+		}
+		// start loading the following changes while the caller applies this one.
+		fillBuffer();
+		return next;
+	}
+
+	/**
+	 * Read from the source until either the read-ahead limits are reached or the
+	 * source is exhausted, submitting the load of each change that matches the
+	 * filter.
+	 */
+	void fillBuffer() {
+		while (outstandingCount < maxPrefetchChanges && bufferedBytes.get() < maxPrefetchBytes
+				&& buffer.size() < MAX_BUFFERED_CHANGES && source.hasNext()) {
+			TableChangeMetaData change = source.next();
+			if (filter.test(change)) {
+				PrefetchedChange prefetched = new PrefetchedChange(change);
+				prefetched.start();
+				buffer.add(prefetched);
+				outstandingCount++;
+			} else {
+				buffer.add(change);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (current != null) {
+			current.release();
+			current = null;
+		}
+		for (TableChangeMetaData change : buffer) {
+			if (change instanceof PrefetchedChange) {
+				((PrefetchedChange) change).release();
+			}
+		}
+		buffer.clear();
+		outstandingCount = 0;
+		prefetcher.recordPrefetchStatistics(hitCount, missCount);
+	}
+
+	/**
+	 * The number of changes whose data was already loaded when requested.
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * The number of changes whose data was still being loaded when requested.
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * The estimated number of bytes of change data currently held by this
+	 * iterator.
+	 *
+	 * @return
+	 */
+	public long getBufferedBytes() {
+		return bufferedBytes.get();
+	}
+
+	/**
+	 * Estimate the number of bytes the given change will occupy in memory.
+	 *
+	 * @param change
+	 * @return
+	 */
+	static long estimateSizeBytes(TableChange change) {
+		if (change instanceof SparseChangeSet) {
+			SparseChangeSet changeSet = (SparseChangeSet) change;
+			return ((long) changeSet.getRowCount()) * TableModelUtils.calculateMaxRowSize(changeSet.getSchema());
+		}
+		// schema changes are small.
+		return 0L;
+	}
+
+	/**
+	 * The class used to load the data of a change with the given type.
+	 *
+	 * @param changeType
+	 * @return
+	 */
+	static Class<? extends TableChange> getChangeClass(TableChangeType changeType) {
+		switch (changeType) {
+		case ROW:
+			return SparseChangeSet.class;
+		case COLUMN:
+			return SchemaChange.class;
+		default:
+			throw new IllegalArgumentException("Unknown type: " + changeType);
+		}
+	}
+
+	/**
+	 * A change with data that is loaded in the background.
+	 *
+	 */
+	private final class PrefetchedChange implements TableChangeMetaData {
+
+		private final TableChangeMetaData wrapped;
+		private Future<ChangeData<? extends TableChange>> future;
+		private long sizeBytes;
+		private boolean released;
+
+		PrefetchedChange(TableChangeMetaData wrapped) {
+			this.wrapped = wrapped;
+			this.sizeBytes = 0L;
+			this.released = false;
+		}
+
+		void start() {
+			final Class<? extends TableChange> clazz = getChangeClass(wrapped.getChangeType());
+			this.future = executor.submit(() -> {
+				ChangeData<? extends TableChange> data = wrapped.loadChangeData(clazz);
+				onLoaded(estimateSizeBytes(data.getChange()));
+				return data;
+			});
+		}
+
+		synchronized void onLoaded(long bytes) {
+			if (!released) {
+				sizeBytes = bytes;
+				bufferedBytes.addAndGet(bytes);
+			}
+		}
+
+		synchronized void release() {
+			if (!released) {
+				released = true;
+				future.cancel(true);
+				bufferedBytes.addAndGet(-sizeBytes);
+				sizeBytes = 0L;
+			}
+		}
+
+		@Override
+		public Long getChangeNumber() {
+			return wrapped.getChangeNumber();
+		}
+
+		@Override
+		public TableChangeType getChangeType() {
+			return wrapped.getChangeType();
+		}
+
+		@Override
+		public String getETag() {
+			return wrapped.getETag();
+		}
+
+		@Override
+		public <T extends TableChange> ChangeData<T> loadChangeData(Class<T> clazz)
+				throws NotFoundException, IOException {
+			if (future.isDone()) {
+				hitCount++;
+			} else {
+				missCount++;
+			}
+			try {
+				ChangeData<? extends TableChange> data = future.get();
+				return new ChangeData<>(data.getChangeNumber(), clazz.cast(data.getChange()));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new RuntimeException(cause);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,19 @@
+package org.sagebionetworks.repo.manager.table.change;
+
+import java.util.Iterator;
+
+/**
+ * An iterator over table changes that might hold resources (such as change
+ * data that is loaded ahead of time) and must be closed once the caller is
+ * done with it.
+ *
+ */
+public interface TableChangeIterator extends Iterator<TableChangeMetaData>, AutoCloseable {
+
+	/**
+	 * Release any resource held by this iterator. Changes that have not yet been
+	 * consumed will no longer be loaded.
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,26 @@
+package org.sagebionetworks.repo.manager.table.change;
+
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * Abstraction for a read-ahead stage that loads the data of upcoming table
+ * changes in the background while the current change is applied to a table's
+ * index.
+ *
+ */
+public interface TableChangePrefetcher {
+
+	/**
+	 * Wrap the given iterator of changes such that the data of the next changes
+	 * that match the provided filter will be loaded on a separate thread. The
+	 * changes are always returned in the same order as the provided iterator.
+	 * The caller must close the returned iterator.
+	 * 
+	 * @param changes The changes to iterate over.
+	 * @param filter  Only changes that match this filter will be loaded ahead of
+	 *                time.
+	 * @return
+	 */
+	TableChangeIterator startPrefetching(Iterator<TableChangeMetaData> changes, Predicate<TableChangeMetaData> filter);
+}
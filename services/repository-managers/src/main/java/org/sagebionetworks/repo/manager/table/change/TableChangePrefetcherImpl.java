@@ -0,0 +1,77 @@
+package org.sagebionetworks.repo.manager.table.change;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
+
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.util.ValidateArgument;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Prefetcher that uses a shared executor to load the data of upcoming table
+ * changes. The number of changes and the number of bytes loaded ahead for a
+ * single table build are capped by the stack configuration.
+ *
+ */
+public class TableChangePrefetcherImpl implements TableChangePrefetcher {
+
+	public static final String METRIC_NAMESPACE_PREFIX = "Table-Index-";
+	public static final String METRIC_PREFETCH_HIT = "Change prefetch hit count";
+	public static final String METRIC_PREFETCH_MISS = "Change prefetch miss count";
+
+	private final ExecutorService executor;
+	private final int maxPrefetchChanges;
+	private final long maxPrefetchBytes;
+	private final Consumer consumer;
+	private final String metricNamespace;
+
+	public TableChangePrefetcherImpl(ExecutorService executor, StackConfiguration config, Consumer consumer) {
+		ValidateArgument.required(executor, "executor");
+		ValidateArgument.required(config, "config");
+		ValidateArgument.required(consumer, "consumer");
+		this.executor = executor;
+		this.maxPrefetchChanges = config.getTableChangePrefetchMaxChanges();
+		this.maxPrefetchBytes = config.getTableChangePrefetchMaxBytes();
+		this.consumer = consumer;
+		this.metricNamespace = METRIC_NAMESPACE_PREFIX + config.getStackInstance();
+	}
+
+	@Override
+	public TableChangeIterator startPrefetching(Iterator<TableChangeMetaData> changes,
+			Predicate<TableChangeMetaData> filter) {
+		ValidateArgument.required(changes, "changes");
+		ValidateArgument.required(filter, "filter");
+		return new PrefetchingTableChangeIterator(changes, filter, executor, maxPrefetchChanges, maxPrefetchBytes, this);
+	}
+
+	/**
+	 * Called when a prefetching iterator is closed to publish its hit and miss
+	 * counts.
+	 *
+	 * @param hitCount
+	 * @param missCount
+	 */
+	void recordPrefetchStatistics(long hitCount, long missCount) {
+		if (hitCount + missCount < 1) {
+			return;
+		}
+		consumer.addProfileData(createCountMetric(METRIC_PREFETCH_HIT, hitCount));
+		consumer.addProfileData(createCountMetric(METRIC_PREFETCH_MISS, missCount));
+	}
+
+	private ProfileData createCountMetric(String name, long count) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(metricNamespace);
+		profileData.setName(name);
+		profileData.setValue((double) count);
+		profileData.setUnit(StandardUnit.Count.name());
+		profileData.setTimestamp(new Date());
+		return profileData;
+	}
+
+}
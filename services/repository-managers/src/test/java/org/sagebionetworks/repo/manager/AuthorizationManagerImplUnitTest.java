@@ -23,8 +23,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -293,6 +295,38 @@ public class AuthorizationManagerImplUnitTest {
 		assertFalse(canAccess);
 	}
 
+	@Test
+	public void testCanAccessActivityBatchCheck() throws Exception {
+		Activity act = new Activity();
+		String actId = "1";
+		act.setId(actId);
+		act.setCreatedBy(adminUser.getId().toString());
+		when(mockActivityDAO.get(actId)).thenReturn(act);
+		PaginatedResults<Reference> results = new PaginatedResults<Reference>();
+		List<Reference> resultList = new ArrayList<Reference>();
+		List<Long> nodeIds = new ArrayList<Long>();
+		for (long i = 1; i <= 1000; i++) {
+			Reference ref = new Reference();
+			ref.setTargetId("syn" + i);
+			resultList.add(ref);
+			nodeIds.add(i);
+		}
+		results.setResults(resultList);
+		results.setTotalNumberOfResults(1000L);
+		when(mockActivityDAO.getEntitiesGeneratedBy(actId, 1000, 0)).thenReturn(results);
+		Map<Long, AuthorizationStatus> statusMap = new LinkedHashMap<Long, AuthorizationStatus>();
+		for (Long nodeId : nodeIds) {
+			statusMap.put(nodeId, AuthorizationStatus.accessDenied("no"));
+		}
+		statusMap.put(1000L, AuthorizationStatus.authorized());
+		when(mockEntityPermissionsManager.hasAccess(userInfo, nodeIds, ACCESS_TYPE.READ)).thenReturn(statusMap);
+		// call under test
+		assertTrue(authorizationManager.canAccessActivity(userInfo, actId).isAuthorized());
+		// the entire page is checked with a single call.
+		verify(mockEntityPermissionsManager).hasAccess(userInfo, nodeIds, ACCESS_TYPE.READ);
+		verify(mockEntityPermissionsManager, never()).hasAccess(anyString(), any(ACCESS_TYPE.class), any(UserInfo.class));
+	}
+
 	@Test
 	public void testCanAccessRawFileHandleByCreator(){
 		// The admin can access anything
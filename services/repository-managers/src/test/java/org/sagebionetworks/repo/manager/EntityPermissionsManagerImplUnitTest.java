@@ -14,9 +14,15 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -26,7 +32,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.StackConfigurationSingleton;
 import org.sagebionetworks.repo.manager.dataaccess.RestrictionInformationManager;
+import org.sagebionetworks.repo.manager.trash.EntityInTrashCanException;
 import org.sagebionetworks.repo.model.ACCESS_TYPE;
 import org.sagebionetworks.repo.model.AccessControlList;
 import org.sagebionetworks.repo.model.AccessControlListDAO;
@@ -50,6 +58,7 @@ import org.sagebionetworks.repo.model.project.ProjectCertificationSetting;
 import org.sagebionetworks.repo.model.project.ProjectSettingsType;
 import org.sagebionetworks.repo.model.project.UploadDestinationListSetting;
 import org.sagebionetworks.repo.model.util.AccessControlListUtil;
+import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.util.ReflectionStaticTestUtils;
 
 import com.google.common.collect.ImmutableSet;
@@ -181,6 +190,8 @@ public class EntityPermissionsManagerImplUnitTest {
 
 		when(mockAclDAO.canAccess(eq(certifiedUserInfo.getGroups()), eq(benefactorId), eq(ObjectType.ENTITY),
 				any(ACCESS_TYPE.class))).thenReturn(true);
+		when(mockAclDAO.getAccessTypes(certifiedUserInfo.getGroups(), benefactorId, ObjectType.ENTITY))
+				.thenReturn(EnumSet.allOf(ACCESS_TYPE.class));
 		when(mockAuthenticationManager.hasUserAcceptedTermsOfUse(certifiedUserInfo.getId())).thenReturn(true);
 
 		restrictionInfoRqst.setObjectId(projectId);
@@ -223,6 +234,8 @@ public class EntityPermissionsManagerImplUnitTest {
 
 		when(mockAclDAO.canAccess(eq(nonCertifiedUserInfo.getGroups()), eq(benefactorId), eq(ObjectType.ENTITY),
 				any(ACCESS_TYPE.class))).thenReturn(true);
+		when(mockAclDAO.getAccessTypes(nonCertifiedUserInfo.getGroups(), benefactorId, ObjectType.ENTITY))
+				.thenReturn(EnumSet.allOf(ACCESS_TYPE.class));
 		when(mockAuthenticationManager.hasUserAcceptedTermsOfUse(nonCertifiedUserInfo.getId())).thenReturn(true);
 
 		restrictionInfoRqst.setObjectId(projectId);
@@ -260,10 +273,9 @@ public class EntityPermissionsManagerImplUnitTest {
 		// Mock dependencies.
 		when(mockNodeDao.getNode(projectId)).thenReturn(project);
 		when(mockNodeDao.getBenefactor(projectId)).thenReturn(benefactorId);
-		when(mockNodeDao.getNodeTypeById(projectId)).thenReturn(EntityType.project);
 
-		when(mockAclDAO.canAccess(eq(certifiedUserInfo.getGroups()), eq(benefactorId), eq(ObjectType.ENTITY),
-				any(ACCESS_TYPE.class))).thenReturn(true);
+		when(mockAclDAO.getAccessTypes(certifiedUserInfo.getGroups(), benefactorId, ObjectType.ENTITY))
+				.thenReturn(EnumSet.allOf(ACCESS_TYPE.class));
 		when(mockAuthenticationManager.hasUserAcceptedTermsOfUse(certifiedUserInfo.getId())).thenReturn(true);
 
 		restrictionInfoRqst.setObjectId(projectId);
@@ -290,6 +302,8 @@ public class EntityPermissionsManagerImplUnitTest {
 
 		when(mockAclDAO.canAccess(eq(certifiedUserInfo.getGroups()), eq(benefactorId), eq(ObjectType.ENTITY),
 				any(ACCESS_TYPE.class))).thenReturn(true);
+		when(mockAclDAO.getAccessTypes(certifiedUserInfo.getGroups(), benefactorId, ObjectType.ENTITY))
+				.thenReturn(EnumSet.allOf(ACCESS_TYPE.class));
 		when(mockAuthenticationManager.hasUserAcceptedTermsOfUse(certifiedUserInfo.getId())).thenReturn(true);
 		
 		restrictionInfoRqst.setObjectId(folderId);
@@ -335,6 +349,8 @@ public class EntityPermissionsManagerImplUnitTest {
 		when(mockAuthenticationManager.hasUserAcceptedTermsOfUse(certifiedUserInfo.getId())).thenReturn(true);
 
 		// if READ is in the ACL but DOWNLOAD is not in the ACL, then I can't download
+		when(mockAclDAO.getAccessTypes(certifiedUserInfo.getGroups(), benefactorId, ObjectType.ENTITY))
+				.thenReturn(EnumSet.complementOf(EnumSet.of(ACCESS_TYPE.DOWNLOAD)));
 		when(mockAclDAO.canAccess(eq(certifiedUserInfo.getGroups()), eq(benefactorId), 
 				eq(ObjectType.ENTITY), eq(ACCESS_TYPE.DOWNLOAD))).thenReturn(false);
 		// check that my mocks are set up correctly
@@ -375,8 +391,8 @@ public class EntityPermissionsManagerImplUnitTest {
 		when(mockNodeDao.getBenefactor(folderId)).thenReturn(benefactorId);
 		when(mockNodeDao.getNodeTypeById(folderId)).thenReturn(EntityType.folder);
 
-		when(mockAclDAO.canAccess(eq(nonCertifiedUserInfo.getGroups()), eq(benefactorId), eq(ObjectType.ENTITY),
-				any(ACCESS_TYPE.class))).thenReturn(true);
+		when(mockAclDAO.getAccessTypes(nonCertifiedUserInfo.getGroups(), benefactorId, ObjectType.ENTITY))
+				.thenReturn(EnumSet.allOf(ACCESS_TYPE.class));
 		when(mockAuthenticationManager.hasUserAcceptedTermsOfUse(nonCertifiedUserInfo.getId())).thenReturn(true);
 
 		restrictionInfoRqst.setObjectId(folderId);
@@ -420,11 +436,10 @@ public class EntityPermissionsManagerImplUnitTest {
 		// Mock dependencies.
 		when(mockNodeDao.getNode(folderId)).thenReturn(folder);
 		when(mockNodeDao.getBenefactor(folderId)).thenReturn(benefactorId);
-		when(mockNodeDao.getNodeTypeById(folderId)).thenReturn(EntityType.folder);
 
 		// Simulate full access
-		when(mockAclDAO.canAccess(eq(nonCertifiedUserInfo.getGroups()), eq(benefactorId), eq(ObjectType.ENTITY),
-				any(ACCESS_TYPE.class))).thenReturn(true);
+		when(mockAclDAO.getAccessTypes(nonCertifiedUserInfo.getGroups(), benefactorId, ObjectType.ENTITY))
+				.thenReturn(EnumSet.allOf(ACCESS_TYPE.class));
 		
 		when(mockAuthenticationManager.hasUserAcceptedTermsOfUse(nonCertifiedUserInfo.getId())).thenReturn(true);
 		
@@ -473,9 +488,8 @@ public class EntityPermissionsManagerImplUnitTest {
 		// Mock dependencies.
 		when(mockNodeDao.getNode(dockerRepoId)).thenReturn(dockerRepo);
 		when(mockNodeDao.getBenefactor(dockerRepoId)).thenReturn(benefactorId);
-		when(mockNodeDao.getNodeTypeById(dockerRepoId)).thenReturn(EntityType.dockerrepo);
-		when(mockAclDAO.canAccess(eq(certifiedUserInfo.getGroups()), eq(benefactorId), eq(ObjectType.ENTITY),
-				any(ACCESS_TYPE.class))).thenReturn(true);
+		when(mockAclDAO.getAccessTypes(certifiedUserInfo.getGroups(), benefactorId, ObjectType.ENTITY))
+				.thenReturn(EnumSet.allOf(ACCESS_TYPE.class));
 		when(mockAuthenticationManager.hasUserAcceptedTermsOfUse(certifiedUserInfo.getId())).thenReturn(true);
 		restrictionInfoRqst.setObjectId(dockerRepoId);
 		when(mockRestrictionInformationManager.
@@ -504,6 +518,70 @@ public class EntityPermissionsManagerImplUnitTest {
 		
 	}
 
+	@Test
+	public void testGetUserPermissionsSingleAclLookup() {
+		when(mockNodeDao.getNode(folderId)).thenReturn(folder);
+		when(mockNodeDao.getBenefactor(folderId)).thenReturn(benefactorId);
+		when(mockAclDAO.getAccessTypes(certifiedUserInfo.getGroups(), benefactorId, ObjectType.ENTITY))
+				.thenReturn(EnumSet.of(ACCESS_TYPE.READ, ACCESS_TYPE.UPDATE));
+		when(mockAuthenticationManager.hasUserAcceptedTermsOfUse(certifiedUserInfo.getId())).thenReturn(true);
+		when(mockAclDAO.canAccess(anonymousUser.getGroups(), benefactorId, ObjectType.ENTITY, ACCESS_TYPE.READ))
+				.thenReturn(true);
+
+		// Method under test.
+		UserEntityPermissions uep = entityPermissionsManager.
+				getUserPermissionsForEntity(certifiedUserInfo, folderId);
+		
+		assertFalse(uep.getCanAddChild());
+		assertFalse(uep.getCanChangePermissions());
+		assertFalse(uep.getCanChangeSettings());
+		assertFalse(uep.getCanDelete());
+		assertTrue(uep.getCanEdit());
+		assertFalse(uep.getCanEnableInheritance());
+		assertTrue(uep.getCanPublicRead());
+		assertTrue(uep.getCanView());
+		assertFalse(uep.getCanDownload());
+		assertFalse(uep.getCanModerate());
+		
+		// the node type, benefactor and ACL are only looked up once
+		verify(mockNodeDao).getBenefactor(folderId);
+		verify(mockNodeDao, never()).getNodeTypeById(anyString());
+		verify(mockAclDAO).getAccessTypes(certifiedUserInfo.getGroups(), benefactorId, ObjectType.ENTITY);
+		verify(mockAclDAO, never()).canAccess(eq(certifiedUserInfo.getGroups()), anyString(), any(ObjectType.class),
+				any(ACCESS_TYPE.class));
+	}
+	
+	@Test
+	public void testGetUserPermissionsForAdmin() {
+		UserInfo adminUser = new UserInfo(true, 1L);
+		when(mockNodeDao.getNode(folderId)).thenReturn(folder);
+		when(mockNodeDao.getBenefactor(folderId)).thenReturn(benefactorId);
+
+		// Method under test.
+		UserEntityPermissions uep = entityPermissionsManager.getUserPermissionsForEntity(adminUser, folderId);
+		
+		assertTrue(uep.getCanAddChild());
+		assertTrue(uep.getCanChangePermissions());
+		assertTrue(uep.getCanEdit());
+		assertTrue(uep.getCanDownload());
+		assertTrue(uep.getCanModerate());
+		assertTrue(uep.getCanEnableInheritance());
+		verify(mockAclDAO, never()).getAccessTypes(anySet(), anyString(), any(ObjectType.class));
+	}
+	
+	@Test
+	public void testGetUserPermissionsInTrash() {
+		String trashId = StackConfigurationSingleton.singleton().getTrashFolderEntityId();
+		when(mockNodeDao.getNode(folderId)).thenReturn(folder);
+		when(mockNodeDao.getBenefactor(folderId)).thenReturn(trashId);
+
+		assertThrows(EntityInTrashCanException.class, () -> {
+			// Method under test.
+			entityPermissionsManager.getUserPermissionsForEntity(certifiedUserInfo, folderId);
+		});
+		verify(mockAclDAO, never()).getAccessTypes(anySet(), anyString(), any(ObjectType.class));
+	}
+	
 	@Test
 	public void testGetNonvisibleChildrenNonAdmin(){
 		// Mock dependencies.
@@ -1005,4 +1083,102 @@ public class EntityPermissionsManagerImplUnitTest {
 		assertFalse(result);
 	}
 	
+	@Test
+	public void testHasAccessBatch() {
+		Long trashId = Long.parseLong(StackConfigurationSingleton.singleton().getTrashFolderEntityId());
+		List<Long> entityIds = Arrays.asList(1L, 2L, 3L, 4L);
+		Map<Long, Long> benefactors = new HashMap<>();
+		benefactors.put(1L, 10L);
+		benefactors.put(2L, 20L);
+		benefactors.put(3L, trashId);
+		// 4 does not exist
+		when(mockNodeDao.getBenefactors(entityIds)).thenReturn(benefactors);
+		when(mockAclDAO.getAccessibleBenefactors(certifiedUserInfo.getGroups(), Sets.newHashSet(10L, 20L, trashId),
+				ObjectType.ENTITY, ACCESS_TYPE.READ)).thenReturn(Sets.newHashSet(10L));
+		// call under test
+		Map<Long, AuthorizationStatus> results = entityPermissionsManager.hasAccess(certifiedUserInfo, entityIds,
+				ACCESS_TYPE.READ);
+		assertEquals(entityIds, new ArrayList<>(results.keySet()));
+		assertTrue(results.get(1L).isAuthorized());
+		assertFalse(results.get(2L).isAuthorized());
+		assertThrows(EntityInTrashCanException.class, () -> results.get(3L).checkAuthorizationOrElseThrow());
+		assertThrows(NotFoundException.class, () -> results.get(4L).checkAuthorizationOrElseThrow());
+	}
+
+	@Test
+	public void testHasAccessBatchAdmin() {
+		UserInfo admin = new UserInfo(true);
+		List<Long> entityIds = Arrays.asList(1L, 2L);
+		Map<Long, Long> benefactors = new HashMap<>();
+		benefactors.put(1L, 10L);
+		benefactors.put(2L, 20L);
+		when(mockNodeDao.getBenefactors(entityIds)).thenReturn(benefactors);
+		// call under test
+		Map<Long, AuthorizationStatus> results = entityPermissionsManager.hasAccess(admin, entityIds,
+				ACCESS_TYPE.DELETE);
+		assertTrue(results.get(1L).isAuthorized());
+		assertTrue(results.get(2L).isAuthorized());
+		verify(mockAclDAO, never()).getAccessibleBenefactors(anySet(), anySet(), any(ObjectType.class),
+				any(ACCESS_TYPE.class));
+	}
+
+	@Test
+	public void testHasAccessBatchAnonymousNonRead() {
+		List<Long> entityIds = Arrays.asList(1L);
+		when(mockNodeDao.getBenefactors(entityIds)).thenReturn(Collections.singletonMap(1L, 10L));
+		// call under test
+		Map<Long, AuthorizationStatus> results = entityPermissionsManager.hasAccess(anonymousUser, entityIds,
+				ACCESS_TYPE.DELETE);
+		assertFalse(results.get(1L).isAuthorized());
+		verify(mockAclDAO, never()).getAccessibleBenefactors(anySet(), anySet(), any(ObjectType.class),
+				any(ACCESS_TYPE.class));
+	}
+
+	@Test
+	public void testHasAccessBatchEmpty() {
+		// call under test
+		assertTrue(entityPermissionsManager.hasAccess(certifiedUserInfo, Collections.emptyList(), ACCESS_TYPE.READ)
+				.isEmpty());
+		verifyNoMoreInteractions(mockNodeDao);
+	}
+
+	@Test
+	public void testHasAccessBatchNonAclAccessType() {
+		List<Long> entityIds = Arrays.asList(456L);
+		when(mockNodeDao.getNodeTypeById(folderId)).thenReturn(EntityType.folder);
+		when(mockNodeDao.getBenefactor(folderId)).thenReturn(benefactorId);
+		when(mockAclDAO.canAccess(certifiedUserInfo.getGroups(), benefactorId, ObjectType.ENTITY, ACCESS_TYPE.UPDATE))
+				.thenReturn(true);
+		// call under test
+		Map<Long, AuthorizationStatus> results = entityPermissionsManager.hasAccess(certifiedUserInfo, entityIds,
+				ACCESS_TYPE.UPDATE);
+		assertTrue(results.get(456L).isAuthorized());
+		verify(mockNodeDao, never()).getBenefactors(any());
+	}
+
+	/**
+	 * The number of database calls must not depend on the number of entities.
+	 */
+	@Test
+	public void testHasAccessBatchThousandEntities() {
+		List<Long> entityIds = new ArrayList<>();
+		Map<Long, Long> benefactors = new HashMap<>();
+		for (long i = 0; i < 1000; i++) {
+			entityIds.add(i);
+			benefactors.put(i, i % 10);
+		}
+		when(mockNodeDao.getBenefactors(entityIds)).thenReturn(benefactors);
+		when(mockAclDAO.getAccessibleBenefactors(eq(certifiedUserInfo.getGroups()), anySet(), eq(ObjectType.ENTITY),
+				eq(ACCESS_TYPE.READ))).thenReturn(Sets.newHashSet(0L, 1L));
+		// call under test
+		Map<Long, AuthorizationStatus> results = entityPermissionsManager.hasAccess(certifiedUserInfo, entityIds,
+				ACCESS_TYPE.READ);
+		assertEquals(1000, results.size());
+		assertEquals(200L, results.values().stream().filter(AuthorizationStatus::isAuthorized).count());
+		verify(mockNodeDao).getBenefactors(entityIds);
+		verify(mockAclDAO).getAccessibleBenefactors(eq(certifiedUserInfo.getGroups()), anySet(),
+				eq(ObjectType.ENTITY), eq(ACCESS_TYPE.READ));
+		verifyNoMoreInteractions(mockNodeDao, mockAclDAO);
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package org.sagebionetworks.repo.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.model.AuthorizationConstants.BOOTSTRAP_PRINCIPAL;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.UserInfo;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.TransactionalMessenger;
+import org.sagebionetworks.util.Clock;
+
+@ExtendWith(MockitoExtension.class)
+public class UserInfoCacheImplTest {
+
+	@Mock
+	private Clock mockClock;
+	@Mock
+	private TransactionalMessenger mockTransactionalMessenger;
+
+	private UserInfoCacheImpl cache;
+
+	private static final Long USER_ID = 123L;
+	private static final Long OTHER_USER_ID = 456L;
+	private static final Long TEAM_ID = 789L;
+	private long now;
+	private UserInfo userInfo;
+	private UserInfo otherUserInfo;
+
+	@BeforeEach
+	public void before() {
+		now = 100_000L;
+		// not all tests read the clock
+		lenient().when(mockClock.currentTimeMillis()).thenAnswer(invocation -> now);
+		cache = new UserInfoCacheImpl(mockClock, mockTransactionalMessenger);
+		userInfo = new UserInfo(false, USER_ID);
+		userInfo.setCreationDate(new Date(1L));
+		userInfo.getGroups().add(TEAM_ID);
+		otherUserInfo = new UserInfo(false, OTHER_USER_ID);
+	}
+
+	@Test
+	public void testInitialize() {
+		// call under test
+		cache.initialize();
+		verify(mockTransactionalMessenger).removeObserver(cache);
+		verify(mockTransactionalMessenger).registerObserver(cache);
+	}
+
+	@Test
+	public void testPutAndGet() {
+		assertFalse(cache.get(USER_ID).isPresent());
+		cache.put(userInfo);
+		// call under test
+		UserInfo cached = cache.get(USER_ID).get();
+		assertEquals(userInfo, cached);
+		assertEquals(userInfo.getGroups(), cached.getGroups());
+		assertEquals(userInfo.getCreationDate(), cached.getCreationDate());
+		assertEquals(1L, cache.getHitCount());
+		assertEquals(1L, cache.getMissCount());
+	}
+
+	@Test
+	public void testGetReturnsCopy() {
+		cache.put(userInfo);
+		userInfo.getGroups().add(1L);
+		UserInfo cached = cache.get(USER_ID).get();
+		assertFalse(cached.getGroups().contains(1L));
+		cached.getGroups().add(2L);
+		// call under test
+		UserInfo again = cache.get(USER_ID).get();
+		assertNotSame(cached, again);
+		assertFalse(again.getGroups().contains(2L));
+	}
+
+	@Test
+	public void testGetAfterTimeToLive() {
+		cache.put(userInfo);
+		now += UserInfoCacheImpl.TIME_TO_LIVE_MS - 1;
+		assertTrue(cache.get(USER_ID).isPresent());
+		assertEquals(UserInfoCacheImpl.TIME_TO_LIVE_MS - 1, cache.getHitAgeMs());
+		now += 1;
+		// call under test
+		assertFalse(cache.get(USER_ID).isPresent());
+	}
+
+	@Test
+	public void testPutAdmin() {
+		UserInfo admin = new UserInfo(true, USER_ID);
+		// call under test
+		cache.put(admin);
+		assertFalse(cache.get(USER_ID).isPresent());
+	}
+
+	@Test
+	public void testPutACTMember() {
+		userInfo.getGroups().add(BOOTSTRAP_PRINCIPAL.ACCESS_AND_COMPLIANCE_GROUP.getPrincipalId());
+		// call under test
+		cache.put(userInfo);
+		assertFalse(cache.get(USER_ID).isPresent());
+	}
+
+	@Test
+	public void testInvalidateUser() {
+		cache.put(userInfo);
+		cache.put(otherUserInfo);
+		// call under test
+		cache.invalidate(USER_ID);
+		assertFalse(cache.get(USER_ID).isPresent());
+		assertTrue(cache.get(OTHER_USER_ID).isPresent());
+		assertEquals(1L, cache.getInvalidationCount());
+	}
+
+	@Test
+	public void testInvalidateGroup() {
+		cache.put(userInfo);
+		cache.put(otherUserInfo);
+		// call under test
+		cache.invalidate(TEAM_ID);
+		assertFalse(cache.get(USER_ID).isPresent());
+		assertTrue(cache.get(OTHER_USER_ID).isPresent());
+		assertEquals(1L, cache.getInvalidationCount());
+	}
+
+	@Test
+	public void testFireChangeMessagePrincipal() {
+		cache.put(userInfo);
+		ChangeMessage message = new ChangeMessage();
+		message.setObjectType(ObjectType.PRINCIPAL);
+		message.setObjectId(USER_ID.toString());
+		// call under test
+		cache.fireChangeMessage(message);
+		assertFalse(cache.get(USER_ID).isPresent());
+	}
+
+	@Test
+	public void testFireChangeMessageTeam() {
+		cache.put(userInfo);
+		ChangeMessage message = new ChangeMessage();
+		message.setObjectType(ObjectType.TEAM);
+		message.setObjectId(TEAM_ID.toString());
+		// call under test
+		cache.fireChangeMessage(message);
+		assertFalse(cache.get(USER_ID).isPresent());
+	}
+
+	@Test
+	public void testFireChangeMessageOtherType() {
+		cache.put(userInfo);
+		ChangeMessage message = new ChangeMessage();
+		message.setObjectType(ObjectType.ENTITY);
+		message.setObjectId(TEAM_ID.toString());
+		// call under test
+		cache.fireChangeMessage(message);
+		assertTrue(cache.get(USER_ID).isPresent());
+	}
+}
@@ -0,0 +1,104 @@
+package org.sagebionetworks.repo.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+@ExtendWith(MockitoExtension.class)
+public class UserInfoCacheMetricPublisherTest {
+
+	@Mock
+	UserInfoCache mockCache;
+	@Mock
+	StackConfiguration mockConfig;
+	@Mock
+	Consumer mockConsumer;
+
+	UserInfoCacheMetricPublisher publisher;
+
+	@BeforeEach
+	public void before() {
+		when(mockConfig.getStackInstance()).thenReturn("instance1");
+		publisher = new UserInfoCacheMetricPublisher(mockCache, mockConfig, mockConsumer);
+	}
+
+	@Test
+	public void testTimerFired() {
+		when(mockCache.getHitCount()).thenReturn(3L, 5L);
+		when(mockCache.getMissCount()).thenReturn(1L, 3L);
+		when(mockCache.getEvictionCount()).thenReturn(0L, 2L);
+		when(mockCache.getInvalidationCount()).thenReturn(1L, 4L);
+		when(mockCache.getHitAgeMs()).thenReturn(3000L, 4000L);
+		// call under test
+		publisher.timerFired();
+		publisher.timerFired();
+		ArgumentCaptor<ProfileData> captor = ArgumentCaptor.forClass(ProfileData.class);
+		verify(mockConsumer, times(12)).addProfileData(captor.capture());
+		List<ProfileData> results = captor.getAllValues();
+		for (ProfileData data : results) {
+			assertEquals("User-Info-instance1", data.getNamespace());
+		}
+		ProfileData hitRate = results.get(0);
+		assertEquals(UserInfoCacheMetricPublisher.METRIC_CACHE_HIT_RATE, hitRate.getName());
+		assertEquals(StandardUnit.Percent.name(), hitRate.getUnit());
+		assertEquals(75.0, hitRate.getValue().doubleValue());
+		assertEquals(3.0, results.get(1).getValue().doubleValue());
+		assertEquals(1.0, results.get(2).getValue().doubleValue());
+		assertEquals(0.0, results.get(3).getValue().doubleValue());
+		assertEquals(1.0, results.get(4).getValue().doubleValue());
+		ProfileData hitAge = results.get(5);
+		assertEquals(UserInfoCacheMetricPublisher.METRIC_CACHE_HIT_AGE, hitAge.getName());
+		assertEquals(StandardUnit.Milliseconds.name(), hitAge.getUnit());
+		assertEquals(1000.0, hitAge.getValue().doubleValue());
+		// the second call only publishes the change since the first call.
+		assertEquals(50.0, results.get(6).getValue().doubleValue());
+		assertEquals(2.0, results.get(7).getValue().doubleValue());
+		assertEquals(2.0, results.get(8).getValue().doubleValue());
+		assertEquals(2.0, results.get(9).getValue().doubleValue());
+		assertEquals(UserInfoCacheMetricPublisher.METRIC_CACHE_INVALIDATION, results.get(10).getName());
+		assertEquals(3.0, results.get(10).getValue().doubleValue());
+		assertEquals(500.0, results.get(11).getValue().doubleValue());
+	}
+
+	@Test
+	public void testTimerFiredNoHits() {
+		when(mockCache.getHitCount()).thenReturn(0L);
+		when(mockCache.getMissCount()).thenReturn(2L);
+		when(mockCache.getEvictionCount()).thenReturn(0L);
+		when(mockCache.getInvalidationCount()).thenReturn(0L);
+		when(mockCache.getHitAgeMs()).thenReturn(0L);
+		// call under test
+		publisher.timerFired();
+		// no hit age without hits.
+		verify(mockConsumer, times(5)).addProfileData(any(ProfileData.class));
+	}
+
+	@Test
+	public void testTimerFiredNoLookups() {
+		when(mockCache.getHitCount()).thenReturn(0L);
+		when(mockCache.getMissCount()).thenReturn(0L);
+		when(mockCache.getEvictionCount()).thenReturn(0L);
+		when(mockCache.getInvalidationCount()).thenReturn(0L);
+		when(mockCache.getHitAgeMs()).thenReturn(0L);
+		// call under test
+		publisher.timerFired();
+		verify(mockConsumer, never()).addProfileData(any(ProfileData.class));
+	}
+}
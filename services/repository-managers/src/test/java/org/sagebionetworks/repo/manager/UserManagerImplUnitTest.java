@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -65,6 +66,8 @@ public class UserManagerImplUnitTest {
 	private PrincipalAliasDAO mockPrincipalAliasDAO;
 	@Mock
 	private NotificationEmailDAO notificationEmailDao;
+	@Mock
+	private UserInfoCache mockUserInfoCache;
 	
 	private UserInfo admin;
 	private UserInfo notAdmin;
@@ -90,6 +93,8 @@ public class UserManagerImplUnitTest {
 		when(mockUserGroupDAO.get(anyLong())).thenReturn(mockUserGroup);
 				
 		notificationEmailDao = Mockito.mock(NotificationEmailDAO.class);
+		mockUserInfoCache = mock(UserInfoCache.class);
+		when(mockUserInfoCache.get(anyLong())).thenReturn(Optional.empty());
 		
 		userManager = new UserManagerImpl();
 		ReflectionTestUtils.setField(userManager, "principalAliasDAO", mockPrincipalAliasDAO);
@@ -99,6 +104,7 @@ public class UserManagerImplUnitTest {
 		ReflectionTestUtils.setField(userManager, "notificationEmailDao", notificationEmailDao);
 		ReflectionTestUtils.setField(userManager, "basicDAO", basicDAO);
 		ReflectionTestUtils.setField(userManager, "groupMembersDAO", mockGroupMembersDAO);
+		ReflectionTestUtils.setField(userManager, "userInfoCache", mockUserInfoCache);
 		
 		admin = new UserInfo(true);
 		notAdmin = new UserInfo(false);
@@ -137,6 +143,22 @@ public class UserManagerImplUnitTest {
 
 		assertEquals(expectedUserGroupIds, userInfo.getGroups());
 		assertEquals(principalId, userInfo.getId());
+		verify(mockUserInfoCache).put(userInfo);
+	}
+	
+	@Test
+	public void testGetUserInfoCached() {
+		Long principalId = 111L;
+		UserInfo cached = new UserInfo(false, principalId);
+		when(mockUserInfoCache.get(principalId)).thenReturn(Optional.of(cached));
+		
+		// method under test
+		UserInfo userInfo = userManager.getUserInfo(principalId);
+		
+		assertEquals(cached, userInfo);
+		verify(mockUserGroupDAO, never()).get(principalId);
+		verify(mockGroupMembersDAO, never()).getUsersGroups(anyString());
+		verify(mockUserInfoCache, never()).put(any(UserInfo.class));
 	}
 	
 	@Test
@@ -211,6 +233,7 @@ public class UserManagerImplUnitTest {
 		// Call with an admin
 		userManager.deletePrincipal(admin, Long.parseLong(MOCK_GROUP_ID));
 		verify(mockUserGroupDAO).delete(anyString());
+		verify(mockUserInfoCache).invalidate(Long.parseLong(MOCK_GROUP_ID));
 		
 		// Call with a non admin
 		try {
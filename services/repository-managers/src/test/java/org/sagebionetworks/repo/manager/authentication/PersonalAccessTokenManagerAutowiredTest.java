@@ -152,6 +152,7 @@ public class PersonalAccessTokenManagerAutowiredTest {
 		Thread.sleep(100L);
 		// method under test
 		personalAccessTokenManager.updateLastUsedTime(tokenId1);
+		personalAccessTokenManager.flushLastUsedTimes();
 
 		AccessTokenRecord postUpdate = personalAccessTokenManager.getTokenRecord(userInfo, tokenId1);
 		assertTrue(postUpdate.getLastUsed().after(preUpdate.getLastUsed()));
@@ -5,8 +5,13 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
@@ -28,6 +33,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.sagebionetworks.repo.manager.oauth.ClaimsJsonUtil;
 import org.sagebionetworks.repo.manager.oauth.OIDCTokenHelper;
+import org.sagebionetworks.repo.manager.oauth.ValidatedAccessTokenCache;
 import org.sagebionetworks.repo.model.AuthorizationConstants;
 import org.sagebionetworks.repo.model.UnauthenticatedException;
 import org.sagebionetworks.repo.model.UnauthorizedException;
@@ -37,11 +43,13 @@ import org.sagebionetworks.repo.model.auth.AccessTokenRecord;
 import org.sagebionetworks.repo.model.auth.AccessTokenRecordList;
 import org.sagebionetworks.repo.model.auth.AccessTokenState;
 import org.sagebionetworks.repo.model.auth.PersonalAccessTokenDao;
+import org.sagebionetworks.repo.model.message.TransactionSynchronizationProxy;
 import org.sagebionetworks.repo.model.oauth.OAuthScope;
 import org.sagebionetworks.repo.model.oauth.OIDCClaimName;
 import org.sagebionetworks.repo.model.oauth.OIDCClaimsRequestDetails;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.util.Clock;
+import org.springframework.transaction.support.TransactionSynchronization;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwsHeader;
@@ -60,6 +68,10 @@ public class PersonalAccessTokenManagerImplUnitTest {
 	private OIDCTokenHelper mockTokenHelper;
 	@Mock
 	private Clock mockClock;
+	@Mock
+	private ValidatedAccessTokenCache mockValidatedAccessTokenCache;
+	@Mock
+	private TransactionSynchronizationProxy mockTransactionSynchronization;
 	
 	private Jwt<JwsHeader, Claims> accessTokenJwt;
 
@@ -302,8 +314,62 @@ public class PersonalAccessTokenManagerImplUnitTest {
 
 	@Test
 	void testUpdateLastUsedTime() {
+		Date first = new Date(1000L);
+		Date second = new Date(2000L);
+		when(mockClock.now()).thenReturn(first, second);
+		personalAccessTokenManager.updateLastUsedTime(TOKEN_ID);
 		personalAccessTokenManager.updateLastUsedTime(TOKEN_ID);
-		verify(mockPersonalAccessTokenDao).updateLastUsed(TOKEN_ID);
+		// the write is deferred until the flush
+		verifyZeroInteractions(mockPersonalAccessTokenDao);
+
+		// method under test
+		personalAccessTokenManager.flushLastUsedTimes();
+
+		// both uses are coalesced into a single update with the latest time.
+		verify(mockPersonalAccessTokenDao).updateLastUsed(Collections.singletonMap(TOKEN_ID, second));
+
+		// nothing is left to flush
+		personalAccessTokenManager.flushLastUsedTimes();
+		verifyNoMoreInteractions(mockPersonalAccessTokenDao);
+	}
+
+	@Test
+	void testFlushLastUsedTimes_multipleTokens() {
+		Date now = new Date(1000L);
+		when(mockClock.now()).thenReturn(now);
+		personalAccessTokenManager.updateLastUsedTime(TOKEN_ID);
+		personalAccessTokenManager.updateLastUsedTime("888");
+
+		// method under test
+		personalAccessTokenManager.flushLastUsedTimes();
+
+		Map<String, Date> expected = new HashMap<>();
+		expected.put(TOKEN_ID, now);
+		expected.put("888", now);
+		verify(mockPersonalAccessTokenDao).updateLastUsed(expected);
+	}
+
+	@Test
+	void testFlushLastUsedTimes_failure() {
+		Date first = new Date(1000L);
+		Date second = new Date(2000L);
+		when(mockClock.now()).thenReturn(first, second);
+		personalAccessTokenManager.updateLastUsedTime(TOKEN_ID);
+		IllegalStateException exception = new IllegalStateException("failed");
+		doThrow(exception).when(mockPersonalAccessTokenDao).updateLastUsed(any());
+
+		// method under test
+		IllegalStateException result = assertThrows(IllegalStateException.class, () -> personalAccessTokenManager.flushLastUsedTimes());
+		assertEquals(exception, result);
+
+		// the failed batch is kept for the next flush.
+		personalAccessTokenManager.updateLastUsedTime("888");
+		doNothing().when(mockPersonalAccessTokenDao).updateLastUsed(any());
+		personalAccessTokenManager.flushLastUsedTimes();
+		Map<String, Date> expected = new HashMap<>();
+		expected.put(TOKEN_ID, first);
+		expected.put("888", second);
+		verify(mockPersonalAccessTokenDao).updateLastUsed(expected);
 	}
 
 	@Test
@@ -384,10 +450,18 @@ public class PersonalAccessTokenManagerImplUnitTest {
 		tokenRecord.setUserId(USER_ID.toString());
 		when(mockPersonalAccessTokenDao.getTokenRecord(TOKEN_ID)).thenReturn(tokenRecord);
 
+		when(mockTransactionSynchronization.isActualTransactionActive()).thenReturn(true);
+
 		// method under test
 		personalAccessTokenManager.revokeToken(userInfo, TOKEN_ID);
 
 		verify(mockPersonalAccessTokenDao).deleteToken(TOKEN_ID);
+		// the cache is only invalidated after the delete commits.
+		ArgumentCaptor<TransactionSynchronization> captor = ArgumentCaptor.forClass(TransactionSynchronization.class);
+		verify(mockTransactionSynchronization).registerSynchronization(captor.capture());
+		verifyZeroInteractions(mockValidatedAccessTokenCache);
+		captor.getValue().afterCommit();
+		verify(mockValidatedAccessTokenCache).invalidatePersonalAccessToken(TOKEN_ID);
 	}
 
 	@Test
@@ -418,5 +492,6 @@ public class PersonalAccessTokenManagerImplUnitTest {
 		assertThrows(UnauthorizedException. class, () -> personalAccessTokenManager.revokeToken(userInfo, TOKEN_ID));
 
 		verify(mockPersonalAccessTokenDao, never()).deleteToken(TOKEN_ID);
+		verifyZeroInteractions(mockValidatedAccessTokenCache);
 	}
 }
@@ -1,26 +1,35 @@
 package org.sagebionetworks.repo.manager.events;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
 import org.sagebionetworks.kinesis.AwsKinesisFirehoseLogger;
 import org.sagebionetworks.repo.model.message.TransactionSynchronizationProxy;
+import org.sagebionetworks.util.Clock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.google.common.collect.ImmutableList;
 
@@ -37,9 +46,18 @@ public class EventsCollectorAutowireTest {
 	@Autowired
 	private TransactionSynchronizationProxy transactionSynchronization;
 
+	@Autowired
+	private Clock clock;
+
+	@Autowired
+	private StackConfiguration stackConfiguration;
+
 	@Mock
 	private AwsKinesisFirehoseLogger firehoseLogger;
 
+	@Mock
+	private Consumer mockConsumer;
+
 	private String streamName = "someStreamName";
 	private String otherStreamName = "anotherStreamName";
 
@@ -51,7 +69,8 @@ public class EventsCollectorAutowireTest {
 		// Spies on the transaction synchronization so that we can verify calls on it
 		transactionSynchronization = Mockito.spy(transactionSynchronization);
 		// We mock the firehose logger
-		statsEventsCollector = new EventsCollectorImpl(firehoseLogger, logRecordProviderFactory, transactionSynchronization);
+		statsEventsCollector = new EventsCollectorImpl(firehoseLogger, logRecordProviderFactory, transactionSynchronization,
+				mockConsumer, clock, stackConfiguration);
 		// Replace the autowired collector with ours so that we do not use firehose
 		collectorClient.setEventsCollector(statsEventsCollector);
 	}
@@ -143,4 +162,51 @@ public class EventsCollectorAutowireTest {
 		verify(firehoseLogger, times(1)).logBatch(any(), any());
 
 	}
+
+	@Test
+	public void testFlushMetrics() {
+		EventStub event = new EventStub(streamName);
+		when(firehoseLogger.logBatch(any(), any())).thenReturn(1);
+
+		statsEventsCollector.collectEvents(ImmutableList.of(event, event));
+		// Call under test
+		statsEventsCollector.flush();
+
+		ArgumentCaptor<ProfileData> captor = ArgumentCaptor.forClass(ProfileData.class);
+		verify(mockConsumer, times(3)).addProfileData(captor.capture());
+		List<ProfileData> metrics = captor.getAllValues();
+		assertEquals(EventsCollectorImpl.METRIC_QUEUE_DEPTH, metrics.get(0).getName());
+		assertEquals(2.0, metrics.get(0).getValue().doubleValue());
+		// the record firehose did not accept counts as dropped
+		assertEquals(EventsCollectorImpl.METRIC_DROPPED, metrics.get(1).getName());
+		assertEquals(1.0, metrics.get(1).getValue().doubleValue());
+		assertEquals(EventsCollectorImpl.METRIC_FLUSH_LATENCY, metrics.get(2).getName());
+		assertEquals(EventsCollectorImpl.METRIC_NAMESPACE_PREFIX + stackConfiguration.getStackInstance(), metrics.get(2).getNamespace());
+	}
+
+	@Test
+	public void testCollectEventWithFullQueue() {
+		ReflectionTestUtils.setField(statsEventsCollector, "queue", new LinkedBlockingQueue<SynapseEvent>(1));
+		EventStub event1 = new EventStub(streamName);
+		EventStub event2 = new EventStub(streamName);
+
+		// Call under test
+		statsEventsCollector.collectEvents(ImmutableList.of(event1, event2));
+		statsEventsCollector.flush();
+
+		// the event that did not fit is dropped
+		verify(firehoseLogger, times(1)).logBatch(eq(streamName), eq(Collections.singletonList(event1)));
+		ArgumentCaptor<ProfileData> captor = ArgumentCaptor.forClass(ProfileData.class);
+		verify(mockConsumer, times(3)).addProfileData(captor.capture());
+		assertEquals(1.0, captor.getAllValues().get(1).getValue().doubleValue());
+	}
+
+	@Test
+	public void testFlushEmpty() {
+		// Call under test
+		statsEventsCollector.flush();
+
+		verify(firehoseLogger, never()).logBatch(any(), any());
+		verify(mockConsumer, never()).addProfileData(any());
+	}
 }
@@ -1,8 +1,13 @@
 package org.sagebionetworks.repo.manager.file;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.concurrent.ExecutorService;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -10,9 +15,12 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.sagebionetworks.aws.SynapseS3Client;
 import org.sagebionetworks.ids.IdGenerator;
+import org.sagebionetworks.ids.IdType;
 import org.sagebionetworks.repo.manager.ProjectSettingsManager;
 import org.sagebionetworks.repo.model.dao.FileHandleDao;
 import org.sagebionetworks.repo.model.file.CreateChunkedFileTokenRequest;
+import org.sagebionetworks.repo.model.file.FileHandle;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
 import org.sagebionetworks.repo.model.project.S3StorageLocationSetting;
 import org.sagebionetworks.repo.model.project.StorageLocationSetting;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -40,6 +48,12 @@ public class MultipartManagerImplTest {
 	
 	@Mock
 	private IdGenerator idGenerator;
+	
+	@Mock
+	private ExecutorService streamUploadExecutor;
+	
+	@Mock
+	private MultipartUploadOutputStream mockUploadStream;
 
 	private MultipartManager manager;
 	
@@ -52,6 +66,7 @@ public class MultipartManagerImplTest {
 		ReflectionTestUtils.setField(manager, "transferManager", transferManager);
 		ReflectionTestUtils.setField(manager, "projectSettingsManager", projectSettingsManager);
 		ReflectionTestUtils.setField(manager, "idGenerator", idGenerator);
+		ReflectionTestUtils.setField(manager, "streamUploadExecutor", streamUploadExecutor);
 	}
 
 	@Test
@@ -74,4 +89,62 @@ public class MultipartManagerImplTest {
 
 	}
 
+	@Test
+	public void testStartStreamUpload() {
+		Long storageLocationId=101L;
+		StorageLocationSetting sls = new S3StorageLocationSetting();
+		when(projectSettingsManager.getStorageLocationSetting(storageLocationId)).thenReturn(sls);
+		ArgumentCaptor<InitiateMultipartUploadRequest> imurCapture = ArgumentCaptor.forClass(InitiateMultipartUploadRequest.class);
+		InitiateMultipartUploadResult imur = new InitiateMultipartUploadResult();
+		imur.setUploadId("upload-id");
+		when(s3Client.initiateMultipartUpload(imurCapture.capture())).thenReturn(imur);
+		StreamUploadRequest request = new StreamUploadRequest().withStorageLocationId(storageLocationId)
+				.withUserId("123").withContentType("text/csv").withFileName("foo.csv");
+		
+		// method under test
+		MultipartUploadOutputStream stream = manager.startStreamUpload(request);
+		
+		assertNotNull(stream);
+		S3FileHandle handle = stream.getFileHandle();
+		assertEquals("123", handle.getCreatedBy());
+		assertEquals("text/csv", handle.getContentType());
+		assertEquals("foo.csv", handle.getFileName());
+		assertEquals(storageLocationId, handle.getStorageLocationId());
+		InitiateMultipartUploadRequest initiate = imurCapture.getValue();
+		assertEquals(handle.getBucketName(), initiate.getBucketName());
+		assertEquals(handle.getKey(), initiate.getKey());
+		assertEquals("text/csv", initiate.getObjectMetadata().getContentType());
+		assertEquals(CannedAccessControlList.BucketOwnerFullControl, initiate.getCannedACL());
+	}
+
+	@Test (expected=IllegalArgumentException.class)
+	public void testStartStreamUploadNullFileName() {
+		StreamUploadRequest request = new StreamUploadRequest().withUserId("123").withContentType("text/csv");
+		// method under test
+		manager.startStreamUpload(request);
+	}
+
+	@Test
+	public void testCompleteStreamUpload() throws Exception {
+		S3FileHandle handle = new S3FileHandle();
+		handle.setBucketName("bucket");
+		handle.setKey("key");
+		when(mockUploadStream.getFileHandle()).thenReturn(handle);
+		when(mockUploadStream.getContentMd5()).thenReturn("md5");
+		when(mockUploadStream.getContentSize()).thenReturn(1234L);
+		when(idGenerator.generateNewId(IdType.FILE_IDS)).thenReturn(555L);
+		when(fileHandleDao.createFile(any(FileHandle.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		
+		// method under test
+		S3FileHandle result = manager.completeStreamUpload(mockUploadStream);
+		
+		verify(mockUploadStream).complete();
+		assertEquals("555", result.getId());
+		assertEquals("md5", result.getContentMd5());
+		assertEquals(new Long(1234L), result.getContentSize());
+		assertNotNull(result.getCreatedOn());
+		assertNotNull(result.getEtag());
+		verify(fileHandleDao).createFile(handle);
+	}
+
 }
@@ -0,0 +1,250 @@
+package org.sagebionetworks.repo.manager.file;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.amazonaws.util.BinaryUtils;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+@ExtendWith(MockitoExtension.class)
+public class MultipartUploadOutputStreamTest {
+
+	@Mock
+	private SynapseS3Client mockS3Client;
+	@Captor
+	private ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor;
+	@Captor
+	private ArgumentCaptor<AbortMultipartUploadRequest> abortCaptor;
+
+	private ExecutorService executor;
+	private S3FileHandle fileHandle;
+	private String uploadId;
+	private int partSize;
+	private List<byte[]> uploadedParts;
+	private MultipartUploadOutputStream stream;
+
+	@BeforeEach
+	public void before() {
+		// parts are uploaded on the calling thread.
+		executor = MoreExecutors.newDirectExecutorService();
+		fileHandle = new S3FileHandle();
+		fileHandle.setBucketName("some.bucket");
+		fileHandle.setKey("some/key");
+		uploadId = "upload-id";
+		partSize = MultipartUploadOutputStream.MIN_PART_SIZE_BYTES;
+		uploadedParts = new ArrayList<>();
+		stream = new MultipartUploadOutputStream(mockS3Client, executor, fileHandle, uploadId, partSize, 2);
+	}
+
+	private void setupUploadPart() {
+		when(mockS3Client.uploadPart(any(UploadPartRequest.class))).thenAnswer(invocation -> {
+			UploadPartRequest request = invocation.getArgument(0);
+			assertEquals(fileHandle.getBucketName(), request.getBucketName());
+			assertEquals(fileHandle.getKey(), request.getKey());
+			assertEquals(uploadId, request.getUploadId());
+			byte[] bytes = IOUtils.toByteArray(request.getInputStream());
+			assertEquals(request.getPartSize(), bytes.length);
+			uploadedParts.add(bytes);
+			UploadPartResult result = new UploadPartResult();
+			result.setPartNumber(request.getPartNumber());
+			result.setETag("etag-" + request.getPartNumber());
+			return result;
+		});
+	}
+
+	private static byte[] createContent(int size) {
+		byte[] content = new byte[size];
+		for (int i = 0; i < size; i++) {
+			content[i] = (byte) i;
+		}
+		return content;
+	}
+
+	@Test
+	public void testWriteAndComplete() throws Exception {
+		setupUploadPart();
+		byte[] content = createContent(partSize + 10);
+		stream.write(content, 0, content.length - 1);
+		stream.write(content[content.length - 1]);
+		// the first part is uploaded as soon as it is full.
+		assertEquals(1, uploadedParts.size());
+		// call under test
+		stream.complete();
+		assertTrue(stream.isCompleted());
+		assertEquals(2, uploadedParts.size());
+		assertArrayEquals(Arrays.copyOfRange(content, 0, partSize), uploadedParts.get(0));
+		assertArrayEquals(Arrays.copyOfRange(content, partSize, content.length), uploadedParts.get(1));
+		verify(mockS3Client).completeMultipartUpload(completeCaptor.capture());
+		CompleteMultipartUploadRequest complete = completeCaptor.getValue();
+		assertEquals(fileHandle.getBucketName(), complete.getBucketName());
+		assertEquals(fileHandle.getKey(), complete.getKey());
+		assertEquals(uploadId, complete.getUploadId());
+		assertEquals(2, complete.getPartETags().size());
+		assertEquals(1, complete.getPartETags().get(0).getPartNumber());
+		assertEquals("etag-1", complete.getPartETags().get(0).getETag());
+		assertEquals(2, complete.getPartETags().get(1).getPartNumber());
+		assertEquals("etag-2", complete.getPartETags().get(1).getETag());
+		assertEquals(content.length, stream.getContentSize());
+		String expectedMd5 = BinaryUtils.toHex(MessageDigest.getInstance("MD5").digest(content));
+		assertEquals(expectedMd5, stream.getContentMd5());
+		stream.close();
+		verify(mockS3Client, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+	}
+
+	@Test
+	public void testCompleteExactlyOnePart() throws Exception {
+		setupUploadPart();
+		stream.write(createContent(partSize));
+		// call under test
+		stream.complete();
+		// no empty part is added after a full part.
+		assertEquals(1, uploadedParts.size());
+		verify(mockS3Client).completeMultipartUpload(completeCaptor.capture());
+		assertEquals(1, completeCaptor.getValue().getPartETags().size());
+	}
+
+	@Test
+	public void testCompleteEmpty() throws Exception {
+		setupUploadPart();
+		// call under test
+		stream.complete();
+		assertEquals(1, uploadedParts.size());
+		assertEquals(0, uploadedParts.get(0).length);
+		assertEquals(0L, stream.getContentSize());
+		verify(mockS3Client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+	}
+
+	@Test
+	public void testCloseWithoutComplete() throws Exception {
+		setupUploadPart();
+		stream.write(createContent(partSize + 1));
+		// call under test
+		stream.close();
+		stream.close();
+		verify(mockS3Client, times(1)).abortMultipartUpload(abortCaptor.capture());
+		AbortMultipartUploadRequest abort = abortCaptor.getValue();
+		assertEquals(fileHandle.getBucketName(), abort.getBucketName());
+		assertEquals(fileHandle.getKey(), abort.getKey());
+		assertEquals(uploadId, abort.getUploadId());
+		verify(mockS3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+	}
+
+	@Test
+	public void testCloseWaitsForRunningParts() throws Exception {
+		ExecutorService singleThread = Executors.newSingleThreadExecutor();
+		try {
+			CountDownLatch partStarted = new CountDownLatch(1);
+			AtomicBoolean partFinished = new AtomicBoolean(false);
+			AtomicInteger uploadCount = new AtomicInteger(0);
+			when(mockS3Client.uploadPart(any(UploadPartRequest.class))).thenAnswer(invocation -> {
+				uploadCount.incrementAndGet();
+				partStarted.countDown();
+				// an HTTP upload that does not stop when interrupted.
+				Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+				partFinished.set(true);
+				return new UploadPartResult();
+			});
+			AtomicBoolean finishedBeforeAbort = new AtomicBoolean(false);
+			doAnswer(invocation -> {
+				finishedBeforeAbort.set(partFinished.get());
+				return null;
+			}).when(mockS3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+			stream = new MultipartUploadOutputStream(mockS3Client, singleThread, fileHandle, uploadId, partSize, 2);
+			// the second part is queued behind the first.
+			stream.write(createContent(partSize * 2));
+			assertTrue(partStarted.await(10, TimeUnit.SECONDS));
+			// call under test
+			stream.close();
+			assertTrue(finishedBeforeAbort.get());
+			verify(mockS3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+			singleThread.shutdown();
+			assertTrue(singleThread.awaitTermination(10, TimeUnit.SECONDS));
+			// the queued part never started.
+			assertEquals(1, uploadCount.get());
+		} finally {
+			singleThread.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testPartFailure() throws Exception {
+		SdkClientException error = new SdkClientException("failed");
+		when(mockS3Client.uploadPart(any(UploadPartRequest.class))).thenThrow(error);
+		stream.write(createContent(partSize));
+		// call under test
+		IOException e = assertThrows(IOException.class, () -> {
+			stream.write(1);
+		});
+		assertEquals(error, e.getCause());
+		assertThrows(IOException.class, () -> {
+			stream.complete();
+		});
+		stream.close();
+		verify(mockS3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+		verify(mockS3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+	}
+
+	@Test
+	public void testWriteAfterComplete() throws Exception {
+		setupUploadPart();
+		stream.complete();
+		// call under test
+		assertThrows(IOException.class, () -> {
+			stream.write(1);
+		});
+	}
+
+	@Test
+	public void testWriteAfterClose() throws Exception {
+		stream.close();
+		// call under test
+		assertThrows(IOException.class, () -> {
+			stream.write(1);
+		});
+	}
+
+	@Test
+	public void testPartSizeTooSmall() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new MultipartUploadOutputStream(mockS3Client, executor, fileHandle, uploadId,
+					MultipartUploadOutputStream.MIN_PART_SIZE_BYTES - 1, 2);
+		});
+	}
+}
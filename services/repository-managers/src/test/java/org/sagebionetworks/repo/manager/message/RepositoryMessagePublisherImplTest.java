@@ -1,19 +1,41 @@
 package org.sagebionetworks.repo.manager.message;
 
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.message.ChangeType;
 import org.sagebionetworks.repo.model.message.TransactionalMessenger;
 
 import com.amazonaws.services.sns.AmazonSNS;
+import com.amazonaws.services.sns.model.CreateTopicRequest;
+import com.amazonaws.services.sns.model.CreateTopicResult;
+import com.amazonaws.services.sns.model.PublishRequest;
 
 /**
  * Unit test for RepositoryMessagePublisherImpl.
@@ -29,6 +51,10 @@ public class RepositoryMessagePublisherImplTest {
 	TransactionalMessenger mockTransactionalMessanger;
 	@Mock
 	AmazonSNS mockAwsSNSClient;
+	@Mock
+	StackConfiguration mockStackConfiguration;
+	@Mock
+	Consumer mockConsumer;
 
 	@InjectMocks
 	RepositoryMessagePublisherImpl messagePublisher;
@@ -77,5 +103,123 @@ public class RepositoryMessagePublisherImplTest {
 		// This should work
 		messagePublisher.fireChangeMessage(message);
 	}
-	
+
+	/**
+	 * Helper to create a change message for the given type.
+	 */
+	ChangeMessage createMessage(long changeNumber, ObjectType type) {
+		ChangeMessage change = new ChangeMessage();
+		change.setChangeNumber(changeNumber);
+		change.setTimestamp(new Date());
+		change.setChangeType(ChangeType.UPDATE);
+		change.setObjectId("" + changeNumber);
+		change.setObjectType(type);
+		return change;
+	}
+
+	void setupPublish() {
+		when(mockStackConfiguration.getShouldMessagesBePublishedToTopic()).thenReturn(true);
+		when(mockStackConfiguration.getStackInstance()).thenReturn("instance1");
+		when(mockStackConfiguration.getRepositoryChangeTopic(anyString())).thenReturn("topicName");
+		when(mockAwsSNSClient.createTopic(any(CreateTopicRequest.class)))
+				.thenReturn(new CreateTopicResult().withTopicArn("topicArn"));
+	}
+
+	/**
+	 * Capture the metrics published for a single timer fire.
+	 */
+	List<ProfileData> captureMetrics() {
+		ArgumentCaptor<ProfileData> captor = ArgumentCaptor.forClass(ProfileData.class);
+		verify(mockConsumer, times(3)).addProfileData(captor.capture());
+		List<ProfileData> metrics = captor.getAllValues();
+		for (ProfileData metric : metrics) {
+			assertEquals("Repository-Messages-instance1", metric.getNamespace());
+		}
+		assertEquals(RepositoryMessagePublisherImpl.METRIC_DRAINED, metrics.get(0).getName());
+		assertEquals(RepositoryMessagePublisherImpl.METRIC_PUBLISHED, metrics.get(1).getName());
+		assertEquals(RepositoryMessagePublisherImpl.METRIC_FAILED, metrics.get(2).getName());
+		return metrics;
+	}
+
+	@Test
+	public void testTimerFiredBatchesByType() {
+		setupPublish();
+		ChangeMessage one = createMessage(1L, ObjectType.ENTITY);
+		ChangeMessage two = createMessage(2L, ObjectType.FILE);
+		ChangeMessage three = createMessage(3L, ObjectType.ENTITY);
+		messagePublisher.fireChangeMessage(one);
+		messagePublisher.fireChangeMessage(two);
+		messagePublisher.fireChangeMessage(three);
+		// call under test
+		messagePublisher.timerFired();
+		// one transaction and one publish per type.
+		verify(mockTransactionalMessanger).registerMessagesSent(ObjectType.ENTITY, Arrays.asList(one, three));
+		verify(mockTransactionalMessanger).registerMessagesSent(ObjectType.FILE, Arrays.asList(two));
+		verify(mockAwsSNSClient, times(2)).publish(any(PublishRequest.class));
+		List<ProfileData> metrics = captureMetrics();
+		assertEquals(3.0, metrics.get(0).getValue().doubleValue(), 0.0);
+		assertEquals(3.0, metrics.get(1).getValue().doubleValue(), 0.0);
+		assertEquals(0.0, metrics.get(2).getValue().doubleValue(), 0.0);
+	}
+
+	@Test
+	public void testTimerFiredPartitionsLargeBatch() {
+		setupPublish();
+		int count = ChangeMessageUtils.MAX_NUMBER_OF_CHANGE_MESSAGES_PER_SQS_MESSAGE + 1;
+		List<ChangeMessage> changes = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ChangeMessage change = createMessage(i, ObjectType.ENTITY);
+			changes.add(change);
+			messagePublisher.fireChangeMessage(change);
+		}
+		// call under test
+		messagePublisher.timerFired();
+		verify(mockTransactionalMessanger).registerMessagesSent(ObjectType.ENTITY,
+				changes.subList(0, ChangeMessageUtils.MAX_NUMBER_OF_CHANGE_MESSAGES_PER_SQS_MESSAGE));
+		verify(mockTransactionalMessanger).registerMessagesSent(ObjectType.ENTITY,
+				changes.subList(ChangeMessageUtils.MAX_NUMBER_OF_CHANGE_MESSAGES_PER_SQS_MESSAGE, count));
+		verify(mockAwsSNSClient, times(2)).publish(any(PublishRequest.class));
+		List<ProfileData> metrics = captureMetrics();
+		assertEquals((double) count, metrics.get(1).getValue().doubleValue(), 0.0);
+	}
+
+	@Test
+	public void testTimerFiredBatchFailure() {
+		setupPublish();
+		ChangeMessage one = createMessage(1L, ObjectType.ENTITY);
+		ChangeMessage two = createMessage(2L, ObjectType.FILE);
+		messagePublisher.fireChangeMessage(one);
+		messagePublisher.fireChangeMessage(two);
+		doThrow(new IllegalStateException("failed")).when(mockTransactionalMessanger)
+				.registerMessagesSent(eq(ObjectType.ENTITY), anyList());
+		// call under test
+		messagePublisher.timerFired();
+		// the failure of one batch must not stop the other.
+		verify(mockTransactionalMessanger).registerMessagesSent(ObjectType.FILE, Arrays.asList(two));
+		verify(mockAwsSNSClient, times(1)).publish(any(PublishRequest.class));
+		List<ProfileData> metrics = captureMetrics();
+		assertEquals(2.0, metrics.get(0).getValue().doubleValue(), 0.0);
+		assertEquals(1.0, metrics.get(1).getValue().doubleValue(), 0.0);
+		assertEquals(1.0, metrics.get(2).getValue().doubleValue(), 0.0);
+	}
+
+	@Test
+	public void testTimerFiredEmptyQueue() {
+		when(mockStackConfiguration.getShouldMessagesBePublishedToTopic()).thenReturn(true);
+		// call under test
+		messagePublisher.timerFired();
+		verifyZeroInteractions(mockTransactionalMessanger);
+		verify(mockConsumer, never()).addProfileData(any(ProfileData.class));
+	}
+
+	@Test
+	public void testTimerFiredShouldNotPublish() {
+		when(mockStackConfiguration.getShouldMessagesBePublishedToTopic()).thenReturn(false);
+		messagePublisher.fireChangeMessage(message);
+		// call under test
+		messagePublisher.timerFired();
+		verifyZeroInteractions(mockTransactionalMessanger);
+		verifyZeroInteractions(mockAwsSNSClient);
+		verify(mockConsumer, never()).addProfileData(any(ProfileData.class));
+	}
 }
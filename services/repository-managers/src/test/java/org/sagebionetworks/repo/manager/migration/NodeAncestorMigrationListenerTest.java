@@ -0,0 +1,50 @@
+package org.sagebionetworks.repo.manager.migration;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.dao.NodeAncestorDao;
+import org.sagebionetworks.repo.model.dbo.persistence.DBONode;
+import org.sagebionetworks.repo.model.migration.MigrationType;
+
+@ExtendWith(MockitoExtension.class)
+public class NodeAncestorMigrationListenerTest {
+
+	@Mock
+	NodeAncestorDao mockNodeAncestorDao;
+
+	@InjectMocks
+	NodeAncestorMigrationListener listener;
+
+	@Test
+	public void testAfterCreateOrUpdateNode() {
+		List<DatabaseObject<?>> delta = Collections.singletonList(new DBONode());
+		// call under test
+		listener.afterCreateOrUpdate(MigrationType.NODE, delta);
+		verify(mockNodeAncestorDao).clearFullPassComplete();
+	}
+
+	@Test
+	public void testAfterCreateOrUpdateOtherType() {
+		List<DatabaseObject<?>> delta = Collections.singletonList(new DBONode());
+		// call under test
+		listener.afterCreateOrUpdate(MigrationType.NODE_REVISION, delta);
+		verifyZeroInteractions(mockNodeAncestorDao);
+	}
+
+	@Test
+	public void testAfterCreateOrUpdateEmpty() {
+		// call under test
+		listener.afterCreateOrUpdate(MigrationType.NODE, Collections.emptyList());
+		verifyZeroInteractions(mockNodeAncestorDao);
+	}
+}
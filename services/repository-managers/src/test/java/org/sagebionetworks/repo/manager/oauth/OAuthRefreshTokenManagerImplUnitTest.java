@@ -11,6 +11,7 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
@@ -35,6 +36,7 @@ import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.auth.OAuthClientDao;
 import org.sagebionetworks.repo.model.auth.OAuthDao;
 import org.sagebionetworks.repo.model.auth.OAuthRefreshTokenDao;
+import org.sagebionetworks.repo.model.message.TransactionSynchronizationProxy;
 import org.sagebionetworks.repo.model.oauth.OAuthClientAuthorizationHistoryList;
 import org.sagebionetworks.repo.model.oauth.OAuthRefreshTokenInformation;
 import org.sagebionetworks.repo.model.oauth.OAuthRefreshTokenInformationList;
@@ -43,6 +45,7 @@ import org.sagebionetworks.repo.model.oauth.OIDCClaimsRequest;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.repo.web.OAuthBadRequestException;
 import org.sagebionetworks.util.Clock;
+import org.springframework.transaction.support.TransactionSynchronization;
 
 @ExtendWith(MockitoExtension.class)
 public class OAuthRefreshTokenManagerImplUnitTest {
@@ -59,6 +62,12 @@ public class OAuthRefreshTokenManagerImplUnitTest {
 	@Mock
 	Clock clock;
 
+	@Mock
+	ValidatedAccessTokenCache mockValidatedAccessTokenCache;
+
+	@Mock
+	TransactionSynchronizationProxy mockTransactionSynchronization;
+
 	@InjectMocks
 	OAuthRefreshTokenManagerImpl oauthRefreshTokenManager;
 
@@ -373,6 +382,23 @@ public class OAuthRefreshTokenManagerImplUnitTest {
 
 		verify(mockOAuthDao).deleteAuthorizationConsentForClient(Long.valueOf(USER_ID), Long.valueOf(CLIENT_ID));
 		verify(mockOAuthRefreshTokenDao).deleteAllTokensForUserClientPair(USER_ID, CLIENT_ID);
+		verify(mockValidatedAccessTokenCache).invalidateUserClientPair(USER_ID, CLIENT_ID);
+	}
+
+	@Test
+	public void testRevokeTokensForUserClientPairInTransaction() {
+		when(mockTransactionSynchronization.isActualTransactionActive()).thenReturn(true);
+
+		// Call under test
+		oauthRefreshTokenManager.revokeRefreshTokensForUserClientPair(USER_INFO, CLIENT_ID);
+
+		verify(mockOAuthRefreshTokenDao).deleteAllTokensForUserClientPair(USER_ID, CLIENT_ID);
+		// the cache is only invalidated after the delete commits.
+		ArgumentCaptor<TransactionSynchronization> captor = ArgumentCaptor.forClass(TransactionSynchronization.class);
+		verify(mockTransactionSynchronization).registerSynchronization(captor.capture());
+		verifyZeroInteractions(mockValidatedAccessTokenCache);
+		captor.getValue().afterCommit();
+		verify(mockValidatedAccessTokenCache).invalidateUserClientPair(USER_ID, CLIENT_ID);
 	}
 
 	@Test
@@ -388,6 +414,28 @@ public class OAuthRefreshTokenManagerImplUnitTest {
 
 		verify(mockOAuthRefreshTokenDao).getRefreshTokenMetadata(TOKEN_ID);
 		verify(mockOAuthRefreshTokenDao).deleteToken(TOKEN_ID);
+		verify(mockValidatedAccessTokenCache).invalidateRefreshToken(TOKEN_ID);
+	}
+
+	@Test
+	public void testRevokeTokenAsUserInTransaction() {
+		OAuthRefreshTokenInformation existingToken = new OAuthRefreshTokenInformation();
+		existingToken.setTokenId(TOKEN_ID);
+		existingToken.setPrincipalId(USER_ID);
+
+		when(mockOAuthRefreshTokenDao.getRefreshTokenMetadata(TOKEN_ID)).thenReturn(Optional.of(existingToken));
+		when(mockTransactionSynchronization.isActualTransactionActive()).thenReturn(true);
+
+		// Call under test
+		oauthRefreshTokenManager.revokeRefreshToken(USER_INFO, TOKEN_ID);
+
+		verify(mockOAuthRefreshTokenDao).deleteToken(TOKEN_ID);
+		// the cache is only invalidated after the delete commits.
+		ArgumentCaptor<TransactionSynchronization> captor = ArgumentCaptor.forClass(TransactionSynchronization.class);
+		verify(mockTransactionSynchronization).registerSynchronization(captor.capture());
+		verifyZeroInteractions(mockValidatedAccessTokenCache);
+		captor.getValue().afterCommit();
+		verify(mockValidatedAccessTokenCache).invalidateRefreshToken(TOKEN_ID);
 	}
 
 	@Test
@@ -430,6 +478,28 @@ public class OAuthRefreshTokenManagerImplUnitTest {
 
 		verify(mockOAuthRefreshTokenDao).getRefreshTokenMetadata(TOKEN_ID);
 		verify(mockOAuthRefreshTokenDao).deleteToken(TOKEN_ID);
+		verify(mockValidatedAccessTokenCache).invalidateRefreshToken(TOKEN_ID);
+	}
+
+	@Test
+	public void testRevokeTokenAsClientInTransaction() {
+		OAuthRefreshTokenInformation existingToken = new OAuthRefreshTokenInformation();
+		existingToken.setTokenId(TOKEN_ID);
+		existingToken.setClientId(CLIENT_ID);
+
+		when(mockOAuthRefreshTokenDao.getRefreshTokenMetadata(TOKEN_ID)).thenReturn(Optional.of(existingToken));
+		when(mockTransactionSynchronization.isActualTransactionActive()).thenReturn(true);
+
+		// Call under test
+		oauthRefreshTokenManager.revokeRefreshToken(CLIENT_ID, TOKEN_ID);
+
+		verify(mockOAuthRefreshTokenDao).deleteToken(TOKEN_ID);
+		// the cache is only invalidated after the delete commits.
+		ArgumentCaptor<TransactionSynchronization> captor = ArgumentCaptor.forClass(TransactionSynchronization.class);
+		verify(mockTransactionSynchronization).registerSynchronization(captor.capture());
+		verifyZeroInteractions(mockValidatedAccessTokenCache);
+		captor.getValue().afterCommit();
+		verify(mockValidatedAccessTokenCache).invalidateRefreshToken(TOKEN_ID);
 	}
 
 	@Test
@@ -15,6 +15,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.sagebionetworks.repo.manager.oauth.OpenIDConnectManager.getScopeHash;
 
@@ -26,6 +27,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -123,6 +125,9 @@ public class OpenIDConnectManagerImplUnitTest {
 	@Mock
 	private PersonalAccessTokenManager mockPersonalAccessTokenManager;
 
+	@Mock
+	private ValidatedAccessTokenCache mockValidatedAccessTokenCache;
+
 	@InjectMocks
 	private OpenIDConnectManagerImpl openIDConnectManagerImpl;
 	
@@ -1242,6 +1247,41 @@ public class OpenIDConnectManagerImplUnitTest {
 		assertEquals(USER_ID, openIDConnectManagerImpl.validateAccessToken(token));
 
 		verify(oidcTokenHelper).parseJWT(token);
+		verify(mockValidatedAccessTokenCache).put(token, new ValidatedAccessToken(USER_ID, OAUTH_CLIENT_ID,
+				TokenType.OIDC_ACCESS_TOKEN, null, refreshTokenId, claims.getExpiration()));
+	}
+
+	@Test
+	public void testValidateAccessToken_cached() {
+		String token = "access token";
+		ValidatedAccessToken validated = new ValidatedAccessToken(USER_ID, OAUTH_CLIENT_ID,
+				TokenType.OIDC_ACCESS_TOKEN, null, "12345", null);
+		when(mockValidatedAccessTokenCache.get(token)).thenReturn(Optional.of(validated));
+
+		// method under test
+		assertEquals(USER_ID, openIDConnectManagerImpl.validateAccessToken(token));
+
+		verifyZeroInteractions(oidcTokenHelper);
+		verifyZeroInteractions(oauthRefreshTokenManager);
+		verifyZeroInteractions(mockOauthClientDao);
+		verify(mockValidatedAccessTokenCache, never()).put(any(), any());
+	}
+
+	@Test
+	public void testValidateAccessToken_personalAccessToken_cached() {
+		String token = "personal access token";
+		String tokenId = "9999";
+		ValidatedAccessToken validated = new ValidatedAccessToken(USER_ID, OAUTH_CLIENT_ID,
+				TokenType.PERSONAL_ACCESS_TOKEN, tokenId, null, null);
+		when(mockValidatedAccessTokenCache.get(token)).thenReturn(Optional.of(validated));
+
+		// method under test
+		assertEquals(USER_ID, openIDConnectManagerImpl.validateAccessToken(token));
+
+		verifyZeroInteractions(oidcTokenHelper);
+		verify(mockPersonalAccessTokenManager, never()).isTokenActive(any());
+		// the use of the token is still recorded
+		verify(mockPersonalAccessTokenManager).updateLastUsedTime(tokenId);
 	}
 
 	@Test
@@ -1350,6 +1390,7 @@ public class OpenIDConnectManagerImplUnitTest {
 		assertThrows(ForbiddenException.class, () -> openIDConnectManagerImpl.validateAccessToken(token));
 
 		verify(oidcTokenHelper).parseJWT(token);
+		verify(mockValidatedAccessTokenCache, never()).put(any(), any());
 	}
 
 
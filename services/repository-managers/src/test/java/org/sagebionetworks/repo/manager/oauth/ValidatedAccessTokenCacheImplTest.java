@@ -0,0 +1,106 @@
+package org.sagebionetworks.repo.manager.oauth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.model.auth.TokenType;
+import org.sagebionetworks.util.Clock;
+
+@ExtendWith(MockitoExtension.class)
+public class ValidatedAccessTokenCacheImplTest {
+
+	@Mock
+	private Clock mockClock;
+
+	private ValidatedAccessTokenCacheImpl cache;
+
+	private static final String TOKEN = "some.access.token";
+	private static final String USER_ID = "123";
+	private static final String CLIENT_ID = "456";
+	private long now;
+	private ValidatedAccessToken oidcToken;
+	private ValidatedAccessToken personalAccessToken;
+
+	@BeforeEach
+	public void before() {
+		now = 100_000L;
+		when(mockClock.currentTimeMillis()).thenAnswer(invocation -> now);
+		cache = new ValidatedAccessTokenCacheImpl(mockClock);
+		oidcToken = new ValidatedAccessToken(USER_ID, CLIENT_ID, TokenType.OIDC_ACCESS_TOKEN, "jti", "refreshId",
+				new Date(now + 60 * 60 * 1000L));
+		personalAccessToken = new ValidatedAccessToken(USER_ID, CLIENT_ID, TokenType.PERSONAL_ACCESS_TOKEN, "patId",
+				null, null);
+	}
+
+	@Test
+	public void testPutAndGet() {
+		assertFalse(cache.get(TOKEN).isPresent());
+		cache.put(TOKEN, oidcToken);
+		// call under test
+		assertEquals(Optional.of(oidcToken), cache.get(TOKEN));
+		assertFalse(cache.get("other.token").isPresent());
+	}
+
+	@Test
+	public void testGetAfterTimeToLive() {
+		cache.put(TOKEN, oidcToken);
+		now += ValidatedAccessTokenCacheImpl.TIME_TO_LIVE_MS - 1;
+		assertTrue(cache.get(TOKEN).isPresent());
+		now += 1;
+		// call under test
+		assertFalse(cache.get(TOKEN).isPresent());
+	}
+
+	@Test
+	public void testGetAfterTokenExpiration() {
+		ValidatedAccessToken expiresSoon = new ValidatedAccessToken(USER_ID, CLIENT_ID, TokenType.OIDC_ACCESS_TOKEN,
+				"jti", null, new Date(now + 1000L));
+		cache.put(TOKEN, expiresSoon);
+		now += 1000L;
+		// call under test
+		assertFalse(cache.get(TOKEN).isPresent());
+	}
+
+	@Test
+	public void testInvalidatePersonalAccessToken() {
+		cache.put(TOKEN, personalAccessToken);
+		cache.put("other.token", oidcToken);
+		// call under test
+		cache.invalidatePersonalAccessToken("patId");
+		assertFalse(cache.get(TOKEN).isPresent());
+		assertTrue(cache.get("other.token").isPresent());
+	}
+
+	@Test
+	public void testInvalidateRefreshToken() {
+		cache.put(TOKEN, oidcToken);
+		cache.put("other.token", personalAccessToken);
+		// call under test
+		cache.invalidateRefreshToken("refreshId");
+		assertFalse(cache.get(TOKEN).isPresent());
+		assertTrue(cache.get("other.token").isPresent());
+	}
+
+	@Test
+	public void testInvalidateUserClientPair() {
+		cache.put(TOKEN, oidcToken);
+		cache.put("other.token", personalAccessToken);
+		// call under test
+		cache.invalidateUserClientPair(USER_ID, "otherClient");
+		assertTrue(cache.get(TOKEN).isPresent());
+		cache.invalidateUserClientPair(USER_ID, CLIENT_ID);
+		assertFalse(cache.get(TOKEN).isPresent());
+		// personal access tokens are not revoked with the client's refresh tokens
+		assertTrue(cache.get("other.token").isPresent());
+	}
+}
@@ -0,0 +1,182 @@
+package org.sagebionetworks.repo.manager.replication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.table.cluster.TableIndexDAO;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+@ExtendWith(MockitoExtension.class)
+public class IndexReplicationFanOutTest {
+
+	@Mock
+	StackConfiguration mockConfig;
+	@Mock
+	Consumer mockConsumer;
+	@Mock
+	Clock mockClock;
+	@Mock
+	TableIndexDAO mockIndexOne;
+	@Mock
+	TableIndexDAO mockIndexTwo;
+
+	ExecutorService executor;
+	List<TableIndexDAO> indexDaos;
+	Set<TableIndexDAO> replicated;
+
+	@BeforeEach
+	public void before() {
+		executor = Executors.newFixedThreadPool(2);
+		when(mockConfig.getStackInstance()).thenReturn("instance1");
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		indexDaos = Arrays.asList(mockIndexOne, mockIndexTwo);
+		replicated = ConcurrentHashMap.newKeySet();
+	}
+
+	@AfterEach
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	IndexReplicationFanOut createFanOut(long timeoutMS) {
+		when(mockConfig.getTableReplicationTimeoutMS()).thenReturn(timeoutMS);
+		return new IndexReplicationFanOut(executor, mockConfig, mockConsumer, mockClock);
+	}
+
+	@Test
+	public void testReplicateToAll() throws RecoverableMessageException {
+		IndexReplicationFanOut fanOut = createFanOut(10000L);
+		// call under test
+		fanOut.replicateToAll(indexDaos, 400L, replicated::add);
+		assertEquals(2, replicated.size());
+		ArgumentCaptor<ProfileData> captor = ArgumentCaptor.forClass(ProfileData.class);
+		verify(mockConsumer, times(2)).addProfileData(captor.capture());
+		List<ProfileData> metrics = captor.getAllValues();
+		for (int i = 0; i < metrics.size(); i++) {
+			ProfileData metric = metrics.get(i);
+			assertEquals("Table-Replication-instance1", metric.getNamespace());
+			assertEquals(IndexReplicationFanOut.METRIC_LAG, metric.getName());
+			assertEquals(StandardUnit.Milliseconds.name(), metric.getUnit());
+			assertEquals(600.0, metric.getValue().doubleValue());
+			assertEquals(Collections.singletonMap(IndexReplicationFanOut.DIMENSION_INSTANCE, "index-" + i),
+					metric.getDimension());
+		}
+	}
+
+	@Test
+	public void testReplicateToAllWithoutTimestamp() throws RecoverableMessageException {
+		IndexReplicationFanOut fanOut = createFanOut(10000L);
+		// call under test
+		fanOut.replicateToAll(indexDaos, null, replicated::add);
+		assertEquals(2, replicated.size());
+		verify(mockConsumer, never()).addProfileData(any());
+	}
+
+	@Test
+	public void testReplicateToAllWithFailure() {
+		IndexReplicationFanOut fanOut = createFanOut(10000L);
+		IllegalStateException exception = new IllegalStateException("failed");
+		IllegalStateException result = assertThrows(IllegalStateException.class, () -> {
+			// call under test
+			fanOut.replicateToAll(indexDaos, 400L, (TableIndexDAO indexDao) -> {
+				if (indexDao == mockIndexOne) {
+					throw exception;
+				}
+				replicated.add(indexDao);
+			});
+		});
+		assertSame(exception, result);
+		// the failure of the first index does not stop the second.
+		assertEquals(Collections.singleton(mockIndexTwo), replicated);
+		ArgumentCaptor<ProfileData> captor = ArgumentCaptor.forClass(ProfileData.class);
+		verify(mockConsumer, times(2)).addProfileData(captor.capture());
+		ProfileData failure = captor.getAllValues().get(0);
+		assertEquals(IndexReplicationFanOut.METRIC_FAILURE, failure.getName());
+		assertEquals(Collections.singletonMap(IndexReplicationFanOut.DIMENSION_INSTANCE, "index-0"),
+				failure.getDimension());
+		assertEquals(IndexReplicationFanOut.METRIC_LAG, captor.getAllValues().get(1).getName());
+	}
+
+	@Test
+	public void testReplicateToAllWithTimeout() {
+		IndexReplicationFanOut fanOut = createFanOut(100L);
+		CountDownLatch never = new CountDownLatch(1);
+		assertThrows(RecoverableMessageException.class, () -> {
+			// call under test
+			fanOut.replicateToAll(indexDaos, 400L, (TableIndexDAO indexDao) -> {
+				if (indexDao == mockIndexTwo) {
+					try {
+						never.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				replicated.add(indexDao);
+			});
+		});
+		assertEquals(Collections.singleton(mockIndexOne), replicated);
+		ArgumentCaptor<ProfileData> captor = ArgumentCaptor.forClass(ProfileData.class);
+		verify(mockConsumer, times(2)).addProfileData(captor.capture());
+		assertEquals(IndexReplicationFanOut.METRIC_LAG, captor.getAllValues().get(0).getName());
+		ProfileData failure = captor.getAllValues().get(1);
+		assertEquals(IndexReplicationFanOut.METRIC_FAILURE, failure.getName());
+		assertEquals(Collections.singletonMap(IndexReplicationFanOut.DIMENSION_INSTANCE, "index-1"),
+				failure.getDimension());
+	}
+
+	@Test
+	public void testReplicateToAllWithTimeoutWaitsForRunningWork() {
+		IndexReplicationFanOut fanOut = createFanOut(100L);
+		AtomicBoolean finished = new AtomicBoolean(false);
+		assertThrows(RecoverableMessageException.class, () -> {
+			// call under test
+			fanOut.replicateToAll(indexDaos, 400L, (TableIndexDAO indexDao) -> {
+				if (indexDao == mockIndexTwo) {
+					// like a running JDBC statement this ignores the interrupt.
+					long end = System.currentTimeMillis() + 500L;
+					while (System.currentTimeMillis() < end) {
+						try {
+							Thread.sleep(10L);
+						} catch (InterruptedException e) {
+							// keep running
+						}
+					}
+					finished.set(true);
+				}
+			});
+		});
+		// the batch is only handed back once the timed out work is no longer running.
+		assertTrue(finished.get());
+	}
+}
@@ -3,13 +3,16 @@ package org.sagebionetworks.repo.manager.replication;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -17,6 +20,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -26,6 +30,8 @@ import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -63,6 +69,8 @@ public class ReplicationManagerTest {
 	ReplicationMessageManager mockReplicationMessageManager;
 	@Mock
 	Clock clock;
+	@Mock
+	IndexReplicationFanOut mockFanOut;
 	
 	@InjectMocks
 	ReplicationManagerImpl manager;
@@ -207,11 +215,13 @@ public class ReplicationManagerTest {
 		when(mockMetadataIndexProvider.getObjectData(any(), anyInt())).thenReturn(entityData);
 		
 		setupDaoWriteTransaction();
+		setupFanOut();
 		
 		// call under test
 		manager.replicate(changes);
 		
 		verify(mockConnectionFactory).getAllConnections();
+		verify(mockFanOut).replicateToAll(eq(Collections.singletonList(mockIndexDao)), eq(null), any());
 		verify(mockMetadataIndexProviderFactory).getMetadataIndexProvider(viewObjectType);
 		verify(mockMetadataIndexProvider).getObjectData(ImmutableList.of(111L, 222L), ReplicationManagerImpl.MAX_ANNOTATION_CHARS);
 		verify(mockIndexDao).deleteObjectData(viewObjectType, ImmutableList.of(111L,222L,333L));
@@ -266,6 +276,33 @@ public class ReplicationManagerTest {
 
 	}
 	
+	@Test
+	public void testRunWithTimestamps() throws Exception {
+		List<ObjectDataDTO> entityData = createEntityDtos(2);
+		changes.get(0).setTimestamp(new Date(300L));
+		changes.get(1).setTimestamp(new Date(100L));
+		changes.get(2).setTimestamp(new Date(200L));
+
+		when(mockConnectionFactory.getAllConnections()).thenReturn(Collections.singletonList(mockIndexDao));
+		when(mockMetadataIndexProviderFactory.getMetadataIndexProvider(any())).thenReturn(mockMetadataIndexProvider);
+		when(mockMetadataIndexProvider.getObjectData(any(), anyInt())).thenReturn(entityData);
+
+		// call under test
+		manager.replicate(changes);
+
+		// the lag is measured from the oldest change in the batch.
+		verify(mockFanOut).replicateToAll(eq(Collections.singletonList(mockIndexDao)), eq(100L), any());
+	}
+
+	@Test
+	public void testGetOldestTimestamp() {
+		assertNull(ReplicationManagerImpl.getOldestTimestamp(changes));
+		changes.get(1).setTimestamp(new Date(200L));
+		changes.get(2).setTimestamp(new Date(150L));
+		// call under test
+		assertEquals(Long.valueOf(150L), ReplicationManagerImpl.getOldestTimestamp(changes));
+	}
+
 	@Test
 	public void testReplicateSingle() {
 		String entityId = "syn123";
@@ -289,6 +326,28 @@ public class ReplicationManagerTest {
 		verify(mockMetadataIndexProvider).getObjectData(entityids, ReplicationManagerImpl.MAX_ANNOTATION_CHARS);
 		verify(mockIndexDao).deleteObjectData(viewObjectType, Collections.singletonList(123L));
 		verify(mockIndexDao).addObjectData(viewObjectType, entityData);
+		verify(mockIndexDao, times(2)).markViewRowsStale(eq(viewObjectType), eq(Collections.singletonList(123L)), anyString());
+	}
+	
+	@Test
+	public void testReplicateInIndexMarksViewRowsStale() {
+		List<Long> ids = ImmutableList.of(111L, 222L);
+		List<ObjectDataDTO> entityData = createEntityDtos(1);
+		
+		setupDaoWriteTransaction();
+
+		// call under test
+		manager.replicateInIndex(mockIndexDao, viewObjectType, entityData, ids);
+		
+		ArgumentCaptor<String> tokenCaptor = ArgumentCaptor.forClass(String.class);
+		InOrder inOrder = inOrder(mockIndexDao);
+		// rows are marked both before and after the change with the same token.
+		inOrder.verify(mockIndexDao).markViewRowsStale(eq(viewObjectType), eq(ids), tokenCaptor.capture());
+		inOrder.verify(mockIndexDao).deleteObjectData(viewObjectType, ids);
+		inOrder.verify(mockIndexDao).addObjectData(viewObjectType, entityData);
+		inOrder.verify(mockIndexDao).markViewRowsStale(eq(viewObjectType), eq(ids), tokenCaptor.capture());
+		assertNotNull(tokenCaptor.getAllValues().get(0));
+		assertEquals(tokenCaptor.getAllValues().get(0), tokenCaptor.getAllValues().get(1));
 	}
 	
 
@@ -446,6 +505,22 @@ public class ReplicationManagerTest {
 		assertEquals(trashedParents, results);
 	}
 
+	/**
+	 * Run the replication on each index on the calling thread.
+	 * 
+	 * @throws RecoverableMessageException
+	 */
+	void setupFanOut() throws RecoverableMessageException {
+		doAnswer(invocation -> {
+			List<TableIndexDAO> indexDaos = invocation.getArgument(0);
+			IndexReplicationFanOut.IndexReplication replication = invocation.getArgument(2);
+			for (TableIndexDAO indexDao : indexDaos) {
+				replication.replicate(indexDao);
+			}
+			return null;
+		}).when(mockFanOut).replicateToAll(any(), any(), any());
+	}
+
 	
 	private void setupDaoWriteTransaction() {
 		doAnswer(invocation -> {
@@ -3,11 +3,17 @@ package org.sagebionetworks.repo.manager.search;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -160,4 +166,43 @@ public class ChangeMessageToSearchDocumentTranslatorTest{
 		verify(mockRecordLogger).startRecordForChangeMessage(message);
 		verify(mockWikiPageDao).lookupWikiKey(wikiId);
 	}
+	
+	@Test
+	public void testGenerateSearchDocumentsIfNecessary() {
+		String deletedId = "445566";
+		ChangeMessage wikiMessage = new ChangeMessage();
+		wikiMessage.setObjectId(wikiId);
+		wikiMessage.setObjectType(ObjectType.WIKI);
+		ChangeMessage deletedMessage = new ChangeMessage();
+		deletedMessage.setObjectId(deletedId);
+		deletedMessage.setObjectType(ObjectType.ENTITY);
+		when(mockSearchDocumentDriver.formulateSearchDocuments(Arrays.asList(synapseId, deletedId)))
+				.thenReturn(Collections.singletonMap(synapseId, docOne));
+		// call under test
+		List<Document> docs = translator.generateSearchDocumentsIfNecessary(Arrays.asList(message, wikiMessage, deletedMessage));
+		Document expectedDelete = new Document();
+		expectedDelete.setId(deletedId);
+		expectedDelete.setType(DocumentTypeNames.delete);
+		// the entity and its wiki result in a single document.
+		assertEquals(Arrays.asList(docOne, expectedDelete), docs);
+		verify(mockRecordLogger).startRecordForChangeMessage(message);
+		verify(mockRecordLogger).startRecordForChangeMessage(wikiMessage);
+		verify(mockRecordLogger).startRecordForChangeMessage(deletedMessage);
+		verify(mocKRecord).withWikiOwner(synapseId);
+		verify(mocKRecord, times(2)).withAction(DocumentAction.CREATE_OR_UPDATE);
+		verify(mocKRecord).withAction(DocumentAction.DELETE);
+		verify(mockSearchDocumentDriver, never()).formulateSearchDocument(anyString());
+	}
+	
+	@Test
+	public void testGenerateSearchDocumentsIfNecessaryAllIgnored() {
+		when(mockWikiPageDao.lookupWikiKey(wikiId)).thenThrow(new NotFoundException());
+		message.setObjectId(wikiId);
+		message.setObjectType(ObjectType.WIKI);
+		// call under test
+		List<Document> docs = translator.generateSearchDocumentsIfNecessary(Arrays.asList(message));
+		assertEquals(Collections.emptyList(), docs);
+		verify(mocKRecord).withAction(DocumentAction.IGNORE);
+		verify(mockSearchDocumentDriver, never()).formulateSearchDocuments(anyList());
+	}
 }
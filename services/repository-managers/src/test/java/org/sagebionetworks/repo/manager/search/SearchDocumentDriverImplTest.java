@@ -4,20 +4,25 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.sagebionetworks.search.SearchConstants.FIELD_CONSORTIUM;
 import static org.sagebionetworks.search.SearchConstants.FIELD_DIAGNOSIS;
 import static org.sagebionetworks.search.SearchConstants.FIELD_ORGAN;
 import static org.sagebionetworks.search.SearchConstants.FIELD_TISSUE;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Before;
@@ -27,13 +32,22 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.sagebionetworks.repo.model.AccessControlList;
+import org.sagebionetworks.repo.model.AccessControlListDAO;
 import org.sagebionetworks.repo.model.EntityType;
 import org.sagebionetworks.repo.model.Node;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.annotation.v2.Annotations;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsV2TestUtils;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsValueType;
 import org.sagebionetworks.repo.model.search.Document;
 import org.sagebionetworks.repo.model.search.DocumentFields;
+import org.sagebionetworks.repo.model.v2.dao.V2WikiPageDao;
+import org.sagebionetworks.repo.model.v2.wiki.V2WikiPage;
+import org.sagebionetworks.repo.web.NotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.util.concurrent.MoreExecutors;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SearchDocumentDriverImplTest {
@@ -49,6 +63,15 @@ public class SearchDocumentDriverImplTest {
 	@Mock
 	private AccessControlList mockAcl;
 
+	@Mock
+	private NodeDAO mockNodeDao;
+
+	@Mock
+	private AccessControlListDAO mockAclDao;
+
+	@Mock
+	private V2WikiPageDao mockWikiPageDao;
+
 	private Node node;
 
 	private final String annoKey1 = "annoKey1";
@@ -192,4 +215,70 @@ public class SearchDocumentDriverImplTest {
 		assertEquals(sanitizedString, result.getFields().getDescription());
 	}
 
+	@Test
+	public void formulateSearchDocuments() throws Exception {
+		setupBatchMocks();
+		when(mockNodeDao.getAvailableNodes(Arrays.asList(123L, 456L))).thenReturn(Collections.singleton(123L));
+		List<Long> available = Arrays.asList(123L);
+		when(mockNodeDao.getNodes(available)).thenReturn(Arrays.asList(node));
+		when(mockNodeDao.getBenefactors(available)).thenReturn(Collections.singletonMap(123L, 111L));
+		when(mockAclDao.getAcls(Arrays.asList(111L), ObjectType.ENTITY)).thenReturn(Collections.singletonMap(111L, mockAcl));
+		when(mockNodeDao.getUserAnnotationsForCurrentVersions(available)).thenReturn(Collections.singletonMap(123L, annotationsV2));
+		when(mockWikiPageDao.getPagesForOwners(available, ObjectType.ENTITY))
+				.thenReturn(Collections.singletonMap(123L, Arrays.asList(createPage("title", "1"), createPage(null, "2"))));
+		when(mockWikiPageDao.getMarkdownForFileHandle("1")).thenReturn("one");
+		when(mockWikiPageDao.getMarkdownForFileHandle("2")).thenReturn("two");
+		Document document = new Document();
+		doReturn(document).when(spySearchDocumentDriver).formulateSearchDocument(node, annotationsV2, mockAcl, "\ntitle\none\ntwo");
+
+		//method under test
+		Map<String, Document> results = spySearchDocumentDriver.formulateSearchDocuments(Arrays.asList("syn123", "syn456"));
+
+		// syn456 is not available so it has no document.
+		assertEquals(Collections.singletonMap("syn123", document), results);
+	}
+
+	@Test
+	public void formulateSearchDocuments_noneAvailable() {
+		setupBatchMocks();
+		when(mockNodeDao.getAvailableNodes(Arrays.asList(123L))).thenReturn(Collections.emptySet());
+
+		//method under test
+		Map<String, Document> results = spySearchDocumentDriver.formulateSearchDocuments(Arrays.asList("syn123"));
+
+		assertTrue(results.isEmpty());
+		verify(mockNodeDao, never()).getNodes(anyList());
+	}
+
+	@Test
+	public void getAllWikiPageText_pageNotFound() throws Exception {
+		setupBatchMocks();
+		Map<Long, List<V2WikiPage>> pages = new HashMap<>();
+		pages.put(123L, Arrays.asList(createPage("title", "1")));
+		pages.put(456L, Arrays.asList(createPage("missing", "2")));
+		when(mockWikiPageDao.getPagesForOwners(Arrays.asList(123L, 456L), ObjectType.ENTITY)).thenReturn(pages);
+		when(mockWikiPageDao.getMarkdownForFileHandle("1")).thenReturn("one");
+		when(mockWikiPageDao.getMarkdownForFileHandle("2")).thenThrow(new NotFoundException());
+
+		//method under test
+		Map<Long, String> results = spySearchDocumentDriver.getAllWikiPageText(Arrays.asList(123L, 456L));
+
+		// the entity with the missing page has no wiki text.
+		assertEquals(Collections.singletonMap(123L, "\ntitle\none"), results);
+	}
+
+	private void setupBatchMocks() {
+		ReflectionTestUtils.setField(spySearchDocumentDriver, "nodeDao", mockNodeDao);
+		ReflectionTestUtils.setField(spySearchDocumentDriver, "aclDAO", mockAclDao);
+		ReflectionTestUtils.setField(spySearchDocumentDriver, "wikiPageDao", mockWikiPageDao);
+		spySearchDocumentDriver.setWikiFetchExecutor(MoreExecutors.newDirectExecutorService());
+	}
+
+	private static V2WikiPage createPage(String title, String markdownFileHandleId) {
+		V2WikiPage page = new V2WikiPage();
+		page.setTitle(title);
+		page.setMarkdownFileHandleId(markdownFileHandleId);
+		return page;
+	}
+
 }
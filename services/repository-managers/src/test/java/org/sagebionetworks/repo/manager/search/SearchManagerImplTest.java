@@ -168,27 +168,48 @@ public class SearchManagerImplTest {
 
 	@Test
 	public void testDocumentChangeMessages(){
-		Document doc2Null = null;
-
 		Document doc3 = new Document();
 		doc3.setId("syn3");
 
-		when(mockTranslator.generateSearchDocumentIfNecessary(any(ChangeMessage.class))).thenReturn(doc1, doc2Null, doc3);
-
 		List<ChangeMessage> messages = Arrays.asList(new ChangeMessage(), new ChangeMessage(), new ChangeMessage());
+		when(mockTranslator.generateSearchDocumentsIfNecessary(messages)).thenReturn(Arrays.asList(doc1, doc3));
+
 		//method under test
 		searchManager.documentChangeMessages(messages);
 
 		verify(mockSearchDao).sendDocuments(iteratorArgumentCaptor.capture());
 		verify(mockRecordLogger).pushAllRecordsAndReset();
 
-		//check that the document iterator now only contains non-null Documents
 		Iterator<Document> generatedIterator = iteratorArgumentCaptor.getValue();
 		List<Document> documentsInIterator = Lists.newArrayList(generatedIterator);
 		assertEquals(2, documentsInIterator.size());
 		assertEquals(doc1, documentsInIterator.get(0));
 		assertEquals(doc3, documentsInIterator.get(1));
 	}
+
+	@Test
+	public void testDocumentChangeMessagesMultipleBatches(){
+		Document doc2 = new Document();
+		doc2.setId("syn2");
+
+		List<ChangeMessage> messages = new ArrayList<>();
+		for (int i = 0; i < SearchManagerImpl.CHANGE_MESSAGE_BATCH_SIZE + 1; i++) {
+			messages.add(new ChangeMessage());
+		}
+		List<ChangeMessage> firstBatch = messages.subList(0, SearchManagerImpl.CHANGE_MESSAGE_BATCH_SIZE);
+		List<ChangeMessage> secondBatch = messages.subList(SearchManagerImpl.CHANGE_MESSAGE_BATCH_SIZE, messages.size());
+		when(mockTranslator.generateSearchDocumentsIfNecessary(firstBatch)).thenReturn(Arrays.asList(doc1));
+		when(mockTranslator.generateSearchDocumentsIfNecessary(secondBatch)).thenReturn(Arrays.asList(doc2));
+
+		//method under test
+		searchManager.documentChangeMessages(messages);
+
+		verify(mockSearchDao).sendDocuments(iteratorArgumentCaptor.capture());
+		// the batches are translated as the documents are consumed
+		List<Document> documentsInIterator = Lists.newArrayList(iteratorArgumentCaptor.getValue());
+		assertEquals(Arrays.asList(doc1, doc2), documentsInIterator);
+		verify(mockTranslator, times(2)).generateSearchDocumentsIfNecessary(any(List.class));
+	}
 	
 	@Test
 	public void testDocumentChangeMessagesError(){
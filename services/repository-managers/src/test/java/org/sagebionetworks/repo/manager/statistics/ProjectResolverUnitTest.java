@@ -1,18 +1,33 @@
 package org.sagebionetworks.repo.manager.statistics;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.file.FileHandleAssociateType;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.ChangeType;
+import org.sagebionetworks.repo.model.message.TransactionalMessenger;
+import org.sagebionetworks.util.Clock;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -21,9 +36,31 @@ public class ProjectResolverUnitTest {
 	@Mock
 	NodeDAO mockNodeDao;
 	
-	@InjectMocks
+	@Mock
+	Clock mockClock;
+	
+	@Mock
+	TransactionalMessenger mockTransactionalMessenger;
+	
 	ProjectResolverImpl projectResolver;
 	
+	long now;
+	
+	@BeforeEach
+	public void before() {
+		now = 100_000L;
+		when(mockClock.currentTimeMillis()).thenAnswer(invocation -> now);
+		projectResolver = new ProjectResolverImpl(mockNodeDao, mockClock, mockTransactionalMessenger);
+	}
+	
+	@Test
+	public void testInitialize() {
+		// Call under test
+		projectResolver.initialize();
+		verify(mockTransactionalMessenger).removeObserver(projectResolver);
+		verify(mockTransactionalMessenger).registerObserver(projectResolver);
+	}
+	
 	@Test
 	public void testResolveProjectForSupportedEntity() {
 		String objectId = "123";
@@ -37,6 +74,32 @@ public class ProjectResolverUnitTest {
 		
 	}
 	
+	@Test
+	public void testResolveProjectCached() {
+		String objectId = "123";
+		when(mockNodeDao.getProjectId(objectId)).thenReturn("456");
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, objectId);
+		
+		// Call under test
+		Long projectId = projectResolver.resolveProject(FileHandleAssociateType.FileEntity, objectId);
+		
+		assertEquals(456L, projectId);
+		verify(mockNodeDao, times(1)).getProjectId(objectId);
+	}
+	
+	@Test
+	public void testResolveProjectAfterTimeToLive() {
+		String objectId = "123";
+		when(mockNodeDao.getProjectId(objectId)).thenReturn("456");
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, objectId);
+		now += ProjectResolverImpl.TIME_TO_LIVE_MS;
+		
+		// Call under test
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, objectId);
+		
+		verify(mockNodeDao, times(2)).getProjectId(objectId);
+	}
+	
 	@Test
 	public void testResolveProjectForUnsupportedEntity() {
 		String objectId = "123";
@@ -45,5 +108,114 @@ public class ProjectResolverUnitTest {
 			projectResolver.resolveProject(FileHandleAssociateType.TeamAttachment, objectId);
 		});		
 	}
+	
+	@Test
+	public void testResolveProjects() {
+		Map<Long, Long> loaded = new HashMap<>();
+		loaded.put(123L, 456L);
+		loaded.put(124L, 456L);
+		when(mockNodeDao.getProjectIds(any())).thenReturn(loaded);
+		
+		Map<String, Long> expected = new HashMap<>();
+		expected.put("syn123", 456L);
+		expected.put("124", 456L);
+		
+		// Call under test
+		Map<String, Long> projects = projectResolver.resolveProjects(FileHandleAssociateType.FileEntity, Arrays.asList("syn123", "124", "125"));
+		
+		assertEquals(expected, projects);
+		verify(mockNodeDao).getProjectIds(new HashSet<>(Arrays.asList(123L, 124L, 125L)));
+	}
+	
+	@Test
+	public void testResolveProjectsOnlyMissing() {
+		when(mockNodeDao.getProjectId("123")).thenReturn("456");
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, "123");
+		when(mockNodeDao.getProjectIds(any())).thenReturn(Collections.singletonMap(124L, 789L));
+		
+		Map<String, Long> expected = new HashMap<>();
+		expected.put("123", 456L);
+		expected.put("124", 789L);
+		
+		// Call under test
+		Map<String, Long> projects = projectResolver.resolveProjects(FileHandleAssociateType.TableEntity, Arrays.asList("123", "124"));
+		
+		assertEquals(expected, projects);
+		verify(mockNodeDao).getProjectIds(Collections.singleton(124L));
+		
+		// The second call is answered from the cache
+		assertEquals(expected, projectResolver.resolveProjects(FileHandleAssociateType.TableEntity, Arrays.asList("123", "124")));
+		verify(mockNodeDao, times(1)).getProjectIds(any());
+	}
+	
+	@Test
+	public void testResolveProjectsForUnsupportedEntity() {
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> {
+			// Call under test
+			projectResolver.resolveProjects(FileHandleAssociateType.TeamAttachment, Collections.singletonList("123"));
+		});
+		verify(mockNodeDao, never()).getProjectIds(any());
+	}
+	
+	@Test
+	public void testFireChangeMessageEntityUpdate() {
+		when(mockNodeDao.getProjectId("123")).thenReturn("456");
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, "123");
+		
+		// Call under test
+		projectResolver.fireChangeMessage(createMessage(ObjectType.ENTITY, ChangeType.UPDATE, "syn123"));
+		
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, "123");
+		verify(mockNodeDao, times(2)).getProjectId("123");
+	}
+	
+	@Test
+	public void testFireChangeMessageEntityDelete() {
+		when(mockNodeDao.getProjectId("123")).thenReturn("456");
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, "123");
+		
+		// Call under test
+		projectResolver.fireChangeMessage(createMessage(ObjectType.ENTITY, ChangeType.DELETE, "syn123"));
+		
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, "123");
+		verify(mockNodeDao, times(2)).getProjectId("123");
+	}
+	
+	@Test
+	public void testFireChangeMessageProjectDelete() {
+		when(mockNodeDao.getProjectId("123")).thenReturn("456");
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, "123");
+		
+		// Call under test
+		projectResolver.fireChangeMessage(createMessage(ObjectType.ENTITY, ChangeType.DELETE, "syn456"));
+		
+		// The children of the project are only resolved again once their mapping expires
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, "123");
+		verify(mockNodeDao, times(1)).getProjectId("123");
+		now += ProjectResolverImpl.TIME_TO_LIVE_MS + 1;
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, "123");
+		verify(mockNodeDao, times(2)).getProjectId("123");
+	}
+	
+	@Test
+	public void testFireChangeMessageIgnored() {
+		when(mockNodeDao.getProjectId("123")).thenReturn("456");
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, "123");
+		
+		// Call under test
+		projectResolver.fireChangeMessage(createMessage(ObjectType.ENTITY, ChangeType.CREATE, "syn123"));
+		projectResolver.fireChangeMessage(createMessage(ObjectType.TEAM, ChangeType.DELETE, "123"));
+		
+		projectResolver.resolveProject(FileHandleAssociateType.FileEntity, "123");
+		verify(mockNodeDao, times(1)).getProjectId("123");
+	}
+	
+	private static ChangeMessage createMessage(ObjectType objectType, ChangeType changeType, String objectId) {
+		ChangeMessage message = new ChangeMessage();
+		message.setObjectType(objectType);
+		message.setChangeType(changeType);
+		message.setObjectId(objectId);
+		return message;
+	}
 
 }
@@ -2,8 +2,18 @@ package org.sagebionetworks.repo.manager.statistics;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -116,4 +126,57 @@ public class StatisticsFileEventRecordProviderUnitTest {
 		assertFalse(record.isPresent());
 	}
 
+	@Test
+	public void testGetRecordsForEvents() {
+		Long userId = 123L;
+		Long projectId = 456L;
+		FileHandleAssociateType associateType = FileHandleAssociateType.FileEntity;
+
+		StatisticsFileEvent eventOne = new StatisticsFileEvent(FileEvent.FILE_DOWNLOAD, userId, "1", "syn1", associateType);
+		StatisticsFileEvent eventTwo = new StatisticsFileEvent(FileEvent.FILE_DOWNLOAD, userId, "2", "syn2", associateType);
+		StatisticsFileEvent deleted = new StatisticsFileEvent(FileEvent.FILE_DOWNLOAD, userId, "3", "syn3", associateType);
+		StatisticsFileEvent unsupported = new StatisticsFileEvent(FileEvent.FILE_DOWNLOAD, userId, "4", "4",
+				FileHandleAssociateType.TeamAttachment);
+
+		Map<String, Long> projects = new HashMap<>();
+		projects.put("syn1", projectId);
+		projects.put("syn2", projectId);
+
+		when(mockProjectResolver.resolveProjects(any(), any())).thenReturn(projects);
+
+		List<AwsKinesisLogRecord> expected = Arrays.asList(
+				new StatisticsFileEventLogRecord()
+					.withAssociation(associateType, "syn1")
+					.withProjectId(projectId)
+					.withTimestamp(eventOne.getTimestamp())
+					.withUserId(userId)
+					.withFileHandleId("1"),
+				new StatisticsFileEventLogRecord()
+					.withAssociation(associateType, "syn2")
+					.withProjectId(projectId)
+					.withTimestamp(eventTwo.getTimestamp())
+					.withUserId(userId)
+					.withFileHandleId("2"));
+
+		// Call under test
+		List<AwsKinesisLogRecord> records = provider.getRecordsForEvents(Arrays.asList(eventOne, eventTwo, deleted, unsupported));
+
+		assertEquals(expected, records);
+		// A single lookup for the whole batch
+		verify(mockProjectResolver).resolveProjects(associateType, new HashSet<>(Arrays.asList("syn1", "syn2", "syn3")));
+		verify(mockProjectResolver, never()).resolveProject(any(), any());
+	}
+
+	@Test
+	public void testGetRecordsForEventsUnsupported() {
+		StatisticsFileEvent unsupported = new StatisticsFileEvent(FileEvent.FILE_DOWNLOAD, 123L, "4", "4",
+				FileHandleAssociateType.TeamAttachment);
+
+		// Call under test
+		List<AwsKinesisLogRecord> records = provider.getRecordsForEvents(Collections.singletonList(unsupported));
+
+		assertTrue(records.isEmpty());
+		verify(mockProjectResolver, never()).resolveProjects(any(), any());
+	}
+
 }
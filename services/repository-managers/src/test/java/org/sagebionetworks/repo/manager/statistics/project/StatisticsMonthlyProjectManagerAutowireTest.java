@@ -19,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.sagebionetworks.LoggerProvider;
 import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.cloudwatch.Consumer;
 import org.sagebionetworks.kinesis.AwsKinesisFirehoseLogger;
 import org.sagebionetworks.repo.manager.events.EventLogRecordProvider;
 import org.sagebionetworks.repo.manager.events.EventsCollectorImpl;
@@ -34,6 +35,7 @@ import org.sagebionetworks.repo.model.file.FileHandleAssociateType;
 import org.sagebionetworks.repo.model.message.TransactionSynchronizationProxy;
 import org.sagebionetworks.repo.model.statistics.FileEvent;
 import org.sagebionetworks.repo.model.statistics.project.StatisticsMonthlyProjectFiles;
+import org.sagebionetworks.util.Clock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -71,6 +73,12 @@ public class StatisticsMonthlyProjectManagerAutowireTest {
 	@Autowired
 	private TransactionSynchronizationProxy transactionSynchronization;
 
+	@Autowired
+	private Consumer consumer;
+
+	@Autowired
+	private Clock clock;
+
 	@Autowired
 	private StatisticsMonthlyProjectFilesDAO statisticsDao;
 
@@ -102,7 +110,8 @@ public class StatisticsMonthlyProjectManagerAutowireTest {
 		// Use our own factory with the single stub file event provider
 		EventLogRecordProviderFactory providerFactory = new EventLogRecordProviderFactoryImpl(providers);
 
-		eventsCollector = new EventsCollectorImpl(firehoseLogger, providerFactory, transactionSynchronization);
+		eventsCollector = new EventsCollectorImpl(firehoseLogger, providerFactory, transactionSynchronization, consumer, clock,
+				stackConfig);
 
 		// Replace the table name provider with our own so that the dao will query the test table
 		athenaProjectDao = new AthenaProjectFileStatisticsDAOImpl(athenaSupport,
@@ -0,0 +1,21 @@
+package org.sagebionetworks.repo.manager.table;
+
+import org.sagebionetworks.repo.model.table.RowSet;
+import org.sagebionetworks.table.cluster.ColumnarRowSet;
+
+public class ColumnarRowSetTestUtils {
+
+	/**
+	 * Capture the given RowSet in the columnar form returned by the index.
+	 * 
+	 * @param rowSet
+	 * @return
+	 */
+	public static ColumnarRowSet toColumnar(RowSet rowSet) {
+		ColumnarRowSet results = new ColumnarRowSet(rowSet.getTableId(), rowSet.getHeaders(), false, false, null);
+		if (rowSet.getRows() != null) {
+			rowSet.getRows().forEach(results::nextRow);
+		}
+		return results;
+	}
+}
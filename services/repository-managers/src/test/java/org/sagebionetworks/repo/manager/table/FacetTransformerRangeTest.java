@@ -3,6 +3,7 @@ package org.sagebionetworks.repo.manager.table;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.sagebionetworks.repo.manager.table.ColumnarRowSetTestUtils.toColumnar;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -106,14 +107,14 @@ public class FacetTransformerRangeTest {
 	@Test (expected = IllegalArgumentException.class)
 	public void testTranslateToResultWrongHeaders(){
 		rowSet.setHeaders(new ArrayList<SelectColumn>());
-		facetTransformer.translateToResult(rowSet);
+		facetTransformer.translateToResult(toColumnar(rowSet));
 	}
 	
 	@Test (expected = IllegalArgumentException.class)
 	public void testTranslateToResultCorrectHeadersWrongNumRows(){
 		rowSet.setHeaders(correctSelectList);
 		rowSet.setRows(new ArrayList<Row>());
-		facetTransformer.translateToResult(rowSet);
+		facetTransformer.translateToResult(toColumnar(rowSet));
 	}
 	
 	@Test 
@@ -124,7 +125,7 @@ public class FacetTransformerRangeTest {
 		Row row = new Row();
 		row.setValues(Lists.newArrayList(colMin, colMax));
 		rowSet.setRows(Lists.newArrayList(row));
-		FacetColumnResultRange result = (FacetColumnResultRange) facetTransformer.translateToResult(rowSet);
+		FacetColumnResultRange result = (FacetColumnResultRange) facetTransformer.translateToResult(toColumnar(rowSet));
 
 		assertEquals(columnName, result.getColumnName());
 		assertEquals(FacetType.range, result.getFacetType());
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.sagebionetworks.repo.manager.table.ColumnarRowSetTestUtils.toColumnar;
 import static org.sagebionetworks.repo.model.table.TableConstants.NULL_VALUE_KEYWORD;
 
 import java.util.ArrayList;
@@ -156,7 +157,7 @@ public class FacetTransformerValueCountsTest {
 		FacetTransformerValueCounts facetTransformer = new FacetTransformerValueCounts(stringModel.getName(), false, facets, originalQuery, selectedValuesSet);
 
 		rowSet.setHeaders(Collections.emptyList());
-		facetTransformer.translateToResult(rowSet);
+		facetTransformer.translateToResult(toColumnar(rowSet));
 	}
 	
 	@Test 
@@ -170,7 +171,7 @@ public class FacetTransformerValueCountsTest {
 		row1.setValues(Lists.newArrayList(null, row1Count.toString()));
 	
 		rowSet.setRows(Lists.newArrayList(row1));
-		FacetColumnResultValues result = (FacetColumnResultValues) facetTransformer.translateToResult(rowSet);
+		FacetColumnResultValues result = (FacetColumnResultValues) facetTransformer.translateToResult(toColumnar(rowSet));
 
 		assertEquals(stringModel.getName(), result.getColumnName());
 		assertEquals(FacetType.enumeration, result.getFacetType());
@@ -197,7 +198,7 @@ public class FacetTransformerValueCountsTest {
 		Row row2 = new Row();
 		row2.setValues(Lists.newArrayList(notSelectedValue, row2Count.toString()));
 		rowSet.setRows(Lists.newArrayList(row1, row2));
-		FacetColumnResultValues result = (FacetColumnResultValues) facetTransformer.translateToResult(rowSet);
+		FacetColumnResultValues result = (FacetColumnResultValues) facetTransformer.translateToResult(toColumnar(rowSet));
 
 		assertEquals(stringModel.getName(), result.getColumnName());
 		assertEquals(FacetType.enumeration, result.getFacetType());
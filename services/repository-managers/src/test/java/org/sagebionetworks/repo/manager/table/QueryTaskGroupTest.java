@@ -0,0 +1,177 @@
+package org.sagebionetworks.repo.manager.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.web.TemporarilyUnavailableException;
+
+public class QueryTaskGroupTest {
+
+	ExecutorService executor;
+
+	@BeforeEach
+	public void before() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterEach
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testSubmitAndGet() {
+		TableQueryTaskRunner runner = new TableQueryTaskRunner(executor, 2, 10000L);
+		List<Future<Integer>> futures = new ArrayList<>();
+		try (QueryTaskGroup group = runner.startGroup()) {
+			for (int i = 0; i < 5; i++) {
+				final int value = i;
+				futures.add(group.submit(() -> value));
+			}
+			for (int i = 0; i < 5; i++) {
+				// call under test
+				assertEquals(Integer.valueOf(i), group.get(futures.get(i)));
+			}
+		}
+	}
+
+	@Test
+	public void testMaxConcurrency() throws InterruptedException {
+		TableQueryTaskRunner runner = new TableQueryTaskRunner(executor, 2, 10000L);
+		AtomicInteger running = new AtomicInteger(0);
+		AtomicInteger maxRunning = new AtomicInteger(0);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<Integer>> futures = new ArrayList<>();
+		try (QueryTaskGroup group = runner.startGroup()) {
+			for (int i = 0; i < 4; i++) {
+				futures.add(group.submit(() -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					release.await(5, TimeUnit.SECONDS);
+					running.decrementAndGet();
+					return 1;
+				}));
+			}
+			// give the executor time to start as many as it will.
+			Thread.sleep(100L);
+			assertEquals(2, running.get());
+			release.countDown();
+			for (Future<Integer> future : futures) {
+				group.get(future);
+			}
+		}
+		// the executor has four threads but only two were used at a time.
+		assertEquals(2, maxRunning.get());
+	}
+
+	@Test
+	public void testGetWithTimeout() {
+		TableQueryTaskRunner runner = new TableQueryTaskRunner(executor, 2, 50L);
+		CountDownLatch never = new CountDownLatch(1);
+		try (QueryTaskGroup group = runner.startGroup()) {
+			Future<Boolean> slow = group.submit(() -> never.await(5, TimeUnit.SECONDS));
+			Future<Integer> fast = group.submit(() -> 1);
+			assertEquals(Integer.valueOf(1), group.get(fast));
+			assertThrows(TemporarilyUnavailableException.class, () -> {
+				// call under test
+				group.get(slow);
+			});
+			// the timeout cancels the group.
+			assertTrue(slow.isCancelled());
+			assertThrows(IllegalStateException.class, () -> {
+				group.submit(() -> 2);
+			});
+		}
+	}
+
+	@Test
+	public void testTimeoutExcludesTimeWaitingForThread() throws Exception {
+		// a single thread that is busy for longer than the timeout.
+		ExecutorService busyExecutor = Executors.newFixedThreadPool(1);
+		try {
+			CountDownLatch release = new CountDownLatch(1);
+			busyExecutor.execute(() -> {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			TableQueryTaskRunner runner = new TableQueryTaskRunner(busyExecutor, 1, 200L);
+			try (QueryTaskGroup group = runner.startGroup()) {
+				Future<Integer> future = group.submit(() -> 1);
+				// the query waits for the thread longer than the timeout.
+				Thread.sleep(300L);
+				release.countDown();
+				// call under test
+				assertEquals(Integer.valueOf(1), group.get(future));
+			}
+		} finally {
+			busyExecutor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testGetWithException() {
+		TableQueryTaskRunner runner = new TableQueryTaskRunner(executor, 2, 10000L);
+		IllegalArgumentException exception = new IllegalArgumentException("bad query");
+		try (QueryTaskGroup group = runner.startGroup()) {
+			Future<Integer> future = group.submit(() -> {
+				throw exception;
+			});
+			IllegalArgumentException result = assertThrows(IllegalArgumentException.class, () -> {
+				// call under test
+				group.get(future);
+			});
+			assertSame(exception, result);
+		}
+	}
+
+	@Test
+	public void testCloseCancelsWaiting() {
+		TableQueryTaskRunner runner = new TableQueryTaskRunner(executor, 1, 10000L);
+		CountDownLatch never = new CountDownLatch(1);
+		Future<Boolean> running;
+		Future<Integer> waiting;
+		try (QueryTaskGroup group = runner.startGroup()) {
+			running = group.submit(() -> never.await(5, TimeUnit.SECONDS));
+			waiting = group.submit(() -> 1);
+			// call under test
+			group.close();
+		}
+		assertTrue(running.isCancelled());
+		assertTrue(waiting.isCancelled());
+	}
+
+	@Test
+	public void testGetFromOtherGroup() {
+		TableQueryTaskRunner runner = new TableQueryTaskRunner(executor, 1, 10000L);
+		try (QueryTaskGroup one = runner.startGroup(); QueryTaskGroup two = runner.startGroup()) {
+			Future<Integer> future = one.submit(() -> 1);
+			assertThrows(IllegalArgumentException.class, () -> {
+				// call under test
+				two.get(future);
+			});
+		}
+	}
+
+	@Test
+	public void testRunnerWithZeroConcurrency() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new TableQueryTaskRunner(executor, 0, 10000L);
+		});
+	}
+}
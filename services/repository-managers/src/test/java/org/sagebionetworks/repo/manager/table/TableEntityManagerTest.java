@@ -1497,6 +1497,99 @@ public class TableEntityManagerTest {
 		verify(mockTruthDao).listRowSetsKeysForTableGreaterThanVersion(tableId, etagVersion);
 	}
 	
+	@Test
+	public void testCheckForRowLevelConflictTrackedWithConflict() throws IOException{
+		String etag = "anEtag";
+		when(mockTruthDao.getVersionForEtag(tableId, etag)).thenReturn(25L);
+		when(mockTruthDao.getFirstTrackedRowChangeNumber(tableId)).thenReturn(Optional.of(3L));
+		Set<Long> rowIds = new HashSet<>(Arrays.asList(0L, 1L));
+		when(mockTruthDao.getRowIdsChangedAfter(tableId, rowIds, 25L)).thenReturn(new HashSet<>(Arrays.asList(1L)));
+		List<ColumnModel> columns = TableModelTestUtils.createOneOfEachType();
+		SparseChangeSet changeSet = new SparseChangeSet(tableId, columns);
+		changeSet.setEtag(etag);
+		
+		// add some rows
+		SparseRow row = changeSet.addEmptyRow();
+		row.setRowId(0L);
+		row.setVersionNumber(2L);
+		row.setCellValue("1", "1.1");
+		
+		row = changeSet.addEmptyRow();
+		row.setRowId(1L);
+		row.setVersionNumber(1L);
+		row.setCellValue("1", "2.1");
+		
+		ConflictingUpdateException e = assertThrows(ConflictingUpdateException.class, ()->{
+			// call under test
+			manager.checkForRowLevelConflict(tableId, changeSet);
+		});
+		assertTrue(e.getMessage().startsWith("Row id: 1 has been changed since last read."));
+		// S3 is not read when all changes are tracked.
+		verify(mockTruthDao, never()).listRowSetsKeysForTableGreaterThanVersion(anyString(), anyLong());
+	}
+	
+	@Test
+	public void testCheckForRowLevelConflictTrackedNoConflict() throws IOException{
+		when(mockTruthDao.getFirstTrackedRowChangeNumber(tableId)).thenReturn(Optional.of(3L));
+		Set<Long> rowIds = new HashSet<>(Arrays.asList(0L, 1L));
+		when(mockTruthDao.getRowIdsChangedAfter(tableId, rowIds, 2L)).thenReturn(new HashSet<>());
+		List<ColumnModel> columns = TableModelTestUtils.createOneOfEachType();
+		SparseChangeSet changeSet = new SparseChangeSet(tableId, columns);
+		
+		// add some rows
+		SparseRow row = changeSet.addEmptyRow();
+		row.setRowId(0L);
+		row.setVersionNumber(2L);
+		row.setCellValue("1", "1.1");
+		
+		row = changeSet.addEmptyRow();
+		row.setRowId(1L);
+		row.setVersionNumber(1L);
+		row.setCellValue("1", "2.1");
+		
+		// call under test
+		manager.checkForRowLevelConflict(tableId, changeSet);
+		verify(mockTruthDao).getRowIdsChangedAfter(tableId, rowIds, 2L);
+		verify(mockTruthDao, never()).listRowSetsKeysForTableGreaterThanVersion(anyString(), anyLong());
+	}
+	
+	@Test
+	public void testCheckForRowLevelConflictPartiallyTracked() throws IOException{
+		String etag = "anEtag";
+		Long etagVersion = 25L;
+		when(mockTruthDao.getVersionForEtag(tableId, etag)).thenReturn(etagVersion);
+		// changes before 28 are only in S3.
+		when(mockTruthDao.getFirstTrackedRowChangeNumber(tableId)).thenReturn(Optional.of(28L));
+		when(mockTruthDao.getRowIdsChangedAfter(tableId, new HashSet<>(Arrays.asList(0L)), etagVersion)).thenReturn(new HashSet<>());
+		TableRowChange untracked = new TableRowChange();
+		untracked.setRowVersion(26L);
+		untracked.setChangeType(TableChangeType.ROW);
+		TableRowChange tracked = new TableRowChange();
+		tracked.setRowVersion(28L);
+		tracked.setChangeType(TableChangeType.ROW);
+		when(mockTruthDao.listRowSetsKeysForTableGreaterThanVersion(tableId, etagVersion)).thenReturn(Lists.newArrayList(untracked, tracked));
+		SparseChangeSetDto untrackedUpdate = new SparseChangeSetDto();
+		SparseRowDto untrackedRow = new SparseRowDto();
+		untrackedRow.setRowId(0L);
+		untrackedUpdate.setRows(Lists.newArrayList(untrackedRow));
+		when(mockTruthDao.getRowSet(untracked)).thenReturn(untrackedUpdate);
+		
+		List<ColumnModel> columns = TableModelTestUtils.createOneOfEachType();
+		SparseChangeSet changeSet = new SparseChangeSet(tableId, columns);
+		changeSet.setEtag(etag);
+		SparseRow row = changeSet.addEmptyRow();
+		row.setRowId(0L);
+		row.setVersionNumber(2L);
+		row.setCellValue("1", "1.1");
+		
+		assertThrows(ConflictingUpdateException.class, ()->{
+			// call under test
+			manager.checkForRowLevelConflict(tableId, changeSet);
+		});
+		// tracked changes are never read from S3.
+		verify(mockTruthDao, never()).getRowSet(tracked);
+	}
+	
 	@Test
 	public void testCheckForRowLevleConflictNoUpdate() throws IOException{
 		List<ColumnModel> columns = TableModelTestUtils.createOneOfEachType();
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.manager.table.change.TableChangePrefetcher;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProviderFactory;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 import org.sagebionetworks.table.cluster.ConnectionFactory;
@@ -29,6 +30,8 @@ public class TableIndexConnectionFactoryImplTest {
 	private MetadataIndexProviderFactory mockMetaDataIndexProviderFactory;
 	@Mock
 	private ObjectFieldModelResolverFactory mockObjectFieldModelResolverFactory;
+	@Mock
+	private TableChangePrefetcher mockTableChangePrefetcher;
 	
 	@InjectMocks
 	private TableIndexConnectionFactoryImpl indexFactory;
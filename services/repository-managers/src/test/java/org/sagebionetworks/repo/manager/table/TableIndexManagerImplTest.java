@@ -28,10 +28,14 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -42,10 +46,13 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.common.util.progress.ProgressingCallable;
 import org.sagebionetworks.repo.manager.table.change.ListColumnIndexTableChange;
 import org.sagebionetworks.repo.manager.table.change.TableChangeMetaData;
+import org.sagebionetworks.repo.manager.table.change.TableChangePrefetcherImpl;
 import org.sagebionetworks.repo.manager.table.metadata.DefaultColumnModel;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProvider;
 import org.sagebionetworks.repo.manager.table.metadata.MetadataIndexProviderFactory;
@@ -115,12 +122,18 @@ public class TableIndexManagerImplTest {
 	ObjectFieldModelResolverFactory mockObjectFieldModelResolverFactory;
 	@Mock
 	ObjectFieldModelResolver mockObjectFieldModelResolver;
+	@Mock
+	StackConfiguration mockConfig;
+	@Mock
+	Consumer mockConsumer;
 	
 	@Captor 
 	ArgumentCaptor<List<ColumnChangeDetails>> changeCaptor;
 	
 	TableIndexManagerImpl manager;
 	TableIndexManagerImpl managerSpy;
+	ExecutorService prefetchExecutor;
+	TableChangePrefetcherImpl tableChangePrefetcher;
 	
 	IdAndVersion tableId;
 	Long versionNumber;
@@ -156,7 +169,12 @@ public class TableIndexManagerImplTest {
 		
 		objectType = ViewObjectType.ENTITY;
 		tableId = IdAndVersion.parse("syn123");
-		manager = new TableIndexManagerImpl(mockIndexDao, mockManagerSupport, mockMetadataProviderFactory, mockObjectFieldModelResolverFactory);
+		when(mockConfig.getTableChangePrefetchMaxChanges()).thenReturn(2);
+		when(mockConfig.getTableChangePrefetchMaxBytes()).thenReturn(1024L*1024L);
+		when(mockConfig.getStackInstance()).thenReturn("test");
+		prefetchExecutor = Executors.newFixedThreadPool(2);
+		tableChangePrefetcher = new TableChangePrefetcherImpl(prefetchExecutor, mockConfig, mockConsumer);
+		manager = new TableIndexManagerImpl(mockIndexDao, mockManagerSupport, mockMetadataProviderFactory, mockObjectFieldModelResolverFactory, tableChangePrefetcher);
 		managerSpy = Mockito.spy(manager);
 		versionNumber = 99L;		
 		schema = Arrays.asList(
@@ -211,10 +229,15 @@ public class TableIndexManagerImplTest {
 		objectFieldModelResolver = new ObjectFieldModelResolverImpl(mockMetadataProvider);
 	}
 
+	@AfterEach
+	public void after() {
+		prefetchExecutor.shutdownNow();
+	}
+
 	@Test
 	public void testNullDao(){
 		assertThrows(IllegalArgumentException.class, ()->{
-			new TableIndexManagerImpl(null, mockManagerSupport, mockMetadataProviderFactory, mockObjectFieldModelResolverFactory);	
+			new TableIndexManagerImpl(null, mockManagerSupport, mockMetadataProviderFactory, mockObjectFieldModelResolverFactory, tableChangePrefetcher);	
 		});
 	}
 	
@@ -222,21 +245,28 @@ public class TableIndexManagerImplTest {
 	@Test
 	public void testNullSupport(){
 		assertThrows(IllegalArgumentException.class, ()->{
-			new TableIndexManagerImpl(mockIndexDao, null, mockMetadataProviderFactory, mockObjectFieldModelResolverFactory);			
+			new TableIndexManagerImpl(mockIndexDao, null, mockMetadataProviderFactory, mockObjectFieldModelResolverFactory, tableChangePrefetcher);			
 		});
 	}
 	
 	@Test
 	public void testNullProviderFactory(){
 		assertThrows(IllegalArgumentException.class, ()->{
-			new TableIndexManagerImpl(mockIndexDao, mockManagerSupport, null, mockObjectFieldModelResolverFactory);			
+			new TableIndexManagerImpl(mockIndexDao, mockManagerSupport, null, mockObjectFieldModelResolverFactory, tableChangePrefetcher);			
 		});
 	}
 	
 	@Test
 	public void testNullObjectFieldFactory(){
 		assertThrows(IllegalArgumentException.class, ()->{
-			new TableIndexManagerImpl(mockIndexDao, mockManagerSupport, mockMetadataProviderFactory, null);			
+			new TableIndexManagerImpl(mockIndexDao, mockManagerSupport, mockMetadataProviderFactory, null, tableChangePrefetcher);			
+		});
+	}
+	
+	@Test
+	public void testNullTableChangePrefetcher(){
+		assertThrows(IllegalArgumentException.class, ()->{
+			new TableIndexManagerImpl(mockIndexDao, mockManagerSupport, mockMetadataProviderFactory, mockObjectFieldModelResolverFactory, null);			
 		});
 	}
 	
@@ -425,6 +455,87 @@ public class TableIndexManagerImplTest {
 	public void testDeleteTableIndex(){
 		manager.deleteTableIndex(tableId);
 		verify(mockIndexDao).deleteTable(tableId);
+		verify(mockIndexDao).deleteViewScopeContainers(tableId.getId());
+	}
+	
+	@Test
+	public void testDeleteTableIndexWithVersion(){
+		tableId = IdAndVersion.parse("syn123.1");
+		manager.deleteTableIndex(tableId);
+		verify(mockIndexDao).deleteTable(tableId);
+		// changes are still tracked for the current version of the view.
+		verify(mockIndexDao, never()).deleteViewScopeContainers(anyLong());
+	}
+	
+	@Test
+	public void testRegisterViewScopeUnchanged(){
+		when(mockIndexDao.getViewScopeContainerIds(tableId.getId())).thenReturn(Sets.newHashSet(containerIds));
+		// call under test
+		boolean replaced = manager.registerViewScope(tableId, scopeType, containerIds);
+		assertFalse(replaced);
+		verify(mockIndexDao, never()).executeInWriteTransaction(any(TransactionCallback.class));
+		verify(mockIndexDao, never()).addViewScopeContainerIds(anyLong(), any(ViewObjectType.class), anySet());
+	}
+	
+	@Test
+	public void testRegisterViewScopeFirst(){
+		setupExecuteInWriteTransaction();
+		when(mockIndexDao.getViewScopeContainerIds(tableId.getId())).thenReturn(Collections.emptySet());
+		// call under test
+		boolean firstRegistration = manager.registerViewScope(tableId, scopeType, containerIds);
+		assertTrue(firstRegistration);
+		verify(mockIndexDao).executeInWriteTransaction(any(TransactionCallback.class));
+		verify(mockIndexDao).removeViewScopeContainerIds(tableId.getId(), Collections.emptySet());
+		verify(mockIndexDao).addViewScopeContainerIds(tableId.getId(), objectType, containerIds);
+		// the entire view is checked by the caller.
+		verify(mockIndexDao, never()).markViewRowsStaleForContainers(anyLong(), any(ViewObjectType.class), anySet(), anyString());
+	}
+	
+	@Test
+	public void testRegisterViewScopeChanged(){
+		setupExecuteInWriteTransaction();
+		when(mockIndexDao.getViewScopeContainerIds(tableId.getId())).thenReturn(Sets.newHashSet(1L, 2L, 4L));
+		// call under test
+		boolean firstRegistration = manager.registerViewScope(tableId, scopeType, containerIds);
+		assertFalse(firstRegistration);
+		verify(mockIndexDao).executeInWriteTransaction(any(TransactionCallback.class));
+		// only the difference is written.
+		verify(mockIndexDao).removeViewScopeContainerIds(tableId.getId(), Sets.newHashSet(4L));
+		verify(mockIndexDao).addViewScopeContainerIds(tableId.getId(), objectType, Sets.newHashSet(3L));
+		verify(mockIndexDao).markViewRowsStaleForContainers(eq(tableId.getId()), eq(objectType),
+				eq(Sets.newHashSet(3L, 4L)), anyString());
+	}
+	
+	@Test
+	public void testRegisterViewScopeNullContainers(){
+		assertThrows(IllegalArgumentException.class, ()->{
+			// call under test
+			manager.registerViewScope(tableId, scopeType, null);
+		});
+	}
+	
+	@Test
+	public void testGetStaleRowsForView(){
+		Map<Long, String> staleRows = Collections.singletonMap(101L, "token");
+		when(mockIndexDao.getViewStaleRows(tableId.getId(), 10L)).thenReturn(staleRows);
+		// call under test
+		Map<Long, String> results = manager.getStaleRowsForView(tableId, 10L);
+		assertEquals(staleRows, results);
+	}
+	
+	@Test
+	public void testClearStaleRowsForView(){
+		Map<Long, String> staleRows = Collections.singletonMap(101L, "token");
+		// call under test
+		manager.clearStaleRowsForView(tableId, staleRows);
+		verify(mockIndexDao).deleteViewStaleRows(tableId.getId(), staleRows);
+	}
+	
+	@Test
+	public void testClearStaleRowsForViewEmpty(){
+		// call under test
+		manager.clearStaleRowsForView(tableId, Collections.emptyMap());
+		verify(mockIndexDao, never()).deleteViewStaleRows(anyLong(), any());
 	}
 	
 	@Test
@@ -1079,6 +1190,47 @@ public class TableIndexManagerImplTest {
 		verify(mockManagerSupport).getTableSchema(tableId);
 	}
 	
+	@Test
+	public void testBuildIndexToChangeNumberWithReplayMergesRowChanges() throws Exception {
+		setupExecuteInWriteTransaction();
+		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(tableId)).thenReturn(-1L);
+		when(mockManagerSupport.getTableSchema(tableId)).thenReturn(schema);
+		List<TableChangeMetaData> list = Lists.newArrayList(setupMockRowChange(0L), setupMockRowChange(1L));
+		Iterator<TableChangeMetaData> iterator = list.iterator();
+		long targetChangeNumber = 1L;
+		String resetToken = "resetToken";
+		// call under test
+		String lastEtag = manager.buildIndexToLatestChange(tableId, iterator, targetChangeNumber, resetToken);
+		assertEquals(list.get(1).getETag(), lastEtag);
+		// Progress should be made for both changes
+		verify(mockManagerSupport).attemptToUpdateTableProgress(tableId, resetToken, "Applying change: 0", 0L, 1L);
+		verify(mockManagerSupport).attemptToUpdateTableProgress(tableId, resetToken, "Applying change: 1", 1L, 1L);
+		// both changes write the same rows so the rows should only be written once.
+		verify(mockIndexDao, times(2)).createOrUpdateOrDeleteRows(any(IdAndVersion.class), any(Grouping.class));
+		verify(mockIndexDao).applyFileHandleIdsToTable(tableId, Sets.newHashSet(2L, 6L));
+		verify(mockIndexDao).setMaxCurrentCompleteVersionForTable(tableId, 1L);
+		verify(mockIndexDao, never()).setMaxCurrentCompleteVersionForTable(tableId, 0L);
+	}
+	
+	@Test
+	public void testBuildIndexToChangeNumberWithoutReplayDoesNotMerge() throws Exception {
+		setupExecuteInWriteTransaction();
+		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(tableId)).thenReturn(0L);
+		when(mockManagerSupport.getTableSchema(tableId)).thenReturn(schema);
+		List<TableChangeMetaData> list = Lists.newArrayList(setupMockRowChange(0L), setupMockRowChange(1L),
+				setupMockRowChange(2L));
+		Iterator<TableChangeMetaData> iterator = list.iterator();
+		long targetChangeNumber = 2L;
+		String resetToken = "resetToken";
+		// call under test
+		String lastEtag = manager.buildIndexToLatestChange(tableId, iterator, targetChangeNumber, resetToken);
+		assertEquals(list.get(2).getETag(), lastEtag);
+		// each change should be applied on its own.
+		verify(mockIndexDao, times(4)).createOrUpdateOrDeleteRows(any(IdAndVersion.class), any(Grouping.class));
+		verify(mockIndexDao).setMaxCurrentCompleteVersionForTable(tableId, 1L);
+		verify(mockIndexDao).setMaxCurrentCompleteVersionForTable(tableId, 2L);
+	}
+	
 	@Test
 	public void testBuildIndexToChangeNumberWithExclusiveLockWithVersion() throws Exception {
 		setupExecuteInWriteTransaction();
@@ -1107,7 +1259,7 @@ public class TableIndexManagerImplTest {
 	
 	@Test
 	public void testBuildIndexToChangeNumberWithExclusiveLockFirstChangeOnly() throws Exception {
-		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(tableId)).thenReturn(-1L,0L);
+		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(tableId)).thenReturn(-1L, -1L, 0L);
 		List<TableChangeMetaData> list = setupMockChanges();
 		Iterator<TableChangeMetaData> iterator = list.iterator();
 		// no version means there are no table changes.
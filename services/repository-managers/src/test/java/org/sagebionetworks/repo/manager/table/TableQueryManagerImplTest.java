@@ -8,16 +8,19 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.sagebionetworks.repo.manager.table.ColumnarRowSetTestUtils.toColumnar;
 import static org.sagebionetworks.repo.model.table.QueryOptions.BUNDLE_MASK_QUERY_COLUMN_MODELS;
 import static org.sagebionetworks.repo.model.table.QueryOptions.BUNDLE_MASK_QUERY_COUNT;
 import static org.sagebionetworks.repo.model.table.QueryOptions.BUNDLE_MASK_QUERY_FACETS;
@@ -34,9 +37,13 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -87,6 +94,7 @@ import org.sagebionetworks.repo.model.table.ViewObjectType;
 import org.sagebionetworks.repo.model.table.ViewScopeType;
 import org.sagebionetworks.repo.model.table.ViewTypeMask;
 import org.sagebionetworks.repo.web.NotFoundException;
+import org.sagebionetworks.table.cluster.ColumnarRowSet;
 import org.sagebionetworks.table.cluster.ConnectionFactory;
 import org.sagebionetworks.table.cluster.SqlQuery;
 import org.sagebionetworks.table.cluster.SqlQueryBuilder;
@@ -98,6 +106,7 @@ import org.sagebionetworks.table.query.model.QuerySpecification;
 import org.sagebionetworks.util.csv.CSVWriterStream;
 import org.sagebionetworks.workers.util.semaphore.LockUnavilableException;
 import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.transaction.support.TransactionCallback;
 
 @ExtendWith(MockitoExtension.class)
 public class TableQueryManagerImplTest {
@@ -135,8 +144,8 @@ public class TableQueryManagerImplTest {
 	String facetMax;
 	FacetColumnRangeRequest facetColumnRequest;
 	private FacetColumnResultRange expectedRangeResult;
-	private RowSet enumerationFacetResults;
-	private RowSet rangeFacetResults;
+	private ColumnarRowSet enumerationFacetResults;
+	private ColumnarRowSet rangeFacetResults;
 	
 	private QueryOptions queryOptions;
 	
@@ -147,6 +156,8 @@ public class TableQueryManagerImplTest {
 	
 	ViewScopeType scopeType;
 	
+	ExecutorService queryExecutor;
+	
 	@BeforeEach
 	public void before() throws Exception {
 		tableId = "syn123";
@@ -162,6 +173,12 @@ public class TableQueryManagerImplTest {
 		models = TableModelTestUtils.createOneOfEachType(true);		
 		maxBytesPerRequest = 10000000;
 		manager.setMaxBytesPerRequest(maxBytesPerRequest);
+		queryExecutor = Executors.newFixedThreadPool(2);
+		manager.setQueryTaskRunner(new TableQueryTaskRunner(queryExecutor, 2, 10000L));
+		// the queries of a group run in a timed read transaction.
+		lenient().when(mockTableIndexDAO.executeInReadTransaction(any(TransactionCallback.class), anyLong()))
+				.thenAnswer((InvocationOnMock invocation) -> ((TransactionCallback<?>) invocation.getArgument(0))
+						.doInTransaction(null));
 		
 		rows = TableModelTestUtils.createRows(models, 10);
 		
@@ -193,8 +210,8 @@ public class TableQueryManagerImplTest {
 		String expectedColMax = "123";
 		String expectedColumnName = "i2";
 		FacetType expectedFacetType = FacetType.range;
-		enumerationFacetResults = createRowSetForTest(Lists.newArrayList(FacetTransformerValueCounts.VALUE_ALIAS, FacetTransformerValueCounts.COUNT_ALIAS));
-		rangeFacetResults = createRowSetForTest(Lists.newArrayList(FacetTransformerRange.MIN_ALIAS, FacetTransformerRange.MAX_ALIAS), Lists.newArrayList(expectedColMin, expectedColMax));
+		enumerationFacetResults = toColumnar(createRowSetForTest(Lists.newArrayList(FacetTransformerValueCounts.VALUE_ALIAS, FacetTransformerValueCounts.COUNT_ALIAS)));
+		rangeFacetResults = toColumnar(createRowSetForTest(Lists.newArrayList(FacetTransformerRange.MIN_ALIAS, FacetTransformerRange.MAX_ALIAS), Lists.newArrayList(expectedColMin, expectedColMax)));
 		expectedRangeResult = new FacetColumnResultRange();
 		expectedRangeResult.setColumnName(expectedColumnName);
 		expectedRangeResult.setColumnMin(expectedColMin);
@@ -205,6 +222,11 @@ public class TableQueryManagerImplTest {
 		sumFilesizes = 9876L;
 		scopeType =  new ViewScopeType(ViewObjectType.ENTITY, ViewTypeMask.File.getMask());
 	}
+	
+	@AfterEach
+	public void after() {
+		queryExecutor.shutdownNow();
+	}
 
 	void setupQueryCallback() {
 		when(mockTableIndexDAO.queryAsStream(any(ProgressCallback.class),any(SqlQuery.class), any(RowHandler.class))).thenAnswer(new Answer<Boolean>() {
@@ -296,9 +318,9 @@ public class TableQueryManagerImplTest {
 		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
 		setupQueryCallback();
 		
-		RowHandler rowHandler = new SinglePageRowHandler();
 		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models)
 		.build();
+		RowHandler rowHandler = new SinglePageRowHandler(query);
 		// call under test.
 		QueryResultBundle result = manager.queryAsStream(mockProgressCallbackVoid, user, query, rowHandler, queryOptions);
 		assertNotNull(result);
@@ -317,9 +339,9 @@ public class TableQueryManagerImplTest {
 						any(ProgressCallback.class), any(IdAndVersion.class),
 						any(ProgressingCallable.class))).thenThrow(
 				new NotFoundException("not found"));
-		RowHandler rowHandler = new SinglePageRowHandler();
 		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models)
 		.build();
+		RowHandler rowHandler = new SinglePageRowHandler(query);
 		assertThrows(NotFoundException.class, ()->{
 			// call under test.
 			manager.queryAsStream(mockProgressCallbackVoid, user, query, rowHandler, queryOptions);
@@ -332,9 +354,9 @@ public class TableQueryManagerImplTest {
 						any(ProgressCallback.class), any(IdAndVersion.class),
 						any(ProgressingCallable.class))).thenThrow(
 				new TableUnavailableException(new TableStatus()));
-		RowHandler rowHandler = new SinglePageRowHandler();
 		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models)
 		.build();
+		RowHandler rowHandler = new SinglePageRowHandler(query);
 		assertThrows(TableUnavailableException.class, ()->{
 			// call under test.
 			manager.queryAsStream(mockProgressCallbackVoid, user, query, rowHandler, queryOptions);
@@ -347,9 +369,9 @@ public class TableQueryManagerImplTest {
 						any(ProgressCallback.class), any(IdAndVersion.class),
 						any(ProgressingCallable.class))).thenThrow(
 				new TableFailedException(new TableStatus()));
-		RowHandler rowHandler = new SinglePageRowHandler();
 		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models)
 		.build();
+		RowHandler rowHandler = new SinglePageRowHandler(query);
 		assertThrows(TableFailedException.class, ()->{
 			// call under test.
 			manager.queryAsStream(mockProgressCallbackVoid, user, query, rowHandler, queryOptions);
@@ -362,9 +384,9 @@ public class TableQueryManagerImplTest {
 						any(ProgressCallback.class),any(IdAndVersion.class),
 						any(ProgressingCallable.class))).thenThrow(
 				new LockUnavilableException());
-		RowHandler rowHandler = new SinglePageRowHandler();
 		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models)
 		.build();
+		RowHandler rowHandler = new SinglePageRowHandler(query);
 		assertThrows(LockUnavilableException.class, ()->{
 			// call under test.
 			manager.queryAsStream(mockProgressCallbackVoid, user, query, rowHandler, queryOptions);
@@ -378,9 +400,9 @@ public class TableQueryManagerImplTest {
 						any(ProgressCallback.class),any(IdAndVersion.class),
 						any(ProgressingCallable.class))).thenThrow(
 				new EmptyResultException());
-		RowHandler rowHandler = new SinglePageRowHandler();
 		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models)
 		.build();
+		RowHandler rowHandler = new SinglePageRowHandler(query);
 		assertThrows(EmptyResultException.class, ()->{
 			// call under test.
 			manager.queryAsStream(mockProgressCallbackVoid, user, query, rowHandler, queryOptions);
@@ -506,8 +528,8 @@ public class TableQueryManagerImplTest {
 		setupQueryCallback();
 		
 		// non-null handler indicates the query should be run.
-		RowHandler rowHandler = new SinglePageRowHandler();
 		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models).build();
+		RowHandler rowHandler = new SinglePageRowHandler(query);
 		// call under test
 		QueryResultBundle results = manager.queryAsStreamAfterAuthorization(mockProgressCallbackVoid, query, rowHandler, queryOptions);
 		assertNotNull(results);
@@ -528,9 +550,9 @@ public class TableQueryManagerImplTest {
 		// setup count results
 		when(mockTableIndexDAO.countQuery(anyString(), anyMap())).thenReturn(count);
 		// non-null handler indicates the query should be run.
-		RowHandler rowHandler = new SinglePageRowHandler();
 		queryOptions = new QueryOptions().withRunCount(true).withRunQuery(true);
 		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models).build();
+		RowHandler rowHandler = new SinglePageRowHandler(query);
 		// call under test
 		QueryResultBundle results = manager.queryAsStreamAfterAuthorization(mockProgressCallbackVoid, query, rowHandler, queryOptions);
 		assertNotNull(results);
@@ -551,9 +573,9 @@ public class TableQueryManagerImplTest {
 		when(mockTableManagerSupport.getLastChangedOn(idAndVersion)).thenReturn(lastUpdatedOn);
 
 		// non-null handler indicates the query should be run.
-		RowHandler rowHandler = new SinglePageRowHandler();
 		queryOptions = new QueryOptions().withReturnLastUpdatedOn(true);
 		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models).build();
+		RowHandler rowHandler = new SinglePageRowHandler(query);
 		// call under test
 		QueryResultBundle results = manager.queryAsStreamAfterAuthorization(mockProgressCallbackVoid, query, rowHandler, queryOptions);
 		assertNotNull(results);
@@ -602,7 +624,7 @@ public class TableQueryManagerImplTest {
 	public void testQueryAsStreamAfterAuthorizationNonEmptyFacetColumnsListReturnFacets() throws Exception {
 		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
 		
-		when(mockTableIndexDAO.query(isNull(), any(SqlQuery.class))).thenReturn(enumerationFacetResults, rangeFacetResults, enumerationFacetResults);
+		when(mockTableIndexDAO.queryColumnar(isNull(), any(SqlQuery.class))).thenReturn(enumerationFacetResults, rangeFacetResults, enumerationFacetResults);
 		List<FacetColumnRequest> facetRequestList = new ArrayList<>();
 		facetRequestList.add(facetColumnRequest);
 		expectedRangeResult.setSelectedMin(facetColumnRequest.getMin());
@@ -636,8 +658,8 @@ public class TableQueryManagerImplTest {
 	public void testRunQueryAsStream() throws ParseException{
 		setupQueryCallback();
 		
-		SinglePageRowHandler rowHandler = new SinglePageRowHandler();
 		SqlQuery query = new SqlQueryBuilder("select * from " + tableId, models).build();
+		SinglePageRowHandler rowHandler = new SinglePageRowHandler(query);
 		// call under test
 		RowSet rowSet = manager.runQueryAsStream(mockProgressCallbackVoid, query, rowHandler, mockTableIndexDAO);
 		assertNotNull(rowSet);
@@ -848,7 +870,7 @@ public class TableQueryManagerImplTest {
 		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
 		when(mockTableManagerSupport.validateTableReadAccess(user, idAndVersion)).thenReturn(EntityType.table);
 		
-		when(mockTableIndexDAO.query(isNull(), any(SqlQuery.class))).thenReturn(enumerationFacetResults, rangeFacetResults, enumerationFacetResults);
+		when(mockTableIndexDAO.queryColumnar(isNull(), any(SqlQuery.class))).thenReturn(enumerationFacetResults, rangeFacetResults, enumerationFacetResults);
 		
 		Query query = new Query();
 		query.setSql("select * from " + tableId);
@@ -1666,56 +1688,76 @@ public class TableQueryManagerImplTest {
 	
 	
 	////////////////////////////
-	// runFacetQueries() Tests
+	// submitFacetQueries() Tests
 	////////////////////////////
 	@Test
-	public void testRunFacetQueriesNullFacetModel(){
-		assertThrows(IllegalArgumentException.class, ()->{
-			// call under test
-			manager.runFacetQueries(null, mockTableIndexDAO);
-		});
+	public void testSubmitFacetQueriesNullFacetModel(){
+		try (QueryTaskGroup group = manager.queryTaskRunner.startGroup()) {
+			assertThrows(IllegalArgumentException.class, ()->{
+				// call under test
+				manager.submitFacetQueries(null, mockTableIndexDAO, group);
+			});
+		}
 	}
 	
 	@Test
-	public void testRunFacetQueriesFacetColumns(){
+	public void testSubmitFacetQueriesNullIndexDao(){
+		try (QueryTaskGroup group = manager.queryTaskRunner.startGroup()) {
+			assertThrows(IllegalArgumentException.class, ()->{
+				// call under test
+				manager.submitFacetQueries(Mockito.mock(FacetModel.class), null, group);
+			});
+		}
+	}
+	
+	@Test
+	public void testSubmitFacetQueriesNullGroup(){
 		assertThrows(IllegalArgumentException.class, ()->{
 			// call under test
-			manager.runFacetQueries(Mockito.mock(FacetModel.class), null);
+			manager.submitFacetQueries(Mockito.mock(FacetModel.class), mockTableIndexDAO, null);
 		});
-	}	
+	}
 	
 	@Test
-	public void testRunFacetQueries(){
+	public void testSubmitFacetQueries(){
 		//setup
 		FacetModel mockFacetModel = Mockito.mock(FacetModel.class);
 		FacetTransformer mockTransformer1 = Mockito.mock(FacetTransformerValueCounts.class);
 		FacetTransformer mockTransformer2 = Mockito.mock(FacetTransformerRange.class);
 		SqlQuery mockSql1 = Mockito.mock(SqlQuery.class);
 		SqlQuery mockSql2 = Mockito.mock(SqlQuery.class);
-		RowSet rs1 = new RowSet();
-		RowSet rs2 = new RowSet();
+		ColumnarRowSet rs1 = new ColumnarRowSet(null, new ArrayList<>(), false, false, null);
+		ColumnarRowSet rs2 = new ColumnarRowSet(null, new ArrayList<>(), false, false, null);
 		FacetColumnResultValues result1 = new FacetColumnResultValues();
 		FacetColumnResultRange result2 = new FacetColumnResultRange();
 		
 		
 		when(mockTransformer1.getFacetSqlQuery()).thenReturn(mockSql1);
 		when(mockTransformer2.getFacetSqlQuery()).thenReturn(mockSql2);
-		when(mockTableIndexDAO.query(null, mockSql1)).thenReturn(rs1);
-		when(mockTableIndexDAO.query(null, mockSql2)).thenReturn(rs2);
+		when(mockTableIndexDAO.queryColumnar(null, mockSql1)).thenReturn(rs1);
+		when(mockTableIndexDAO.queryColumnar(null, mockSql2)).thenReturn(rs2);
 		when(mockTransformer1.translateToResult(rs1)).thenReturn(result1);
 		when(mockTransformer2.translateToResult(rs2)).thenReturn(result2);
 		List<FacetTransformer> transformersList = Arrays.asList(mockTransformer1, mockTransformer2);
 		when(mockFacetModel.getFacetInformationQueries()).thenReturn(transformersList);
 		
-		//call method
-		List<FacetColumnResult> results = manager.runFacetQueries(mockFacetModel, mockTableIndexDAO);
+		List<FacetColumnResult> results = new ArrayList<>();
+		try (QueryTaskGroup group = manager.queryTaskRunner.startGroup()) {
+			//call method
+			List<Future<FacetColumnResult>> futures = manager.submitFacetQueries(mockFacetModel, mockTableIndexDAO, group);
+			for (Future<FacetColumnResult> future : futures) {
+				results.add(group.get(future));
+			}
+		}
 		
 		//verify and assert
 		verify(mockFacetModel).getFacetInformationQueries();
 		verify(mockTransformer1).getFacetSqlQuery();
 		verify(mockTransformer2).getFacetSqlQuery();
-		verify(mockTableIndexDAO).query(null, mockSql1);
-		verify(mockTableIndexDAO).query(null, mockSql2);
+		verify(mockTableIndexDAO).queryColumnar(null, mockSql1);
+		verify(mockTableIndexDAO).queryColumnar(null, mockSql2);
+		// each facet query runs with the timeout of the group.
+		verify(mockTableIndexDAO, times(2)).executeInReadTransaction(any(TransactionCallback.class), eq(10000L));
 		verify(mockTransformer1).translateToResult(rs1);
 		verify(mockTransformer2).translateToResult(rs2);
 		
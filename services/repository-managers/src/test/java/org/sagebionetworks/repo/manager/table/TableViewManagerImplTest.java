@@ -15,6 +15,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -46,6 +47,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -1301,13 +1303,16 @@ public class TableViewManagerImplTest {
 	@Test
 	public void testApplyChangesToAvailableViewHoldingLock_NothingToDo() {
 		setupApplyChanges();
+		when(mockIndexManager.registerViewScope(idAndVersion, scopeType, allContainersInScope)).thenReturn(true);
 		Set<Long> rowsToUpdate = Collections.emptySet();
 		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
 		when(mockIndexManager.getOutOfDateRowsForView(idAndVersion, scopeType, allContainersInScope,
 				TableViewManagerImpl.MAX_ROWS_PER_TRANSACTION)).thenReturn(rowsToUpdate);
 		// call under test
 		manager.applyChangesToAvailableViewHoldingLock(idAndVersion);
-		verify(mockTableManagerSupport).getTableStatusState(idAndVersion);
+		// checked before both the full comparison and the stale rows.
+		verify(mockTableManagerSupport, times(2)).getTableStatusState(idAndVersion);
+		verify(mockIndexManager).getStaleRowsForView(idAndVersion, TableViewManagerImpl.MAX_ROWS_PER_TRANSACTION);
 		verify(mockIndexManager, never()).updateViewRowsInTransaction(any(IdAndVersion.class), anySet(), any(),
 				anySet(), anyList());
 		verifyNoMoreInteractions(mockTableManagerSupport);
@@ -1316,6 +1321,7 @@ public class TableViewManagerImplTest {
 	@Test
 	public void testApplyChangesToAvailableViewHoldingLock_OnePage() {
 		setupApplyChanges();
+		when(mockIndexManager.registerViewScope(idAndVersion, scopeType, allContainersInScope)).thenReturn(true);
 		Set<Long> rowsToUpdate = Sets.newHashSet(101L,102L);
 		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
 		when(mockIndexManager.getOutOfDateRowsForView(idAndVersion, scopeType, allContainersInScope,
@@ -1337,6 +1343,7 @@ public class TableViewManagerImplTest {
 		// call under test
 		manager.applyChangesToAvailableViewHoldingLock(idAndVersion);
 		verify(mockTableManagerSupport).getTableStatusState(idAndVersion);
+		verify(mockIndexManager).registerViewScope(idAndVersion, scopeType, allContainersInScope);
 		verifyNoMoreInteractions(mockTableManagerSupport);
 		verifyNoMoreInteractions(mockIndexManager);
 	}
@@ -1349,6 +1356,7 @@ public class TableViewManagerImplTest {
 		// call under test
 		manager.applyChangesToAvailableViewHoldingLock(idAndVersion);
 		verify(mockTableManagerSupport).getTableStatusState(idAndVersion);
+		verify(mockIndexManager).registerViewScope(idAndVersion, scopeType, allContainersInScope);
 		verifyNoMoreInteractions(mockTableManagerSupport);
 		verifyNoMoreInteractions(mockIndexManager);
 	}
@@ -1360,6 +1368,7 @@ public class TableViewManagerImplTest {
 	@Test
 	public void testApplyChangesToAvailableViewHoldingLock_MultiplePagesNoOverlap() {
 		setupApplyChanges();
+		when(mockIndexManager.registerViewScope(idAndVersion, scopeType, allContainersInScope)).thenReturn(true);
 		Set<Long> pageOne = Sets.newHashSet(101L,102L);
 		Set<Long> pageTwo = Sets.newHashSet(103L,104L);
 		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
@@ -1379,6 +1388,7 @@ public class TableViewManagerImplTest {
 	@Test
 	public void testApplyChangesToAvailableViewHoldingLock_MultiplePagesNoOverlapStatusChanged() {
 		setupApplyChanges();
+		when(mockIndexManager.registerViewScope(idAndVersion, scopeType, allContainersInScope)).thenReturn(true);
 		Set<Long> pageOne = Sets.newHashSet(101L,102L);
 		Set<Long> pageTwo = Sets.newHashSet(103L,104L);
 		// Status starts as available but changes to processing which stop the updates.
@@ -1403,6 +1413,7 @@ public class TableViewManagerImplTest {
 	@Test
 	public void testApplyChangesToAvailableViewHoldingLock_MultiplePagesWithOverlap() {
 		setupApplyChanges();
+		when(mockIndexManager.registerViewScope(idAndVersion, scopeType, allContainersInScope)).thenReturn(true);
 		Set<Long> pageOne = Sets.newHashSet(101L,102L);
 		Set<Long> pageTwo = Sets.newHashSet(102L,103L);
 		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
@@ -1426,6 +1437,7 @@ public class TableViewManagerImplTest {
 	@Test
 	public void testApplyChangesToAvailableViewHoldingLock_Failed() {
 		setupApplyChanges();
+		when(mockIndexManager.registerViewScope(idAndVersion, scopeType, allContainersInScope)).thenReturn(true);
 		Set<Long> pageOne = Sets.newHashSet(101L,102L);
 		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
 		when(mockIndexManager.getOutOfDateRowsForView(idAndVersion, scopeType, allContainersInScope,
@@ -1447,6 +1459,96 @@ public class TableViewManagerImplTest {
 	/**
 	 * Helper to setup a call to applyChangesToAvailableViewHoldingLock()
 	 */
+	/**
+	 * When the scope registration is unchanged only the stale rows are applied.
+	 */
+	@Test
+	public void testApplyChangesToAvailableViewHoldingLock_StaleRows() {
+		setupApplyChanges();
+		Map<Long, String> pageOne = new HashMap<>();
+		pageOne.put(101L, "one");
+		pageOne.put(102L, "two");
+		Map<Long, String> pageTwo = new HashMap<>();
+		pageTwo.put(103L, "three");
+		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
+		when(mockIndexManager.registerViewScope(idAndVersion, scopeType, allContainersInScope)).thenReturn(false);
+		when(mockIndexManager.getStaleRowsForView(idAndVersion, TableViewManagerImpl.MAX_ROWS_PER_TRANSACTION))
+				.thenReturn(pageOne, pageTwo, Collections.emptyMap());
+		// call under test
+		manager.applyChangesToAvailableViewHoldingLock(idAndVersion);
+		verify(mockIndexManager, never()).getOutOfDateRowsForView(any(IdAndVersion.class), any(), anySet(), anyLong());
+		verify(mockIndexManager).updateViewRowsInTransaction(idAndVersion, pageOne.keySet(), scopeType,
+				allContainersInScope, viewSchema);
+		verify(mockIndexManager).clearStaleRowsForView(idAndVersion, pageOne);
+		verify(mockIndexManager).updateViewRowsInTransaction(idAndVersion, pageTwo.keySet(), scopeType,
+				allContainersInScope, viewSchema);
+		verify(mockIndexManager).clearStaleRowsForView(idAndVersion, pageTwo);
+		verify(mockTableManagerSupport, never()).attemptToSetTableStatusToFailed(any(IdAndVersion.class),
+				any(Exception.class));
+		verify(mockTableManagerSupport, times(2)).updateChangedOnIfAvailable(idAndVersion);
+	}
+	
+	/**
+	 * Rows that change while a page is applied are applied again.
+	 */
+	@Test
+	public void testApplyChangesToAvailableViewHoldingLock_StaleRowsChangedAgain() {
+		setupApplyChanges();
+		Map<Long, String> pageOne = Collections.singletonMap(101L, "one");
+		Map<Long, String> pageTwo = Collections.singletonMap(101L, "two");
+		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
+		when(mockIndexManager.getStaleRowsForView(idAndVersion, TableViewManagerImpl.MAX_ROWS_PER_TRANSACTION))
+				.thenReturn(pageOne, pageTwo, Collections.emptyMap());
+		// call under test
+		manager.applyChangesToAvailableViewHoldingLock(idAndVersion);
+		verify(mockIndexManager, times(2)).updateViewRowsInTransaction(idAndVersion, Collections.singleton(101L),
+				scopeType, allContainersInScope, viewSchema);
+		verify(mockIndexManager).clearStaleRowsForView(idAndVersion, pageOne);
+		verify(mockIndexManager).clearStaleRowsForView(idAndVersion, pageTwo);
+	}
+	
+	@Test
+	public void testApplyChangesToAvailableViewHoldingLock_StaleRowsNotAvailable() {
+		setupApplyChanges();
+		Map<Long, String> pageOne = Collections.singletonMap(101L, "one");
+		// Status starts as available but changes to processing which stop the updates.
+		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE), Optional.of(TableState.PROCESSING));
+		when(mockIndexManager.getStaleRowsForView(idAndVersion, TableViewManagerImpl.MAX_ROWS_PER_TRANSACTION))
+				.thenReturn(pageOne);
+		// call under test
+		manager.applyChangesToAvailableViewHoldingLock(idAndVersion);
+		verify(mockIndexManager, times(1)).updateViewRowsInTransaction(idAndVersion, pageOne.keySet(), scopeType,
+				allContainersInScope, viewSchema);
+		verify(mockIndexManager, times(1)).getStaleRowsForView(idAndVersion, TableViewManagerImpl.MAX_ROWS_PER_TRANSACTION);
+	}
+	
+	/**
+	 * After the scope registration is replaced the entire view is compared
+	 * before the stale rows are applied.
+	 */
+	@Test
+	public void testApplyChangesToAvailableViewHoldingLock_ScopeChanged() {
+		setupApplyChanges();
+		Set<Long> outOfDate = Sets.newHashSet(101L,102L);
+		Map<Long, String> staleRows = Collections.singletonMap(103L, "token");
+		when(mockTableManagerSupport.getTableStatusState(idAndVersion)).thenReturn(Optional.of(TableState.AVAILABLE));
+		when(mockIndexManager.registerViewScope(idAndVersion, scopeType, allContainersInScope)).thenReturn(true);
+		when(mockIndexManager.getOutOfDateRowsForView(idAndVersion, scopeType, allContainersInScope,
+				TableViewManagerImpl.MAX_ROWS_PER_TRANSACTION)).thenReturn(outOfDate, Collections.emptySet());
+		when(mockIndexManager.getStaleRowsForView(idAndVersion, TableViewManagerImpl.MAX_ROWS_PER_TRANSACTION))
+				.thenReturn(staleRows, Collections.emptyMap());
+		// call under test
+		manager.applyChangesToAvailableViewHoldingLock(idAndVersion);
+		InOrder inOrder = inOrder(mockIndexManager);
+		inOrder.verify(mockIndexManager).registerViewScope(idAndVersion, scopeType, allContainersInScope);
+		inOrder.verify(mockIndexManager).updateViewRowsInTransaction(idAndVersion, outOfDate, scopeType,
+				allContainersInScope, viewSchema);
+		inOrder.verify(mockIndexManager).updateViewRowsInTransaction(idAndVersion, staleRows.keySet(), scopeType,
+				allContainersInScope, viewSchema);
+		inOrder.verify(mockIndexManager).clearStaleRowsForView(idAndVersion, staleRows);
+		verify(mockTableManagerSupport, times(2)).updateChangedOnIfAvailable(idAndVersion);
+	}
+	
 	void setupApplyChanges() {
 		when(mockConnectionFactory.connectToTableIndex(idAndVersion)).thenReturn(mockIndexManager);
 		when(mockTableManagerSupport.getViewScopeType(idAndVersion)).thenReturn(scopeType);
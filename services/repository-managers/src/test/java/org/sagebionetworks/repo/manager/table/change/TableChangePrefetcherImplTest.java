@@ -0,0 +1,210 @@
+package org.sagebionetworks.repo.manager.table.change;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.repo.model.dbo.dao.table.TableModelTestUtils;
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.repo.model.table.ColumnType;
+import org.sagebionetworks.repo.model.table.TableChangeType;
+import org.sagebionetworks.table.model.ChangeData;
+import org.sagebionetworks.table.model.SparseChangeSet;
+import org.sagebionetworks.table.model.SparseRow;
+
+@ExtendWith(MockitoExtension.class)
+public class TableChangePrefetcherImplTest {
+
+	@Mock
+	ExecutorService mockExecutor;
+	@Mock
+	StackConfiguration mockConfig;
+	@Mock
+	Consumer mockConsumer;
+	@Mock
+	TableChangeMetaData mockChangeOne;
+	@Mock
+	TableChangeMetaData mockChangeTwo;
+	@Mock
+	TableChangeMetaData mockChangeThree;
+	@Captor
+	ArgumentCaptor<ProfileData> profileCaptor;
+
+	SparseChangeSet changeSet;
+	List<TableChangeMetaData> changes;
+
+	@BeforeEach
+	public void before() {
+		when(mockConfig.getStackInstance()).thenReturn("test");
+		List<ColumnModel> schema = Arrays.asList(TableModelTestUtils.createColumn(99L, "aString", ColumnType.STRING));
+		changeSet = new SparseChangeSet("syn123", schema);
+		SparseRow row = changeSet.addEmptyRow();
+		row.setRowId(0L);
+		row.setCellValue("99", "some string");
+		changes = Arrays.asList(mockChangeOne, mockChangeTwo, mockChangeThree);
+	}
+
+	/**
+	 * Setup the executor to run each submitted task on the calling thread.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	void setupExecutorRunOnCaller() {
+		when(mockExecutor.submit(any(Callable.class))).thenAnswer(invocation -> {
+			FutureTask task = new FutureTask((Callable) invocation.getArgument(0));
+			task.run();
+			return task;
+		});
+	}
+
+	void setupRowChange(TableChangeMetaData mockChange, long changeNumber) throws IOException {
+		when(mockChange.getChangeType()).thenReturn(TableChangeType.ROW);
+		when(mockChange.loadChangeData(SparseChangeSet.class)).thenReturn(new ChangeData<>(changeNumber, changeSet));
+	}
+
+	TableChangePrefetcherImpl createPrefetcher(int maxChanges, long maxBytes) {
+		when(mockConfig.getTableChangePrefetchMaxChanges()).thenReturn(maxChanges);
+		when(mockConfig.getTableChangePrefetchMaxBytes()).thenReturn(maxBytes);
+		return new TableChangePrefetcherImpl(mockExecutor, mockConfig, mockConsumer);
+	}
+
+	@Test
+	public void testPrefetchInOrder() throws IOException {
+		setupExecutorRunOnCaller();
+		setupRowChange(mockChangeOne, 1L);
+		setupRowChange(mockChangeTwo, 2L);
+		setupRowChange(mockChangeThree, 3L);
+		when(mockChangeOne.getChangeNumber()).thenReturn(1L);
+		when(mockChangeTwo.getChangeNumber()).thenReturn(2L);
+		when(mockChangeThree.getChangeNumber()).thenReturn(3L);
+		TableChangePrefetcherImpl prefetcher = createPrefetcher(2, 1024L * 1024L);
+		List<Long> results = new ArrayList<>();
+		// call under test
+		try (TableChangeIterator iterator = prefetcher.startPrefetching(changes.iterator(), (c) -> true)) {
+			while (iterator.hasNext()) {
+				TableChangeMetaData change = iterator.next();
+				ChangeData<SparseChangeSet> data = change.loadChangeData(SparseChangeSet.class);
+				assertSame(changeSet, data.getChange());
+				results.add(change.getChangeNumber());
+			}
+			assertEquals(3L, ((PrefetchingTableChangeIterator) iterator).getHitCount());
+			assertEquals(0L, ((PrefetchingTableChangeIterator) iterator).getMissCount());
+		}
+		assertEquals(Arrays.asList(1L, 2L, 3L), results);
+		verify(mockExecutor, times(3)).submit(any(Callable.class));
+		verify(mockConsumer, times(2)).addProfileData(profileCaptor.capture());
+		List<ProfileData> metrics = profileCaptor.getAllValues();
+		assertEquals(TableChangePrefetcherImpl.METRIC_PREFETCH_HIT, metrics.get(0).getName());
+		assertEquals(3.0, metrics.get(0).getValue().doubleValue());
+		assertEquals(TableChangePrefetcherImpl.METRIC_PREFETCH_MISS, metrics.get(1).getName());
+		assertEquals(0.0, metrics.get(1).getValue().doubleValue());
+		assertEquals("Table-Index-test", metrics.get(0).getNamespace());
+	}
+
+	@Test
+	public void testPrefetchWithFilter() throws IOException {
+		setupExecutorRunOnCaller();
+		setupRowChange(mockChangeTwo, 2L);
+		when(mockChangeOne.getChangeNumber()).thenReturn(1L);
+		when(mockChangeTwo.getChangeNumber()).thenReturn(2L);
+		when(mockChangeThree.getChangeNumber()).thenReturn(3L);
+		TableChangePrefetcherImpl prefetcher = createPrefetcher(2, 1024L * 1024L);
+		// call under test
+		try (TableChangeIterator iterator = prefetcher.startPrefetching(changes.iterator(),
+				(c) -> c.getChangeNumber() == 2L)) {
+			assertSame(mockChangeOne, iterator.next());
+			assertEquals(2L, iterator.next().getChangeNumber());
+			assertSame(mockChangeThree, iterator.next());
+			assertFalse(iterator.hasNext());
+		}
+		// only the second change should be loaded.
+		verify(mockExecutor, times(1)).submit(any(Callable.class));
+		verify(mockChangeOne, never()).loadChangeData(any());
+		verify(mockChangeThree, never()).loadChangeData(any());
+		// nothing was requested so there are no statistics to publish
+		verify(mockConsumer, never()).addProfileData(any(ProfileData.class));
+	}
+
+	@Test
+	public void testPrefetchDisabled() throws IOException {
+		TableChangePrefetcherImpl prefetcher = createPrefetcher(0, 1024L * 1024L);
+		// call under test
+		try (TableChangeIterator iterator = prefetcher.startPrefetching(changes.iterator(), (c) -> true)) {
+			assertSame(mockChangeOne, iterator.next());
+			assertSame(mockChangeTwo, iterator.next());
+			assertSame(mockChangeThree, iterator.next());
+			assertFalse(iterator.hasNext());
+		}
+		verify(mockExecutor, never()).submit(any(Callable.class));
+	}
+
+	@Test
+	public void testPrefetchByteLimit() throws IOException {
+		setupExecutorRunOnCaller();
+		setupRowChange(mockChangeOne, 1L);
+		setupRowChange(mockChangeTwo, 2L);
+		// a single change exceeds the byte limit.
+		TableChangePrefetcherImpl prefetcher = createPrefetcher(2, 1L);
+		try (TableChangeIterator iterator = prefetcher.startPrefetching(changes.iterator(), (c) -> true)) {
+			// call under test
+			iterator.next();
+			verify(mockExecutor, times(1)).submit(any(Callable.class));
+			assertTrue(((PrefetchingTableChangeIterator) iterator).getBufferedBytes() > 0L);
+			// moving to the next change releases the first.
+			iterator.next();
+			verify(mockExecutor, times(2)).submit(any(Callable.class));
+		}
+	}
+
+	@Test
+	public void testPrefetchWithIOException() throws IOException {
+		setupExecutorRunOnCaller();
+		when(mockChangeOne.getChangeType()).thenReturn(TableChangeType.ROW);
+		IOException exception = new IOException("nope");
+		when(mockChangeOne.loadChangeData(SparseChangeSet.class)).thenThrow(exception);
+		TableChangePrefetcherImpl prefetcher = createPrefetcher(1, 1024L * 1024L);
+		try (TableChangeIterator iterator = prefetcher.startPrefetching(changes.iterator(), (c) -> c == mockChangeOne)) {
+			TableChangeMetaData change = iterator.next();
+			// call under test
+			IOException result = assertThrows(IOException.class, () -> {
+				change.loadChangeData(SparseChangeSet.class);
+			});
+			assertSame(exception, result);
+		}
+	}
+
+	@Test
+	public void testNextAfterClose() {
+		TableChangePrefetcherImpl prefetcher = createPrefetcher(0, 1024L * 1024L);
+		TableChangeIterator iterator = prefetcher.startPrefetching(changes.iterator(), (c) -> true);
+		iterator.close();
+		assertThrows(IllegalStateException.class, () -> {
+			// call under test
+			iterator.next();
+		});
+	}
+}
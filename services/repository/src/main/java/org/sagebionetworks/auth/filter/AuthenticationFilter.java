@@ -134,11 +134,10 @@ public class AuthenticationFilter implements Filter {
 		// there are multiple paths to this point, but all require creating a userId
 		ValidateArgument.required(userId, "userId");
 
-		// Put the userId on thread local, so this thread always knows who is calling
-		currentUserIdThreadLocal.set(userId);
-		
 		// Pass the request along, including the user Id and access token
 		try {
+			// Put the userId on thread local, so this thread always knows who is calling
+			currentUserIdThreadLocal.set(userId);
 			Map<String, String[]> modParams = new HashMap<String, String[]>(req.getParameterMap());
 			modParams.put(AuthorizationConstants.USER_ID_PARAM, new String[] { userId.toString() });
 			Map<String, String[]> modHeaders = HttpAuthUtil.filterAuthorizationHeaders(req);
@@ -148,8 +147,8 @@ public class AuthenticationFilter implements Filter {
 			HttpServletRequest modRqst = new ModHttpServletRequest(req, modHeaders, modParams);
 			filterChain.doFilter(modRqst, servletResponse);
 		} finally {
-			// not strictly necessary, but just in case
-			currentUserIdThreadLocal.set(null);
+			// remove the value so the thread does not carry it to the next request
+			currentUserIdThreadLocal.remove();
 		}
 	}
 
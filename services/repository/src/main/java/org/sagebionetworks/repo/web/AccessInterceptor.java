@@ -1,8 +1,6 @@
 package org.sagebionetworks.repo.web;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import javax.servlet.http.HttpServletRequest;
@@ -14,6 +12,8 @@ import org.sagebionetworks.audit.utils.VirtualMachineIdProvider;
 import org.sagebionetworks.auth.HttpAuthUtil;
 import org.sagebionetworks.aws.utils.s3.KeyGeneratorUtil;
 import org.sagebionetworks.repo.manager.oauth.OIDCTokenHelper;
+import org.sagebionetworks.repo.manager.oauth.ValidatedAccessToken;
+import org.sagebionetworks.repo.manager.oauth.ValidatedAccessTokenCache;
 import org.sagebionetworks.repo.model.AuthorizationConstants;
 import org.sagebionetworks.repo.model.audit.AccessRecord;
 import org.sagebionetworks.repo.model.audit.AccessRecorder;
@@ -33,10 +33,11 @@ public class AccessInterceptor implements HandlerInterceptor, AccessIdListener{
 	public static final String SESSION_ID = "sessionId";
 
 	/**
-	 * This map keeps track of the current record for each thread.
+	 * The record of the request that is currently being processed by each
+	 * thread. Each thread only sees its own record so there is no lock shared by
+	 * all requests.
 	 */
-	Map<Long, AccessRecord> threadToRecordMap = Collections
-			.synchronizedMap(new HashMap<Long, AccessRecord>());
+	private final ThreadLocal<AccessRecord> currentRecord = new ThreadLocal<AccessRecord>();
 
 	@Autowired
 	AccessRecorder accessRecorder;
@@ -50,6 +51,9 @@ public class AccessInterceptor implements HandlerInterceptor, AccessIdListener{
 	@Autowired
 	private OIDCTokenHelper oidcTokenHelper;
 
+	@Autowired
+	private ValidatedAccessTokenCache validatedAccessTokenCache;
+
 	String getOAuthClientId(HttpServletRequest request) {
 		/*
 		 * There are two different places the client ID might be:
@@ -58,6 +62,11 @@ public class AccessInterceptor implements HandlerInterceptor, AccessIdListener{
 		 */
 		String accessToken = HttpAuthUtil.getBearerTokenFromStandardAuthorizationHeader(request);
 		if (accessToken != null) {
+			// The token was validated by the authentication filter so the cached validation avoids parsing it again.
+			Optional<ValidatedAccessToken> validated = validatedAccessTokenCache.get(accessToken);
+			if (validated.isPresent()) {
+				return validated.get().getClientId();
+			}
 			return oidcTokenHelper.parseJWT(accessToken).getBody().getAudience();
 		} else {
 			return request.getHeader(AuthorizationConstants.OAUTH_VERIFIED_CLIENT_ID_HEADER);
@@ -102,7 +111,7 @@ public class AccessInterceptor implements HandlerInterceptor, AccessIdListener{
 		// push the session id to the logging thread context
 		ThreadContext.put(SESSION_ID, data.getSessionId());
 		// Bind this record to this thread.
-		threadToRecordMap.put(Thread.currentThread().getId(), data);
+		currentRecord.set(data);
 		return true;
 	}
 
@@ -120,23 +129,23 @@ public class AccessInterceptor implements HandlerInterceptor, AccessIdListener{
 	public void afterCompletion(HttpServletRequest request,
 			HttpServletResponse response, Object handler, Exception exception)
 			throws Exception {
-		// Get the record for this thread
-		AccessRecord data = threadToRecordMap.remove(Thread.currentThread()
-				.getId());
-		if (data == null)
-			throw new IllegalStateException(
-					"Failed to get the access record for this thread: "
-							+ Thread.currentThread().getId());
-		// Calculate the elapse time
-		data.setElapseMS(clock.currentTimeMillis() - data.getTimestamp());
-		// If there is an exception then it failed.
-		int status = response.getStatus();
-		data.setSuccess(exception == null && status >= 200 && status <= 299);
-		data.setResponseStatus(new Long(status));
-		// Save this record
-		accessRecorder.save(data);
-		// Clear the logging thread context
-		ThreadContext.clearAll();
+		try {
+			// Get the record for this thread
+			AccessRecord data = getCurrentThreadAccessRecord();
+			// Calculate the elapse time
+			data.setElapseMS(clock.currentTimeMillis() - data.getTimestamp());
+			// If there is an exception then it failed.
+			int status = response.getStatus();
+			data.setSuccess(exception == null && status >= 200 && status <= 299);
+			data.setResponseStatus(new Long(status));
+			// Save this record
+			accessRecorder.save(data);
+		} finally {
+			// Unbind the record and clear the logging thread context even if the save
+			// failed, so neither is retained by the thread.
+			currentRecord.remove();
+			ThreadContext.clearAll();
+		}
 	}
 
 	@Override
@@ -150,7 +159,7 @@ public class AccessInterceptor implements HandlerInterceptor, AccessIdListener{
 	 * @return
 	 */
 	private AccessRecord getCurrentThreadAccessRecord(){
-		AccessRecord ar = threadToRecordMap.get(Thread.currentThread().getId());
+		AccessRecord ar = currentRecord.get();
 		if(ar == null) 	throw new IllegalStateException(
 				"Failed to get the access record for this thread: "
 						+ Thread.currentThread().getId());
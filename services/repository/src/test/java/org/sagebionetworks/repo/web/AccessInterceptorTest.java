@@ -4,16 +4,22 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Optional;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.logging.log4j.ThreadContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,9 +30,13 @@ import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.audit.utils.VirtualMachineIdProvider;
 import org.sagebionetworks.aws.utils.s3.KeyGeneratorUtil;
 import org.sagebionetworks.repo.manager.oauth.OIDCTokenHelper;
+import org.sagebionetworks.repo.manager.oauth.ValidatedAccessToken;
+import org.sagebionetworks.repo.manager.oauth.ValidatedAccessTokenCache;
 import org.sagebionetworks.repo.model.AuthorizationConstants;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.audit.AccessRecord;
+import org.sagebionetworks.repo.model.audit.AccessRecorder;
+import org.sagebionetworks.repo.model.auth.TokenType;
 import org.sagebionetworks.util.TestClock;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -51,6 +61,8 @@ public class AccessInterceptorTest {
 	HttpServletResponse mockResponse;
 	@Mock
 	StackConfiguration mockConfiguration;
+	@Mock
+	ValidatedAccessTokenCache mockValidatedAccessTokenCache;
 	Object mockHandler;
 	UserInfo mockUserInfo;
 	StubAccessRecorder stubRecorder;
@@ -78,6 +90,7 @@ public class AccessInterceptorTest {
 		ReflectionTestUtils.setField(interceptor, "clock", testClock);
 		ReflectionTestUtils.setField(interceptor, "stackConfiguration", mockConfiguration);
 		ReflectionTestUtils.setField(interceptor, "oidcTokenHelper", oidcTokenHelper);
+		ReflectionTestUtils.setField(interceptor, "validatedAccessTokenCache", mockValidatedAccessTokenCache);
 
 		// Setup the happy mock
 		when(mockRequest.getParameter(AuthorizationConstants.USER_ID_PARAM)).thenReturn(userId.toString());
@@ -203,6 +216,39 @@ public class AccessInterceptorTest {
 		assertEquals(new Long(400), result.getResponseStatus());
 	}
 
+	@Test
+	public void testAfterCompletionUnbindsRecord() throws Exception{
+		interceptor.preHandle(mockRequest, mockResponse, mockHandler);
+		interceptor.afterCompletion(mockRequest, mockResponse, mockHandler, null);
+		assertEquals(1, stubRecorder.getSavedRecords().size());
+		// the record of a completed request is no longer bound to the thread
+		assertThrows(IllegalStateException.class, () -> {
+			interceptor.setReturnObjectId("returnId");
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			interceptor.afterCompletion(mockRequest, mockResponse, mockHandler, null);
+		});
+	}
+
+	@Test
+	public void testAfterCompletionUnbindsRecordWhenSaveFails() throws Exception{
+		AccessRecorder mockRecorder = Mockito.mock(AccessRecorder.class);
+		IllegalStateException error = new IllegalStateException("save failed");
+		doThrow(error).when(mockRecorder).save(any(AccessRecord.class));
+		ReflectionTestUtils.setField(interceptor, "accessRecorder", mockRecorder);
+		interceptor.preHandle(mockRequest, mockResponse, mockHandler);
+		assertNotNull(ThreadContext.get(AccessInterceptor.SESSION_ID));
+		IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> {
+			interceptor.afterCompletion(mockRequest, mockResponse, mockHandler, null);
+		});
+		assertEquals(error, thrown);
+		// neither the record nor the logging context is retained by the thread
+		assertNull(ThreadContext.get(AccessInterceptor.SESSION_ID));
+		assertThrows(IllegalStateException.class, () -> {
+			interceptor.setReturnObjectId("returnId");
+		});
+	}
+
 	@Test
 	public void testGetOAuthClientIdFromBearerJwt() throws Exception {
 		// Put the client ID in the JWT access token
@@ -228,6 +274,26 @@ public class AccessInterceptorTest {
 		assertNull(result.getBasicAuthUsername());
 	}
 
+	@Test
+	public void testGetOAuthClientIdFromValidatedToken() throws Exception {
+		when(mockRequest.getHeader("Authorization")).thenReturn(BEARER_TOKEN_HEADER);
+		ValidatedAccessToken validated = new ValidatedAccessToken(userId.toString(), OAUTH_CLIENT_ID,
+				TokenType.OIDC_ACCESS_TOKEN, "tokenId", null, null);
+		when(mockValidatedAccessTokenCache.get("some-token")).thenReturn(Optional.of(validated));
+
+		// Start
+		interceptor.preHandle(mockRequest, mockResponse, mockHandler);
+		interceptor.setReturnObjectId("returnId");
+		// finish the call
+		Exception exception = null;
+		interceptor.afterCompletion(mockRequest, mockResponse, mockHandler, exception);
+		AccessRecord result = stubRecorder.getSavedRecords().get(0);
+
+		assertEquals(OAUTH_CLIENT_ID, result.getOauthClientId());
+		// the token must not be parsed again.
+		verify(oidcTokenHelper, never()).parseJWT(any());
+	}
+
 	@Test
 	public void testGetOAuthClientIdFromBasicAuthCredsAndHeader() throws Exception {
 		// Put the client ID in the basic auth header.
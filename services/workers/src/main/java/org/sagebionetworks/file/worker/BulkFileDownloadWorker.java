@@ -1,22 +1,26 @@
 package org.sagebionetworks.file.worker;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.file.worker.BulkFilePrefetcher.DownloadedFile;
+import org.sagebionetworks.file.worker.BulkFilePrefetcher.FileDownload;
 import org.sagebionetworks.repo.manager.UserManager;
 import org.sagebionetworks.repo.manager.asynch.AsynchJobStatusManager;
 import org.sagebionetworks.repo.manager.asynch.AsynchJobUtils;
 import org.sagebionetworks.repo.manager.events.EventsCollector;
 import org.sagebionetworks.repo.manager.file.FileHandleAssociationAuthorizationStatus;
-import org.sagebionetworks.repo.manager.file.LocalFileUploadRequest;
+import org.sagebionetworks.repo.manager.file.MultipartUploadOutputStream;
+import org.sagebionetworks.repo.manager.file.StreamUploadRequest;
 import org.sagebionetworks.repo.manager.statistics.StatisticsFileEvent;
 import org.sagebionetworks.repo.manager.statistics.StatisticsFileEventUtils;
 import org.sagebionetworks.repo.model.UserInfo;
@@ -34,8 +38,6 @@ import org.sagebionetworks.workers.util.aws.message.MessageDrivenRunner;
 import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import com.amazonaws.event.ProgressEvent;
-import com.amazonaws.event.ProgressListener;
 import com.amazonaws.services.sqs.model.Message;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -43,6 +45,11 @@ import com.google.common.collect.Sets;
 /**
  * 
  * This worker contains all of the business logic for building a bulk download zip.
+ * <p>
+ * The requested files are downloaded from S3 on a shared executor ahead of
+ * being added to the zip, while a single thread writes them into the zip in
+ * the requested order. The zip itself is uploaded to S3 in parts as it is
+ * written, so it is never written to a local file.
  * 
  * @author John
  * 
@@ -70,6 +77,19 @@ public class BulkFileDownloadWorker implements MessageDrivenRunner {
 	FileHandleSupport fileHandleSupport; 
 	@Autowired
 	EventsCollector statisticsCollector;
+	@Autowired
+	StackConfiguration stackConfiguration;
+
+	private ExecutorService prefetchExecutor;
+
+	/**
+	 * Injected. Downloads the requested files ahead of time.
+	 * 
+	 * @param prefetchExecutor
+	 */
+	public void setPrefetchExecutor(ExecutorService prefetchExecutor) {
+		this.prefetchExecutor = prefetchExecutor;
+	}
 
 	@Override
 	public void run(ProgressCallback progressCallback, Message message)
@@ -105,12 +125,16 @@ public class BulkFileDownloadWorker implements MessageDrivenRunner {
 			final ProgressCallback progressCallback,
 			final Message message, AsynchronousJobStatus status,
 			BulkFileDownloadRequest request) throws IOException {
-		// The generated zip will be written to this temp file.
-		File tempResultFile = fileHandleSupport.createTempFile("Job"
-				+ status.getJobId(), ".zip");
-		ZipOutputStream zipOut = fileHandleSupport.createZipOutputStream(tempResultFile);
+		UserInfo user = userManger.getUserInfo(status.getStartedByUserId());
+		String zipFileName = request.getZipFileName();
+		if (zipFileName == null) {
+			zipFileName = "Job" + status.getJobId() + ".zip";
+		}
+		// The generated zip is uploaded to S3 as it is written.
+		MultipartUploadOutputStream resultOut = fileHandleSupport.startStreamUpload(new StreamUploadRequest()
+				.withFileName(zipFileName).withUserId(user.getId().toString()).withContentType(APPLICATION_ZIP));
+		ZipOutputStream zipOut = fileHandleSupport.createZipOutputStream(resultOut);
 		try {
-			UserInfo user = userManger.getUserInfo(status.getStartedByUserId());
 			/*
 			 * The first step is to determine if the user is authorized to
 			 * download each requested file. The authorization check is
@@ -123,21 +147,15 @@ public class BulkFileDownloadWorker implements MessageDrivenRunner {
 			// Track the files added to the zip.
 			Set<String> fileIdsInZip = Sets.newHashSet();
 			// Build the zip
-			List<FileDownloadSummary> results = addFilesToZip(authResults, tempResultFile, zipOut, status, fileIdsInZip, zipEntryNameProvider);
+			List<FileDownloadSummary> results = addFilesToZip(authResults, resultOut, zipOut, status, fileIdsInZip, zipEntryNameProvider);
 			
-			IOUtils.closeQuietly(zipOut);
 			// Is there at least one file in the zip?
 			String resultFileHandleId = null;
 			if(fileIdsInZip.size() > 0){
-				// upload the result file to S3
-				S3FileHandle resultHandle = fileHandleSupport
-						.multipartUploadLocalFile(new LocalFileUploadRequest().withFileName(request.getZipFileName())
-								.withUserId(user.getId().toString()).withFileToUpload(tempResultFile)
-								.withContentType(APPLICATION_ZIP).withListener(new ProgressListener() {
-									@Override
-									public void progressChanged(ProgressEvent progressEvent) {
-									}
-								}));
+				// Write the end of the zip and upload the last part.
+				zipOut.finish();
+				zipOut.flush();
+				S3FileHandle resultHandle = fileHandleSupport.completeStreamUpload(resultOut);
 				resultFileHandleId = resultHandle.getId();
 			}
 			
@@ -151,8 +169,9 @@ public class BulkFileDownloadWorker implements MessageDrivenRunner {
 			response.setResultZipFileHandleId(resultFileHandleId);
 			return response;
 		} finally {
+			// An upload that was not completed is aborted when closed.
 			IOUtils.closeQuietly(zipOut);
-			tempResultFile.delete();
+			IOUtils.closeQuietly(resultOut);
 		}
 	}
 
@@ -161,54 +180,63 @@ public class BulkFileDownloadWorker implements MessageDrivenRunner {
 	 * @param progressCallback
 	 * @param message
 	 * @param authResults
-	 * @param tempResultFile
+	 * @param resultOut The upload of the zip.
 	 * @param zipOut
 	 */
 	public List<FileDownloadSummary> addFilesToZip(
 			List<FileHandleAssociationAuthorizationStatus> authResults,
-			File tempResultFile, ZipOutputStream zipOut,
+			MultipartUploadOutputStream resultOut, ZipOutputStream zipOut,
 			AsynchronousJobStatus status,
 			Set<String> fileIdsInZip, ZipEntryNameProvider zipEntryNameProvider) {
 		long currentProgress = 0L;
 		final long totalProgress = (long) authResults.size();
 		// This will be the final summary of results..
 		List<FileDownloadSummary> fileSummaries = Lists.newLinkedList();
-		// process each request in order.
-		for (FileHandleAssociationAuthorizationStatus fhas : authResults) {
-			String fileHandleId = fhas.getAssociation().getFileHandleId();
-			// update the job progress
-			asynchJobStatusManager.updateJobProgress(status.getJobId(),
-					currentProgress, totalProgress, PROCESSING_FILE_HANDLE_ID
-							+ fhas.getAssociation().getFileHandleId());
-			FileDownloadSummary summary = new FileDownloadSummary();
-			summary.setFileHandleId(fileHandleId);
-			summary.setAssociateObjectId(fhas.getAssociation().getAssociateObjectId());
-			summary.setAssociateObjectType(fhas.getAssociation().getAssociateObjectType());
-			fileSummaries.add(summary);
-			try {
-				String zipEntryName = writeOneFileToZip(zipOut, tempResultFile.length(), fhas, fileIdsInZip, zipEntryNameProvider);
-				// download this file from S3
-				fileIdsInZip.add(fileHandleId);
-				summary.setStatus(FileDownloadStatus.SUCCESS);
-				summary.setZipEntryName(zipEntryName);
-			} catch (BulkFileException e) {
-				// known error conditions.
-				summary.setStatus(FileDownloadStatus.FAILURE);
-				summary.setFailureMessage(e.getMessage());
-				summary.setFailureCode(e.getFailureCode());
-			} catch (NotFoundException e) {
-				// file did not exist
-				summary.setStatus(FileDownloadStatus.FAILURE);
-				summary.setFailureMessage(e.getMessage());
-				summary.setFailureCode(FileDownloadCode.NOT_FOUND);
-			} catch (Exception e) {
-				// all unknown errors.
-				summary.setStatus(FileDownloadStatus.FAILURE);
-				summary.setFailureMessage(e.getMessage());
-				summary.setFailureCode(FileDownloadCode.UNKNOWN_ERROR);
-				log.error("Failed on: " + fhas.getAssociation(), e);
+		try (BulkFilePrefetcher prefetcher = new BulkFilePrefetcher(fileHandleSupport, prefetchExecutor, authResults,
+				stackConfiguration.getBulkFileDownloadPrefetchMaxFiles())) {
+			// process each request in order.
+			for (FileHandleAssociationAuthorizationStatus fhas : authResults) {
+				if (resultOut.getContentSize() > FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES) {
+					// none of the remaining files will be added to the zip.
+					prefetcher.stop();
+				}
+				// starts downloading the following files.
+				FileDownload download = prefetcher.next();
+				String fileHandleId = fhas.getAssociation().getFileHandleId();
+				// update the job progress
+				asynchJobStatusManager.updateJobProgress(status.getJobId(),
+						currentProgress, totalProgress, PROCESSING_FILE_HANDLE_ID
+								+ fhas.getAssociation().getFileHandleId());
+				FileDownloadSummary summary = new FileDownloadSummary();
+				summary.setFileHandleId(fileHandleId);
+				summary.setAssociateObjectId(fhas.getAssociation().getAssociateObjectId());
+				summary.setAssociateObjectType(fhas.getAssociation().getAssociateObjectType());
+				fileSummaries.add(summary);
+				try {
+					String zipEntryName = writeOneFileToZip(zipOut, resultOut.getContentSize(), fhas, download, fileIdsInZip, zipEntryNameProvider);
+					// download this file from S3
+					fileIdsInZip.add(fileHandleId);
+					summary.setStatus(FileDownloadStatus.SUCCESS);
+					summary.setZipEntryName(zipEntryName);
+				} catch (BulkFileException e) {
+					// known error conditions.
+					summary.setStatus(FileDownloadStatus.FAILURE);
+					summary.setFailureMessage(e.getMessage());
+					summary.setFailureCode(e.getFailureCode());
+				} catch (NotFoundException e) {
+					// file did not exist
+					summary.setStatus(FileDownloadStatus.FAILURE);
+					summary.setFailureMessage(e.getMessage());
+					summary.setFailureCode(FileDownloadCode.NOT_FOUND);
+				} catch (Exception e) {
+					// all unknown errors.
+					summary.setStatus(FileDownloadStatus.FAILURE);
+					summary.setFailureMessage(e.getMessage());
+					summary.setFailureCode(FileDownloadCode.UNKNOWN_ERROR);
+					log.error("Failed on: " + fhas.getAssociation(), e);
+				}
+				currentProgress++;
 			}
-			currentProgress++;
 		}
 		return fileSummaries;
 	}
@@ -219,12 +247,13 @@ public class BulkFileDownloadWorker implements MessageDrivenRunner {
 	 * @param zipOut
 	 * @param zipFileSize
 	 * @param fhas
+	 * @param download The download of the file.
 	 * @param fileIdsInZip
 	 * @throws IOException
 	 * @return The zip entry name used for this file.
 	 */
 	public String writeOneFileToZip(ZipOutputStream zipOut, long zipFileSize,
-			FileHandleAssociationAuthorizationStatus fhas,
+			FileHandleAssociationAuthorizationStatus fhas, FileDownload download,
 			Set<String> fileIdsInZip, ZipEntryNameProvider zipEntryNameProvider) throws IOException {
 		String fileHandleId = fhas.getAssociation().getFileHandleId();
 		// Is the user authorized to download this file?
@@ -243,24 +272,19 @@ public class BulkFileDownloadWorker implements MessageDrivenRunner {
 					RESULT_FILE_HAS_REACHED_THE_MAXIMUM_SIZE,
 					FileDownloadCode.EXCEEDS_SIZE_LIMIT);
 		}
-		// Get this filehandle.
-		S3FileHandle s3Handle = fileHandleSupport.getS3FileHandle(fileHandleId);
-		// Each file must be under the max.s
-		if (s3Handle.getContentSize() > FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES) {
-			throw new BulkFileException(FILE_EXCEEDS_THE_MAXIMUM_SIZE_LIMIT,
-					FileDownloadCode.EXCEEDS_SIZE_LIMIT);
-		}
-		// This file will be downloaded to this temp.
-		File downloadTemp = fileHandleSupport.downloadToTempFile(s3Handle);
 		try {
+			// Wait for the file to be downloaded to a temp file.
+			DownloadedFile downloaded = download.get();
+			S3FileHandle s3Handle = downloaded.getFileHandle();
 			// The entry name is the path plus file name.
 			String zipEntryName = zipEntryNameProvider.createZipEntryName(s3Handle.getFileName(),
 					Long.parseLong(s3Handle.getId()));
 			// write the file to the zip.
-			fileHandleSupport.addFileToZip(zipOut, downloadTemp, zipEntryName);
+			fileHandleSupport.addFileToZip(zipOut, downloaded.getFile(), zipEntryName);
 			return zipEntryName;
 		} finally {
-			downloadTemp.delete();
+			// deletes the temp file.
+			download.release();
 		}
 	}
 	
@@ -0,0 +1,284 @@
+package org.sagebionetworks.file.worker;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.sagebionetworks.repo.manager.file.FileHandleAssociationAuthorizationStatus;
+import org.sagebionetworks.repo.model.file.FileConstants;
+import org.sagebionetworks.repo.model.file.FileDownloadCode;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * Downloads the files of a bulk download from S3 on a shared executor while
+ * the previous files are added to the zip. Downloads are returned in the order
+ * of the requested files. Only the first request for each authorized file is
+ * downloaded ahead of time and at most maxFilesAhead files are downloaded
+ * ahead of the current file, which bounds the temporary disk used by a single
+ * job. Once stopped, no more files are downloaded ahead of time.
+ *
+ */
+public class BulkFilePrefetcher implements Closeable {
+
+	private final FileHandleSupport fileHandleSupport;
+	private final ExecutorService executor;
+	private final Iterator<FileHandleAssociationAuthorizationStatus> source;
+	private final int maxFilesAhead;
+	private final LinkedList<FileDownload> buffer;
+	private final Set<String> prefetchedFileHandleIds;
+	private int outstandingCount;
+	private FileDownload current;
+	private boolean stopped;
+	private boolean closed;
+
+	/**
+	 *
+	 * @param fileHandleSupport
+	 * @param executor          Files are downloaded ahead of time with this
+	 *                          executor.
+	 * @param files             The requested files in the order they will be
+	 *                          added to the zip.
+	 * @param maxFilesAhead     The maximum number of files downloaded ahead of
+	 *                          the current file. Zero disables the read-ahead.
+	 */
+	BulkFilePrefetcher(FileHandleSupport fileHandleSupport, ExecutorService executor,
+			List<FileHandleAssociationAuthorizationStatus> files, int maxFilesAhead) {
+		ValidateArgument.required(fileHandleSupport, "fileHandleSupport");
+		ValidateArgument.required(executor, "executor");
+		ValidateArgument.required(files, "files");
+		this.fileHandleSupport = fileHandleSupport;
+		this.executor = executor;
+		this.source = files.iterator();
+		this.maxFilesAhead = maxFilesAhead;
+		this.buffer = new LinkedList<>();
+		this.prefetchedFileHandleIds = new HashSet<>();
+		this.outstandingCount = 0;
+		this.stopped = false;
+		this.closed = false;
+	}
+
+	/**
+	 * Get the download of the next requested file and start downloading the
+	 * following files. The downloaded file of the previous call is released.
+	 *
+	 * @return
+	 */
+	public FileDownload next() {
+		if (closed) {
+			throw new IllegalStateException("Prefetcher has been closed");
+		}
+		// the caller has moved past the previous file so it can be deleted.
+		if (current != null) {
+			current.release();
+			current = null;
+		}
+		fillBuffer();
+		if (buffer.isEmpty()) {
+			if (!source.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			// Read-ahead is disabled so the file is downloaded on demand.
+			current = new FileDownload(source.next().getAssociation().getFileHandleId());
+		} else {
+			current = buffer.removeFirst();
+			if (current.isPrefetched()) {
+				outstandingCount--;
+			}
+		}
+		// start downloading the following files while the caller adds this one.
+		fillBuffer();
+		return current;
+	}
+
+	/**
+	 * Read from the source until either maxFilesAhead downloads are started or
+	 * the source is exhausted.
+	 */
+	void fillBuffer() {
+		while (!stopped && outstandingCount < maxFilesAhead && source.hasNext()) {
+			FileHandleAssociationAuthorizationStatus fhas = source.next();
+			String fileHandleId = fhas.getAssociation().getFileHandleId();
+			FileDownload download = new FileDownload(fileHandleId);
+			// Unauthorized files are never added and duplicates are only downloaded again if the first attempt failed.
+			if (fhas.getStatus().isAuthorized() && prefetchedFileHandleIds.add(fileHandleId)) {
+				download.start();
+				outstandingCount++;
+			}
+			buffer.add(download);
+		}
+	}
+
+	/**
+	 * Stop downloading files ahead of time, for example when the zip is full and
+	 * none of the remaining files will be added. The downloads that were already
+	 * started are released and the remaining files are only downloaded on demand.
+	 */
+	public void stop() {
+		if (stopped) {
+			return;
+		}
+		stopped = true;
+		ListIterator<FileDownload> iterator = buffer.listIterator();
+		while (iterator.hasNext()) {
+			FileDownload download = iterator.next();
+			if (download.isPrefetched()) {
+				download.release();
+				iterator.set(new FileDownload(download.fileHandleId));
+			}
+		}
+		outstandingCount = 0;
+	}
+
+	/**
+	 * Release all of the downloaded files that were not consumed.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (current != null) {
+			current.release();
+			current = null;
+		}
+		for (FileDownload download : buffer) {
+			download.release();
+		}
+		buffer.clear();
+		outstandingCount = 0;
+	}
+
+	/**
+	 * Download a single file to a temporary file.
+	 *
+	 * @param fileHandleId
+	 * @return
+	 * @throws IOException
+	 */
+	DownloadedFile download(String fileHandleId) throws IOException {
+		S3FileHandle s3Handle = fileHandleSupport.getS3FileHandle(fileHandleId);
+		// Each file must be under the max.
+		if (s3Handle.getContentSize() > FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES) {
+			throw new BulkFileException(BulkFileDownloadWorker.FILE_EXCEEDS_THE_MAXIMUM_SIZE_LIMIT,
+					FileDownloadCode.EXCEEDS_SIZE_LIMIT);
+		}
+		File downloadTemp = fileHandleSupport.downloadToTempFile(s3Handle);
+		return new DownloadedFile(s3Handle, downloadTemp);
+	}
+
+	/**
+	 * A file that was downloaded from S3 to a temporary file.
+	 *
+	 */
+	public static class DownloadedFile {
+
+		private final S3FileHandle fileHandle;
+		private final File file;
+
+		DownloadedFile(S3FileHandle fileHandle, File file) {
+			this.fileHandle = fileHandle;
+			this.file = file;
+		}
+
+		public S3FileHandle getFileHandle() {
+			return fileHandle;
+		}
+
+		public File getFile() {
+			return file;
+		}
+	}
+
+	/**
+	 * The download of a single requested file. The file is either downloaded in
+	 * the background or on demand when {@link #get()} is called.
+	 *
+	 */
+	public final class FileDownload {
+
+		private final String fileHandleId;
+		private Future<DownloadedFile> future;
+		private DownloadedFile downloaded;
+		private boolean released;
+
+		FileDownload(String fileHandleId) {
+			this.fileHandleId = fileHandleId;
+			this.released = false;
+		}
+
+		void start() {
+			this.future = executor.submit(() -> onDownloaded(download(fileHandleId)));
+		}
+
+		boolean isPrefetched() {
+			return future != null;
+		}
+
+		synchronized DownloadedFile onDownloaded(DownloadedFile file) {
+			if (released) {
+				// nobody will use this file.
+				file.getFile().delete();
+			} else {
+				downloaded = file;
+			}
+			return file;
+		}
+
+		/**
+		 * Wait for the file to be downloaded, or download it now if it was not
+		 * downloaded ahead of time.
+		 *
+		 * @return
+		 * @throws IOException
+		 */
+		public DownloadedFile get() throws IOException {
+			if (future == null) {
+				return onDownloaded(download(fileHandleId));
+			}
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new RuntimeException(cause);
+			}
+		}
+
+		/**
+		 * Stop the download and delete the downloaded file.
+		 */
+		public synchronized void release() {
+			if (!released) {
+				released = true;
+				if (future != null) {
+					future.cancel(true);
+				}
+				if (downloaded != null) {
+					downloaded.getFile().delete();
+					downloaded = null;
+				}
+			}
+		}
+	}
+
+}
@@ -2,11 +2,13 @@ package org.sagebionetworks.file.worker;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.zip.ZipOutputStream;
 
 import org.sagebionetworks.repo.manager.file.FileHandleAssociationAuthorizationStatus;
-import org.sagebionetworks.repo.manager.file.LocalFileUploadRequest;
+import org.sagebionetworks.repo.manager.file.MultipartUploadOutputStream;
+import org.sagebionetworks.repo.manager.file.StreamUploadRequest;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.file.FileHandleAssociateType;
 import org.sagebionetworks.repo.model.file.FileHandleAssociation;
@@ -40,24 +42,29 @@ public interface FileHandleSupport {
 	public File createTempFile(String prefix, String suffix) throws IOException;
 	
 	/**
-	 * Create a ZipOutputStream using the given file.
-	 * @param outFile
+	 * Create a ZipOutputStream that writes to the given stream.
+	 * @param out
 	 * @return
-	 * @throws IOException 
 	 */
-	public ZipOutputStream createZipOutputStream(File outFile) throws IOException;
+	public ZipOutputStream createZipOutputStream(OutputStream out);
+	
 	
+	/**
+	 * Start a multi-part upload to S3 that uploads the content as it is written to the returned stream.
+	 * 
+	 * @param request
+	 * @return
+	 */
+	MultipartUploadOutputStream startStreamUpload(StreamUploadRequest request);
 	
 	/**
-	 * Multi-part upload a local file to S3.  This is used by workers.
+	 * Complete a stream upload and create its S3FileHandle.
 	 * 
-	 * @param userInfo
-	 * @param fileToUpload
-	 * @param contentType
-	 * @param listener
+	 * @param out
 	 * @return
+	 * @throws IOException
 	 */
-	S3FileHandle multipartUploadLocalFile(LocalFileUploadRequest request);
+	S3FileHandle completeStreamUpload(MultipartUploadOutputStream out) throws IOException;
 	
 	/**
 	 * Get the S3FileHandle for the given FileHandle.id.
@@ -2,9 +2,9 @@ package org.sagebionetworks.file.worker;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -14,7 +14,8 @@ import org.sagebionetworks.aws.SynapseS3Client;
 import org.sagebionetworks.repo.manager.file.FileHandleAssociationAuthorizationStatus;
 import org.sagebionetworks.repo.manager.file.FileHandleAuthorizationManager;
 import org.sagebionetworks.repo.manager.file.FileHandleManager;
-import org.sagebionetworks.repo.manager.file.LocalFileUploadRequest;
+import org.sagebionetworks.repo.manager.file.MultipartUploadOutputStream;
+import org.sagebionetworks.repo.manager.file.StreamUploadRequest;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.dao.FileHandleDao;
 import org.sagebionetworks.repo.model.file.FileHandle;
@@ -57,17 +58,18 @@ public class FileHandleSupportImpl implements FileHandleSupport {
 	}
 
 	@Override
-	public ZipOutputStream createZipOutputStream(File outFile) throws IOException {
-		return new ZipOutputStream(new FileOutputStream(outFile));
+	public ZipOutputStream createZipOutputStream(OutputStream out) {
+		return new ZipOutputStream(out);
+	}
+
+	@Override
+	public MultipartUploadOutputStream startStreamUpload(StreamUploadRequest request) {
+		return fileHandleManager.startStreamUpload(request);
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * @see org.sagebionetworks.file.worker.BulkDownloadDao#multipartUploadLocalFile(org.sagebionetworks.repo.model.UserInfo, java.io.File, java.lang.String, com.amazonaws.event.ProgressListener)
-	 */
 	@Override
-	public S3FileHandle multipartUploadLocalFile(LocalFileUploadRequest request) {
-		return fileHandleManager.multipartUploadLocalFile(request);
+	public S3FileHandle completeStreamUpload(MultipartUploadOutputStream out) throws IOException {
+		return fileHandleManager.completeStreamUpload(out);
 	}
 
 	/*
@@ -2,16 +2,21 @@ package org.sagebionetworks.table.worker;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.manager.UserManager;
 import org.sagebionetworks.repo.manager.asynch.AsynchJobStatusManager;
 import org.sagebionetworks.repo.manager.asynch.AsynchJobUtils;
 import org.sagebionetworks.repo.manager.file.FileHandleManager;
 import org.sagebionetworks.repo.manager.file.LocalFileUploadRequest;
+import org.sagebionetworks.repo.manager.file.MultipartUploadOutputStream;
+import org.sagebionetworks.repo.manager.file.StreamUploadRequest;
 import org.sagebionetworks.repo.manager.table.TableQueryManager;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.asynch.AsynchronousJobStatus;
@@ -36,8 +41,9 @@ import au.com.bytecode.opencsv.CSVWriter;
 import au.com.bytecode.opencsv.Constants;
 
 /**
- * This worker will stream the results of a table SQL query to a local CSV file and upload the file
- * to S3 as a FileHandle.
+ * This worker will stream the results of a table SQL query to a CSV file in S3 and create a
+ * FileHandle for it. The CSV is either uploaded while the query is running or written to a local
+ * file first.
  * 
  * @author jmhill
  *
@@ -58,13 +64,12 @@ public class TableCSVDownloadWorker implements MessageDrivenRunner {
 	private Clock clock;
 	@Autowired
 	private TableExceptionTranslator tableExceptionTranslator;
+	@Autowired
+	private StackConfiguration stackConfiguration;
 
 	@Override
 	public void run(ProgressCallback progressCallback, Message message) throws Exception {
 		AsynchronousJobStatus status = asynchJobStatusManager.lookupJobStatus(message.getBody());
-		String fileName = "Job-"+status.getJobId();
-		File temp = null;
-		CSVWriter writer = null;
 		try{
 			UserInfo user = userManger.getUserInfo(status.getStartedByUserId());
 			DownloadFromTableRequest request = AsynchJobUtils.extractRequestBody(status, DownloadFromTableRequest.class);
@@ -73,16 +78,82 @@ public class TableCSVDownloadWorker implements MessageDrivenRunner {
 			// Before we start determine how many rows there are.
 			QueryResultBundle queryResult = tableQueryManager.querySinglePage(progressCallback, user, request, queryOptions);
 			long rowCount = queryResult.getQueryCount();
+			DownloadFromTableResult result = null;
+			if(stackConfiguration.getTableCsvDownloadStreamingEnabled()){
+				result = streamToS3(progressCallback, message, status, user, request, rowCount);
+			}else{
+				result = writeToLocalFileThenUpload(progressCallback, message, status, user, request, rowCount);
+			}
+			asynchJobStatusManager.setComplete(status.getJobId(), result);
+		}catch (TableUnavailableException | LockUnavilableException e){
+			// This just means we cannot do this right now.  We can try again later.
+			asynchJobStatusManager.updateJobProgress(status.getJobId(), 0L, 100L, "Waiting for the table index to become available...");
+			// Throwing this will put the message back on the queue in 5 seconds.
+			throw new RecoverableMessageException();
+		} catch (TableFailedException e) {
+			// This means we cannot use this table
+			asynchJobStatusManager.setJobFailed(status.getJobId(), e);
+		}catch(Throwable e){
+			// Attempt to translate the exception into a 'user-friendly' message.
+			RuntimeException translatedException = tableExceptionTranslator.translateException(e);
+			// The job failed
+			asynchJobStatusManager.setJobFailed(status.getJobId(), translatedException);
+			log.error("Worker Failed", e);
+		}
+	}
+
+	/**
+	 * Stream the results of the query directly to an S3 multi-part upload. Parts
+	 * are uploaded while the query is still running and nothing is written to
+	 * local disk.
+	 * 
+	 * @return
+	 * @throws Exception
+	 */
+	DownloadFromTableResult streamToS3(ProgressCallback progressCallback, Message message,
+			AsynchronousJobStatus status, UserInfo user, DownloadFromTableRequest request, long rowCount)
+			throws Exception {
+		String separator = getSeparator(request);
+		StreamUploadRequest uploadRequest = new StreamUploadRequest().withUserId(user.getId().toString())
+				.withFileName("Job-" + status.getJobId() + "." + CSVUtils.guessExtension(separator))
+				.withContentType(CSVUtils.guessContentType(separator));
+		// Closing the stream before it is completed aborts the upload.
+		try (MultipartUploadOutputStream out = fileHandleManager.startStreamUpload(uploadRequest)) {
+			CSVWriter writer = createCSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), request);
+			// Each row is uploaded as it is read so the total progress is the number of rows.
+			ProgressingCSVWriterStream stream = new ProgressingCSVWriterStream(writer, progressCallback, message,
+					asynchJobStatusManager, 0L, rowCount, status.getJobId(), clock);
+			DownloadFromTableResult result = tableQueryManager.runQueryDownloadAsStream(progressCallback, user,
+					request, stream);
+			// Push any characters buffered by the writer into the upload.
+			writer.flush();
+			S3FileHandle fileHandle = fileHandleManager.completeStreamUpload(out);
+			result.setResultsFileHandleId(fileHandle.getId());
+			return result;
+		}
+	}
+
+	/**
+	 * Stream the results of the query to a local CSV file and then upload the
+	 * file to S3.
+	 * 
+	 * @return
+	 * @throws Exception
+	 */
+	DownloadFromTableResult writeToLocalFileThenUpload(ProgressCallback progressCallback, Message message,
+			AsynchronousJobStatus status, UserInfo user, DownloadFromTableRequest request, long rowCount)
+			throws Exception {
+		String fileName = "Job-"+status.getJobId();
+		File temp = null;
+		CSVWriter writer = null;
+		try{
 			// Since each row must first be read from the database then uploaded to S3
 			// The total amount of progress is two times the number of rows.
 			long totalProgress = rowCount*2;
 			long currentProgress = 0;
+			String separator = getSeparator(request);
 			// The CSV data will first be written to this file.
-			temp = File.createTempFile(
-					fileName,
-					"."
-							+ CSVUtils.guessExtension(request.getCsvTableDescriptor() == null ? null : request.getCsvTableDescriptor()
-									.getSeparator()));
+			temp = File.createTempFile(fileName, "." + CSVUtils.guessExtension(separator));
 			writer = createCSVWriter(new FileWriter(temp), request);
 			// this object will update the progress of both the job and refresh the timeout on the message as rows are read from the DB.
 			ProgressingCSVWriterStream stream = new ProgressingCSVWriterStream(writer, progressCallback, message, asynchJobStatusManager, currentProgress, totalProgress, status.getJobId(), clock);
@@ -100,27 +171,10 @@ public class TableCSVDownloadWorker implements MessageDrivenRunner {
 			double bytesPerRow = rowCount == 0 ? 1 : temp.length() / rowCount;
 			// This will keep the progress updated as the file is uploaded.
 			UploadProgressListener uploadListener = new UploadProgressListener(progressCallback, message, startProgress, bytesPerRow, totalProgress, asynchJobStatusManager, status.getJobId());
-			String contentType = CSVUtils.guessContentType(request
-					.getCsvTableDescriptor() == null ? null : request.getCsvTableDescriptor().getSeparator());
+			String contentType = CSVUtils.guessContentType(separator);
 			S3FileHandle fileHandle = fileHandleManager.multipartUploadLocalFile(new LocalFileUploadRequest().withUserId(user.getId().toString()).withFileToUpload(temp).withContentType(contentType).withListener(uploadListener));
 			result.setResultsFileHandleId(fileHandle.getId());
-			// Create the file
-			// Now upload the file as a filehandle
-			asynchJobStatusManager.setComplete(status.getJobId(), result);
-		}catch (TableUnavailableException | LockUnavilableException e){
-			// This just means we cannot do this right now.  We can try again later.
-			asynchJobStatusManager.updateJobProgress(status.getJobId(), 0L, 100L, "Waiting for the table index to become available...");
-			// Throwing this will put the message back on the queue in 5 seconds.
-			throw new RecoverableMessageException();
-		} catch (TableFailedException e) {
-			// This means we cannot use this table
-			asynchJobStatusManager.setJobFailed(status.getJobId(), e);
-		}catch(Throwable e){
-			// Attempt to translate the exception into a 'user-friendly' message.
-			RuntimeException translatedException = tableExceptionTranslator.translateException(e);
-			// The job failed
-			asynchJobStatusManager.setJobFailed(status.getJobId(), translatedException);
-			log.error("Worker Failed", e);
+			return result;
 		}finally{
 			if(writer != null){
 				try {
@@ -132,6 +186,10 @@ public class TableCSVDownloadWorker implements MessageDrivenRunner {
 			}
 		}
 	}
+
+	private static String getSeparator(DownloadFromTableRequest request) {
+		return request.getCsvTableDescriptor() == null ? null : request.getCsvTableDescriptor().getSeparator();
+	}
 	
 	/**
 	 * Prepare a writer with the parameters from the request.
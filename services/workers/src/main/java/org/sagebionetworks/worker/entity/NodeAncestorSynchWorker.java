@@ -0,0 +1,125 @@
+package org.sagebionetworks.worker.entity;
+
+import java.util.Date;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.cloudwatch.WorkerLogger;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.common.util.progress.ProgressingRunner;
+import org.sagebionetworks.repo.model.StackStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.NodeAncestorDao;
+import org.sagebionetworks.repo.model.dbo.persistence.DBONodeAncestorSynchStatus;
+import org.sagebionetworks.util.Clock;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * This worker keeps the node ancestor table in synch with the parent IDs of the
+ * node table. Each run checks a few pages of node IDs, repairing any node whose
+ * ancestor rows do not match its actual path, and then moves on to the next
+ * pages. Once the end of the node IDs is reached the scan starts over from the
+ * beginning. This back-fills the table for nodes that were created before the
+ * table existed or that were migrated, and repairs any drift caused by
+ * concurrent moves.
+ * <p>
+ * The position of the scan is kept in the database so each run continues where
+ * the last run stopped, on whichever machine it ran. The completion of a full
+ * pass that repaired nothing is also recorded there since reads from the table
+ * are only enabled after it. Any repair clears that marker again.
+ *
+ */
+public class NodeAncestorSynchWorker implements ProgressingRunner {
+
+	static final String METRIC_NAMESPACE_PREFIX = "Node-Ancestor-Synch-";
+	static final String METRIC_REPAIRED_COUNT = "repaired count";
+	static final String METRIC_FULL_PASS_REPAIRED_COUNT = "full pass repaired count";
+	static final String METRIC_FULL_PASS_ELAPSE = "full pass elapse time";
+
+	/**
+	 * The number of node IDs checked with each database call.
+	 */
+	public static final long PAGE_SIZE = 1000L;
+	/**
+	 * The number of pages checked each time the worker runs.
+	 */
+	public static final int PAGES_PER_RUN = 10;
+
+	private static final Logger log = LogManager.getLogger(NodeAncestorSynchWorker.class);
+
+	@Autowired
+	NodeAncestorDao nodeAncestorDao;
+	@Autowired
+	StackStatusDao stackStatusDao;
+	@Autowired
+	StackConfiguration configuration;
+	@Autowired
+	WorkerLogger workerLogger;
+	@Autowired
+	Clock clock;
+
+	@Override
+	public void run(ProgressCallback progressCallback) throws Exception {
+		// This worker does not run during migration to avoid any intermediate state.
+		if (!stackStatusDao.isStackReadWrite()) {
+			if (log.isTraceEnabled()) {
+				log.trace("Skipping synchronization since the stack is not in read-write mode");
+			}
+			return;
+		}
+		DBONodeAncestorSynchStatus status = nodeAncestorDao.getSynchStatus();
+		if (status.getPassStartedOn() == null) {
+			status.setPassStartedOn(clock.currentTimeMillis());
+		}
+		long nextNodeId = status.getNextNodeId();
+		long maxNodeId = nodeAncestorDao.getMaxNodeId();
+		long repairedCount = 0L;
+		for (int i = 0; i < PAGES_PER_RUN && nextNodeId <= maxNodeId; i++) {
+			long pageEnd = nextNodeId + PAGE_SIZE - 1;
+			repairedCount += nodeAncestorDao.synchronizeRange(nextNodeId, pageEnd);
+			nextNodeId = pageEnd + 1;
+		}
+		long passRepairedCount = status.getPassRepairedCount() + repairedCount;
+		if (repairedCount > 0) {
+			log.info("Repaired the node ancestors of " + repairedCount + " nodes");
+			// the repair cleared the marker so it must not be written back.
+			status.setFullPassCompletedOn(null);
+		}
+		workerLogger.logCustomMetric(createMetric(METRIC_REPAIRED_COUNT, repairedCount, StandardUnit.Count));
+		if (nextNodeId > maxNodeId) {
+			long now = clock.currentTimeMillis();
+			long elapseMS = now - status.getPassStartedOn();
+			log.info("Completed a full node ancestor pass in " + elapseMS + " MS, repairing " + passRepairedCount
+					+ " nodes");
+			workerLogger.logCustomMetric(
+					createMetric(METRIC_FULL_PASS_REPAIRED_COUNT, passRepairedCount, StandardUnit.Count));
+			workerLogger.logCustomMetric(createMetric(METRIC_FULL_PASS_ELAPSE, elapseMS, StandardUnit.Milliseconds));
+			// only a pass that found the whole table in synch makes it safe to read from.
+			if (passRepairedCount == 0) {
+				status.setFullPassCompletedOn(now);
+			}
+			// start the next pass.
+			status.setNextNodeId(0L);
+			status.setPassRepairedCount(0L);
+			status.setPassStartedOn(null);
+		} else {
+			status.setNextNodeId(nextNodeId);
+			status.setPassRepairedCount(passRepairedCount);
+		}
+		nodeAncestorDao.setSynchStatus(status);
+	}
+
+	private ProfileData createMetric(String name, long value, StandardUnit unit) {
+		ProfileData profileData = new ProfileData();
+		profileData.setNamespace(METRIC_NAMESPACE_PREFIX + configuration.getStackInstance());
+		profileData.setName(name);
+		profileData.setValue((double) value);
+		profileData.setUnit(unit.name());
+		profileData.setTimestamp(new Date(clock.currentTimeMillis()));
+		return profileData;
+	}
+
+}
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
@@ -15,6 +16,7 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.zip.ZipOutputStream;
@@ -30,13 +32,15 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
+import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.asynchronous.workers.sqs.MessageUtils;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.manager.UserManager;
 import org.sagebionetworks.repo.manager.asynch.AsynchJobStatusManager;
 import org.sagebionetworks.repo.manager.events.EventsCollector;
 import org.sagebionetworks.repo.manager.file.FileHandleAssociationAuthorizationStatus;
-import org.sagebionetworks.repo.manager.file.LocalFileUploadRequest;
+import org.sagebionetworks.repo.manager.file.MultipartUploadOutputStream;
+import org.sagebionetworks.repo.manager.file.StreamUploadRequest;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.asynch.AsynchronousJobStatus;
 import org.sagebionetworks.repo.model.auth.AuthorizationStatus;
@@ -54,6 +58,7 @@ import org.sagebionetworks.repo.web.NotFoundException;
 
 import com.amazonaws.services.sqs.model.Message;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
 @RunWith(MockitoJUnitRunner.class)
 public class BulkFileDownloadWorkerTest {
 
@@ -67,12 +72,14 @@ public class BulkFileDownloadWorkerTest {
 	ProgressCallback mockProgress;
 	@Mock
 	EventsCollector mockStatisticsCollector;
+	@Mock
+	StackConfiguration mockStackConfiguration;
 
 	@InjectMocks
 	BulkFileDownloadWorker worker;
 	
 	@Captor
-	ArgumentCaptor<LocalFileUploadRequest> localFileRequestCaptor;
+	ArgumentCaptor<StreamUploadRequest> streamRequestCaptor;
 
 	ZipOutputStream mockZipOut;
 	FileHandleAssociation fha1;
@@ -85,7 +92,7 @@ public class BulkFileDownloadWorkerTest {
 	S3FileHandle fileHandle1;
 	S3FileHandle fileHandle2;
 
-	List<File> mockTempFilesCreated;
+	List<MultipartUploadOutputStream> mockResultOutCreated;
 	List<ZipOutputStream> mockZipOutCreated;
 	List<File> mockDownloadedFiles;
 
@@ -138,16 +145,16 @@ public class BulkFileDownloadWorkerTest {
 		when(mockBulkDownloadManager.getS3FileHandle(fha2.getFileHandleId()))
 				.thenReturn(fileHandle2);
 
-		// Create and track a mock file for each temp requested.
-		mockTempFilesCreated = Lists.newLinkedList();
-		doAnswer(new Answer<File>() {
+		// Create and track a mock upload for each zip.
+		mockResultOutCreated = Lists.newLinkedList();
+		doAnswer(new Answer<MultipartUploadOutputStream>() {
 			@Override
-			public File answer(InvocationOnMock invocation) throws Throwable {
-				File mockFile = Mockito.mock(File.class);
-				mockTempFilesCreated.add(mockFile);
-				return mockFile;
+			public MultipartUploadOutputStream answer(InvocationOnMock invocation) throws Throwable {
+				MultipartUploadOutputStream mockOut = Mockito.mock(MultipartUploadOutputStream.class);
+				mockResultOutCreated.add(mockOut);
+				return mockOut;
 			}
-		}).when(mockBulkDownloadManager).createTempFile(anyString(), anyString());
+		}).when(mockBulkDownloadManager).startStreamUpload(any(StreamUploadRequest.class));
 
 		// Create and track a mock downloaded files.
 		mockDownloadedFiles = Lists.newLinkedList();
@@ -171,12 +178,16 @@ public class BulkFileDownloadWorkerTest {
 				mockZipOutCreated.add(out);
 				return out;
 			}
-		}).when(mockBulkDownloadManager).createZipOutputStream(any(File.class));
+		}).when(mockBulkDownloadManager).createZipOutputStream(any(OutputStream.class));
 
 		// setup the result handle
 		resultHandle = new S3FileHandle();
 		resultHandle.setId("1111");
-		when(mockBulkDownloadManager.multipartUploadLocalFile(any(LocalFileUploadRequest.class))).thenReturn(resultHandle);
+		when(mockBulkDownloadManager.completeStreamUpload(any(MultipartUploadOutputStream.class))).thenReturn(resultHandle);
+		
+		// files are downloaded ahead of time on the calling thread.
+		when(mockStackConfiguration.getBulkFileDownloadPrefetchMaxFiles()).thenReturn(2);
+		worker.setPrefetchExecutor(MoreExecutors.newDirectExecutorService());
 		when(mockAsynchJobStatusManager.lookupJobStatus(jobStatus.getJobId())).thenReturn(jobStatus);
 	}
 
@@ -187,24 +198,25 @@ public class BulkFileDownloadWorkerTest {
 		verify(mockAsynchJobStatusManager, times(1)).updateJobProgress(
 				anyString(), anyLong(), anyLong(), anyString());
 
-		// temp file for the zip should be created
-		assertEquals(1, mockTempFilesCreated.size());
+		// the zip should be uploaded as it is written
+		assertEquals(1, mockResultOutCreated.size());
 		// ZipOutputStream should be created for the zip.
 		assertEquals(1, mockZipOutCreated.size());
 		// one file should have been downloaded
 		assertEquals(1, mockDownloadedFiles.size());
 		verifyAllStreamsClosedAndFilesDeleted();
 		
-		// The zip should get uploaded
-		verify(mockBulkDownloadManager, times(1)).multipartUploadLocalFile(localFileRequestCaptor.capture());
-		LocalFileUploadRequest request = localFileRequestCaptor.getValue();
+		verify(mockBulkDownloadManager).startStreamUpload(streamRequestCaptor.capture());
+		StreamUploadRequest request = streamRequestCaptor.getValue();
 		assertNotNull(request);
-		// file name is null by default
-		assertEquals(null, request.getFileName());
+		// file name is based on the job by default
+		assertEquals("Job9999.zip", request.getFileName());
 		assertEquals(BulkFileDownloadWorker.APPLICATION_ZIP, request.getContentType());
 		assertEquals(user.getId().toString(), request.getUserId());
-		assertNotNull(request.getListener());
-		assertNotNull(request.getFileToUpload());
+		verify(mockBulkDownloadManager).createZipOutputStream(mockResultOutCreated.get(0));
+		// The end of the zip should be written before the upload is completed.
+		verify(mockZipOutCreated.get(0)).finish();
+		verify(mockBulkDownloadManager, times(1)).completeStreamUpload(mockResultOutCreated.get(0));
 		
 		ArgumentCaptor<String> entryCapture = ArgumentCaptor
 				.forClass(String.class);
@@ -235,15 +247,13 @@ public class BulkFileDownloadWorkerTest {
 		// call under test
 		worker.run(mockProgress, message);
 		// The zip should get uploaded
-		verify(mockBulkDownloadManager, times(1)).multipartUploadLocalFile(localFileRequestCaptor.capture());
-		LocalFileUploadRequest request = localFileRequestCaptor.getValue();
+		verify(mockBulkDownloadManager).startStreamUpload(streamRequestCaptor.capture());
+		StreamUploadRequest request = streamRequestCaptor.getValue();
 		assertNotNull(request);
-		// file name is null by default
 		assertEquals(fileName, request.getFileName());
 		assertEquals(BulkFileDownloadWorker.APPLICATION_ZIP, request.getContentType());
 		assertEquals(user.getId().toString(), request.getUserId());
-		assertNotNull(request.getListener());
-		assertNotNull(request.getFileToUpload());
+		verify(mockBulkDownloadManager, times(1)).completeStreamUpload(any(MultipartUploadOutputStream.class));
 	}
 	
 
@@ -267,7 +277,7 @@ public class BulkFileDownloadWorkerTest {
 		
 		verifyAllStreamsClosedAndFilesDeleted();
 		// The zip should not get uploaded
-		verify(mockBulkDownloadManager, never()).multipartUploadLocalFile(any(LocalFileUploadRequest.class));
+		verify(mockBulkDownloadManager, never()).completeStreamUpload(any(MultipartUploadOutputStream.class));
 		// expect the job to be completed with the response body.
 		FileDownloadSummary summary = new FileDownloadSummary();
 		summary.setFileHandleId(fha1.getFileHandleId());
@@ -315,7 +325,7 @@ public class BulkFileDownloadWorkerTest {
 		
 		verifyAllStreamsClosedAndFilesDeleted();
 		// The zip should get uploaded
-		verify(mockBulkDownloadManager, times(1)).multipartUploadLocalFile(any(LocalFileUploadRequest.class));
+		verify(mockBulkDownloadManager, times(1)).completeStreamUpload(any(MultipartUploadOutputStream.class));
 		// expect the job to be completed with the response body.
 		// 1
 		FileDownloadSummary summary1 = new FileDownloadSummary();
@@ -442,13 +452,19 @@ public class BulkFileDownloadWorkerTest {
 	 */
 	@Test
 	public void testRunZipFull() throws Exception {
-		// temp file for the zip should be created
-		File mockZip = Mockito.mock(File.class);
-		when(mockBulkDownloadManager.createTempFile(anyString(), anyString())).thenReturn(mockZip);
-		when(mockZip.length()).thenReturn(FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES+1);
+		// the zip written so far is already too large
+		MultipartUploadOutputStream mockResultOut = Mockito.mock(MultipartUploadOutputStream.class);
+		when(mockBulkDownloadManager.startStreamUpload(any(StreamUploadRequest.class))).thenReturn(mockResultOut);
+		when(mockResultOut.getContentSize()).thenReturn(FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES+1);
 		fileHandle1.setContentSize(1L);
 		// call under test
 		worker.run(mockProgress, message);
+		// nothing is downloaded once the zip is full.
+		verify(mockBulkDownloadManager, never()).getS3FileHandle(any(String.class));
+		verify(mockBulkDownloadManager, never()).downloadToTempFile(any(S3FileHandle.class));
+		verifyAllStreamsClosedAndFilesDeleted();
+		verify(mockResultOut).close();
+		verify(mockBulkDownloadManager, never()).completeStreamUpload(any(MultipartUploadOutputStream.class));
 		// expect the job to be completed with the response body.
 		FileDownloadSummary summary = new FileDownloadSummary();
 		summary.setFileHandleId(fha1.getFileHandleId());
@@ -493,7 +509,7 @@ public class BulkFileDownloadWorkerTest {
 
 		verifyAllStreamsClosedAndFilesDeleted();
 		// The zip should get uploaded
-		verify(mockBulkDownloadManager, times(1)).multipartUploadLocalFile(any(LocalFileUploadRequest.class));
+		verify(mockBulkDownloadManager, times(1)).completeStreamUpload(any(MultipartUploadOutputStream.class));
 		// expect the job to be completed with the response body.
 		// 1
 		FileDownloadSummary summary1 = new FileDownloadSummary();
@@ -520,6 +536,52 @@ public class BulkFileDownloadWorkerTest {
 				expectedResponse);
 	}
 
+	/**
+	 * Files are downloaded ahead of time but added to the zip in the requested order.
+	 * @throws Exception
+	 */
+	@Test
+	public void testRunPrefetchMultipleFiles() throws Exception {
+		requestBody.setRequestedFiles(Arrays.asList(fha1, fha2));
+		message = MessageUtils.buildMessage(jobStatus);
+		when(
+				mockBulkDownloadManager.canDownLoadFile(user,
+						Arrays.asList(fha1, fha2))).thenReturn(
+				Arrays.asList(
+						new FileHandleAssociationAuthorizationStatus(fha1,
+								AuthorizationStatus.authorized()),
+						new FileHandleAssociationAuthorizationStatus(fha2,
+								AuthorizationStatus.authorized())));
+		// call under test.
+		worker.run(mockProgress, message);
+		
+		assertEquals(2, mockDownloadedFiles.size());
+		verifyAllStreamsClosedAndFilesDeleted();
+		ArgumentCaptor<String> entryCapture = ArgumentCaptor.forClass(String.class);
+		verify(mockBulkDownloadManager, times(2)).addFileToZip(any(ZipOutputStream.class),
+				any(File.class), entryCapture.capture());
+		assertEquals(Arrays.asList("1/1/foo.txt", "2/2/bar.txt"), entryCapture.getAllValues());
+		verify(mockBulkDownloadManager).addFileToZip(any(ZipOutputStream.class), eq(mockDownloadedFiles.get(0)), eq("1/1/foo.txt"));
+		verify(mockBulkDownloadManager).addFileToZip(any(ZipOutputStream.class), eq(mockDownloadedFiles.get(1)), eq("2/2/bar.txt"));
+		verify(mockBulkDownloadManager, times(1)).completeStreamUpload(any(MultipartUploadOutputStream.class));
+	}
+	
+	/**
+	 * With the read-ahead disabled each file is downloaded when it is added.
+	 * @throws Exception
+	 */
+	@Test
+	public void testRunPrefetchDisabled() throws Exception {
+		when(mockStackConfiguration.getBulkFileDownloadPrefetchMaxFiles()).thenReturn(0);
+		// call under test.
+		worker.run(mockProgress, message);
+		
+		assertEquals(1, mockDownloadedFiles.size());
+		verifyAllStreamsClosedAndFilesDeleted();
+		verify(mockBulkDownloadManager).addFileToZip(any(ZipOutputStream.class), eq(mockDownloadedFiles.get(0)), eq("1/1/foo.txt"));
+		verify(mockBulkDownloadManager, times(1)).completeStreamUpload(any(MultipartUploadOutputStream.class));
+	}
+
 	/**
 	 * Unknown failure occurs before or after each file is processed
 	 * should cause the job to fail.
@@ -570,9 +632,9 @@ public class BulkFileDownloadWorkerTest {
 	 * @throws IOException
 	 */
 	private void verifyAllStreamsClosedAndFilesDeleted() throws IOException {
-		// All created temp files should have been deleted.
-		for (File mockFile : mockTempFilesCreated) {
-			verify(mockFile).delete();
+		// All uploads should have been closed.
+		for (MultipartUploadOutputStream mockOut : mockResultOutCreated) {
+			verify(mockOut, atLeast(1)).close();
 		}
 		// All created output stream should have been closed.
 		for (ZipOutputStream mockOut : mockZipOutCreated) {
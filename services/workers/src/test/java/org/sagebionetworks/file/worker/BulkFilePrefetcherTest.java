@@ -0,0 +1,246 @@
+package org.sagebionetworks.file.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.sagebionetworks.file.worker.BulkFilePrefetcher.DownloadedFile;
+import org.sagebionetworks.file.worker.BulkFilePrefetcher.FileDownload;
+import org.sagebionetworks.repo.manager.file.FileHandleAssociationAuthorizationStatus;
+import org.sagebionetworks.repo.model.auth.AuthorizationStatus;
+import org.sagebionetworks.repo.model.file.FileConstants;
+import org.sagebionetworks.repo.model.file.FileDownloadCode;
+import org.sagebionetworks.repo.model.file.FileHandleAssociation;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
+import org.sagebionetworks.repo.web.NotFoundException;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkFilePrefetcherTest {
+
+	@Mock
+	FileHandleSupport mockFileHandleSupport;
+	@Mock
+	File mockFileOne;
+	@Mock
+	File mockFileTwo;
+	@Mock
+	File mockFileThree;
+
+	ExecutorService executor;
+	S3FileHandle handleOne;
+	S3FileHandle handleTwo;
+	S3FileHandle handleThree;
+	FileHandleAssociationAuthorizationStatus one;
+	FileHandleAssociationAuthorizationStatus two;
+	FileHandleAssociationAuthorizationStatus three;
+
+	@Before
+	public void before() throws Exception {
+		// downloads run on the calling thread.
+		executor = MoreExecutors.newDirectExecutorService();
+		handleOne = createHandle("1");
+		handleTwo = createHandle("2");
+		handleThree = createHandle("3");
+		one = createStatus("1", AuthorizationStatus.authorized());
+		two = createStatus("2", AuthorizationStatus.authorized());
+		three = createStatus("3", AuthorizationStatus.authorized());
+		when(mockFileHandleSupport.getS3FileHandle("1")).thenReturn(handleOne);
+		when(mockFileHandleSupport.getS3FileHandle("2")).thenReturn(handleTwo);
+		when(mockFileHandleSupport.getS3FileHandle("3")).thenReturn(handleThree);
+		when(mockFileHandleSupport.downloadToTempFile(handleOne)).thenReturn(mockFileOne);
+		when(mockFileHandleSupport.downloadToTempFile(handleTwo)).thenReturn(mockFileTwo);
+		when(mockFileHandleSupport.downloadToTempFile(handleThree)).thenReturn(mockFileThree);
+	}
+
+	static S3FileHandle createHandle(String id) {
+		S3FileHandle handle = new S3FileHandle();
+		handle.setId(id);
+		handle.setContentSize(10L);
+		return handle;
+	}
+
+	static FileHandleAssociationAuthorizationStatus createStatus(String fileHandleId, AuthorizationStatus status) {
+		FileHandleAssociation association = new FileHandleAssociation();
+		association.setFileHandleId(fileHandleId);
+		return new FileHandleAssociationAuthorizationStatus(association, status);
+	}
+
+	@Test
+	public void testNextInOrder() throws Exception {
+		BulkFilePrefetcher prefetcher = new BulkFilePrefetcher(mockFileHandleSupport, executor,
+				Arrays.asList(one, two, three), 1);
+		// call under test
+		FileDownload download = prefetcher.next();
+		// the next file is downloaded ahead of time.
+		verify(mockFileHandleSupport).downloadToTempFile(handleTwo);
+		verify(mockFileHandleSupport, never()).downloadToTempFile(handleThree);
+		DownloadedFile downloaded = download.get();
+		assertEquals(handleOne, downloaded.getFileHandle());
+		assertEquals(mockFileOne, downloaded.getFile());
+
+		download = prefetcher.next();
+		// moving to the next file deletes the previous.
+		verify(mockFileOne).delete();
+		assertEquals(mockFileTwo, download.get().getFile());
+		download = prefetcher.next();
+		assertEquals(mockFileThree, download.get().getFile());
+		prefetcher.close();
+		verify(mockFileTwo).delete();
+		verify(mockFileThree).delete();
+		// each file is only downloaded once.
+		verify(mockFileHandleSupport, times(1)).downloadToTempFile(handleOne);
+		verify(mockFileHandleSupport, times(1)).downloadToTempFile(handleTwo);
+		verify(mockFileHandleSupport, times(1)).downloadToTempFile(handleThree);
+	}
+
+	@Test
+	public void testNextPastEnd() throws Exception {
+		BulkFilePrefetcher prefetcher = new BulkFilePrefetcher(mockFileHandleSupport, executor,
+				Arrays.asList(one), 2);
+		assertNotNull(prefetcher.next());
+		try {
+			// call under test
+			prefetcher.next();
+			fail();
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testPrefetchDisabled() throws Exception {
+		BulkFilePrefetcher prefetcher = new BulkFilePrefetcher(mockFileHandleSupport, executor,
+				Arrays.asList(one, two), 0);
+		// call under test
+		FileDownload download = prefetcher.next();
+		verify(mockFileHandleSupport, never()).downloadToTempFile(any(S3FileHandle.class));
+		// downloaded on demand.
+		assertEquals(mockFileOne, download.get().getFile());
+		download.release();
+		verify(mockFileOne).delete();
+		prefetcher.close();
+		verify(mockFileHandleSupport, never()).downloadToTempFile(handleTwo);
+	}
+
+	@Test
+	public void testSkipUnauthorizedAndDuplicates() throws Exception {
+		FileHandleAssociationAuthorizationStatus denied = createStatus("2", AuthorizationStatus.accessDenied("no"));
+		FileHandleAssociationAuthorizationStatus duplicate = createStatus("1", AuthorizationStatus.authorized());
+		List<FileHandleAssociationAuthorizationStatus> files = Arrays.asList(one, denied, duplicate, three);
+		BulkFilePrefetcher prefetcher = new BulkFilePrefetcher(mockFileHandleSupport, executor, files, 5);
+		// call under test
+		prefetcher.next();
+		verify(mockFileHandleSupport, times(1)).downloadToTempFile(handleOne);
+		verify(mockFileHandleSupport, never()).downloadToTempFile(handleTwo);
+		verify(mockFileHandleSupport, times(1)).downloadToTempFile(handleThree);
+		prefetcher.close();
+		verify(mockFileOne).delete();
+		verify(mockFileThree).delete();
+	}
+
+	@Test
+	public void testFileTooLarge() throws Exception {
+		handleOne.setContentSize(FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES + 1);
+		BulkFilePrefetcher prefetcher = new BulkFilePrefetcher(mockFileHandleSupport, executor,
+				Arrays.asList(one), 1);
+		FileDownload download = prefetcher.next();
+		try {
+			// call under test
+			download.get();
+			fail();
+		} catch (BulkFileException e) {
+			assertEquals(FileDownloadCode.EXCEEDS_SIZE_LIMIT, e.getFailureCode());
+			assertEquals(BulkFileDownloadWorker.FILE_EXCEEDS_THE_MAXIMUM_SIZE_LIMIT, e.getMessage());
+		}
+		verify(mockFileHandleSupport, never()).downloadToTempFile(any(S3FileHandle.class));
+		prefetcher.close();
+	}
+
+	@Test
+	public void testNotFound() throws Exception {
+		NotFoundException exception = new NotFoundException("does not exist");
+		when(mockFileHandleSupport.getS3FileHandle("1")).thenThrow(exception);
+		BulkFilePrefetcher prefetcher = new BulkFilePrefetcher(mockFileHandleSupport, executor,
+				Arrays.asList(one), 1);
+		FileDownload download = prefetcher.next();
+		try {
+			// call under test
+			download.get();
+			fail();
+		} catch (NotFoundException e) {
+			// the original exception is thrown.
+			assertEquals(exception, e);
+		}
+		prefetcher.close();
+	}
+
+	@Test
+	public void testDownloadFinishedAfterRelease() throws Exception {
+		BulkFilePrefetcher prefetcher = new BulkFilePrefetcher(mockFileHandleSupport, executor,
+				Arrays.asList(one), 0);
+		FileDownload download = prefetcher.next();
+		download.release();
+		DownloadedFile downloaded = new DownloadedFile(handleTwo, mockFileTwo);
+		// call under test
+		download.onDownloaded(downloaded);
+		// nobody will use a file that finishes after the download was released.
+		verify(mockFileTwo).delete();
+		download.release();
+		verify(mockFileTwo, times(1)).delete();
+		prefetcher.close();
+	}
+
+	@Test
+	public void testStop() throws Exception {
+		BulkFilePrefetcher prefetcher = new BulkFilePrefetcher(mockFileHandleSupport, executor,
+				Arrays.asList(one, two, three), 1);
+		prefetcher.next();
+		verify(mockFileHandleSupport).downloadToTempFile(handleTwo);
+		// call under test
+		prefetcher.stop();
+		// the file downloaded ahead of time is deleted.
+		verify(mockFileTwo).delete();
+		FileDownload download = prefetcher.next();
+		// a file can still be downloaded on demand.
+		assertEquals(mockFileTwo, download.get().getFile());
+		verify(mockFileHandleSupport, times(2)).downloadToTempFile(handleTwo);
+		prefetcher.next();
+		// nothing more is downloaded ahead of time.
+		verify(mockFileHandleSupport, never()).getS3FileHandle("3");
+		prefetcher.close();
+	}
+
+	@Test
+	public void testCloseBeforeNext() throws Exception {
+		BulkFilePrefetcher prefetcher = new BulkFilePrefetcher(mockFileHandleSupport, executor,
+				Arrays.asList(one, two), 2);
+		// call under test
+		prefetcher.close();
+		// nothing was started.
+		verify(mockFileHandleSupport, never()).downloadToTempFile(any(S3FileHandle.class));
+		try {
+			prefetcher.next();
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+}
@@ -75,7 +75,7 @@ public class FileHandleSupportImplTest {
 			IOUtils.write(twoContents, twoOut);
 			// The output zip
 			zip = bulkDownloadDao.createTempFile("Zip", ".zip");
-			zipOut = bulkDownloadDao.createZipOutputStream(zip);
+			zipOut = bulkDownloadDao.createZipOutputStream(new FileOutputStream(zip));
 			
 			// add the files to the zip.
 			String entryNameOne = "p1/One.txt";
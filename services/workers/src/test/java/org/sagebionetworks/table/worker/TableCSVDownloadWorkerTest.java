@@ -7,6 +7,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -20,11 +21,14 @@ import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
+import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.manager.UserManager;
 import org.sagebionetworks.repo.manager.asynch.AsynchJobStatusManager;
 import org.sagebionetworks.repo.manager.file.FileHandleManager;
 import org.sagebionetworks.repo.manager.file.LocalFileUploadRequest;
+import org.sagebionetworks.repo.manager.file.MultipartUploadOutputStream;
+import org.sagebionetworks.repo.manager.file.StreamUploadRequest;
 import org.sagebionetworks.repo.manager.table.TableQueryManager;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.asynch.AsynchronousJobStatus;
@@ -60,12 +64,18 @@ public class TableCSVDownloadWorkerTest {
 	private Clock mockClock;
 	@Mock
 	private TableExceptionTranslator mockTableExceptionTranslator;
+	@Mock
+	private StackConfiguration mockStackConfiguration;
+	@Mock
+	private MultipartUploadOutputStream mockUploadStream;
 
 	@Mock
 	ProgressCallback mockProgressCallback;
 	
 	@Captor
 	ArgumentCaptor<LocalFileUploadRequest> fileUploadCaptor;
+	@Captor
+	ArgumentCaptor<StreamUploadRequest> streamUploadCaptor;
 
 	@InjectMocks
 	TableCSVDownloadWorker worker;
@@ -80,6 +90,7 @@ public class TableCSVDownloadWorkerTest {
 	DownloadFromTableResult results;
 
 	RuntimeException translatedException;
+	S3FileHandle fileHandle;
 
 	@Before
 	public void before() throws Exception {
@@ -121,7 +132,7 @@ public class TableCSVDownloadWorkerTest {
 			}
 		}).when(mockTableExceptionTranslator).translateException(any(Throwable.class));
 		
-		S3FileHandle fileHandle = new S3FileHandle();
+		fileHandle = new S3FileHandle();
 		fileHandle.setId("8888");
 		when(mockFileHandleManager.multipartUploadLocalFile(any(LocalFileUploadRequest.class))).thenReturn(fileHandle);
 
@@ -201,4 +212,39 @@ public class TableCSVDownloadWorkerTest {
 		// The translated exception should be set
 		verify(mockAsynchJobStatusManager).setJobFailed(jobId, translatedException);
 	}
+
+	@Test
+	public void testStreamToS3() throws Exception {
+		when(mockStackConfiguration.getTableCsvDownloadStreamingEnabled()).thenReturn(true);
+		when(mockFileHandleManager.startStreamUpload(any(StreamUploadRequest.class))).thenReturn(mockUploadStream);
+		when(mockFileHandleManager.completeStreamUpload(mockUploadStream)).thenReturn(fileHandle);
+		// call under test
+		worker.run(mockProgressCallback, message);
+		verify(mockAsynchJobStatusManager).setComplete(jobId, results);
+		assertEquals("8888", results.getResultsFileHandleId());
+		verify(mockFileHandleManager).startStreamUpload(streamUploadCaptor.capture());
+		StreamUploadRequest uploadRequest = streamUploadCaptor.getValue();
+		assertEquals(userInfo.getId().toString(), uploadRequest.getUserId());
+		assertEquals("text/csv", uploadRequest.getContentType());
+		assertEquals("Job-1.csv", uploadRequest.getFileName());
+		verify(mockFileHandleManager).completeStreamUpload(mockUploadStream);
+		verify(mockUploadStream).close();
+		// nothing is written to a local file.
+		verify(mockFileHandleManager, never()).multipartUploadLocalFile(any(LocalFileUploadRequest.class));
+	}
+
+	@Test
+	public void testStreamToS3QueryFailed() throws Exception {
+		when(mockStackConfiguration.getTableCsvDownloadStreamingEnabled()).thenReturn(true);
+		when(mockFileHandleManager.startStreamUpload(any(StreamUploadRequest.class))).thenReturn(mockUploadStream);
+		TableFailedException exception = new TableFailedException(new TableStatus());
+		when(mockTableQueryManager.runQueryDownloadAsStream(any(ProgressCallback.class), any(UserInfo.class),
+				any(DownloadFromTableRequest.class), any(CSVWriterStream.class))).thenThrow(exception);
+		// call under test
+		worker.run(mockProgressCallback, message);
+		verify(mockAsynchJobStatusManager).setJobFailed(jobId, exception);
+		verify(mockFileHandleManager, never()).completeStreamUpload(any(MultipartUploadOutputStream.class));
+		// closing the stream without completing it aborts the upload.
+		verify(mockUploadStream).close();
+	}
 }
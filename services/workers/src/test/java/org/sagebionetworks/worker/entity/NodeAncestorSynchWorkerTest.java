@@ -0,0 +1,187 @@
+package org.sagebionetworks.worker.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.cloudwatch.WorkerLogger;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.repo.model.StackStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.NodeAncestorDao;
+import org.sagebionetworks.repo.model.dbo.persistence.DBONodeAncestorSynchStatus;
+import org.sagebionetworks.util.Clock;
+
+@ExtendWith(MockitoExtension.class)
+public class NodeAncestorSynchWorkerTest {
+
+	@Mock
+	NodeAncestorDao mockNodeAncestorDao;
+	@Mock
+	StackStatusDao mockStackStatusDao;
+	@Mock
+	StackConfiguration mockConfiguration;
+	@Mock
+	WorkerLogger mockWorkerLogger;
+	@Mock
+	Clock mockClock;
+	@Mock
+	ProgressCallback mockProgressCallback;
+
+	@InjectMocks
+	NodeAncestorSynchWorker worker;
+
+	DBONodeAncestorSynchStatus status;
+
+	@BeforeEach
+	public void before() {
+		status = new DBONodeAncestorSynchStatus();
+		status.setId(DBONodeAncestorSynchStatus.STATUS_ID);
+		status.setNextNodeId(0L);
+		status.setPassRepairedCount(0L);
+	}
+
+	DBONodeAncestorSynchStatus captureStatus() {
+		ArgumentCaptor<DBONodeAncestorSynchStatus> captor = ArgumentCaptor.forClass(DBONodeAncestorSynchStatus.class);
+		verify(mockNodeAncestorDao).setSynchStatus(captor.capture());
+		return captor.getValue();
+	}
+
+	@Test
+	public void testRunNotReadWrite() throws Exception {
+		when(mockStackStatusDao.isStackReadWrite()).thenReturn(false);
+		// call under test
+		worker.run(mockProgressCallback);
+		verifyZeroInteractions(mockNodeAncestorDao);
+		verifyZeroInteractions(mockWorkerLogger);
+	}
+
+	@Test
+	public void testRunPartialPass() throws Exception {
+		when(mockStackStatusDao.isStackReadWrite()).thenReturn(true);
+		when(mockConfiguration.getStackInstance()).thenReturn("instance1");
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		when(mockNodeAncestorDao.getSynchStatus()).thenReturn(status);
+		when(mockNodeAncestorDao.getMaxNodeId()).thenReturn(100000L);
+		when(mockNodeAncestorDao.synchronizeRange(anyLong(), anyLong())).thenReturn(2L, 0L);
+		// call under test
+		worker.run(mockProgressCallback);
+		verify(mockNodeAncestorDao, times(NodeAncestorSynchWorker.PAGES_PER_RUN)).synchronizeRange(anyLong(),
+				anyLong());
+		verify(mockNodeAncestorDao).synchronizeRange(0L, 999L);
+		verify(mockNodeAncestorDao).synchronizeRange(9000L, 9999L);
+		ArgumentCaptor<ProfileData> captor = ArgumentCaptor.forClass(ProfileData.class);
+		verify(mockWorkerLogger).logCustomMetric(captor.capture());
+		ProfileData metric = captor.getValue();
+		assertEquals("Node-Ancestor-Synch-instance1", metric.getNamespace());
+		assertEquals(NodeAncestorSynchWorker.METRIC_REPAIRED_COUNT, metric.getName());
+		assertEquals(2.0, metric.getValue().doubleValue());
+		// the position of the pass is saved for the next run.
+		DBONodeAncestorSynchStatus saved = captureStatus();
+		assertEquals(10000L, saved.getNextNodeId());
+		assertEquals(2L, saved.getPassRepairedCount());
+		assertEquals(1000L, saved.getPassStartedOn());
+		assertNull(saved.getFullPassCompletedOn());
+	}
+
+	@Test
+	public void testRunContinuesSavedPass() throws Exception {
+		when(mockStackStatusDao.isStackReadWrite()).thenReturn(true);
+		when(mockConfiguration.getStackInstance()).thenReturn("instance1");
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		// a run on any machine continues where the last run stopped.
+		status.setNextNodeId(10000L);
+		status.setPassStartedOn(500L);
+		status.setPassRepairedCount(2L);
+		when(mockNodeAncestorDao.getSynchStatus()).thenReturn(status);
+		when(mockNodeAncestorDao.getMaxNodeId()).thenReturn(100000L);
+		when(mockNodeAncestorDao.synchronizeRange(anyLong(), anyLong())).thenReturn(1L, 0L);
+		// call under test
+		worker.run(mockProgressCallback);
+		verify(mockNodeAncestorDao).synchronizeRange(10000L, 10999L);
+		verify(mockNodeAncestorDao, never()).synchronizeRange(0L, 999L);
+		DBONodeAncestorSynchStatus saved = captureStatus();
+		assertEquals(20000L, saved.getNextNodeId());
+		assertEquals(3L, saved.getPassRepairedCount());
+		assertEquals(500L, saved.getPassStartedOn());
+	}
+
+	@Test
+	public void testRunFullPass() throws Exception {
+		when(mockStackStatusDao.isStackReadWrite()).thenReturn(true);
+		when(mockConfiguration.getStackInstance()).thenReturn("instance1");
+		when(mockClock.currentTimeMillis()).thenReturn(1000L, 1500L);
+		when(mockNodeAncestorDao.getSynchStatus()).thenReturn(status);
+		when(mockNodeAncestorDao.getMaxNodeId()).thenReturn(1500L);
+		when(mockNodeAncestorDao.synchronizeRange(anyLong(), anyLong())).thenReturn(1L, 3L);
+		// call under test
+		worker.run(mockProgressCallback);
+		verify(mockNodeAncestorDao).synchronizeRange(0L, 999L);
+		verify(mockNodeAncestorDao).synchronizeRange(1000L, 1999L);
+		verify(mockNodeAncestorDao, never()).synchronizeRange(2000L, 2999L);
+		ArgumentCaptor<ProfileData> captor = ArgumentCaptor.forClass(ProfileData.class);
+		verify(mockWorkerLogger, times(3)).logCustomMetric(captor.capture());
+		List<ProfileData> metrics = captor.getAllValues();
+		assertEquals(4.0, metrics.get(0).getValue().doubleValue());
+		assertEquals(NodeAncestorSynchWorker.METRIC_FULL_PASS_REPAIRED_COUNT, metrics.get(1).getName());
+		assertEquals(4.0, metrics.get(1).getValue().doubleValue());
+		assertEquals(NodeAncestorSynchWorker.METRIC_FULL_PASS_ELAPSE, metrics.get(2).getName());
+		assertEquals(500.0, metrics.get(2).getValue().doubleValue());
+		// a pass that repaired nodes is not recorded as complete and the next run starts a new pass.
+		DBONodeAncestorSynchStatus saved = captureStatus();
+		assertNull(saved.getFullPassCompletedOn());
+		assertEquals(0L, saved.getNextNodeId());
+		assertEquals(0L, saved.getPassRepairedCount());
+		assertNull(saved.getPassStartedOn());
+	}
+
+	@Test
+	public void testRunFullPassNothingRepaired() throws Exception {
+		when(mockStackStatusDao.isStackReadWrite()).thenReturn(true);
+		when(mockConfiguration.getStackInstance()).thenReturn("instance1");
+		when(mockClock.currentTimeMillis()).thenReturn(1000L, 1500L);
+		when(mockNodeAncestorDao.getSynchStatus()).thenReturn(status);
+		when(mockNodeAncestorDao.getMaxNodeId()).thenReturn(1500L);
+		when(mockNodeAncestorDao.synchronizeRange(anyLong(), anyLong())).thenReturn(0L);
+		// call under test
+		worker.run(mockProgressCallback);
+		// the completed pass is recorded and the next run starts a new pass.
+		DBONodeAncestorSynchStatus saved = captureStatus();
+		assertEquals(1500L, saved.getFullPassCompletedOn());
+		assertEquals(0L, saved.getNextNodeId());
+		assertEquals(0L, saved.getPassRepairedCount());
+		assertNull(saved.getPassStartedOn());
+	}
+
+	@Test
+	public void testRunRepairKeepsFullPassCleared() throws Exception {
+		when(mockStackStatusDao.isStackReadWrite()).thenReturn(true);
+		when(mockConfiguration.getStackInstance()).thenReturn("instance1");
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		status.setFullPassCompletedOn(500L);
+		when(mockNodeAncestorDao.getSynchStatus()).thenReturn(status);
+		when(mockNodeAncestorDao.getMaxNodeId()).thenReturn(100000L);
+		when(mockNodeAncestorDao.synchronizeRange(anyLong(), anyLong())).thenReturn(1L, 0L);
+		// call under test
+		worker.run(mockProgressCallback);
+		// the marker cleared by the repair is not written back.
+		DBONodeAncestorSynchStatus saved = captureStatus();
+		assertNull(saved.getFullPassCompletedOn());
+		assertEquals(1L, saved.getPassRepairedCount());
+	}
+}